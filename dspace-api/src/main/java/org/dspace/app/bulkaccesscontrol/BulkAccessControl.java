@@ -347,13 +347,11 @@ public class BulkAccessControl extends DSpaceRunnable<BulkAccessControlScriptCon
     private void updateItemsAndBitstreamsPolices(BulkAccessControlInput accessControl)
         throws SQLException, SearchServiceException, AuthorizeException {
 
-        int counter = 0;
-        int start = 0;
         int limit = 20;
 
         String query = buildSolrQuery(uuids);
 
-        Iterator<Item> itemIterator = findItems(query, start, limit);
+        Iterator<Item> itemIterator = findItems(query, limit);
 
         while (itemIterator.hasNext()) {
 
@@ -369,13 +367,6 @@ public class BulkAccessControl extends DSpaceRunnable<BulkAccessControlScriptCon
 
             context.commit();
             context.uncacheEntity(item);
-            counter++;
-
-            if (counter == limit) {
-                counter = 0;
-                start += limit;
-                itemIterator = findItems(query, start, limit);
-            }
         }
     }
 
@@ -396,26 +387,22 @@ public class BulkAccessControl extends DSpaceRunnable<BulkAccessControlScriptCon
         return StringUtils.joinWith(" OR ", query);
     }
 
-    private Iterator<Item> findItems(String query, int start, int limit)
+    private Iterator<Item> findItems(String query, int limit)
         throws SearchServiceException {
 
-        DiscoverQuery discoverQuery = buildDiscoveryQuery(query, start, limit);
+        DiscoverQuery discoverQuery = buildDiscoveryQuery(query, limit);
 
-        return searchService.search(context, discoverQuery)
-                            .getIndexableObjects()
-                            .stream()
-                            .map(indexableObject ->
-                                ((IndexableItem) indexableObject).getIndexedObject())
-                            .collect(Collectors.toList())
-                            .iterator();
+        // the items are walked with a cursor, ordered by their unique id, so that the changes made to the items
+        // while walking through them do not change the order of the next ones
+        return searchService.iteratorSearch(context, null, discoverQuery);
     }
 
-    private DiscoverQuery buildDiscoveryQuery(String query, int start, int limit) {
+    private DiscoverQuery buildDiscoveryQuery(String query, int limit) {
         DiscoverQuery discoverQuery = new DiscoverQuery();
         discoverQuery.setDSpaceObjectFilter(IndexableItem.TYPE);
         discoverQuery.setQuery(query);
-        discoverQuery.setStart(start);
         discoverQuery.setMaxResults(limit);
+        discoverQuery.setSortField(SearchUtils.RESOURCE_UNIQUE_ID, DiscoverQuery.SORT_ORDER.asc);
 
         return discoverQuery;
     }
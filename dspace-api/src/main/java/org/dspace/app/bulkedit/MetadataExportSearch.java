@@ -44,6 +44,10 @@ import org.dspace.utils.DSpace;
  */
 public class MetadataExportSearch extends DSpaceRunnable<MetadataExportSearchScriptConfiguration> {
     private static final String EXPORT_CSV = "exportCSV";
+    /**
+     * Number of items read at once from the search results, capped by "rest.search.max.results"
+     */
+    private static final int PAGE_SIZE = 100;
     private boolean help = false;
     private String identifier;
     private String discoveryConfigName;
@@ -138,7 +142,7 @@ public class MetadataExportSearch extends DSpaceRunnable<MetadataExportSearchScr
         handler.logDebug("building query");
         DiscoverQuery discoverQuery =
             queryBuilder.buildQuery(context, dso, discoveryConfiguration, query, queryBuilderSearchFilters,
-            "Item", 10, Long.getLong("0"), null, SortOption.DESCENDING);
+            "Item", PAGE_SIZE, Long.getLong("0"), null, SortOption.DESCENDING);
         handler.logDebug("creating iterator");
 
         Iterator<Item> itemIterator = searchService.iteratorSearch(context, dso, discoverQuery);
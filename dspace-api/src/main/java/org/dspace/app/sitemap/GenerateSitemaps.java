@@ -180,7 +180,7 @@ public class GenerateSitemaps {
         }
 
         Context c = new Context(Context.Mode.READ_ONLY);
-        int offset = 0;
+        String cursorMark;
         long commsCount = 0;
         long collsCount = 0;
         long itemsCount = 0;
@@ -189,9 +189,11 @@ public class GenerateSitemaps {
             DiscoverQuery discoveryQuery = new DiscoverQuery();
             discoveryQuery.setMaxResults(PAGE_SIZE);
             discoveryQuery.setQuery("search.resourcetype:Community");
+            discoveryQuery.setCursorMark(DiscoverQuery.CURSOR_MARK_START);
+            DiscoverResult discoverResult;
             do {
-                discoveryQuery.setStart(offset);
-                DiscoverResult discoverResult = searchService.search(c, discoveryQuery);
+                cursorMark = discoveryQuery.getCursorMark();
+                discoverResult = searchService.search(c, discoveryQuery);
                 List<IndexableObject> docs = discoverResult.getIndexableObjects();
                 commsCount = discoverResult.getTotalSearchResults();
 
@@ -206,16 +208,16 @@ public class GenerateSitemaps {
                         sitemapsOrg.addURL(url, null);
                     }
                 }
-                offset += PAGE_SIZE;
-            } while (offset < commsCount);
+                discoveryQuery.setCursorMark(discoverResult.getNextCursorMark());
+            } while (hasNextPage(discoveryQuery, cursorMark));
 
-            offset = 0;
             discoveryQuery = new DiscoverQuery();
             discoveryQuery.setMaxResults(PAGE_SIZE);
             discoveryQuery.setQuery("search.resourcetype:Collection");
+            discoveryQuery.setCursorMark(DiscoverQuery.CURSOR_MARK_START);
             do {
-                discoveryQuery.setStart(offset);
-                DiscoverResult discoverResult = searchService.search(c, discoveryQuery);
+                cursorMark = discoveryQuery.getCursorMark();
+                discoverResult = searchService.search(c, discoveryQuery);
                 List<IndexableObject> docs = discoverResult.getIndexableObjects();
                 collsCount = discoverResult.getTotalSearchResults();
 
@@ -230,18 +232,17 @@ public class GenerateSitemaps {
                         sitemapsOrg.addURL(url, null);
                     }
                 }
-                offset += PAGE_SIZE;
-            } while (offset < collsCount);
+                discoveryQuery.setCursorMark(discoverResult.getNextCursorMark());
+            } while (hasNextPage(discoveryQuery, cursorMark));
 
-            offset = 0;
             discoveryQuery = new DiscoverQuery();
             discoveryQuery.setMaxResults(PAGE_SIZE);
             discoveryQuery.setQuery("search.resourcetype:Item");
             discoveryQuery.addSearchField("search.entitytype");
+            discoveryQuery.setCursorMark(DiscoverQuery.CURSOR_MARK_START);
             do {
-
-                discoveryQuery.setStart(offset);
-                DiscoverResult discoverResult = searchService.search(c, discoveryQuery);
+                cursorMark = discoveryQuery.getCursorMark();
+                discoverResult = searchService.search(c, discoveryQuery);
                 List<IndexableObject> docs = discoverResult.getIndexableObjects();
                 itemsCount = discoverResult.getTotalSearchResults();
 
@@ -264,8 +265,8 @@ public class GenerateSitemaps {
                         sitemapsOrg.addURL(url, null);
                     }
                 }
-                offset += PAGE_SIZE;
-            } while (offset < itemsCount);
+                discoveryQuery.setCursorMark(discoverResult.getNextCursorMark());
+            } while (hasNextPage(discoveryQuery, cursorMark));
 
             if (makeHTMLMap) {
                 int files = html.finish();
@@ -288,4 +289,12 @@ public class GenerateSitemaps {
             c.abort();
         }
     }
+
+    /**
+     * Whether the walk through the results of the query continues: it ends when the cursor mark of the next page
+     * is the cursor mark of the page just read.
+     */
+    private static boolean hasNextPage(DiscoverQuery discoveryQuery, String cursorMark) {
+        return discoveryQuery.getCursorMark() != null && !discoveryQuery.getCursorMark().equals(cursorMark);
+    }
 }
@@ -13,6 +13,12 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -21,9 +27,13 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -313,6 +323,12 @@ public class LogAnalyser {
      */
     private static LocalDate logEndDate = null;
 
+    /**
+     * the size (in bytes) under which the ranges of lines of a log file are
+     * not split any further when analysing the logs with several threads
+     */
+    static long splitSize = 16 * 1024 * 1024;
+
     /**
      * Default constructor
      */
@@ -372,6 +388,9 @@ public class LogAnalyser {
         option = Option.builder().longOpt("lookup").build();
         options.addOption(option);
 
+        option = Option.builder().longOpt("threads").hasArg().build();
+        options.addOption(option);
+
         // Parse the command.
         DefaultParser cmdParser = new DefaultParser();
         CommandLine cmd = cmdParser.parse(options, argv);
@@ -408,9 +427,19 @@ public class LogAnalyser {
 
         myLookUp = cmd.hasOption("lookup");
 
+        int myThreads = 0;
+        if (cmd.hasOption("threads")) {
+            try {
+                myThreads = Integer.parseInt(cmd.getOptionValue("threads"));
+            } catch (NumberFormatException e) {
+                System.out.println("The number of threads is not a number");
+                System.exit(0);
+            }
+        }
+
         // now call the method which actually processes the logs
         processLogs(context, myLogDir, myFileTemplate, myConfigFile, myOutFile,
-                myStartDate, myEndDate, myLookUp);
+                myStartDate, myEndDate, myLookUp, myThreads);
     }
 
     /**
@@ -435,6 +464,36 @@ public class LogAnalyser {
                                      String myOutFile, LocalDate myStartDate,
                                      LocalDate myEndDate, boolean myLookUp)
         throws IOException, SQLException, SearchServiceException {
+        return processLogs(context, myLogDir, myFileTemplate, myConfigFile, myOutFile, myStartDate, myEndDate,
+                           myLookUp, 0);
+    }
+
+    /**
+     * using the pre-configuration information passed here, analyse the logs
+     * and produce the aggregation file, with several threads if requested.
+     * The output is the same whatever the number of threads.
+     *
+     * @param context        the DSpace context object this occurs under
+     * @param myLogDir       the passed log directory.  Uses default if null
+     * @param myFileTemplate the passed file name regex.  Uses default if null
+     * @param myConfigFile   the DStat config file.  Uses default if null
+     * @param myOutFile      the file to which to output aggregation data.  Uses default if null
+     * @param myStartDate    the desired start of the analysis.  Starts from the beginning otherwise
+     * @param myEndDate      the desired end of the analysis.  Goes to the end otherwise
+     * @param myLookUp       force a lookup of the database
+     * @param myThreads      the number of threads analysing the log files, which are memory mapped and split in
+     *                       ranges of lines.  The log files are read one after another by the calling thread if
+     *                       it is lower than 2
+     * @return aggregate output
+     * @throws IOException            if IO error
+     * @throws SQLException           if database error
+     * @throws SearchServiceException if search error
+     */
+    public static String processLogs(Context context, String myLogDir,
+                                     String myFileTemplate, String myConfigFile,
+                                     String myOutFile, LocalDate myStartDate,
+                                     LocalDate myEndDate, boolean myLookUp, int myThreads)
+        throws IOException, SQLException, SearchServiceException {
         // FIXME: perhaps we should have all parameters and aggregators put
         // together in a single aggregating object
 
@@ -448,6 +507,14 @@ public class LogAnalyser {
         itemAggregator = new HashMap<>();
         archiveStats = new HashMap<>();
 
+        // reset the counters, in case the logs were already analysed in this JVM
+        warnCount = 0;
+        excCount = 0;
+        lineCount = 0;
+        views = 0;
+        logStartDate = null;
+        logEndDate = null;
+
         //instantiate lists
         generalSummary = new ArrayList<>();
         excludeWords = new ArrayList<>();
@@ -458,10 +525,6 @@ public class LogAnalyser {
         // set the parameters for this analysis
         setParameters(myLogDir, myFileTemplate, myConfigFile, myOutFile, myStartDate, myEndDate, myLookUp);
 
-        // pre prepare our standard file readers and buffered readers
-        FileReader fr = null;
-        BufferedReader br = null;
-
         // read in the config information, throwing an error if we fail to open
         // the given config file
         readConfig(configFile);
@@ -472,9 +535,14 @@ public class LogAnalyser {
 
         // get the log files
         File[] logFiles = getLogFiles(logDir);
-
-        // standard loop counter
-        int i = 0;
+        List<File> matchingFiles = new ArrayList<>();
+        for (File logFile : logFiles) {
+            // check to see if this file is a log file against the global regex
+            Matcher matchRegex = logRegex.matcher(logFile.getName());
+            if (matchRegex.matches()) {
+                matchingFiles.add(logFile);
+            }
+        }
 
         // for every log file do analysis
         // FIXME: it is easy to implement not processing log files after the
@@ -482,131 +550,29 @@ public class LogAnalyser {
         // for the start of the file?  Note that we can assume that the contents
         // of the log file are sequential, but can we assume the files are
         // provided in a data sequence?
-        for (i = 0; i < logFiles.length; i++) {
-            // check to see if this file is a log file against the global regex
-            Matcher matchRegex = logRegex.matcher(logFiles[i].getName());
-            if (matchRegex.matches()) {
-                // if it is a log file, open it up and lets have a look at the
-                // contents.
-                try {
-                    fr = new FileReader(logFiles[i].toString());
-                    br = new BufferedReader(fr);
-                } catch (IOException e) {
-                    System.out.println("Failed to read log file " + logFiles[i].toString());
-                    System.exit(0);
-                }
+        List<List<Aggregate>> aggregates;
+        if (myThreads > 1) {
+            aggregates = analyseInParallel(matchingFiles, myThreads);
+        } else {
+            aggregates = new ArrayList<>();
+            for (File logFile : matchingFiles) {
+                aggregates.add(List.of(analyseFile(logFile)));
+            }
+        }
 
-                // for each line in the file do the analysis
-                // FIXME: perhaps each section needs to be dolled out to an
-                // analysing class to allow pluggability of other methods of
-                // analysis, and ease of code reading too - Pending further thought
-                String line = null;
-                while ((line = br.readLine()) != null) {
-                    // get the log line object
-                    LogLine logLine = getLogLine(line);
-
-                    // if there are line segments get on with the analysis
-                    if (logLine != null) {
-                        // first find out if we are constraining by date and
-                        // if so apply the restrictions
-                        if ((startDate != null) && (!logLine.afterDate(startDate))) {
-                            continue;
-                        }
-
-                        if ((endDate != null) && (!logLine.beforeDate(endDate))) {
-                            break;
-                        }
-
-                        // count the number of lines parsed
-                        lineCount++;
-
-                        // if we are not constrained by date, register the date
-                        // as the start/end date if it is the earliest/latest so far
-                        // FIXME: this should probably have a method of its own
-                        if (startDate == null) {
-                            if (logStartDate != null) {
-                                if (logLine.beforeDate(logStartDate)) {
-                                    logStartDate = logLine.getDate();
-                                }
-                            } else {
-                                logStartDate = logLine.getDate();
-                            }
-                        }
-
-                        if (endDate == null) {
-                            if (logEndDate != null) {
-                                if (logLine.afterDate(logEndDate)) {
-                                    logEndDate = logLine.getDate();
-                                }
-                            } else {
-                                logEndDate = logLine.getDate();
-                            }
-                        }
-
-                        // count the warnings
-                        if (logLine.isLevel("WARN")) {
-                            // FIXME: really, this ought to be some kind of level
-                            // aggregator
-                            warnCount++;
-                        }
-                        // count the exceptions
-                        if (logLine.isLevel("ERROR")) {
-                            excCount++;
-                        }
-
-                        if (null == logLine.getAction()) {
-                            continue;
-                        }
-
-                        // is the action a search?
-                        if (logLine.isAction("search")) {
-                            // get back all the valid search words from the query
-                            String[] words = analyseQuery(logLine.getParams());
-
-                            // for each search word add to the aggregator or
-                            // increment the aggregator's counter
-                            for (String word : words) {
-                                // FIXME: perhaps aggregators ought to be objects
-                                // themselves
-                                searchAggregator.put(word,
-                                        increment(searchAggregator, word));
-                            }
-                        }
-
-                        // is the action a login, and are we counting user logins?
-                        if (logLine.isAction("login") && !userEmail.equals("off")) {
-                            userAggregator.put(logLine.getUser(), increment(userAggregator, logLine.getUser()));
-                        }
-
-                        // is the action an item view?
-                        if (logLine.isAction("view_item")) {
-                            String handle = logLine.getParams();
-
-                            // strip the handle string
-                            Matcher matchHandle = handleRX.matcher(handle);
-                            handle = matchHandle.replaceAll("");
-
-                            // strip the item id string
-                            Matcher matchItem = itemRX.matcher(handle);
-                            handle = matchItem.replaceAll("").trim();
-
-                            // either add the handle to the aggregator or
-                            // increment its counter
-                            itemAggregator.put(handle, increment(itemAggregator, handle));
-                        }
-
-                        // log all the activity
-                        actionAggregator.put(logLine.getAction(), increment(actionAggregator, logLine.getAction()));
-                    }
+        // merge the aggregates in the order of the files and of the lines, so
+        // that the keys are added to the aggregators in the order they are met
+        for (List<Aggregate> fileAggregates : aggregates) {
+            for (Aggregate aggregate : fileAggregates) {
+                merge(aggregate);
+                // the rest of the file is after the end date
+                if (aggregate.ended) {
+                    break;
                 }
-
-                // close the file reading buffers
-                br.close();
-                fr.close();
-
             }
         }
 
+        int i;
         // do we want to do a database lookup?  Do so only if the start and
         // end dates are null or lookUp is true
         // FIXME: this is a kind of separate section.  Would it be worth building
@@ -639,6 +605,189 @@ public class LogAnalyser {
         return createOutput();
     }
 
+    /**
+     * Analyse a log file one line after another.
+     *
+     * @param logFile the log file
+     * @return the aggregate of the lines of the file
+     * @throws IOException if IO error
+     */
+    private static Aggregate analyseFile(File logFile) throws IOException {
+        Aggregate aggregate = new Aggregate();
+        LineMatcher matcher = new LineMatcher();
+        // if it is a log file, open it up and lets have a look at the
+        // contents.
+        FileReader fr = null;
+        try {
+            fr = new FileReader(logFile.toString());
+        } catch (IOException e) {
+            System.out.println("Failed to read log file " + logFile.toString());
+            System.exit(0);
+        }
+
+        try (BufferedReader br = new BufferedReader(fr)) {
+            String line = null;
+            while ((line = br.readLine()) != null) {
+                if (!analyseLine(line, matcher, aggregate)) {
+                    break;
+                }
+            }
+        }
+        return aggregate;
+    }
+
+    /**
+     * Analyse the log files with a fork/join pool.  Each file is memory mapped
+     * and split in ranges of lines, down to {@link #splitSize} bytes, which are
+     * analysed independently.
+     *
+     * @param logFiles the log files
+     * @param threads  the parallelism of the pool
+     * @return the aggregates of each file, in the order of the ranges of lines
+     * @throws IOException if IO error
+     */
+    private static List<List<Aggregate>> analyseInParallel(List<File> logFiles, int threads)
+        throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<FileChannel> channels = new ArrayList<>();
+        try {
+            List<ForkJoinTask<List<Aggregate>>> tasks = new ArrayList<>();
+            for (File logFile : logFiles) {
+                FileChannel channel = null;
+                try {
+                    channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+                } catch (IOException e) {
+                    System.out.println("Failed to read log file " + logFile.toString());
+                    System.exit(0);
+                }
+                channels.add(channel);
+                tasks.add(pool.submit(new RangeTask(channel, 0, channel.size())));
+            }
+
+            List<List<Aggregate>> aggregates = new ArrayList<>();
+            for (ForkJoinTask<List<Aggregate>> task : tasks) {
+                try {
+                    aggregates.add(task.join());
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            return aggregates;
+        } finally {
+            pool.shutdownNow();
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Analyse a single line of a log file, and add it to the given aggregate.
+     *
+     * @param line      the line
+     * @param matcher   the matcher of the lines
+     * @param aggregate the aggregate of the lines analysed so far
+     * @return false if the line is after the end date, in which case the rest
+     * of the file is not analysed
+     */
+    private static boolean analyseLine(String line, LineMatcher matcher, Aggregate aggregate) {
+        // get the log line object
+        LogLine logLine = matcher.getLogLine(line);
+
+        // if there are line segments get on with the analysis
+        if (logLine == null) {
+            return true;
+        }
+
+        // first find out if we are constraining by date and
+        // if so apply the restrictions
+        if ((startDate != null) && (!logLine.afterDate(startDate))) {
+            return true;
+        }
+
+        if ((endDate != null) && (!logLine.beforeDate(endDate))) {
+            aggregate.ended = true;
+            return false;
+        }
+
+        // count the number of lines parsed
+        aggregate.lines++;
+
+        // register the date as the start/end date if it is the earliest/latest
+        // so far
+        if (aggregate.firstDate == null || logLine.beforeDate(aggregate.firstDate)) {
+            aggregate.firstDate = logLine.getDate();
+        }
+        if (aggregate.lastDate == null || logLine.afterDate(aggregate.lastDate)) {
+            aggregate.lastDate = logLine.getDate();
+        }
+
+        // count the warnings
+        if (logLine.isLevel("WARN")) {
+            aggregate.warnings++;
+        }
+        // count the exceptions
+        if (logLine.isLevel("ERROR")) {
+            aggregate.exceptions++;
+        }
+
+        if (null == logLine.getAction()) {
+            return true;
+        }
+
+        // is the action a search?
+        if (logLine.isAction("search")) {
+            // get back all the valid search words from the query, and add
+            // each of them to the aggregator
+            for (String word : matcher.analyseQuery(logLine.getParams())) {
+                aggregate.searches.merge(word, 1, Integer::sum);
+            }
+        }
+
+        // is the action a login, and are we counting user logins?
+        if (logLine.isAction("login") && !userEmail.equals("off")) {
+            aggregate.users.merge(logLine.getUser(), 1, Integer::sum);
+        }
+
+        // is the action an item view?
+        if (logLine.isAction("view_item")) {
+            aggregate.items.merge(matcher.getHandle(logLine.getParams()), 1, Integer::sum);
+        }
+
+        // log all the activity
+        aggregate.actions.merge(logLine.getAction(), 1, Integer::sum);
+        return true;
+    }
+
+    /**
+     * Add the given aggregate to the global counters and aggregators.  The
+     * keys are added to the aggregators in the order they were met in the
+     * logs, so the output does not depend on how the logs were split.
+     *
+     * @param aggregate the aggregate of some lines of a log file
+     */
+    private static void merge(Aggregate aggregate) {
+        lineCount += aggregate.lines;
+        warnCount += aggregate.warnings;
+        excCount += aggregate.exceptions;
+
+        // if we are not constrained by date, register the dates as the
+        // start/end date if they are the earliest/latest so far
+        if (startDate == null && aggregate.firstDate != null
+            && (logStartDate == null || aggregate.firstDate.isBefore(logStartDate))) {
+            logStartDate = aggregate.firstDate;
+        }
+        if (endDate == null && aggregate.lastDate != null
+            && (logEndDate == null || aggregate.lastDate.isAfter(logEndDate))) {
+            logEndDate = aggregate.lastDate;
+        }
+
+        aggregate.searches.forEach((key, count) -> searchAggregator.merge(key, count, Integer::sum));
+        aggregate.users.forEach((key, count) -> userAggregator.merge(key, count, Integer::sum));
+        aggregate.items.forEach((key, count) -> itemAggregator.merge(key, count, Integer::sum));
+        aggregate.actions.forEach((key, count) -> actionAggregator.merge(key, count, Integer::sum));
+    }
+
 
     /**
      * set the passed parameters up as global class variables.  This has to
@@ -673,13 +822,9 @@ public class LogAnalyser {
             configFile = myConfigFile;
         }
 
-        if (myStartDate != null) {
-            startDate = myStartDate;
-        }
-
-        if (myEndDate != null) {
-            endDate = myEndDate;
-        }
+        // the dates of a previous analysis in this JVM do not apply
+        startDate = myStartDate;
+        endDate = myEndDate;
 
         if (myOutFile != null) {
             outFile = myOutFile;
@@ -1102,50 +1247,7 @@ public class LogAnalyser {
      * @return the string array containing meaningful search terms
      */
     public static String[] analyseQuery(String query) {
-        // register our standard loop counter
-        int i = 0;
-
-        // make the query string totally lower case, to ensure we don't miss out
-        // on matches due to capitalisation
-        query = query.toLowerCase();
-
-        // now perform successive find and replace operations using pre-defined
-        // global regular expressions
-        Matcher matchQuery = queryRX.matcher(query);
-        query = matchQuery.replaceAll(" ");
-
-        Matcher matchCollection = collectionRX.matcher(query);
-        query = matchCollection.replaceAll(" ");
-
-        Matcher matchCommunity = communityRX.matcher(query);
-        query = matchCommunity.replaceAll(" ");
-
-        Matcher matchResults = resultsRX.matcher(query);
-        query = matchResults.replaceAll(" ");
-
-        Matcher matchTypes = typeRX.matcher(query);
-        query = matchTypes.replaceAll(" ");
-
-        Matcher matchChars = excludeCharRX.matcher(query);
-        query = matchChars.replaceAll(" ");
-
-        Matcher matchWords = wordRX.matcher(query);
-        query = matchWords.replaceAll(" ");
-
-        Matcher single = singleRX.matcher(query);
-        query = single.replaceAll(" ");
-
-        // split the remaining string by whitespace, trim and stuff into an
-        // array to be returned
-        StringTokenizer st = new StringTokenizer(query);
-        String[] words = new String[st.countTokens()];
-        for (i = 0; i < words.length; i++) {
-            words[i] = st.nextToken().trim();
-        }
-
-        // FIXME: some single characters are still slipping through the net;
-        // why? and how do we fix it?
-        return words;
+        return new LineMatcher().analyseQuery(query);
     }
 
 
@@ -1157,39 +1259,7 @@ public class LogAnalyser {
      * @return a Log Line object for the given line
      */
     public static LogLine getLogLine(String line) {
-        // FIXME: consider moving this code into the LogLine class.  To do this
-        // we need to much more carefully define the structure and behaviour
-        // of the LogLine class
-        Matcher match;
-
-        if (line.indexOf(":ip_addr") > 0) {
-            match = valid14.matcher(line);
-        } else {
-            match = valid13.matcher(line);
-        }
-
-        if (match.matches()) {
-            // set up a new log line object
-            LogLine logLine = new LogLine(parseDate(match.group(1).trim()),
-                                          LogHelper.unescapeLogField(match.group(2)).trim(),
-                                          LogHelper.unescapeLogField(match.group(3)).trim(),
-                                          LogHelper.unescapeLogField(match.group(4)).trim(),
-                                          LogHelper.unescapeLogField(match.group(5)).trim());
-
-            return logLine;
-        } else {
-            match = validBase.matcher(line);
-            if (match.matches()) {
-                LogLine logLine = new LogLine(parseDate(match.group(1).trim()),
-                                              LogHelper.unescapeLogField(match.group(2)).trim(),
-                                              null,
-                                              null,
-                                              null
-                );
-                return logLine;
-            }
-            return null;
-        }
+        return new LineMatcher().getLogLine(line);
     }
 
 
@@ -1219,13 +1289,13 @@ public class LogAnalyser {
         StringBuilder accessionedQuery = new StringBuilder();
         accessionedQuery.append("dc.date.accessioned_dt:[");
         if (startDate != null) {
-            accessionedQuery.append(unParseDate(startDate));
+            accessionedQuery.append(unParseDate(startDate)).append("T00:00:00Z");
         } else {
             accessionedQuery.append("*");
         }
         accessionedQuery.append(" TO ");
         if (endDate != null) {
-            accessionedQuery.append(unParseDate(endDate));
+            accessionedQuery.append(unParseDate(endDate)).append("T00:00:00Z");
         } else {
             accessionedQuery.append("*");
         }
@@ -1295,9 +1365,242 @@ public class LogAnalyser {
             "\tOptional\n" +
             "\tForce a lookup of the current database statistics\n" +
             "\tOnly needs to be used if date constraints are also in place\n" +
+            "-threads [number of threads]\n" +
+            "\tOptional\n" +
+            "\tAnalyse the log files with several threads, each of them\n" +
+            "\treading ranges of lines of the memory mapped log files\n" +
+            "\tDefault is to read the log files one after another\n" +
             "-help\n" +
             "\tdisplay this usage information\n";
 
         System.out.println(usage);
     }
+
+    /**
+     * The counters and aggregators of some lines of a log file.  The keys of
+     * the aggregators are kept in the order they were met.
+     */
+    private static class Aggregate {
+        private int lines = 0;
+        private int warnings = 0;
+        private int exceptions = 0;
+        private LocalDate firstDate = null;
+        private LocalDate lastDate = null;
+
+        /**
+         * whether a line after the end date was met
+         */
+        private boolean ended = false;
+
+        private final Map<String, Integer> actions = new LinkedHashMap<>();
+        private final Map<String, Integer> searches = new LinkedHashMap<>();
+        private final Map<String, Integer> users = new LinkedHashMap<>();
+        private final Map<String, Integer> items = new LinkedHashMap<>();
+    }
+
+    /**
+     * Matchers of the global regular expressions, which are reset for each
+     * line instead of being created again.  A matcher is not thread safe, so
+     * each thread uses its own.
+     */
+    private static class LineMatcher {
+        private final Matcher valid13Matcher = valid13.matcher("");
+        private final Matcher valid14Matcher = valid14.matcher("");
+        private final Matcher validBaseMatcher = validBase.matcher("");
+        private final Matcher handleMatcher = handleRX.matcher("");
+        private final Matcher itemMatcher = itemRX.matcher("");
+        private final Matcher queryMatcher = queryRX.matcher("");
+        private final Matcher collectionMatcher = collectionRX.matcher("");
+        private final Matcher communityMatcher = communityRX.matcher("");
+        private final Matcher resultsMatcher = resultsRX.matcher("");
+        private final Matcher typeMatcher = typeRX.matcher("");
+        private final Matcher charsMatcher = excludeCharRX.matcher("");
+        private final Matcher wordsMatcher = wordRX.matcher("");
+        private final Matcher singleMatcher = singleRX.matcher("");
+
+        /**
+         * split the given line into it's relevant segments if applicable (i.e. the
+         * line matches the required regular expression.
+         *
+         * @param line the line to be segmented
+         * @return a Log Line object for the given line
+         */
+        private LogLine getLogLine(String line) {
+            // FIXME: consider moving this code into the LogLine class.  To do this
+            // we need to much more carefully define the structure and behaviour
+            // of the LogLine class
+            Matcher match;
+
+            if (line.indexOf(":ip_addr") > 0) {
+                match = valid14Matcher.reset(line);
+            } else {
+                match = valid13Matcher.reset(line);
+            }
+
+            if (match.matches()) {
+                // set up a new log line object
+                return new LogLine(parseDate(match.group(1).trim()),
+                                   LogHelper.unescapeLogField(match.group(2)).trim(),
+                                   LogHelper.unescapeLogField(match.group(3)).trim(),
+                                   LogHelper.unescapeLogField(match.group(4)).trim(),
+                                   LogHelper.unescapeLogField(match.group(5)).trim());
+            }
+
+            match = validBaseMatcher.reset(line);
+            if (match.matches()) {
+                return new LogLine(parseDate(match.group(1).trim()),
+                                   LogHelper.unescapeLogField(match.group(2)).trim(),
+                                   null,
+                                   null,
+                                   null);
+            }
+            return null;
+        }
+
+        /**
+         * Take a search query string and pull out all of the meaningful information
+         * from it, giving the results in the form of a String array, a single word
+         * to each element
+         *
+         * @param query the search query to be analysed
+         * @return the string array containing meaningful search terms
+         */
+        private String[] analyseQuery(String query) {
+            // make the query string totally lower case, to ensure we don't miss out
+            // on matches due to capitalisation
+            query = query.toLowerCase();
+
+            // now perform successive find and replace operations using pre-defined
+            // global regular expressions
+            query = queryMatcher.reset(query).replaceAll(" ");
+            query = collectionMatcher.reset(query).replaceAll(" ");
+            query = communityMatcher.reset(query).replaceAll(" ");
+            query = resultsMatcher.reset(query).replaceAll(" ");
+            query = typeMatcher.reset(query).replaceAll(" ");
+            query = charsMatcher.reset(query).replaceAll(" ");
+            query = wordsMatcher.reset(query).replaceAll(" ");
+            query = singleMatcher.reset(query).replaceAll(" ");
+
+            // split the remaining string by whitespace, trim and stuff into an
+            // array to be returned
+            StringTokenizer st = new StringTokenizer(query);
+            String[] words = new String[st.countTokens()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = st.nextToken().trim();
+            }
+
+            // FIXME: some single characters are still slipping through the net;
+            // why? and how do we fix it?
+            return words;
+        }
+
+        /**
+         * @param params the parameters of an item view
+         * @return the handle of the item
+         */
+        private String getHandle(String params) {
+            // strip the handle string, then the item id string
+            String handle = handleMatcher.reset(params).replaceAll("");
+            return itemMatcher.reset(handle).replaceAll("").trim();
+        }
+    }
+
+    /**
+     * Analyses a range of lines of a memory mapped log file, splitting it in
+     * two halves at a line boundary while it is larger than {@link #splitSize}.
+     */
+    private static class RangeTask extends RecursiveTask<List<Aggregate>> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        /**
+         * @param channel the log file
+         * @param start   the position of the first byte of the range, at the start of a line
+         * @param end     the position after the last byte of the range, at the start of a line or the end of the
+         *                file
+         */
+        RangeTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Aggregate> compute() {
+            try {
+                if (end - start > splitSize) {
+                    long middle = nextLine(start + (end - start) / 2);
+                    if (middle < end) {
+                        RangeTask first = new RangeTask(channel, start, middle);
+                        RangeTask second = new RangeTask(channel, middle, end);
+                        second.fork();
+                        List<Aggregate> aggregates = new ArrayList<>(first.compute());
+                        aggregates.addAll(second.join());
+                        return aggregates;
+                    }
+                }
+                return List.of(analyseRange());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @param position a position in the range
+         * @return the position of the start of the first line after the given position, or the end of the range
+         */
+        private long nextLine(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            while (position < end) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return end;
+        }
+
+        private Aggregate analyseRange() throws IOException {
+            Aggregate aggregate = new Aggregate();
+            LineMatcher matcher = new LineMatcher();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            Charset charset = Charset.defaultCharset();
+            byte[] bytes = new byte[1024];
+
+            // the lines end with \n, \r or \r\n, as for a BufferedReader
+            int limit = buffer.limit();
+            int lineStart = 0;
+            int position = 0;
+            while (lineStart < limit) {
+                while (position < limit && buffer.get(position) != '\n' && buffer.get(position) != '\r') {
+                    position++;
+                }
+                int length = position - lineStart;
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                buffer.get(lineStart, bytes, 0, length);
+                if (!analyseLine(new String(bytes, 0, length, charset), matcher, aggregate)) {
+                    break;
+                }
+
+                if (position < limit && buffer.get(position) == '\r') {
+                    position++;
+                }
+                if (position < limit && buffer.get(position) == '\n') {
+                    position++;
+                }
+                lineStart = position;
+            }
+            return aggregate;
+        }
+    }
 }
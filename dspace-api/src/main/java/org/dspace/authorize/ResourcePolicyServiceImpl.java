@@ -21,6 +21,7 @@ import org.apache.logging.log4j.Logger;
 import org.dspace.authorize.dao.ResourcePolicyDAO;
 import org.dspace.authorize.service.ResourcePolicyService;
 import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
 import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.core.Constants;
 import org.dspace.core.Context;
@@ -152,8 +153,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         context.turnOffAuthorisationSystem();
         if (resourcePolicy.getdSpaceObject() != null) {
             //A policy for a DSpace Object has been modified, fire a modify event on the DSpace object
-            contentServiceFactory.getDSpaceObjectService(resourcePolicy.getdSpaceObject())
-                                 .updateLastModified(context, resourcePolicy.getdSpaceObject());
+            policiesModified(context, resourcePolicy.getdSpaceObject());
         }
         context.restoreAuthSystemState();
     }
@@ -226,7 +226,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
     public void removeAllPolicies(Context c, DSpaceObject o) throws SQLException, AuthorizeException {
         resourcePolicyDAO.deleteByDso(c, o);
         c.turnOffAuthorisationSystem();
-        contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        policiesModified(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -234,7 +234,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
     public void removePolicies(Context c, DSpaceObject o, String type) throws SQLException, AuthorizeException {
         resourcePolicyDAO.deleteByDsoAndType(c, o, type);
         c.turnOffAuthorisationSystem();
-        contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        policiesModified(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -243,7 +243,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         throws SQLException, AuthorizeException {
         resourcePolicyDAO.deleteByDsoAndTypeAndAction(c, o, type, action);
         c.turnOffAuthorisationSystem();
-        contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        policiesModified(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -252,7 +252,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         throws SQLException, AuthorizeException {
         resourcePolicyDAO.deleteByDsoGroupPolicies(context, dso, group);
         context.turnOffAuthorisationSystem();
-        contentServiceFactory.getDSpaceObjectService(dso).updateLastModified(context, dso);
+        policiesModified(context, dso);
         context.restoreAuthSystemState();
     }
 
@@ -261,7 +261,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         throws SQLException, AuthorizeException {
         resourcePolicyDAO.deleteByDsoEPersonPolicies(context, dso, ePerson);
         context.turnOffAuthorisationSystem();
-        contentServiceFactory.getDSpaceObjectService(dso).updateLastModified(context, dso);
+        policiesModified(context, dso);
         context.restoreAuthSystemState();
 
     }
@@ -283,7 +283,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         } else {
             resourcePolicyDAO.deleteByDsoAndAction(c, o, actionId);
             c.turnOffAuthorisationSystem();
-            contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+            policiesModified(c, o);
             c.restoreAuthSystemState();
         }
     }
@@ -293,7 +293,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         throws SQLException, AuthorizeException {
         resourcePolicyDAO.deleteByDsoAndTypeNotEqualsTo(c, o, type);
         c.turnOffAuthorisationSystem();
-        contentServiceFactory.getDSpaceObjectService(o).updateLastModified(c, o);
+        policiesModified(c, o);
         c.restoreAuthSystemState();
     }
 
@@ -332,7 +332,7 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
             context.turnOffAuthorisationSystem();
             for (DSpaceObject dSpaceObject : relatedDSpaceObjects) {
                 //A policy for a DSpace Object has been modified, fire a modify event on the DSpace object
-                contentServiceFactory.getDSpaceObjectService(dSpaceObject).updateLastModified(context, dSpaceObject);
+                policiesModified(context, dSpaceObject);
             }
             context.restoreAuthSystemState();
         }
@@ -424,4 +424,19 @@ public class ResourcePolicyServiceImpl implements ResourcePolicyService {
         }
         return isMy;
     }
+
+    /**
+     * Update the last modified date of the object after a change of its policies, firing a MODIFY event on it. For
+     * items the event has the {@link Item#POLICIES_MODIFIED} detail, so that consumers can tell this change apart.
+     *
+     * @param context DSpace context object
+     * @param dso     the object whose policies have been modified
+     */
+    protected void policiesModified(Context context, DSpaceObject dso) throws SQLException, AuthorizeException {
+        if (dso instanceof Item) {
+            contentServiceFactory.getItemService().updateLastModified(context, (Item) dso, Item.POLICIES_MODIFIED);
+        } else {
+            contentServiceFactory.getDSpaceObjectService(dso).updateLastModified(context, dso);
+        }
+    }
 }
@@ -10,9 +10,11 @@ package org.dspace.content;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import jakarta.persistence.CascadeType;
@@ -56,6 +58,26 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
      */
     public static final String ANY = "*";
 
+    /**
+     * Names of the item properties reported in the detail of the MODIFY event fired by the update of an item, see
+     * {@link #getModifiedProperties()}
+     */
+    public static final String ARCHIVED_PROPERTY = "archived";
+    public static final String WITHDRAWN_PROPERTY = "withdrawn";
+    public static final String DISCOVERABLE_PROPERTY = "discoverable";
+    public static final String OWNING_COLLECTION_PROPERTY = "owningCollection";
+    public static final String SUBMITTER_PROPERTY = "submitter";
+
+    /**
+     * Detail of the MODIFY event fired when the resource policies of an item have been modified
+     */
+    public static final String POLICIES_MODIFIED = "POLICIES";
+
+    /**
+     * Detail of the MODIFY event fired by the update of an item when only its metadata have been modified
+     */
+    public static final String METADATA_MODIFIED = "METADATA";
+
     @Column(name = "item_id", insertable = false, updatable = false)
     private Integer legacyId;
 
@@ -113,6 +135,12 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
     @Transient
     private List<MetadataValue> cachedMetadata = new ArrayList<>();
 
+    /**
+     * Names of the properties modified since the last update, reported in the detail of the MODIFY event
+     */
+    @Transient
+    private final Set<String> modifiedProperties = new TreeSet<>();
+
     /**
      * Protected constructor, create object using:
      * {@link org.dspace.content.service.ItemService#create(Context, WorkspaceItem)}
@@ -157,6 +185,7 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
      */
     void setWithdrawn(boolean withdrawn) {
         this.withdrawn = withdrawn;
+        setModified(WITHDRAWN_PROPERTY);
     }
 
     /**
@@ -191,7 +220,7 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
      */
     public void setArchived(boolean isArchived) {
         this.inArchive = isArchived;
-        setModified();
+        setModified(ARCHIVED_PROPERTY);
     }
 
     /**
@@ -201,7 +230,7 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
      */
     public void setDiscoverable(boolean discoverable) {
         this.discoverable = discoverable;
-        setModified();
+        setModified(DISCOVERABLE_PROPERTY);
     }
 
     /**
@@ -211,7 +240,7 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
      */
     public void setOwningCollection(Collection c) {
         this.owningCollection = c;
-        setModified();
+        setModified(OWNING_COLLECTION_PROPERTY);
     }
 
     /**
@@ -242,7 +271,7 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
      */
     public void setSubmitter(EPerson sub) {
         this.submitter = sub;
-        setModified();
+        setModified(SUBMITTER_PROPERTY);
     }
 
     /**
@@ -400,4 +429,25 @@ public class Item extends DSpaceObject implements DSpaceObjectLegacySupport {
         this.cachedMetadata = cachedMetadata;
         modifiedMetadataCache = false;
     }
+
+    /**
+     * Get the names of the properties modified since the last update of the item, e.g. {@link #DISCOVERABLE_PROPERTY}.
+     * Properties modified through other means than the setters of this class are not reported.
+     *
+     * @return the names of the modified properties
+     */
+    public Set<String> getModifiedProperties() {
+        return Collections.unmodifiableSet(modifiedProperties);
+    }
+
+    @Override
+    public void clearModified() {
+        super.clearModified();
+        modifiedProperties.clear();
+    }
+
+    private void setModified(String property) {
+        modifiedProperties.add(property);
+        setModified();
+    }
 }
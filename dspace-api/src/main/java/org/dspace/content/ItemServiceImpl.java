@@ -26,6 +26,7 @@ import java.util.stream.Stream;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.Logger;
 import org.dspace.app.requestitem.RequestItem;
 import org.dspace.app.requestitem.service.RequestItemService;
@@ -217,6 +218,16 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         return null;
     }
 
+    @Override
+    public List<Item> findByIds(Context context, List<UUID> ids) throws SQLException {
+        return itemDAO.findByIds(context, Item.class, ids);
+    }
+
+    @Override
+    public List<UUID> findExistingIds(Context context, List<UUID> ids) throws SQLException {
+        return itemDAO.findExistingIds(context, Item.class, ids);
+    }
+
     @Override
     public Item find(Context context, UUID id) throws SQLException {
         Item item = itemDAO.findByID(context, Item.class, id);
@@ -356,6 +367,17 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
         return itemDAO.findAllRegularItems(context);
     }
 
+    @Override
+    public List<UUID> findRegularItemIds(Context context, UUID after, int limit) throws SQLException {
+        return itemDAO.findRegularItemIds(context, after, limit);
+    }
+
+    @Override
+    public List<Pair<UUID, Instant>> findRegularItemLastModified(Context context, UUID after, int limit)
+        throws SQLException {
+        return itemDAO.findRegularItemLastModified(context, after, limit);
+    }
+
     @Override
     public Iterator<Item> findBySubmitter(Context context, EPerson eperson) throws SQLException {
         return itemDAO.findBySubmitter(context, eperson);
@@ -428,10 +450,17 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
 
     @Override
     public void updateLastModified(Context context, Item item) throws SQLException, AuthorizeException {
+        updateLastModified(context, item, null);
+    }
+
+    @Override
+    public void updateLastModified(Context context, Item item, String eventDetail)
+        throws SQLException, AuthorizeException {
         item.setLastModified(Instant.now());
         update(context, item);
         //Also fire a modified event since the item HAS been modified
-        context.addEvent(new Event(Event.MODIFY, Constants.ITEM, item.getID(), null, getIdentifiers(context, item)));
+        context.addEvent(new Event(Event.MODIFY, Constants.ITEM, item.getID(), eventDetail,
+                                   getIdentifiers(context, item)));
     }
 
     @Override
@@ -690,8 +719,11 @@ public class ItemServiceImpl extends DSpaceObjectServiceImpl<Item> implements It
                                            getIdentifiers(context, item)));
             }
 
+            // report the modified properties so that consumers can tell which part of the item changed
+            String modifiedProperties = item.getModifiedProperties().isEmpty() ? Item.METADATA_MODIFIED
+                : String.join(", ", item.getModifiedProperties());
             context.addEvent(new Event(Event.MODIFY, Constants.ITEM, item.getID(),
-                                       null, getIdentifiers(context, item)));
+                                       modifiedProperties, getIdentifiers(context, item)));
             item.clearModified();
             item.clearDetails();
         }
@@ -11,7 +11,10 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -838,6 +841,38 @@ public class RelationshipServiceImpl implements RelationshipService {
         }
     }
 
+    @Override
+    public Set<UUID> findItemsWithVirtualMetadataFrom(Context context, List<Item> items) throws SQLException {
+        Map<String, List<UUID>> itemIdsByEntityType = new HashMap<>();
+        for (Item item : items) {
+            String entityType = itemService.getEntityTypeLabel(item);
+            if (entityType != null) {
+                itemIdsByEntityType.computeIfAbsent(entityType, type -> new ArrayList<>()).add(item.getID());
+            }
+        }
+        Set<UUID> relatedItemIds = new LinkedHashSet<>();
+        for (Map.Entry<String, List<UUID>> entry : itemIdsByEntityType.entrySet()) {
+            EntityType entityType = entityTypeService.findByEntityType(context, entry.getKey());
+            if (entityType == null) {
+                continue;
+            }
+            for (RelationshipType relationshipType : relationshipTypeService.findByEntityType(context, entityType)) {
+                // a relationship type may have the same entity type on both sides
+                if (relationshipType.getLeftType().equals(entityType)
+                    && containsVirtualMetadata(relationshipType.getRightwardType())) {
+                    relatedItemIds.addAll(
+                        relationshipDAO.findRelatedItemIds(context, relationshipType, entry.getValue(), true));
+                }
+                if (relationshipType.getRightType().equals(entityType)
+                    && containsVirtualMetadata(relationshipType.getLeftwardType())) {
+                    relatedItemIds.addAll(
+                        relationshipDAO.findRelatedItemIds(context, relationshipType, entry.getValue(), false));
+                }
+            }
+        }
+        return relatedItemIds;
+    }
+
     /**
      * Verifies whether there is virtual metadata generated for the given relationship
      * If no such virtual metadata exists, there's no need to update the items in discovery
@@ -7,7 +7,13 @@
  */
 package org.dspace.content.dao;
 
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
 import org.dspace.content.DSpaceObject;
+import org.dspace.core.Context;
 import org.dspace.core.GenericDAO;
 
 /**
@@ -18,4 +24,26 @@ import org.dspace.core.GenericDAO;
  * @author kevinvandevelde at atmire.com
  */
 public interface DSpaceObjectDAO<T extends DSpaceObject> extends GenericDAO<T> {
+
+    /**
+     * Find the DSOs with the given UUIDs, with their metadata fetched in the same query.
+     *
+     * @param context current DSpace context.
+     * @param clazz   DSO subtype of the records.
+     * @param ids     the UUIDs of the records.
+     * @return the records found, in no particular order. Unknown UUIDs are ignored.
+     * @throws SQLException if database error
+     */
+    public List<T> findByIds(Context context, Class<T> clazz, Collection<UUID> ids) throws SQLException;
+
+    /**
+     * Find which of the given UUIDs belong to existing DSOs, without loading the DSOs.
+     *
+     * @param context current DSpace context.
+     * @param clazz   DSO subtype of the records.
+     * @param ids     the UUIDs to look for.
+     * @return the UUIDs found, in no particular order.
+     * @throws SQLException if database error
+     */
+    public List<UUID> findExistingIds(Context context, Class<T> clazz, Collection<UUID> ids) throws SQLException;
 }
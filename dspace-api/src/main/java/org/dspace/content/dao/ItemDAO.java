@@ -13,6 +13,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.dspace.content.Collection;
 import org.dspace.content.Community;
 import org.dspace.content.Item;
@@ -48,6 +49,28 @@ public interface ItemDAO extends DSpaceObjectLegacySupportDAO<Item> {
      */
     Iterator<Item> findAllRegularItems(Context context) throws SQLException;
 
+    /**
+     * Find the ids of a page of the items returned by {@link #findAllRegularItems(Context)}, ordered by id.
+     * Paging is done on the id itself rather than with an offset, so every page costs the same.
+     * @param context the DSpace context.
+     * @param after   only return ids greater than this one, null to start from the first item.
+     * @param limit   maximum number of ids to return.
+     * @return the ids of the regular items following the given id.
+     * @throws SQLException if database error.
+     */
+    List<UUID> findRegularItemIds(Context context, UUID after, int limit) throws SQLException;
+
+    /**
+     * Same as {@link #findRegularItemIds(Context, UUID, int)}, but also returns the last modified date of each item.
+     * @param context the DSpace context.
+     * @param after   only return items with an id greater than this one, null to start from the first item.
+     * @param limit   maximum number of items to return.
+     * @return pairs of id and last modified date of the regular items following the given id, ordered by id.
+     * @throws SQLException if database error.
+     */
+    List<Pair<UUID, Instant>> findRegularItemLastModified(Context context, UUID after, int limit)
+        throws SQLException;
+
     /**
      * Find all Items modified since a Date.
      *
@@ -278,4 +278,18 @@ public interface RelationshipDAO extends GenericDAO<Relationship> {
      */
     int countByItemAndRelationshipTypeAndList(Context context, UUID focusUUID, RelationshipType relationshipType,
                                                List<UUID> items, boolean isLeft) throws SQLException;
+
+    /**
+     * Find the items related by a relationship type to any of the given items, with a single query. Only the
+     * relationships for which the related item is the latest relevant version are considered.
+     *
+     * @param context            DSpace context object
+     * @param relationshipType   Relationship type to filter by
+     * @param itemIds            The UUIDs of the items on the known side of the relationships
+     * @param isLeft             Whether the given items are on the left side of the relationships
+     * @return the distinct UUIDs of the items on the other side of the relationships
+     * @throws SQLException      If database error
+     */
+    List<UUID> findRelatedItemIds(Context context, RelationshipType relationshipType, List<UUID> itemIds,
+                                  boolean isLeft) throws SQLException;
 }
@@ -22,6 +22,7 @@ import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import jakarta.persistence.criteria.Subquery;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.Logger;
 import org.dspace.content.Collection;
 import org.dspace.content.DSpaceObject_;
@@ -100,6 +101,51 @@ public class ItemDAOImpl extends AbstractHibernateDSODAO<Item> implements ItemDA
         return new UUIDIterator<Item>(context, uuids, Item.class, this);
     }
 
+    @Override
+    public List<UUID> findRegularItemIds(Context context, UUID after, int limit) throws SQLException {
+        // NOTE: Same selection as findAllRegularItems() above
+        Query query = createQuery(
+            context,
+            "SELECT i.id FROM Item as i " +
+            "LEFT JOIN Version as v ON i = v.item " +
+            "WHERE (i.inArchive=true or i.withdrawn=true or (i.inArchive=false and v.id IS NOT NULL)) " +
+            (after != null ? "AND i.id > :after " : "") +
+            "ORDER BY i.id"
+        );
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+        query.setMaxResults(limit);
+        @SuppressWarnings("unchecked")
+        List<UUID> uuids = query.getResultList();
+        return uuids;
+    }
+
+    @Override
+    public List<Pair<UUID, Instant>> findRegularItemLastModified(Context context, UUID after, int limit)
+        throws SQLException {
+        // NOTE: Same selection as findAllRegularItems() above
+        Query query = createQuery(
+            context,
+            "SELECT i.id, i.lastModified FROM Item as i " +
+            "LEFT JOIN Version as v ON i = v.item " +
+            "WHERE (i.inArchive=true or i.withdrawn=true or (i.inArchive=false and v.id IS NOT NULL)) " +
+            (after != null ? "AND i.id > :after " : "") +
+            "ORDER BY i.id"
+        );
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+        query.setMaxResults(limit);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<Pair<UUID, Instant>> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(Pair.of((UUID) row[0], (Instant) row[1]));
+        }
+        return result;
+    }
+
     @Override
     public Iterator<Item> findAll(Context context, boolean archived,
                                   boolean withdrawn, boolean discoverable, Instant lastModified)
@@ -34,6 +34,11 @@ import org.dspace.core.Context;
 
 public class RelationshipDAOImpl extends AbstractHibernateDAO<Relationship> implements RelationshipDAO {
 
+    /**
+     * The maximum number of item UUIDs bound to a single query, to stay far from the parameter limits of databases.
+     */
+    protected static final int MAX_IDS_PER_QUERY = 10000;
+
     @Override
     public List<Relationship> findByItem(
         Context context, Item item, boolean excludeTilted, boolean excludeNonLatest
@@ -447,4 +452,27 @@ public class RelationshipDAOImpl extends AbstractHibernateDAO<Relationship> impl
         return count(query);
     }
 
+    @Override
+    public List<UUID> findRelatedItemIds(Context context, RelationshipType relationshipType, List<UUID> itemIds,
+                                         boolean isLeft) throws SQLException {
+        String side = isLeft ? "leftItem.id" : "rightItem.id";
+        String otherSide = !isLeft ? "leftItem.id" : "rightItem.id";
+        List<UUID> relatedItemIds = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i += MAX_IDS_PER_QUERY) {
+            Query query = createQuery(context, "SELECT DISTINCT " + otherSide + " " +
+                                               "FROM " + Relationship.class.getSimpleName() +
+                                              " WHERE relationshipType = :type " +
+                                               "AND " + side + " in (:list) " +
+                                               "AND latestVersionStatus <> :status");
+            query.setParameter("type", relationshipType);
+            query.setParameter("list", itemIds.subList(i, Math.min(i + MAX_IDS_PER_QUERY, itemIds.size())));
+            // exclude the relationships for which the related item is not the latest version
+            query.setParameter("status", isLeft ? Relationship.LatestVersionStatus.LEFT_ONLY
+                                                : Relationship.LatestVersionStatus.RIGHT_ONLY);
+            for (Object id : query.getResultList()) {
+                relatedItemIds.add((UUID) id);
+            }
+        }
+        return relatedItemIds;
+    }
 }
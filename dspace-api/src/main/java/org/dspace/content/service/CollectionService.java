@@ -80,6 +80,27 @@ public interface CollectionService
     public Collection create(Context context, Community community, String handle, UUID uuid) throws SQLException,
             AuthorizeException;
 
+    /**
+     * Find the collections with the given UUIDs, with their metadata loaded by a single query. Use this rather than
+     * {@link #find(Context, UUID)} to load a page of collections at once, e.g. the results of a search.
+     *
+     * @param context DSpace context object
+     * @param ids     the UUIDs of the collections
+     * @return the collections found, in no particular order. Unknown UUIDs are ignored.
+     * @throws SQLException if database error
+     */
+    public List<Collection> findByIds(Context context, List<UUID> ids) throws SQLException;
+
+    /**
+     * Find which of the given UUIDs belong to existing collections, without loading them.
+     *
+     * @param context DSpace context object
+     * @param ids     the UUIDs to look for
+     * @return the UUIDs of the collections found, in no particular order
+     * @throws SQLException if database error
+     */
+    public List<UUID> findExistingIds(Context context, List<UUID> ids) throws SQLException;
+
     /**
      * Get all collections in the system. These are alphabetically sorted by
      * collection name.
@@ -69,6 +69,27 @@ public interface CommunityService extends DSpaceObjectService<Community>, DSpace
                             String handle, UUID uuid) throws SQLException, AuthorizeException;
 
 
+    /**
+     * Find the communities with the given UUIDs, with their metadata loaded by a single query. Use this rather than
+     * {@link #find(Context, UUID)} to load a page of communities at once, e.g. the results of a search.
+     *
+     * @param context DSpace context object
+     * @param ids     the UUIDs of the communities
+     * @return the communities found, in no particular order. Unknown UUIDs are ignored.
+     * @throws SQLException if database error
+     */
+    public List<Community> findByIds(Context context, List<UUID> ids) throws SQLException;
+
+    /**
+     * Find which of the given UUIDs belong to existing communitys, without loading them.
+     *
+     * @param context DSpace context object
+     * @param ids     the UUIDs to look for
+     * @return the UUIDs of the communitys found, in no particular order
+     * @throws SQLException if database error
+     */
+    public List<UUID> findExistingIds(Context context, List<UUID> ids) throws SQLException;
+
     /**
      * Get a list of all communities in the system. These are alphabetically
      * sorted by community name.
@@ -15,6 +15,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.dspace.authorize.AuthorizeException;
 import org.dspace.authorize.ResourcePolicy;
 import org.dspace.content.Bitstream;
@@ -95,6 +96,27 @@ public interface ItemService
     public void populateWithTemplateItemMetadata (Context context, Collection collection, boolean template, Item item)
         throws SQLException;
 
+    /**
+     * Find the items with the given UUIDs, with their metadata loaded by a single query. Use this rather than
+     * {@link #find(Context, UUID)} to load a page of items at once, e.g. the results of a search.
+     *
+     * @param context DSpace context object
+     * @param ids     the UUIDs of the items
+     * @return the items found, in no particular order. Unknown UUIDs are ignored.
+     * @throws SQLException if database error
+     */
+    List<Item> findByIds(Context context, List<UUID> ids) throws SQLException;
+
+    /**
+     * Find which of the given UUIDs belong to existing items, without loading them.
+     *
+     * @param context DSpace context object
+     * @param ids     the UUIDs to look for
+     * @return the UUIDs of the items found, in no particular order
+     * @throws SQLException if database error
+     */
+    List<UUID> findExistingIds(Context context, List<UUID> ids) throws SQLException;
+
     /**
      * Get all the items in the archive. Only items with the "in archive" flag
      * set are included. The order of the list is indeterminate.
@@ -140,6 +162,29 @@ public interface ItemService
      */
     Iterator<Item> findAllRegularItems(Context context) throws SQLException;
 
+    /**
+     * Find the ids of a page of the items returned by {@link #findAllRegularItems(Context)}, ordered by id.
+     * Use the last id of a page as the {@code after} parameter to get the next page.
+     * @param context the DSpace context.
+     * @param after   only return ids greater than this one, null to start from the first item.
+     * @param limit   maximum number of ids to return.
+     * @return the ids of the regular items following the given id.
+     * @throws SQLException if database error.
+     */
+    List<UUID> findRegularItemIds(Context context, UUID after, int limit) throws SQLException;
+
+    /**
+     * Same as {@link #findRegularItemIds(Context, UUID, int)}, but also returns the last modified date of each item.
+     * Only the ids and dates are loaded, not the items themselves.
+     * @param context the DSpace context.
+     * @param after   only return items with an id greater than this one, null to start from the first item.
+     * @param limit   maximum number of items to return.
+     * @return pairs of id and last modified date of the regular items following the given id, ordered by id.
+     * @throws SQLException if database error.
+     */
+    List<Pair<UUID, Instant>> findRegularItemLastModified(Context context, UUID after, int limit)
+        throws SQLException;
+
     /**
      * Find all the items in the archive by a given submitter. The order is
      * indeterminate. Only items with the "in archive" flag set are included.
@@ -408,6 +453,18 @@ public interface ItemService
      */
     void removeLicenses(Context context, Item item) throws SQLException, AuthorizeException, IOException;
 
+    /**
+     * Update the last modified date of the item and fire a MODIFY event with the given detail, telling the event
+     * consumers what has been modified, e.g. {@link Item#POLICIES_MODIFIED}.
+     *
+     * @param context     DSpace context object
+     * @param item        the modified item
+     * @param eventDetail detail of the MODIFY event, null if unknown
+     * @throws SQLException       if database error
+     * @throws AuthorizeException if authorization error
+     */
+    void updateLastModified(Context context, Item item, String eventDetail) throws SQLException, AuthorizeException;
+
     /**
      * Withdraw the item from the archive. It is kept in place, and the content
      * and metadata are not deleted, but it is not publicly accessible.
@@ -9,6 +9,7 @@ package org.dspace.content.service;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.dspace.authorize.AuthorizeException;
@@ -255,6 +256,18 @@ public interface RelationshipService extends DSpaceCRUDService<Relationship> {
         Context context, Item latestItem, RelationshipType relationshipType, boolean isLeft
     ) throws SQLException;
 
+    /**
+     * Find the items whose virtual metadata is derived from any of the given items, e.g. the publications of a
+     * person, which have to be reindexed when the person changes. A single query is run per relationship type
+     * carrying virtual metadata from the entity types of the given items.
+     *
+     * @param context the DSpace context
+     * @param items   the changed items
+     * @return the distinct UUIDs of the related items, which may include some of the given items
+     * @throws SQLException if something goes wrong
+     */
+    public Set<UUID> findItemsWithVirtualMetadataFrom(Context context, List<Item> items) throws SQLException;
+
     /**
      * This method will update the given item's metadata order.
      * If the relationships for the item have been modified and will calculate the place based on a
@@ -8,9 +8,12 @@
 package org.dspace.core;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
+import jakarta.persistence.Query;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
@@ -31,6 +34,17 @@ import org.dspace.content.MetadataField;
  * @param <T> type of DSO represented.
  */
 public abstract class AbstractHibernateDSODAO<T extends DSpaceObject> extends AbstractHibernateDAO<T> {
+    /**
+     * Maximum number of UUIDs bound to a single query by {@link #findByIds(Context, Class, Collection)}.
+     */
+    protected static final int MAX_IDS_PER_QUERY = 1000;
+
+    /**
+     * Maximum number of UUIDs bound to a single query by {@link #findExistingIds(Context, Class, Collection)}, which
+     * only reads the primary key.
+     */
+    protected static final int MAX_IDS_PER_EXISTENCE_QUERY = 10000;
+
     /**
      * Find a DSO by its "legacy ID".  Former versions of DSpace used integer
      * record IDs, and these may still be found in external records such as AIPs.
@@ -51,6 +65,51 @@ public abstract class AbstractHibernateDSODAO<T extends DSpaceObject> extends Ab
         return uniqueResult(context, criteriaQuery, false, clazz);
     }
 
+    /**
+     * Find the DSOs with the given UUIDs, with their metadata fetched in the same query. The UUIDs are queried in
+     * chunks of {@link #MAX_IDS_PER_QUERY}.
+     * @param context current DSpace context.
+     * @param clazz DSO subtype of the records.
+     * @param ids the UUIDs of the records.
+     * @return the records found, in no particular order. Unknown UUIDs are ignored.
+     * @throws SQLException if database error
+     */
+    public List<T> findByIds(Context context, Class<T> clazz, Collection<UUID> ids) throws SQLException {
+        List<UUID> idList = new ArrayList<>(ids);
+        List<T> result = new ArrayList<>(idList.size());
+        for (int start = 0; start < idList.size(); start += MAX_IDS_PER_QUERY) {
+            Query query = createQuery(context, "SELECT dso FROM " + clazz.getSimpleName() + " dso "
+                + "LEFT JOIN FETCH dso.metadata WHERE dso.id IN (:ids)");
+            query.setParameter("ids", idList.subList(start, Math.min(start + MAX_IDS_PER_QUERY, idList.size())));
+            result.addAll(list(query));
+        }
+        return result;
+    }
+
+    /**
+     * Find which of the given UUIDs belong to existing DSOs, without loading the DSOs. The UUIDs are queried in
+     * chunks of {@link #MAX_IDS_PER_EXISTENCE_QUERY}.
+     * @param context current DSpace context.
+     * @param clazz DSO subtype of the records.
+     * @param ids the UUIDs to look for.
+     * @return the UUIDs found, in no particular order.
+     * @throws SQLException if database error
+     */
+    public List<UUID> findExistingIds(Context context, Class<T> clazz, Collection<UUID> ids) throws SQLException {
+        List<UUID> idList = new ArrayList<>(ids);
+        List<UUID> result = new ArrayList<>(idList.size());
+        for (int start = 0; start < idList.size(); start += MAX_IDS_PER_EXISTENCE_QUERY) {
+            Query query = createQuery(context, "SELECT dso.id FROM " + clazz.getSimpleName() + " dso "
+                + "WHERE dso.id IN (:ids)");
+            query.setParameter("ids",
+                               idList.subList(start, Math.min(start + MAX_IDS_PER_EXISTENCE_QUERY, idList.size())));
+            @SuppressWarnings("unchecked")
+            List<UUID> found = query.getResultList();
+            result.addAll(found);
+        }
+        return result;
+    }
+
     /**
      * Add left outer join on all metadata fields which are passed to this function.
      * The identifier of the join will be the toString() representation of the metadata field.
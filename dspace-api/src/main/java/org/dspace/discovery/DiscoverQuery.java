@@ -28,6 +28,11 @@ import org.dspace.discovery.configuration.DiscoverySearchFilterFacet;
  */
 public class DiscoverQuery {
 
+    /**
+     * Cursor mark of the first page of results, see {@link #setCursorMark(String)}
+     */
+    public static final String CURSOR_MARK_START = "*";
+
     /**
      * Main attributes for the discovery query
      **/
@@ -39,6 +44,7 @@ public class DiscoverQuery {
 
     private int start = 0;
     private int maxResults = -1;
+    private String cursorMark;
 
     /**
      * Attributes used for sorting of results
@@ -411,4 +417,27 @@ public class DiscoverQuery {
     public void setDiscoveryConfigurationName(String discoveryConfigurationName) {
         this.discoveryConfigurationName = discoveryConfigurationName;
     }
+
+    /**
+     * Return the cursor mark of the page of results to retrieve
+     *
+     * @return the cursor mark, or null if the page is retrieved from its start offset
+     */
+    public String getCursorMark() {
+        return cursorMark;
+    }
+
+    /**
+     * Retrieve the results with a cursor rather than from a start offset, which keeps the cost of a page constant
+     * however deep the walk through the results goes. The first page is retrieved with {@link #CURSOR_MARK_START},
+     * each next page with the {@link DiscoverResult#getNextCursorMark()} of the previous one, until that cursor mark
+     * no longer changes. The start offset is ignored, and the results are sorted on their unique id after the sort
+     * field, or only on their unique id if there is no sort field.
+     *
+     * @param cursorMark
+     *            the cursor mark of the page to retrieve, or null to retrieve the page from its start offset
+     */
+    public void setCursorMark(String cursorMark) {
+        this.cursorMark = cursorMark;
+    }
 }
@@ -43,6 +43,7 @@ public class DiscoverResult {
     private int searchTime;
     private Map<String, IndexableObjectHighlightResult> highlightedResults;
     private String spellCheckQuery;
+    private String nextCursorMark;
 
     public DiscoverResult() {
         indexableObjects = new ArrayList<IndexableObject>();
@@ -91,6 +92,18 @@ public class DiscoverResult {
         this.maxResults = maxResults;
     }
 
+    /**
+     * @return the cursor mark of the next page of results, when the results were retrieved with a cursor mark, see
+     * {@link DiscoverQuery#setCursorMark(String)}. It is the cursor mark of the query on the last page.
+     */
+    public String getNextCursorMark() {
+        return nextCursorMark;
+    }
+
+    public void setNextCursorMark(String nextCursorMark) {
+        this.nextCursorMark = nextCursorMark;
+    }
+
     public int getSearchTime() {
         return searchTime;
     }
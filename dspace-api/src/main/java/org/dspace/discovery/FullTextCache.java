@@ -0,0 +1,242 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tika.metadata.Metadata;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Persistent cache of the full text extracted from the TEXT bundle of an item, as written to the "fulltext" field
+ * of its document. Entries are keyed by the checksums of the full text bitstreams and the character limit they were
+ * parsed with, so the text of unchanged bitstreams is read back from the cache instead of being retrieved from the
+ * assetstore and parsed again. Changed bitstreams get a new checksum, hence a new key: entries are never updated,
+ * those no longer used are removed by {@link #prune(Instant)}.
+ * <p>
+ * Each entry is a gzipped file in the directory configured by "discovery.solr.fulltext.cache.dir".
+ */
+public class FullTextCache {
+
+    private static final Logger log = LogManager.getLogger(FullTextCache.class);
+
+    private static final String EXTENSION = ".bin.gz";
+
+    /**
+     * Version of the format of the entries, part of the key so that a change of format never reads older entries.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    @Autowired
+    protected ConfigurationService configurationService;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * A cached full text and the metadata found while parsing it.
+     */
+    public static class Entry {
+        private final String text;
+        private final Metadata metadata;
+
+        public Entry(String text, Metadata metadata) {
+            this.text = text;
+            this.metadata = metadata;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public Metadata getMetadata() {
+            return metadata;
+        }
+    }
+
+    /**
+     * @return whether the cache is enabled, see "discovery.solr.fulltext.cache.enabled"
+     */
+    public boolean isEnabled() {
+        return configurationService.getBooleanProperty("discovery.solr.fulltext.cache.enabled", false);
+    }
+
+    /**
+     * Compute the key of the full text of the given streams.
+     *
+     * @param streams   the full text streams of an item
+     * @param charLimit the character limit used to parse them
+     * @return the key, or null if the full text cannot be cached, e.g. because a bitstream has no checksum
+     */
+    public String getKey(FullTextContentStreams streams, int charLimit) {
+        List<String> checksums = streams.getChecksums();
+        if (checksums == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        key.append(FORMAT_VERSION).append('|').append(charLimit);
+        for (String checksum : checksums) {
+            key.append('|').append(checksum);
+        }
+        return DigestUtils.sha256Hex(key.toString());
+    }
+
+    /**
+     * Read an entry of the cache. Reading an entry marks it as used.
+     *
+     * @param key the key of the entry, see {@link #getKey(FullTextContentStreams, int)}
+     * @return the entry, or null if it is not in the cache or could not be read
+     */
+    public Entry get(String key) {
+        Path path = getPath(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new GZIPInputStream(Files.newInputStream(path))))) {
+            Metadata metadata = new Metadata();
+            int names = in.readInt();
+            for (int i = 0; i < names; i++) {
+                String name = in.readUTF();
+                int values = in.readInt();
+                for (int j = 0; j < values; j++) {
+                    metadata.add(name, in.readUTF());
+                }
+            }
+            byte[] text = new byte[in.readInt()];
+            in.readFully(text);
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            hitCount.incrementAndGet();
+            return new Entry(new String(text, StandardCharsets.UTF_8), metadata);
+        } catch (NoSuchFileException e) {
+            missCount.incrementAndGet();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read the cached full text {}, it will be parsed again", path, e);
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Add an entry to the cache. Failures are logged, the full text is then simply parsed again next time.
+     *
+     * @param key   the key of the entry, see {@link #getKey(FullTextContentStreams, int)}
+     * @param entry the full text and its metadata
+     */
+    public void put(String key, Entry entry) {
+        Path path = getPath(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            // write to a temporary file first so concurrent readers never see a partial entry
+            temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                String[] names = entry.getMetadata().names();
+                out.writeInt(names.length);
+                for (String name : names) {
+                    String[] values = entry.getMetadata().getValues(name);
+                    out.writeUTF(name);
+                    out.writeInt(values.length);
+                    for (String value : values) {
+                        out.writeUTF(value);
+                    }
+                }
+                byte[] text = entry.getText().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(text.length);
+                out.write(text);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to cache the full text in {}", path, e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ex) {
+                    log.debug("Unable to delete {}", temp, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the entries which have not been used since the given date, e.g. after a rebuild of the index all
+     * entries not used by the rebuild belong to bitstreams which have been changed or removed.
+     *
+     * @param unusedSince entries neither written nor read since this date are removed
+     * @return the number of removed entries
+     * @throws IOException if the cache directory could not be read
+     */
+    public long prune(Instant unusedSince) throws IOException {
+        Path directory = getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long removed = 0;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (Files.isRegularFile(file) && (name.endsWith(EXTENSION) || name.endsWith(".tmp"))
+                    && Files.getLastModifiedTime(file).toInstant().isBefore(unusedSince)) {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return the number of entries read from the cache since startup
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of entries looked up but not found in the cache since startup
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Entries are spread over two levels of sub directories, named after the start of their key, to keep the
+     * number of files per directory low.
+     */
+    protected Path getPath(String key) {
+        return getDirectory().resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + EXTENSION);
+    }
+
+    protected Path getDirectory() {
+        String directory = configurationService.getProperty("discovery.solr.fulltext.cache.dir");
+        if (directory == null) {
+            directory = configurationService.getProperty("dspace.dir") + "/var/fulltext-cache";
+        }
+        return Paths.get(directory);
+    }
+}
@@ -49,6 +49,11 @@ public class FullTextContentStreams extends ContentStreamBase {
     protected List<FullTextBitstream> fullTextStreams;
     protected BitstreamService bitstreamService;
 
+    /**
+     * Whether a bitstream could not be read, in which case the error is part of the stream instead of its content.
+     */
+    protected volatile boolean streamErrors = false;
+
     public FullTextContentStreams(Context context, Item parentItem) throws SQLException {
         this.context = context;
         init(parentItem);
@@ -137,6 +142,7 @@ public class FullTextContentStreams extends ContentStreamBase {
         try {
             return new SequenceInputStream(new FullTextEnumeration(fullTextStreams.iterator()));
         } catch (Exception e) {
+            streamErrors = true;
             log.error("Unable to add full text bitstreams to SOLR for item " + sourceInfo + ": " + e.getMessage(), e);
             return new ByteArrayInputStream((e.getClass() + ": " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
         }
@@ -146,6 +152,29 @@ public class FullTextContentStreams extends ContentStreamBase {
         return CollectionUtils.isEmpty(fullTextStreams);
     }
 
+    /**
+     * @return the checksums of the full text bitstreams, prefixed by their algorithm and in the order in which they
+     * are streamed, or null if one of them has no checksum
+     */
+    public List<String> getChecksums() {
+        List<String> checksums = new ArrayList<>(fullTextStreams.size());
+        for (FullTextBitstream fullTextStream : fullTextStreams) {
+            String checksum = fullTextStream.getChecksum();
+            if (StringUtils.isBlank(checksum)) {
+                return null;
+            }
+            checksums.add(checksum);
+        }
+        return checksums;
+    }
+
+    /**
+     * @return whether one of the bitstreams could not be read while streaming them
+     */
+    public boolean hasStreamErrors() {
+        return streamErrors;
+    }
+
     private BitstreamService getBitstreamService() {
         if (bitstreamService == null) {
             bitstreamService = ContentServiceFactory.getInstance().getBitstreamService();
@@ -167,6 +196,13 @@ public class FullTextContentStreams extends ContentStreamBase {
             return format == null ? null : StringUtils.trimToEmpty(format.getMIMEType());
         }
 
+        public String getChecksum() {
+            if (bitstream == null || StringUtils.isBlank(bitstream.getChecksum())) {
+                return null;
+            }
+            return bitstream.getChecksumAlgorithm() + ":" + bitstream.getChecksum();
+        }
+
         public String getFileName() {
             return bitstream != null ? StringUtils.trimToEmpty(bitstream.getName()) : null;
         }
@@ -189,7 +225,7 @@ public class FullTextContentStreams extends ContentStreamBase {
      * passed to a JDK class that requires this obsolete type.
      */
     @SuppressWarnings("JdkObsolete")
-    private static class FullTextEnumeration implements Enumeration<InputStream> {
+    private class FullTextEnumeration implements Enumeration<InputStream> {
 
         private final Iterator<FullTextBitstream> fulltextIterator;
 
@@ -211,6 +247,7 @@ public class FullTextContentStreams extends ContentStreamBase {
                 bitstream = fulltextIterator.next();
                 inputStream = bitstream.getInputStream();
             } catch (Exception e) {
+                streamErrors = true;
                 log.warn("Unable to add full text bitstream " + (bitstream == null ? "NULL" :
                     bitstream.getFileName() + " for item " + bitstream.getItemHandle())
                              + " to SOLR:" + e.getMessage(), e);
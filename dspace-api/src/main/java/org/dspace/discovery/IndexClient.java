@@ -7,6 +7,9 @@
  */
 package org.dspace.discovery;
 
+import static org.dspace.discovery.IndexClientOptions.METRICS_OPTION;
+import static org.dspace.discovery.IndexClientOptions.SHADOW_OPTION;
+import static org.dspace.discovery.IndexClientOptions.THREADS_OPTION;
 import static org.dspace.discovery.IndexClientOptions.TYPE_OPTION;
 
 import java.io.IOException;
@@ -30,11 +33,13 @@ import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.content.service.ItemService;
 import org.dspace.core.Constants;
 import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.DocumentBuildCache;
 import org.dspace.discovery.indexobject.IndexableCollection;
 import org.dspace.discovery.indexobject.IndexableCommunity;
 import org.dspace.discovery.indexobject.IndexableItem;
 import org.dspace.discovery.indexobject.factory.IndexFactory;
 import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
 import org.dspace.handle.factory.HandleServiceFactory;
 import org.dspace.scripts.DSpaceRunnable;
 import org.dspace.services.factory.DSpaceServicesFactory;
@@ -45,6 +50,15 @@ import org.dspace.utils.DSpace;
  */
 public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguration> {
 
+    /**
+     * Number of item ids handed to a worker at once when building the index with several threads
+     */
+    private static final int PARALLEL_PAGE_SIZE = 500;
+    /**
+     * Number of items between two progress reports when building the index with several threads
+     */
+    private static final int PARALLEL_PROGRESS_INTERVAL = 10000;
+
     private Context context;
     private IndexingService indexer = DSpaceServicesFactory.getInstance().getServiceManager()
             .getServiceByName(IndexingService.class.getName(), IndexingService.class);
@@ -71,6 +85,11 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
 
         Optional<IndexableObject> indexableObject = Optional.empty();
 
+        IndexingMetrics indexingMetrics = getIndexingMetrics();
+        if (indexingMetrics != null) {
+            indexingMetrics.reset();
+        }
+
         if (indexClientOptions == IndexClientOptions.REMOVE || indexClientOptions == IndexClientOptions.INDEX) {
             final String param = indexClientOptions == IndexClientOptions.REMOVE ? commandLine.getOptionValue('r')
                     : commandLine.getOptionValue('i');
@@ -87,7 +106,7 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
                 break;
             case CLEAN:
                 handler.logInfo("Cleaning Index");
-                indexer.cleanIndex();
+                indexer.cleanIndex(handler);
                 break;
             case DELETE:
                 handler.logInfo("Deleting Index");
@@ -102,8 +121,15 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
                                     + ", type will be ignored",
                             TYPE_OPTION));
                 }
-                indexer.deleteIndex();
-                indexer.createIndex(context);
+                final Instant buildStart = Instant.now();
+                int threads = getThreads();
+                if (commandLine.hasOption(SHADOW_OPTION)) {
+                    buildShadowIndex(threads);
+                } else {
+                    indexer.deleteIndex();
+                    buildIndex(threads);
+                }
+                pruneFullTextCache(buildStart);
                 if (indexClientOptions == IndexClientOptions.BUILDANDSPELLCHECK) {
                     checkRebuildSpellCheck(commandLine, indexer);
                 }
@@ -118,8 +144,11 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
             case INDEX:
                 handler.logInfo("Indexing " + commandLine.getOptionValue('i') + " force " + commandLine.hasOption("f"));
                 final long startTimeMillis = Instant.now().toEpochMilli();
-                final long count = indexAll(indexer, ContentServiceFactory.getInstance().getItemService(), context,
-                    indexableObject.get());
+                final long count;
+                try (DocumentBuildCache.Scope buildCache = DocumentBuildCache.open()) {
+                    count = indexAll(indexer, ContentServiceFactory.getInstance().getItemService(), context,
+                        indexableObject.get());
+                }
                 final long seconds = (Instant.now().toEpochMilli() - startTimeMillis) / 1000;
                 handler.logInfo("Indexed " + count + " object" + (count > 1 ? "s" : "") +
                                 " in " + seconds + " seconds");
@@ -145,6 +174,12 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
                 break;
         }
 
+        if (commandLine.hasOption(METRICS_OPTION) && indexingMetrics != null) {
+            handler.logInfo("Indexing metrics:");
+            for (String line : indexingMetrics.getSummary()) {
+                handler.logInfo("  " + line);
+            }
+        }
         handler.logInfo("Done with indexing");
     }
 
@@ -164,6 +199,112 @@ public class IndexClient extends DSpaceRunnable<IndexDiscoveryScriptConfiguratio
         indexClientOptions = IndexClientOptions.getIndexClientOption(commandLine);
     }
 
+    /**
+     * @return the number of threads to (re)build the index with, as given by the threads option
+     */
+    private int getThreads() throws ParseException {
+        if (!commandLine.hasOption(THREADS_OPTION)) {
+            return 1;
+        }
+        String value = commandLine.getOptionValue(THREADS_OPTION);
+        try {
+            int threads = Integer.parseInt(value);
+            if (threads < 1) {
+                throw new NumberFormatException();
+            }
+            return threads;
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number of threads: " + value);
+        }
+    }
+
+    /**
+     * (Re)build the index, with several threads if requested.
+     *
+     * @param threads the number of threads indexing the items
+     */
+    private void buildIndex(int threads) throws SQLException, IOException, SearchServiceException,
+        InterruptedException {
+        if (threads > 1) {
+            buildIndexInParallel(threads);
+        } else {
+            indexer.createIndex(context);
+        }
+    }
+
+    /**
+     * Rebuild the index into the shadow core while the search core keeps serving the current index, then swap both
+     * cores. The changes made while the index was built, which only reached the current index, are indexed again
+     * by an update of the rebuilt index.
+     *
+     * @param threads the number of threads indexing the items
+     */
+    private void buildShadowIndex(int threads) throws Exception {
+        SolrSearchCore solrSearchCore = getSolrSearchCore();
+        handler.logInfo("Building the index into the shadow core " + solrSearchCore.getShadowCoreName());
+        solrSearchCore.startShadowBuild();
+        try {
+            buildIndex(threads);
+        } catch (Exception e) {
+            solrSearchCore.abortShadowBuild();
+            throw e;
+        }
+        handler.logInfo("Swapping the shadow core with the search core");
+        solrSearchCore.finishShadowBuild();
+        handler.logInfo("Indexing the changes made during the rebuild");
+        indexer.updateIndex(context, false);
+    }
+
+    /**
+     * (Re)build the index, indexing the items with the given number of threads. All other types are indexed first,
+     * on the current thread.
+     *
+     * @param threads the number of threads indexing the items
+     */
+    private void buildIndexInParallel(int threads) throws SQLException, SearchServiceException, InterruptedException {
+        IndexObjectFactoryFactory indexObjectFactoryFactory = IndexObjectFactoryFactory.getInstance();
+        for (IndexFactory indexFactory : indexObjectFactoryFactory.getIndexFactories()) {
+            if (!StringUtils.equals(indexFactory.getType(), IndexableItem.TYPE)) {
+                indexer.updateIndex(context, true, indexFactory.getType());
+            }
+        }
+
+        handler.logInfo("Indexing items with " + threads + " threads");
+        ParallelItemIndexer itemIndexer = new ParallelItemIndexer(
+                ContentServiceFactory.getInstance().getItemService(),
+                (ItemIndexFactory) indexObjectFactoryFactory.getIndexFactoryByType(IndexableItem.TYPE),
+                getSolrSearchCore().getDocumentBuffer(), handler, threads, PARALLEL_PAGE_SIZE,
+                PARALLEL_PROGRESS_INTERVAL);
+        itemIndexer.setIndexingMetrics(getIndexingMetrics());
+        itemIndexer.indexAll(context);
+        indexer.commit();
+    }
+
+    private IndexingMetrics getIndexingMetrics() {
+        return DSpaceServicesFactory.getInstance().getServiceManager().getServiceByName(null, IndexingMetrics.class);
+    }
+
+    private SolrSearchCore getSolrSearchCore() {
+        return DSpaceServicesFactory.getInstance().getServiceManager().getServicesByType(SolrSearchCore.class).get(0);
+    }
+
+    /**
+     * Remove the entries of the full text cache not used by the rebuild of the index, they belong to bitstreams
+     * which have been changed or removed.
+     *
+     * @param buildStart when the rebuild started
+     */
+    private void pruneFullTextCache(Instant buildStart) throws IOException {
+        FullTextCache fullTextCache = DSpaceServicesFactory.getInstance().getServiceManager()
+                .getServiceByName(null, FullTextCache.class);
+        if (fullTextCache == null || !fullTextCache.isEnabled()) {
+            return;
+        }
+        long removed = fullTextCache.prune(buildStart);
+        handler.logInfo("Full text cache: " + fullTextCache.getHitCount() + " hits, " + fullTextCache.getMissCount()
+                            + " misses, " + removed + " unused entries removed");
+    }
+
     /**
      * Resolves the given parameter to an IndexableObject (Item, Collection, or Community).
      *
@@ -35,6 +35,9 @@ public enum IndexClientOptions {
     HELP;
 
     public static final String TYPE_OPTION = "t";
+    public static final String THREADS_OPTION = "p";
+    public static final String SHADOW_OPTION = "z";
+    public static final String METRICS_OPTION = "m";
 
     /**
      * This method resolves the CommandLine parameters to figure out which action the index-discovery script should
@@ -92,6 +95,14 @@ public enum IndexClientOptions {
         options.addOption("d", "delete", false,
                 "delete all records from existing index");
         options.addOption("b", "build", false, "(re)build index, wiping out current one if it exists");
+        options.addOption(THREADS_OPTION, "threads", true,
+                          "number of threads used to index the items when (re)building the index with -b, "
+                              + "defaults to 1");
+        options.addOption(SHADOW_OPTION, "shadow", false,
+                          "(re)build the index with -b into the shadow core (see discovery.index.shadow.core) and "
+                              + "swap it with the current one once complete, which stays searchable meanwhile");
+        options.addOption(METRICS_OPTION, "metrics", false,
+                          "print a summary of the time spent per indexing phase, plugin and object type at the end");
         options.addOption("s", "spellchecker", false, "Rebuild the spellchecker, can be combined with -b and -f.");
         options.addOption("f", "force", false,
                           "if updating existing index, force each handle to be reindexed even if up-to-date");
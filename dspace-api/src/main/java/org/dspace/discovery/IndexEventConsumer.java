@@ -8,17 +8,29 @@
 package org.dspace.discovery;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import org.apache.logging.log4j.Logger;
 import org.dspace.content.Bundle;
 import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.content.service.RelationshipService;
 import org.dspace.core.Constants;
 import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.IndexableItem;
 import org.dspace.discovery.indexobject.factory.IndexFactory;
 import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.service.IndexOutboxService;
 import org.dspace.event.Consumer;
 import org.dspace.event.Event;
 import org.dspace.services.factory.DSpaceServicesFactory;
@@ -44,12 +56,23 @@ public class IndexEventConsumer implements Consumer {
     // unique search IDs to delete
     private Set<String> uniqueIdsToDelete = new HashSet<>();
 
+    // collect Items whose changes only need a partial update of their documents, with the kind of changes
+    private Map<UUID, Set<ItemIndexChange>> itemsToUpdatePartially = new HashMap<>();
+
     IndexingService indexer = DSpaceServicesFactory.getInstance().getServiceManager()
                                                    .getServiceByName(IndexingService.class.getName(),
                                                                      IndexingService.class);
 
     IndexObjectFactoryFactory indexObjectServiceFactory = IndexObjectFactoryFactory.getInstance();
 
+    IndexOutboxService indexOutboxService = DSpaceServicesFactory.getInstance().getServiceManager()
+                                                                 .getServiceByName(IndexOutboxService.class.getName(),
+                                                                                   IndexOutboxService.class);
+
+    ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+
+    RelationshipService relationshipService = ContentServiceFactory.getInstance().getRelationshipService();
+
     @Override
     public void initialize() throws Exception {
 
@@ -69,6 +92,7 @@ public class IndexEventConsumer implements Consumer {
             objectsToUpdate = new HashSet<>();
             uniqueIdsToDelete = new HashSet<>();
             createdItemsToUpdate = new HashSet<>();
+            itemsToUpdatePartially = new HashMap<>();
         }
 
         int st = event.getSubjectType();
@@ -137,6 +161,11 @@ public class IndexEventConsumer implements Consumer {
                                  + event.getSubjectID()
                                  + ", perhaps it has been deleted.");
                     }
+                } else if (event.getSubjectType() == Constants.ITEM && getPartialChanges(event) != null) {
+                    log.debug("consume() adding event to partial update queue: " + event.toString());
+                    itemsToUpdatePartially.computeIfAbsent(event.getSubjectID(),
+                                                           id -> EnumSet.noneOf(ItemIndexChange.class))
+                                          .addAll(getPartialChanges(event));
                 } else {
                     log.debug("consume() adding event to update queue: " + event.toString());
                     if (event.getSubjectType() == Constants.ITEM) {
@@ -202,6 +231,148 @@ public class IndexEventConsumer implements Consumer {
         }
     }
 
+    /**
+     * Classify the change reported by an item event, see {@link ItemIndexChange}.
+     *
+     * @param event a MODIFY or MODIFY_METADATA event of an item
+     * @return the changes made to the item, or null if its document has to be rebuilt
+     */
+    private Set<ItemIndexChange> getPartialChanges(Event event) {
+        if (!isPartialUpdateEnabled()) {
+            return null;
+        }
+        String detail = event.getDetail();
+        if (event.getEventType() == Event.MODIFY_METADATA || Item.METADATA_MODIFIED.equals(detail)) {
+            return EnumSet.of(ItemIndexChange.METADATA);
+        }
+        if (event.getEventType() != Event.MODIFY || detail == null) {
+            return null;
+        }
+        if (detail.equals("WITHDRAW") || detail.equals("REINSTATE")) {
+            return EnumSet.of(ItemIndexChange.WITHDRAWAL);
+        }
+        if (detail.equals(Item.POLICIES_MODIFIED)) {
+            return EnumSet.of(ItemIndexChange.POLICIES);
+        }
+        // otherwise the detail lists the modified properties of the item
+        Set<String> properties = Set.of(detail.split(", "));
+        Set<ItemIndexChange> changes = EnumSet.noneOf(ItemIndexChange.class);
+        for (String property : properties) {
+            if (property.equals(Item.DISCOVERABLE_PROPERTY)) {
+                changes.add(ItemIndexChange.DISCOVERABILITY);
+            } else if (property.equals(Item.WITHDRAWN_PROPERTY)) {
+                changes.add(ItemIndexChange.WITHDRAWAL);
+            } else if (!property.equals(Item.ARCHIVED_PROPERTY) || !properties.contains(Item.WITHDRAWN_PROPERTY)) {
+                // archiving an item, moving it or changing its submitter needs a full update
+                return null;
+            }
+        }
+        return changes;
+    }
+
+    private boolean isPartialUpdateEnabled() {
+        return DSpaceServicesFactory.getInstance().getConfigurationService()
+                                    .getBooleanProperty("discovery.index.partial.enabled", true)
+            && !indexOutboxService.isEnabled();
+    }
+
+    /**
+     * Find the items whose virtual metadata is derived from the changed items, e.g. the publications of a person
+     * whose name changed. The related items are gathered level by level, with a single query per relationship type
+     * for each batch of "discovery.index.relateditems.max" items of a level, up to
+     * "discovery.index.relateditems.maxdepth" levels. Items which are already deleted or updated are skipped, so an
+     * item related to several changed items, or changed itself, is only indexed once.
+     *
+     * @param ctx DSpace context
+     * @param max the maximum number of items to load at once
+     * @return the ids of the related items to update
+     */
+    private List<UUID> findRelatedItems(Context ctx, int max) throws SQLException {
+        int maxDepth = DSpaceServicesFactory.getInstance().getConfigurationService()
+                                            .getIntProperty("discovery.index.relateditems.maxdepth", 5);
+        List<UUID> relatedItemIds = new ArrayList<>();
+        if (maxDepth <= 0) {
+            return relatedItemIds;
+        }
+
+        Set<UUID> planned = new HashSet<>();
+        for (String uid : uniqueIdsToDelete) {
+            if (uid.startsWith(IndexableItem.TYPE + "-")) {
+                planned.add(UUID.fromString(uid.substring(IndexableItem.TYPE.length() + 1)));
+            }
+        }
+        List<Item> changedItems = new ArrayList<>();
+        for (Set<IndexableObject> objects : List.of(objectsToUpdate, createdItemsToUpdate)) {
+            for (IndexableObject iu : objects) {
+                if (iu instanceof IndexableItem) {
+                    Item item = ((IndexableItem) iu).getIndexedObject();
+                    if (planned.add(item.getID())) {
+                        changedItems.add(item);
+                    }
+                }
+            }
+        }
+        List<UUID> metadataChangedIds = new ArrayList<>();
+        for (Map.Entry<UUID, Set<ItemIndexChange>> entry : itemsToUpdatePartially.entrySet()) {
+            if (planned.add(entry.getKey()) && entry.getValue().contains(ItemIndexChange.METADATA)) {
+                metadataChangedIds.add(entry.getKey());
+            }
+        }
+
+        List<UUID> levelIds = new ArrayList<>();
+        for (UUID id : relationshipService.findItemsWithVirtualMetadataFrom(ctx, changedItems)) {
+            if (planned.add(id)) {
+                levelIds.add(id);
+            }
+        }
+        findRelatedItems(ctx, metadataChangedIds, max, planned, levelIds);
+        for (int depth = 1; depth < maxDepth && !levelIds.isEmpty(); depth++) {
+            relatedItemIds.addAll(levelIds);
+            log.debug("Found " + levelIds.size() + " related items at depth " + depth);
+            List<UUID> nextLevelIds = new ArrayList<>();
+            findRelatedItems(ctx, levelIds, max, planned, nextLevelIds);
+            levelIds = nextLevelIds;
+        }
+        relatedItemIds.addAll(levelIds);
+        return relatedItemIds;
+    }
+
+    /**
+     * Add the items related to the given items, which are not planned yet, to the related items, loading the given
+     * items in batches of at most max items.
+     */
+    private void findRelatedItems(Context ctx, List<UUID> itemIds, int max, Set<UUID> planned,
+                                  List<UUID> relatedItemIds) throws SQLException {
+        for (int from = 0; from < itemIds.size(); from += max) {
+            List<Item> items = itemService.findByIds(ctx, itemIds.subList(from, Math.min(from + max, itemIds.size())));
+            for (UUID id : relationshipService.findItemsWithVirtualMetadataFrom(ctx, items)) {
+                if (planned.add(id)) {
+                    relatedItemIds.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the given related items to the items to update. Only the virtual metadata of the related items changed.
+     *
+     * @param ctx DSpace context
+     * @param relatedItemIds the ids of the related items
+     */
+    private void planRelatedItems(Context ctx, List<UUID> relatedItemIds) throws SQLException {
+        if (relatedItemIds.isEmpty()) {
+            return;
+        }
+        boolean partialUpdate = isPartialUpdateEnabled();
+        for (Item item : itemService.findByIds(ctx, relatedItemIds)) {
+            if (partialUpdate) {
+                itemsToUpdatePartially.put(item.getID(), EnumSet.of(ItemIndexChange.METADATA));
+            } else {
+                objectsToUpdate.addAll(indexObjectServiceFactory.getIndexableObjects(ctx, item));
+            }
+        }
+    }
+
     /**
      * Process sets of objects to add, update, and delete in index. Correct for
      * interactions between the sets -- e.g. objects which were deleted do not
@@ -210,6 +381,41 @@ public class IndexEventConsumer implements Consumer {
     @Override
     public void end(Context ctx) throws Exception {
 
+        int max = DSpaceServicesFactory.getInstance().getConfigurationService()
+                                       .getIntProperty("discovery.index.relateditems.max", 1000);
+        List<UUID> relatedItemIds = List.of();
+        if (max > 0) {
+            try {
+                relatedItemIds = findRelatedItems(ctx, max);
+            } catch (SQLException e) {
+                log.error("Failed while finding the items related to the changed items: ", e);
+            }
+        }
+        // the created items are updated with their pre-db status, which replaces a regular update
+        objectsToUpdate.removeAll(createdItemsToUpdate);
+
+        // the related items are indexed in batches of at most "max" items, with the changed items in the first one
+        int from = 0;
+        do {
+            int to = Math.min(from + Math.max(max, 1), relatedItemIds.size());
+            try {
+                planRelatedItems(ctx, relatedItemIds.subList(from, to));
+            } catch (SQLException e) {
+                log.error("Failed while loading the items related to the changed items: ", e);
+            }
+            if (indexOutboxService.isEnabled()) {
+                enqueue(ctx);
+            } else {
+                index(ctx);
+            }
+            from = to;
+        } while (from < relatedItemIds.size());
+    }
+
+    /**
+     * Update the index with the objects to delete and update, and commit it.
+     */
+    private void index(Context ctx) throws SQLException, SearchServiceException {
         // Change the mode to readonly to improve performance
         Context.Mode originalMode = ctx.getCurrentMode();
         ctx.setMode(Context.Mode.READ_ONLY);
@@ -233,8 +439,11 @@ public class IndexEventConsumer implements Consumer {
             for (IndexableObject iu : createdItemsToUpdate) {
                 indexObject(ctx, iu, true);
             }
+            // partially update the changed Items not already fully updated
+            updatePartially(ctx);
         } finally {
-            if (!objectsToUpdate.isEmpty() || !uniqueIdsToDelete.isEmpty()) {
+            if (!objectsToUpdate.isEmpty() || !createdItemsToUpdate.isEmpty() || !uniqueIdsToDelete.isEmpty()
+                || !itemsToUpdatePartially.isEmpty()) {
 
                 indexer.commit();
 
@@ -242,12 +451,83 @@ public class IndexEventConsumer implements Consumer {
                 objectsToUpdate.clear();
                 uniqueIdsToDelete.clear();
                 createdItemsToUpdate.clear();
+                itemsToUpdatePartially.clear();
             }
 
             ctx.setMode(originalMode);
         }
     }
 
+    private void updatePartially(Context ctx) throws SQLException {
+        if (itemsToUpdatePartially.isEmpty()) {
+            return;
+        }
+        Set<String> fullyUpdated = new HashSet<>(uniqueIdsToDelete);
+        for (IndexableObject iu : objectsToUpdate) {
+            fullyUpdated.add(iu.getUniqueIndexID());
+        }
+        for (IndexableObject iu : createdItemsToUpdate) {
+            fullyUpdated.add(iu.getUniqueIndexID());
+        }
+        Map<IndexableItem, Set<ItemIndexChange>> changes = new HashMap<>();
+        for (Map.Entry<UUID, Set<ItemIndexChange>> entry : itemsToUpdatePartially.entrySet()) {
+            if (fullyUpdated.contains(IndexableItem.TYPE + "-" + entry.getKey())) {
+                continue;
+            }
+            Item item = itemService.find(ctx, entry.getKey());
+            if (item == null) {
+                log.warn("Could not find the Item " + entry.getKey() + " to index, perhaps it has been deleted.");
+            } else if (item.isArchived() || item.isWithdrawn()) {
+                changes.put(new IndexableItem(item), entry.getValue());
+            } else {
+                // items in the submission or in the workflow are also indexed as workspace or workflow items
+                try {
+                    indexer.unIndexContent(ctx, IndexableItem.TYPE + "-" + item.getID(), false);
+                } catch (Exception e) {
+                    log.error("Failed while UN-indexing object: " + item.getID(), e);
+                }
+                for (IndexableObject iu : indexObjectServiceFactory.getIndexableObjects(ctx, item)) {
+                    indexObject(ctx, iu, false);
+                }
+            }
+        }
+        try {
+            indexer.updatePartially(ctx, changes);
+        } catch (Exception e) {
+            log.error("Failed while partially indexing items: ", e);
+        }
+    }
+
+    /**
+     * Record the objects to delete and update in the indexing outbox, in the current transaction, instead of
+     * updating the index. The {@link IndexOutboxProcessor} applies them once the transaction is committed.
+     */
+    private void enqueue(Context ctx) throws SQLException {
+        try {
+            for (String uid : uniqueIdsToDelete) {
+                indexOutboxService.enqueue(ctx, uid, IndexOutboxEntry.Action.DELETE, false);
+            }
+            for (IndexableObject iu : objectsToUpdate) {
+                enqueueUpdate(ctx, iu, false);
+            }
+            for (IndexableObject iu : createdItemsToUpdate) {
+                enqueueUpdate(ctx, iu, true);
+            }
+        } finally {
+            objectsToUpdate.clear();
+            uniqueIdsToDelete.clear();
+            createdItemsToUpdate.clear();
+        }
+    }
+
+    private void enqueueUpdate(Context ctx, IndexableObject iu, boolean preDb) throws SQLException {
+        String uniqueIndexID = iu.getUniqueIndexID();
+        if (uniqueIndexID != null) {
+            indexOutboxService.enqueue(ctx, uniqueIndexID, IndexOutboxEntry.Action.UPDATE, preDb);
+            log.debug("Queued " + iu.getTypeText() + ", unique_id=" + uniqueIndexID);
+        }
+    }
+
     private void indexObject(Context ctx, IndexableObject iu, boolean preDb) throws SQLException {
         /* we let all types through here and
          * allow the search indexer to make
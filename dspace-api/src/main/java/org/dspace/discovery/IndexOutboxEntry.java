@@ -0,0 +1,158 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.dspace.core.Context;
+import org.dspace.core.ReloadableEntity;
+import org.dspace.discovery.service.IndexOutboxService;
+
+/**
+ * Database entity representation of the discovery_index_outbox table. Each record is an indexing intent written by
+ * the {@link IndexEventConsumer} in the same transaction as the change which caused it, and processed later on by
+ * the {@link IndexOutboxProcessor}.
+ */
+@Entity
+@Table(name = "discovery_index_outbox")
+public class IndexOutboxEntry implements ReloadableEntity<Integer> {
+
+    /**
+     * What should be done with the document of the object.
+     */
+    public enum Action {
+        /**
+         * (Re)index the object, or remove its document if the object no longer exists.
+         */
+        UPDATE,
+        /**
+         * Remove the document of the object.
+         */
+        DELETE
+    }
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "discovery_index_outbox_id_seq")
+    @SequenceGenerator(name = "discovery_index_outbox_id_seq", sequenceName = "discovery_index_outbox_id_seq",
+        allocationSize = 1)
+    private Integer id;
+
+    /**
+     * The unique index id of the object, see {@link IndexableObject#getUniqueIndexID()}.
+     */
+    @Column(name = "unique_id")
+    private String uniqueId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action")
+    private Action action;
+
+    /**
+     * Whether the object should be indexed with a "preDB" status.
+     */
+    @Column(name = "pre_db")
+    private boolean preDb = false;
+
+    /**
+     * Number of failed attempts to process this record.
+     */
+    @Column(name = "attempts")
+    private int attempts = 0;
+
+    @Column(name = "created")
+    private Instant created;
+
+    /**
+     * The record is not processed before this date. It is pushed back while the record is being processed and after
+     * each failed attempt.
+     */
+    @Column(name = "next_attempt")
+    private Instant nextAttempt;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    /**
+     * Protected constructor, create object using:
+     * {@link IndexOutboxService#enqueue(Context, String, Action, boolean)}
+     */
+    protected IndexOutboxEntry() {
+
+    }
+
+    @Override
+    public Integer getID() {
+        return id;
+    }
+
+    public String getUniqueId() {
+        return uniqueId;
+    }
+
+    public void setUniqueId(String uniqueId) {
+        this.uniqueId = uniqueId;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public boolean isPreDb() {
+        return preDb;
+    }
+
+    public void setPreDb(boolean preDb) {
+        this.preDb = preDb;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreated() {
+        return created;
+    }
+
+    public void setCreated(Instant created) {
+        this.created = created;
+    }
+
+    public Instant getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(Instant nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,389 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.factory.IndexFactory;
+import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.service.IndexOutboxService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+
+/**
+ * Applies the indexing intents recorded in the outbox by the {@link IndexEventConsumer} when asynchronous indexing
+ * is enabled.
+ * <p>
+ * A polling thread claims the oldest records in batches. The records of a batch are merged by unique index id, so
+ * that an object changed several times is only indexed once, and then processed by a pool of worker threads: all the
+ * deletes first, then all the updates, as the consumer would have done. Updates always index the current state of
+ * the object, or remove its document if it no longer exists. Records which could not be processed are kept and
+ * retried with an exponential backoff, see {@link IndexOutboxService#fail(Context, IndexOutboxEntry, String)}.
+ */
+public class IndexOutboxProcessor {
+
+    private static final Logger log = LogManager.getLogger(IndexOutboxProcessor.class);
+
+    private final IndexOutboxService indexOutboxService;
+    private final IndexObjectFactoryFactory indexObjectFactoryFactory;
+    private final IndexingService indexingService;
+    private final SolrSearchCore solrSearchCore;
+    private final ConfigurationService configurationService;
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile long lastBatchMillis = 0;
+
+    private ExecutorService workers;
+    private Thread poller;
+    private volatile boolean running = false;
+
+    public IndexOutboxProcessor() {
+        this(DSpaceServicesFactory.getInstance().getServiceManager()
+                                  .getServiceByName(IndexOutboxService.class.getName(), IndexOutboxService.class),
+             IndexObjectFactoryFactory.getInstance(),
+             DSpaceServicesFactory.getInstance().getServiceManager()
+                                  .getServiceByName(IndexingService.class.getName(), IndexingService.class),
+             DSpaceServicesFactory.getInstance().getServiceManager()
+                                  .getServicesByType(SolrSearchCore.class).get(0),
+             DSpaceServicesFactory.getInstance().getConfigurationService());
+    }
+
+    public IndexOutboxProcessor(IndexOutboxService indexOutboxService,
+                                IndexObjectFactoryFactory indexObjectFactoryFactory,
+                                IndexingService indexingService, SolrSearchCore solrSearchCore,
+                                ConfigurationService configurationService) {
+        this.indexOutboxService = indexOutboxService;
+        this.indexObjectFactoryFactory = indexObjectFactoryFactory;
+        this.indexingService = indexingService;
+        this.solrSearchCore = solrSearchCore;
+        this.configurationService = configurationService;
+    }
+
+    /**
+     * Start the polling thread and the worker threads.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        int threads = Math.max(1, configurationService.getIntProperty("discovery.index.async.workers", 4));
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "discovery-outbox-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        poller = new Thread(this::poll, "discovery-outbox-poller");
+        poller.setDaemon(true);
+        poller.start();
+        log.info("Started processing the discovery index outbox with {} workers", threads);
+    }
+
+    /**
+     * Stop the polling thread and the worker threads. The records being processed are claimed again by the next
+     * run once their lease expires.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        poller.interrupt();
+        workers.shutdownNow();
+        try {
+            poller.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers = null;
+        poller = null;
+    }
+
+    private void poll() {
+        long pollInterval = configurationService.getLongProperty("discovery.index.async.pollInterval", 1000);
+        while (running) {
+            try {
+                if (processBatch() == 0) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error while processing the discovery index outbox", e);
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim and process one batch of records. When the processor is not started, the batch is processed on the
+     * calling thread.
+     *
+     * @return the number of claimed records
+     * @throws SQLException         if the outbox could not be read or updated
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public int processBatch() throws SQLException, InterruptedException {
+        final long startTimeMillis = Instant.now().toEpochMilli();
+        int batchSize = configurationService.getIntProperty("discovery.index.async.batchSize", 100);
+        long leaseMillis = configurationService.getLongProperty("discovery.index.async.lease", 300000);
+
+        Context context = new Context();
+        context.turnOffAuthorisationSystem();
+        try {
+            List<IndexOutboxEntry> entries = indexOutboxService.claim(context, batchSize, leaseMillis);
+            context.commit();
+            if (entries.isEmpty()) {
+                return 0;
+            }
+
+            Map<String, List<IndexOutboxEntry>> byUniqueId = new LinkedHashMap<>();
+            for (IndexOutboxEntry entry : entries) {
+                byUniqueId.computeIfAbsent(entry.getUniqueId(), uniqueId -> new ArrayList<>()).add(entry);
+            }
+            mergedCount.addAndGet(entries.size() - byUniqueId.size());
+
+            List<String> deletes = new ArrayList<>();
+            List<IndexOutboxEntry> updates = new ArrayList<>();
+            for (List<IndexOutboxEntry> group : byUniqueId.values()) {
+                if (group.stream().anyMatch(entry -> entry.getAction() == IndexOutboxEntry.Action.DELETE)) {
+                    deletes.add(group.get(0).getUniqueId());
+                }
+                IndexOutboxEntry last = group.get(group.size() - 1);
+                if (last.getAction() == IndexOutboxEntry.Action.UPDATE) {
+                    updates.add(last);
+                }
+            }
+
+            Map<String, String> errors = new ConcurrentHashMap<>();
+            SolrDocumentBuffer documentBuffer = solrSearchCore.getDocumentBuffer();
+            long failedBefore = documentBuffer.getFailedCount();
+            runInParallel(deletes, uniqueId -> uniqueId, this::delete, errors);
+            runInParallel(updates, IndexOutboxEntry::getUniqueId, this::update, errors);
+            List<String> refused = documentBuffer.flush();
+            if (documentBuffer.getFailedCount() - failedBefore > refused.size()) {
+                // documents were refused by a flush we did not trigger, we cannot tell which ones
+                for (IndexOutboxEntry entry : updates) {
+                    errors.putIfAbsent(entry.getUniqueId(), "The search core refused documents of this batch");
+                }
+            } else {
+                for (String uniqueId : refused) {
+                    if (byUniqueId.containsKey(uniqueId)) {
+                        errors.putIfAbsent(uniqueId, "The search core refused the document");
+                    }
+                }
+            }
+            try {
+                indexingService.commit();
+            } catch (SearchServiceException e) {
+                log.error("Unable to commit the discovery index outbox batch", e);
+                for (String uniqueId : byUniqueId.keySet()) {
+                    errors.putIfAbsent(uniqueId, e.getMessage());
+                }
+            }
+
+            List<IndexOutboxEntry> completed = new ArrayList<>();
+            for (Map.Entry<String, List<IndexOutboxEntry>> group : byUniqueId.entrySet()) {
+                String error = errors.get(group.getKey());
+                if (error == null) {
+                    completed.addAll(group.getValue());
+                } else {
+                    for (IndexOutboxEntry entry : group.getValue()) {
+                        indexOutboxService.fail(context, entry, error);
+                    }
+                }
+            }
+            indexOutboxService.complete(context, completed);
+            context.complete();
+
+            processedCount.addAndGet(byUniqueId.size() - errors.size());
+            failedCount.addAndGet(errors.size());
+            lastBatchMillis = Instant.now().toEpochMilli() - startTimeMillis;
+            return entries.size();
+        } finally {
+            if (context.isValid()) {
+                context.abort();
+            }
+        }
+    }
+
+    private void delete(Context context, String uniqueId) throws Exception {
+        IndexFactory indexFactory = indexObjectFactoryFactory.getIndexableObjectFactory(uniqueId);
+        if (indexFactory == null) {
+            log.warn("No index factory found for {}, skipping it", uniqueId);
+            return;
+        }
+        indexFactory.delete(uniqueId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void update(Context context, IndexOutboxEntry entry) throws Exception {
+        String uniqueId = entry.getUniqueId();
+        IndexFactory indexFactory = indexObjectFactoryFactory.getIndexableObjectFactory(uniqueId);
+        if (indexFactory == null) {
+            log.warn("No index factory found for {}, skipping it", uniqueId);
+            return;
+        }
+        Optional<IndexableObject> indexableObject =
+            indexFactory.findIndexableObject(context, StringUtils.substringAfter(uniqueId, "-"));
+        if (indexableObject.isEmpty()) {
+            // removed since the record was written
+            indexFactory.delete(uniqueId);
+            return;
+        }
+        SolrInputDocument doc = entry.isPreDb()
+            ? indexFactory.buildNewDocument(context, indexableObject.get())
+            : indexFactory.buildDocument(context, indexableObject.get());
+        indexFactory.writeDocument(context, indexableObject.get(), doc);
+        context.uncacheEntities();
+    }
+
+    /**
+     * Run the task on every element, spread over the worker threads. Each worker uses its own read-only context.
+     * The failures are recorded in the errors map, keyed by unique index id.
+     */
+    private <T> void runInParallel(List<T> elements, Function<T, String> uniqueIdOf,
+                                   OutboxTask<T> task, Map<String, String> errors) throws InterruptedException {
+        if (elements.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = workers;
+        int slices = executor != null ? configurationService.getIntProperty("discovery.index.async.workers", 4) : 1;
+        slices = Math.max(1, Math.min(slices, elements.size()));
+        List<Callable<Void>> callables = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            final int slice = i;
+            final int sliceCount = slices;
+            callables.add(() -> {
+                Context context = new Context(Context.Mode.READ_ONLY);
+                context.turnOffAuthorisationSystem();
+                try {
+                    for (int j = slice; j < elements.size(); j += sliceCount) {
+                        T element = elements.get(j);
+                        try {
+                            task.run(context, element);
+                        } catch (Exception e) {
+                            String uniqueId = uniqueIdOf.apply(element);
+                            log.warn("Unable to process the discovery index outbox record for {}", uniqueId, e);
+                            errors.put(uniqueId, e.toString());
+                        }
+                    }
+                } finally {
+                    context.abort();
+                }
+                return null;
+            });
+        }
+        if (executor != null) {
+            executor.invokeAll(callables);
+        } else {
+            for (Callable<Void> callable : callables) {
+                try {
+                    callable.call();
+                } catch (Exception e) {
+                    log.error("Unexpected error while processing the discovery index outbox", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of records waiting in the outbox
+     * @throws SQLException if the outbox could not be read
+     */
+    public long getQueueDepth() throws SQLException {
+        Context context = new Context(Context.Mode.READ_ONLY);
+        try {
+            return indexOutboxService.countPending(context);
+        } finally {
+            context.abort();
+        }
+    }
+
+    /**
+     * @return the age in milliseconds of the oldest record waiting in the outbox, 0 if it is empty
+     * @throws SQLException if the outbox could not be read
+     */
+    public long getLagMillis() throws SQLException {
+        Context context = new Context(Context.Mode.READ_ONLY);
+        try {
+            Instant oldest = indexOutboxService.getOldestPending(context);
+            return oldest == null ? 0 : Math.max(0, Instant.now().toEpochMilli() - oldest.toEpochMilli());
+        } finally {
+            context.abort();
+        }
+    }
+
+    /**
+     * @return the number of objects successfully indexed or removed since the start
+     */
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * @return the number of records merged into another record of the same object since the start
+     */
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    /**
+     * @return the number of failed attempts since the start
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return the duration in milliseconds of the last processed batch
+     */
+    public long getLastBatchMillis() {
+        return lastBatchMillis;
+    }
+
+    /**
+     * @return true if the polling thread is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    @FunctionalInterface
+    private interface OutboxTask<T> {
+        void run(Context context, T element) throws Exception;
+    }
+}
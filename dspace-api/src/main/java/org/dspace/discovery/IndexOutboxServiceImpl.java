@@ -0,0 +1,109 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.dspace.core.Context;
+import org.dspace.discovery.dao.IndexOutboxDAO;
+import org.dspace.discovery.service.IndexOutboxService;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Implementation of {@link IndexOutboxService}.
+ */
+public class IndexOutboxServiceImpl implements IndexOutboxService {
+
+    /**
+     * Maximum length of the error kept with a failed record.
+     */
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    @Autowired
+    private IndexOutboxDAO indexOutboxDAO;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    protected IndexOutboxServiceImpl() {
+
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return configurationService.getBooleanProperty("discovery.index.async.enabled", false);
+    }
+
+    @Override
+    public IndexOutboxEntry enqueue(Context context, String uniqueId, IndexOutboxEntry.Action action, boolean preDb)
+        throws SQLException {
+        Instant now = Instant.now();
+        IndexOutboxEntry entry = new IndexOutboxEntry();
+        entry.setUniqueId(uniqueId);
+        entry.setAction(action);
+        entry.setPreDb(preDb);
+        entry.setCreated(now);
+        entry.setNextAttempt(now);
+        return indexOutboxDAO.create(context, entry);
+    }
+
+    @Override
+    public List<IndexOutboxEntry> claim(Context context, int limit, long leaseMillis) throws SQLException {
+        Instant now = Instant.now();
+        List<IndexOutboxEntry> entries = indexOutboxDAO.findDueForUpdate(context, now, limit);
+        Instant leaseEnd = now.plusMillis(leaseMillis);
+        for (IndexOutboxEntry entry : entries) {
+            entry.setNextAttempt(leaseEnd);
+            indexOutboxDAO.save(context, entry);
+        }
+        return entries;
+    }
+
+    @Override
+    public void complete(Context context, List<IndexOutboxEntry> entries) throws SQLException {
+        List<Integer> ids = new ArrayList<>(entries.size());
+        for (IndexOutboxEntry entry : entries) {
+            ids.add(entry.getID());
+        }
+        indexOutboxDAO.deleteByIds(context, ids);
+    }
+
+    @Override
+    public void fail(Context context, IndexOutboxEntry entry, String error) throws SQLException {
+        entry = context.reloadEntity(entry);
+        if (entry == null) {
+            return;
+        }
+        long delay = configurationService.getLongProperty("discovery.index.async.retry.delay", 5000);
+        long maxDelay = configurationService.getLongProperty("discovery.index.async.retry.maxDelay", 3600000);
+        int attempts = entry.getAttempts() + 1;
+        // double the delay on each attempt, without overflowing
+        for (int i = 1; i < attempts && delay < maxDelay; i++) {
+            delay *= 2;
+        }
+        entry.setAttempts(attempts);
+        entry.setNextAttempt(Instant.now().plusMillis(Math.min(delay, maxDelay)));
+        entry.setLastError(StringUtils.abbreviate(error, MAX_ERROR_LENGTH));
+        indexOutboxDAO.save(context, entry);
+    }
+
+    @Override
+    public long countPending(Context context) throws SQLException {
+        return indexOutboxDAO.countAll(context);
+    }
+
+    @Override
+    public Instant getOldestPending(Context context) throws SQLException {
+        return indexOutboxDAO.findOldestCreated(context);
+    }
+}
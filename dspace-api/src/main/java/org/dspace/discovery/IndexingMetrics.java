@@ -0,0 +1,256 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Timings of the indexing of the search core, to find out where the time of a (re)index goes. The time spent is
+ * recorded per {@link Phase}, per {@link SolrServiceIndexPlugin} and per index factory (building the documents of
+ * its type), along with the estimated size of the documents of each type.
+ * <p>
+ * The metrics are cumulated since startup or since the last {@link #reset()}. They are reported by the
+ * "discoveryIndexing" health indicator of the actuator and, for a single run, by "index-discovery -m". Recording can
+ * be disabled with "discovery.index.metrics.enabled".
+ */
+public class IndexingMetrics implements InitializingBean {
+
+    /**
+     * The phases of the indexing of an object, besides the building of its document.
+     */
+    public enum Phase {
+        /**
+         * Loading the objects to index from the database.
+         */
+        DB_LOAD,
+        /**
+         * Retrieving the metadata of items, including the virtual metadata of their relationships.
+         */
+        VIRTUAL_METADATA,
+        /**
+         * Retrieving and parsing the full text of items.
+         */
+        FULL_TEXT,
+        /**
+         * Sending the documents to the search core, counted per document.
+         */
+        SOLR_SEND
+    }
+
+    /**
+     * The count, total and maximum of the values recorded for a part of the indexing, e.g. the nanoseconds spent
+     * per call of a plugin.
+     */
+    public static class Metric {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long value, long occurrences) {
+            count.add(occurrences);
+            total.add(value);
+            max.accumulate(occurrences > 1 ? value / occurrences : value);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotal() {
+            return total.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        void reset() {
+            count.reset();
+            total.reset();
+            max.reset();
+        }
+    }
+
+    @Autowired
+    protected ConfigurationService configurationService;
+
+    /**
+     * Read once, this is checked for every indexed document
+     */
+    private boolean enabled = true;
+
+    private final Map<Phase, Metric> phases = new EnumMap<>(Phase.class);
+    private final Map<String, Metric> plugins = new ConcurrentHashMap<>();
+    private final Map<String, Metric> factories = new ConcurrentHashMap<>();
+    private final Map<String, Metric> documentSizes = new ConcurrentHashMap<>();
+
+    public IndexingMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Metric());
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        enabled = configurationService == null
+            || configurationService.getBooleanProperty("discovery.index.metrics.enabled", true);
+    }
+
+    /**
+     * @return whether timings are recorded, see "discovery.index.metrics.enabled"
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the current time to pass to the record methods, or 0 when recording is disabled
+     */
+    public long start() {
+        return isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time spent in a phase for a single object.
+     *
+     * @param phase the phase
+     * @param start the value returned by {@link #start()} when the phase started
+     */
+    public void recordPhase(Phase phase, long start) {
+        recordPhase(phase, start, 1);
+    }
+
+    /**
+     * Record the time spent in a phase for a number of objects at once, e.g. a batch of documents sent to Solr.
+     *
+     * @param phase   the phase
+     * @param start   the value returned by {@link #start()} when the phase started
+     * @param objects the number of objects
+     */
+    public void recordPhase(Phase phase, long start, long objects) {
+        if (start != 0) {
+            phases.get(phase).record(System.nanoTime() - start, objects);
+        }
+    }
+
+    /**
+     * Record the time spent by a plugin adding its fields to a document.
+     *
+     * @param plugin the plugin
+     * @param start  the value returned by {@link #start()} before the plugin was called
+     */
+    public void recordPlugin(SolrServiceIndexPlugin plugin, long start) {
+        if (start != 0) {
+            plugins.computeIfAbsent(plugin.getClass().getSimpleName(), name -> new Metric())
+                   .record(System.nanoTime() - start, 1);
+        }
+    }
+
+    /**
+     * Record the time spent by an index factory building a document, plugins included.
+     *
+     * @param type  the type of the indexed object, see {@link IndexableObject#getType()}
+     * @param start the value returned by {@link #start()} before the document was built
+     */
+    public void recordFactory(String type, long start) {
+        if (start != 0) {
+            factories.computeIfAbsent(type, name -> new Metric()).record(System.nanoTime() - start, 1);
+        }
+    }
+
+    /**
+     * Record the size of a complete document, as written to the search core.
+     *
+     * @param type  the type of the indexed object, see {@link IndexableObject#getType()}
+     * @param bytes the estimated size of the document
+     */
+    public void recordDocumentSize(String type, long bytes) {
+        if (isEnabled()) {
+            documentSizes.computeIfAbsent(type, name -> new Metric()).record(bytes, 1);
+        }
+    }
+
+    public Map<Phase, Metric> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    public Map<String, Metric> getPlugins() {
+        return Collections.unmodifiableMap(new TreeMap<>(plugins));
+    }
+
+    public Map<String, Metric> getFactories() {
+        return Collections.unmodifiableMap(new TreeMap<>(factories));
+    }
+
+    public Map<String, Metric> getDocumentSizes() {
+        return Collections.unmodifiableMap(new TreeMap<>(documentSizes));
+    }
+
+    /**
+     * Forget all recorded metrics, e.g. at the start of an index run.
+     */
+    public void reset() {
+        for (Metric metric : phases.values()) {
+            metric.reset();
+        }
+        plugins.clear();
+        factories.clear();
+        documentSizes.clear();
+    }
+
+    /**
+     * @return a human readable line per recorded phase, plugin, factory and document type, the most time consuming
+     * first within each group
+     */
+    public List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Phase, Metric> entry : phases.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                lines.add("phase " + entry.getKey().name().toLowerCase() + ": "
+                              + formatTimes(entry.getValue(), "times"));
+            }
+        }
+        addTimes(lines, "factory ", factories);
+        addTimes(lines, "plugin ", plugins);
+        for (Map.Entry<String, Metric> entry : new TreeMap<>(documentSizes).entrySet()) {
+            Metric metric = entry.getValue();
+            lines.add("document " + entry.getKey() + ": " + metric.getCount() + " documents, "
+                          + metric.getTotal() / metric.getCount() + " bytes on average, " + metric.getMax()
+                          + " bytes at most");
+        }
+        return lines;
+    }
+
+    private void addTimes(List<String> lines, String prefix, Map<String, Metric> metrics) {
+        List<Map.Entry<String, Metric>> entries = new ArrayList<>(metrics.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().getTotal(), a.getValue().getTotal()));
+        for (Map.Entry<String, Metric> entry : entries) {
+            lines.add(prefix + entry.getKey() + ": " + formatTimes(entry.getValue(), "calls"));
+        }
+    }
+
+    private String formatTimes(Metric metric, String unit) {
+        return metric.getCount() + " " + unit + ", "
+            + TimeUnit.NANOSECONDS.toMillis(metric.getTotal()) + " ms in total, "
+            + String.format("%.3f", metric.getTotal() / 1e6 / metric.getCount()) + " ms on average, "
+            + String.format("%.3f", metric.getMax() / 1e6) + " ms at most";
+    }
+}
@@ -10,9 +10,12 @@ package org.dspace.discovery;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.solr.client.solrj.SolrServerException;
 import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.scripts.handler.DSpaceRunnableHandler;
 
 /**
  * Interface used for indexing IndexableObject into discovery
@@ -43,6 +46,15 @@ public interface IndexingService {
     void indexContent(Context context, IndexableObject dso,
                       boolean force, boolean commit, boolean preDb) throws SQLException, SearchServiceException;
 
+    /**
+     * Update only the fields of the indexed items which depend on the given changes, using atomic updates. Items
+     * which are not indexed yet, or whose indexed metadata no longer match the database, are fully reindexed instead.
+     * @param context   The DSpace Context
+     * @param changes   The changed items, with the kind of changes made to each of them
+     */
+    void updatePartially(Context context, Map<IndexableItem, Set<ItemIndexChange>> changes)
+        throws SQLException, SearchServiceException;
+
     void unIndexContent(Context context, IndexableObject dso)
         throws SQLException, IOException;
 
@@ -68,6 +80,16 @@ public interface IndexingService {
 
     void cleanIndex() throws IOException, SQLException, SearchServiceException;
 
+    /**
+     * Remove the documents of the objects which are no longer in the database, reporting progress to the handler.
+     *
+     * @param handler the handler to report progress to, or null to only log it
+     * @throws IOException            IO exception
+     * @throws SQLException           sql exception
+     * @throws SearchServiceException occurs when something went wrong with querying the solr server
+     */
+    void cleanIndex(DSpaceRunnableHandler handler) throws IOException, SQLException, SearchServiceException;
+
     void deleteIndex();
 
     void commit() throws SearchServiceException;
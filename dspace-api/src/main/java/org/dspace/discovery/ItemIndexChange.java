@@ -0,0 +1,32 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+/**
+ * The changes of an item which the {@link IndexEventConsumer} can index with a partial (atomic) update of the
+ * document of the item instead of rebuilding it, see {@link IndexingService#updatePartially}.
+ */
+public enum ItemIndexChange {
+    /**
+     * The resource policies of the item have been modified.
+     */
+    POLICIES,
+    /**
+     * The item has been made discoverable or private.
+     */
+    DISCOVERABILITY,
+    /**
+     * The item has been withdrawn or reinstated, which also switches its READ policies.
+     */
+    WITHDRAWAL,
+    /**
+     * The metadata of the item have been modified. The document is only updated partially if the indexed metadata
+     * are unchanged, i.e. if only metadata ignored by discovery have been modified.
+     */
+    METADATA
+}
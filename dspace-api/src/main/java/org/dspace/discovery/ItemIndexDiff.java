@@ -0,0 +1,235 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.dspace.discovery.indexobject.ItemIndexFactoryImpl.STATUS_FIELD;
+import static org.dspace.discovery.indexobject.ItemIndexFactoryImpl.STATUS_FIELD_PREDB;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.IndexableItem;
+
+/**
+ * Compares the regular items of the database with the item documents of the search core, without loading a
+ * single item. Both sides are streamed sorted by id, the database with keyset paging and the search core with a
+ * cursorMark, and merge-joined so that only the ids needing work are reported:
+ * <ul>
+ *     <li>stale: the item was modified after it was last indexed,</li>
+ *     <li>missing: the item has no document in the search core,</li>
+ *     <li>orphan: the document has no matching item in the database.</li>
+ * </ul>
+ * The join relies on both sides using the same order. Item documents all share the same unique id prefix, so
+ * sorting them on their unique id sorts them on the textual form of their uuid, which is also the order in which
+ * the database sorts uuids. Should one of the streams turn out not to be sorted, an {@link IllegalStateException}
+ * is thrown and the caller should fall back to checking each item on its own.
+ */
+public class ItemIndexDiff {
+
+    private static final String UNIQUE_ID_PREFIX = IndexableItem.TYPE + "-";
+
+    /**
+     * Receives the outcome of the comparison.
+     */
+    public interface Listener {
+
+        /**
+         * @param id id of an item modified since it was last indexed
+         */
+        void stale(UUID id) throws SQLException, IOException, SolrServerException;
+
+        /**
+         * @param id id of an item not present in the search core
+         */
+        void missing(UUID id) throws SQLException, IOException, SolrServerException;
+
+        /**
+         * @param uniqueId unique index id of a document without matching item in the database
+         */
+        void orphan(String uniqueId) throws SQLException, IOException, SolrServerException;
+    }
+
+    private final ItemService itemService;
+    private final SolrSearchCore solrSearchCore;
+    private final int pageSize;
+
+    private long comparedCount = 0;
+
+    /**
+     * @param itemService    service used to page the item ids and dates out of the database
+     * @param solrSearchCore the search core
+     * @param pageSize       number of rows read at once on either side
+     */
+    public ItemIndexDiff(ItemService itemService, SolrSearchCore solrSearchCore, int pageSize) {
+        this.itemService = itemService;
+        this.solrSearchCore = solrSearchCore;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Run the comparison, reporting every difference to the listener as soon as it is found.
+     *
+     * @param context  the context used to read the database
+     * @param listener receives the differences
+     * @throws SQLException          if the database could not be read, or thrown by the listener
+     * @throws IOException           if the search core could not be read, or thrown by the listener
+     * @throws SolrServerException   if the search core could not be read, or thrown by the listener
+     * @throws IllegalStateException if one of the streams is not sorted as expected
+     */
+    public void run(Context context, Listener listener) throws SQLException, IOException, SolrServerException {
+        DatabaseStream database = new DatabaseStream(context);
+        IndexStream index = new IndexStream();
+        Pair<UUID, Instant> item = database.next();
+        IndexEntry entry = index.next();
+        while (item != null || entry != null) {
+            int comparison;
+            if (item == null) {
+                comparison = 1;
+            } else if (entry == null) {
+                comparison = -1;
+            } else {
+                comparison = item.getKey().toString().compareTo(entry.key);
+            }
+
+            if (comparison < 0) {
+                listener.missing(item.getKey());
+                item = database.next();
+            } else if (comparison > 0) {
+                if (!entry.preDb) {
+                    listener.orphan(entry.uniqueId);
+                }
+                entry = index.next();
+            } else {
+                Instant lastModified = item.getValue();
+                if (lastModified == null || entry.lastIndexed == null || entry.lastIndexed.isBefore(lastModified)) {
+                    listener.stale(item.getKey());
+                }
+                item = database.next();
+                entry = index.next();
+            }
+            comparedCount++;
+        }
+    }
+
+    /**
+     * @return the number of ids compared by the last run
+     */
+    public long getComparedCount() {
+        return comparedCount;
+    }
+
+    /**
+     * Keyset paged stream of the regular item ids and last modified dates, ordered by id.
+     */
+    private class DatabaseStream {
+        private final Context context;
+        private Iterator<Pair<UUID, Instant>> page;
+        private boolean lastPage = false;
+        private String lastKey = null;
+        private UUID after = null;
+
+        DatabaseStream(Context context) {
+            this.context = context;
+        }
+
+        Pair<UUID, Instant> next() throws SQLException {
+            if (page == null || !page.hasNext()) {
+                if (lastPage) {
+                    return null;
+                }
+                List<Pair<UUID, Instant>> rows = itemService.findRegularItemLastModified(context, after, pageSize);
+                lastPage = rows.size() < pageSize;
+                if (rows.isEmpty()) {
+                    return null;
+                }
+                after = rows.get(rows.size() - 1).getKey();
+                page = rows.iterator();
+            }
+            Pair<UUID, Instant> row = page.next();
+            lastKey = checkOrder("database", lastKey, row.getKey().toString());
+            return row;
+        }
+    }
+
+    /**
+     * CursorMark paged stream of the item documents of the search core, ordered by unique id.
+     */
+    private class IndexStream {
+        private final SolrQuery query;
+        private Iterator<SolrDocument> page;
+        private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        private boolean lastPage = false;
+        private String lastKey = null;
+
+        IndexStream() {
+            query = new SolrQuery(SearchUtils.RESOURCE_TYPE_FIELD + ":" + IndexableItem.TYPE);
+            query.setFields(SearchUtils.RESOURCE_UNIQUE_ID, SearchUtils.LAST_INDEXED_FIELD, STATUS_FIELD);
+            query.setSort(SearchUtils.RESOURCE_UNIQUE_ID, SolrQuery.ORDER.asc);
+            query.setRows(pageSize);
+        }
+
+        IndexEntry next() throws IOException, SolrServerException {
+            while (page == null || !page.hasNext()) {
+                if (lastPage) {
+                    return null;
+                }
+                query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+                QueryResponse rsp = solrSearchCore.getSolr().query(query, solrSearchCore.REQUEST_METHOD);
+                String nextCursorMark = rsp.getNextCursorMark();
+                lastPage = cursorMark.equals(nextCursorMark);
+                cursorMark = nextCursorMark;
+                page = rsp.getResults().iterator();
+            }
+            IndexEntry entry = new IndexEntry(page.next());
+            lastKey = checkOrder("search core", lastKey, entry.key);
+            return entry;
+        }
+    }
+
+    /**
+     * An item document of the search core.
+     */
+    private static class IndexEntry {
+        private final String uniqueId;
+        private final String key;
+        private final Instant lastIndexed;
+        private final boolean preDb;
+
+        IndexEntry(SolrDocument doc) {
+            uniqueId = (String) doc.getFirstValue(SearchUtils.RESOURCE_UNIQUE_ID);
+            key = uniqueId.startsWith(UNIQUE_ID_PREFIX) ? uniqueId.substring(UNIQUE_ID_PREFIX.length()) : uniqueId;
+            Object value = doc.getFirstValue(SearchUtils.LAST_INDEXED_FIELD);
+            if (value instanceof Date) {
+                value = ((Date) value).toInstant();
+            }
+            lastIndexed = value instanceof Instant ? (Instant) value : null;
+            preDb = STATUS_FIELD_PREDB.equals(doc.getFirstValue(STATUS_FIELD));
+        }
+    }
+
+    private static String checkOrder(String source, String previous, String current) {
+        if (previous != null && previous.compareTo(current) >= 0) {
+            throw new IllegalStateException("The " + source + " does not return the items sorted by id: "
+                                                + current + " follows " + previous);
+        }
+        return current;
+    }
+}
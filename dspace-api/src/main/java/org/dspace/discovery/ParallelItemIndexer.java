@@ -0,0 +1,234 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.content.Item;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.DocumentBuildCache;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
+import org.dspace.scripts.handler.DSpaceRunnableHandler;
+
+/**
+ * Indexes all regular items (see {@link ItemService#findAllRegularItems(Context)}) with several worker threads.
+ * <p>
+ * The calling thread pages the item ids out of the database and hands each page to a pool of workers. Every
+ * worker uses its own read-only {@link Context} to load the items and build their documents, and writes them
+ * through the shared {@link SolrDocumentBuffer}, which is attached to the workers: that of the search core, or that
+ * of the shadow core when the index is rebuilt into it. Nothing is committed, this is left to the caller.
+ */
+public class ParallelItemIndexer {
+
+    private static final Logger log = LogManager.getLogger(ParallelItemIndexer.class);
+
+    /**
+     * Marker telling a worker there are no more pages to process.
+     */
+    private static final List<UUID> END_OF_WORK = new ArrayList<>();
+
+    private final ItemService itemService;
+    private final ItemIndexFactory itemIndexFactory;
+    private final SolrDocumentBuffer documentBuffer;
+    private final DSpaceRunnableHandler handler;
+    private IndexingMetrics indexingMetrics;
+    private final int threads;
+    private final int pageSize;
+    private final int progressInterval;
+
+    private final AtomicLong indexedCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private long lastReportedCount = 0;
+
+    /**
+     * @param itemService      service used to page and load the items
+     * @param itemIndexFactory factory building and writing the item documents
+     * @param documentBuffer   buffer of the search core, shared by all workers
+     * @param handler          handler to report progress to
+     * @param threads          number of worker threads
+     * @param pageSize         number of item ids handed to a worker at once
+     * @param progressInterval number of indexed items between two progress reports
+     */
+    public ParallelItemIndexer(ItemService itemService, ItemIndexFactory itemIndexFactory,
+                               SolrDocumentBuffer documentBuffer, DSpaceRunnableHandler handler,
+                               int threads, int pageSize, int progressInterval) {
+        this.itemService = itemService;
+        this.itemIndexFactory = itemIndexFactory;
+        this.documentBuffer = documentBuffer;
+        this.handler = handler;
+        this.threads = Math.max(1, threads);
+        this.pageSize = Math.max(1, pageSize);
+        this.progressInterval = Math.max(1, progressInterval);
+    }
+
+    /**
+     * @param indexingMetrics the metrics to record the time spent loading the items and building their documents to
+     */
+    public void setIndexingMetrics(IndexingMetrics indexingMetrics) {
+        this.indexingMetrics = indexingMetrics;
+    }
+
+    /**
+     * Index all regular items.
+     *
+     * @param context the context used to page the item ids
+     * @return the number of indexed items
+     * @throws SQLException         if the item ids could not be read
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public long indexAll(Context context) throws SQLException, InterruptedException {
+        final long startTimeMillis = Instant.now().toEpochMilli();
+        final long failedBefore = documentBuffer.getFailedCount();
+
+        // the workers share the cache of the run, or that of the calling thread if it is part of a larger one
+        final DocumentBuildCache buildCache = DocumentBuildCache.getCurrent() != null
+            ? DocumentBuildCache.getCurrent() : new DocumentBuildCache();
+        BlockingQueue<List<UUID>> queue = new ArrayBlockingQueue<>(threads * 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable ->
+            new Thread(runnable, "discovery-index-worker-" + threadNumber.incrementAndGet()));
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> work(queue, buildCache)));
+        }
+
+        try {
+            UUID after = null;
+            List<UUID> page;
+            do {
+                page = itemService.findRegularItemIds(context, after, pageSize);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                    if (!handOver(queue, page, workers, startTimeMillis)) {
+                        throw new IllegalStateException("All discovery index workers have stopped");
+                    }
+                }
+            } while (page.size() == pageSize);
+        } finally {
+            for (int i = 0; i < threads; i++) {
+                handOver(queue, END_OF_WORK, workers, startTimeMillis);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                reportProgress(startTimeMillis);
+            }
+        }
+
+        documentBuffer.flush();
+        errorCount.addAndGet(documentBuffer.getFailedCount() - failedBefore);
+        final long seconds = (Instant.now().toEpochMilli() - startTimeMillis) / 1000;
+        handler.logInfo("Indexed " + indexedCount.get() + " items with " + threads + " threads in " + seconds
+                            + " seconds, " + errorCount.get() + " errors");
+        return indexedCount.get();
+    }
+
+    /**
+     * @return the number of items that could not be indexed so far
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * Put a page in the queue, reporting progress while waiting for a worker to take it.
+     *
+     * @return false if the page could not be handed over because all workers have stopped
+     */
+    private boolean handOver(BlockingQueue<List<UUID>> queue, List<UUID> page, List<Future<?>> workers,
+                             long startTimeMillis) throws InterruptedException {
+        while (!queue.offer(page, 1, TimeUnit.SECONDS)) {
+            if (workers.stream().allMatch(Future::isDone)) {
+                return false;
+            }
+            reportProgress(startTimeMillis);
+        }
+        reportProgress(startTimeMillis);
+        return true;
+    }
+
+    private void work(BlockingQueue<List<UUID>> queue, DocumentBuildCache buildCache) {
+        Context context = new Context(Context.Mode.READ_ONLY);
+        context.turnOffAuthorisationSystem();
+        try (DocumentBuildCache.Scope buildCacheScope = buildCache.attach();
+             SolrDocumentBuffer.Scope documentBufferScope = documentBuffer.attach()) {
+            List<UUID> page;
+            while ((page = queue.take()) != END_OF_WORK) {
+                for (UUID id : page) {
+                    indexItem(context, id);
+                }
+                // the collections, bundles, bitstreams and metadata loaded for the page stay in the session too
+                uncacheEntities(context);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            context.abort();
+        }
+    }
+
+    private void indexItem(Context context, UUID id) {
+        try {
+            long start = indexingMetrics != null ? indexingMetrics.start() : 0;
+            Item item = itemService.find(context, id);
+            if (item == null) {
+                // removed since the page was read
+                return;
+            }
+            IndexableItem indexableItem = new IndexableItem(item);
+            if (indexingMetrics != null) {
+                indexingMetrics.recordPhase(IndexingMetrics.Phase.DB_LOAD, start);
+                start = indexingMetrics.start();
+            }
+            SolrInputDocument doc = itemIndexFactory.buildDocument(context, indexableItem);
+            if (indexingMetrics != null) {
+                indexingMetrics.recordFactory(IndexableItem.TYPE, start);
+            }
+            itemIndexFactory.writeDocument(context, indexableItem, doc);
+            indexedCount.incrementAndGet();
+            context.uncacheEntity(item);
+        } catch (Exception e) {
+            errorCount.incrementAndGet();
+            log.error("Error while indexing item {}", id, e);
+        }
+    }
+
+    private void uncacheEntities(Context context) {
+        try {
+            context.uncacheEntities();
+        } catch (SQLException e) {
+            log.warn("Error while clearing the session of a discovery index worker", e);
+        }
+    }
+
+    private void reportProgress(long startTimeMillis) {
+        long count = indexedCount.get();
+        if (count - lastReportedCount >= progressInterval) {
+            lastReportedCount = count;
+            long seconds = Math.max(1, (Instant.now().toEpochMilli() - startTimeMillis) / 1000);
+            handler.logInfo("Indexed " + count + " items (" + count / seconds + " items/s), "
+                                + errorCount.get() + " errors");
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.util.NamedList;
+import org.dspace.services.ConfigurationService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Cache of the responses of the search core to the queries built by {@link SolrServiceImpl#search}, shared by all
+ * users. The key of an entry is the final Solr query, once the search plugins added their filter queries: it holds
+ * the scope of the search as well as the groups of the user, so users only share the responses of identical queries.
+ * <p>
+ * The responses are cached rather than the {@link DiscoverResult}s, as these hold database objects bound to the
+ * context of the request. Entries are invalidated by {@link #invalidate()}, called on each commit of the search core
+ * by this application, and expire after "discovery.search.cache.ttl" seconds to account for changes committed by other
+ * processes, or by the automatic commits of Solr. The least recently used entries are evicted once the estimated size
+ * of the cached responses exceeds "discovery.search.cache.maxSize".
+ */
+public class SearchResultCache {
+
+    private static final Logger log = LogManager.getLogger(SearchResultCache.class);
+
+    /**
+     * Estimated overhead in bytes of any object, including the reference to it.
+     */
+    private static final int OBJECT_SIZE = 24;
+
+    @Autowired
+    protected ConfigurationService configurationService;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private long size;
+
+    private static class Entry {
+        private final long generation;
+        private final long created;
+        private final long size;
+        private final QueryResponse response;
+
+        Entry(long generation, long created, long size, QueryResponse response) {
+            this.generation = generation;
+            this.created = created;
+            this.size = size;
+            this.response = response;
+        }
+    }
+
+    /**
+     * @return whether the cache is enabled, see "discovery.search.cache.enabled"
+     */
+    public boolean isEnabled() {
+        return configurationService.getBooleanProperty("discovery.search.cache.enabled", false);
+    }
+
+    /**
+     * Compute the key of a query. The parameters are sorted, as are the filter queries, so that the same query built
+     * in a different order has the same key.
+     *
+     * @param solrQuery the query sent to the search core
+     * @return the key of the query
+     */
+    public String getKey(SolrQuery solrQuery) {
+        List<String> names = new ArrayList<>(solrQuery.getParameterNames());
+        names.sort(null);
+        StringBuilder key = new StringBuilder();
+        for (String name : names) {
+            String[] values = solrQuery.getParams(name);
+            if (CommonParams.FQ.equals(name)) {
+                values = values.clone();
+                Arrays.sort(values);
+            }
+            for (String value : values) {
+                key.append(name).append('=').append(value).append('&');
+            }
+        }
+        return DigestUtils.sha256Hex(key.toString());
+    }
+
+    /**
+     * @return the current generation of the search core, to pass to {@link #put(String, long, QueryResponse)} for a
+     * response retrieved afterwards
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Get a cached response.
+     *
+     * @param key the key of the query, see {@link #getKey(SolrQuery)}
+     * @return the response, or null if it is not in the cache or no longer valid
+     */
+    public QueryResponse get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && isValid(entry)) {
+                hitCount.incrementAndGet();
+                return entry.response;
+            }
+            if (entry != null) {
+                remove(key);
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Cache a response. The response is not cached if the search core has been committed since the given generation,
+     * as it may then be stale already, nor if it is larger than a quarter of the cache.
+     *
+     * @param key        the key of the query, see {@link #getKey(SolrQuery)}
+     * @param generation the generation of the search core before the query was sent, see {@link #getGeneration()}
+     * @param response   the response of the search core
+     */
+    public void put(String key, long generation, QueryResponse response) {
+        long maxSize = getMaxSize();
+        long entrySize = estimateSize(response.getResponse()) + 2 * key.length() + 4 * OBJECT_SIZE;
+        if (entrySize > maxSize / 4) {
+            log.debug("Not caching a search response of about {} bytes", entrySize);
+            return;
+        }
+        synchronized (entries) {
+            if (generation != this.generation.get()) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(generation, System.nanoTime(), entrySize, response));
+            size += entrySize;
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                size -= iterator.next().getValue().size;
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Invalidate all cached responses, called when the search core has been committed.
+     */
+    public void invalidate() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Remove a cached response, e.g. because it refers to objects no longer in the database.
+     *
+     * @param key the key of the query, see {@link #getKey(SolrQuery)}
+     */
+    public void remove(String key) {
+        synchronized (entries) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                size -= entry.size;
+            }
+        }
+    }
+
+    /**
+     * @return the number of responses found in the cache since startup
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of responses looked up but not found in the cache since startup
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of responses evicted from the cache to make room for others since startup
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the number of commits of the search core since startup
+     */
+    public long getInvalidationCount() {
+        return generation.get();
+    }
+
+    /**
+     * @return the number of cached responses
+     */
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the estimated size in bytes of the cached responses
+     */
+    public long getSize() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    private boolean isValid(Entry entry) {
+        long ttl = configurationService.getLongProperty("discovery.search.cache.ttl", 60);
+        return entry.generation == generation.get()
+            && System.nanoTime() - entry.created < TimeUnit.SECONDS.toNanos(ttl);
+    }
+
+    private long getMaxSize() {
+        return configurationService.getLongProperty("discovery.search.cache.maxSize", 50L * 1024 * 1024);
+    }
+
+    /**
+     * Roughly estimate the memory used by a part of a Solr response, counting two bytes per character of its strings
+     * and a fixed overhead per object.
+     */
+    protected long estimateSize(Object value) {
+        if (value instanceof CharSequence) {
+            return OBJECT_SIZE + 2L * ((CharSequence) value).length();
+        }
+        long estimate = OBJECT_SIZE;
+        if (value instanceof NamedList) {
+            NamedList<?> namedList = (NamedList<?>) value;
+            for (int i = 0; i < namedList.size(); i++) {
+                estimate += estimateSize(namedList.getName(i)) + estimateSize(namedList.getVal(i));
+            }
+        } else if (value instanceof SolrDocument) {
+            for (Map.Entry<String, Object> field : ((SolrDocument) value)) {
+                estimate += estimateSize(field.getKey()) + estimateSize(field.getValue());
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> mapEntry : ((Map<?, ?>) value).entrySet()) {
+                estimate += estimateSize(mapEntry.getKey()) + estimateSize(mapEntry.getValue());
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                estimate += estimateSize(element);
+            }
+        } else if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                estimate += estimateSize(element);
+            }
+        }
+        return estimate;
+    }
+}
@@ -0,0 +1,485 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+
+/**
+ * Buffers the documents written to the search core so that they can be sent to Solr in batches instead of one
+ * HTTP request per document. The buffer is flushed when it holds {@code maxDocuments} documents, when the
+ * estimated payload exceeds {@code maxBytes} or when the oldest pending document has waited {@code maxWaitMillis}.
+ * <p>
+ * Deletes are never buffered, but they are ordered against the pending documents: a delete by id discards any
+ * pending document with the same unique id and a delete by query flushes the buffer first, so that a document
+ * added before the delete can never be resurrected by a later flush.
+ * <p>
+ * When a batch is rejected by Solr, its documents are resent one by one so that a single bad document does not
+ * cause the whole batch to be lost. The documents that still fail are queued again and sent with the next batch, up
+ * to {@link #MAX_ATTEMPTS} times. The unique ids of the documents given up on are logged, and returned by
+ * {@link #flush()} when it gives up on them.
+ * <p>
+ * The requests to Solr are sent without holding the lock of the pending documents, so that other threads keep adding
+ * documents while a batch is sent. They are sent one at a time, in the order of the writes.
+ * <p>
+ * A thread can write to another buffer than that of the search core, e.g. that of the shadow core while the index is
+ * rebuilt, by attaching it with {@link #attach()}, see {@link SolrSearchCore#getDocumentBuffer()}.
+ */
+public class SolrDocumentBuffer {
+
+    private static final Logger log = LogManager.getLogger(SolrDocumentBuffer.class);
+
+    private static final ThreadLocal<SolrDocumentBuffer> current = new ThreadLocal<>();
+
+    private final Supplier<SolrClient> solrSupplier;
+    private final int maxDocuments;
+    private final long maxBytes;
+    private final long maxWaitMillis;
+
+    /**
+     * The maximum number of times a document refused by Solr is sent
+     */
+    static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Held while a request is sent to Solr, before the lock of the buffer itself when both are needed, so that the
+     * requests are sent in the order of the writes
+     */
+    private final Object sendLock = new Object();
+
+    private List<SolrInputDocument> pending = new ArrayList<>();
+    private final Map<SolrInputDocument, Integer> failedAttempts = new IdentityHashMap<>();
+    private long pendingBytes = 0;
+    private long oldestPendingMillis = 0;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private ScheduledExecutorService flushScheduler;
+
+    private IndexingMetrics indexingMetrics;
+
+    /**
+     * @param solrSupplier  supplies the client of the core to write to
+     * @param maxDocuments  maximum number of documents held before flushing, values below 1 disable buffering
+     * @param maxBytes      maximum estimated payload size held before flushing, values below 1 disable the check
+     * @param maxWaitMillis maximum time a document may wait before flushing, values below 1 disable the check
+     */
+    public SolrDocumentBuffer(Supplier<SolrClient> solrSupplier, int maxDocuments, long maxBytes,
+                              long maxWaitMillis) {
+        this.solrSupplier = solrSupplier;
+        this.maxDocuments = Math.max(1, maxDocuments);
+        this.maxBytes = maxBytes;
+        this.maxWaitMillis = maxWaitMillis;
+        if (this.maxDocuments > 1 && maxWaitMillis > 0) {
+            flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "discovery-solr-buffer-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushScheduler.scheduleWithFixedDelay(this::flushIfExpired, maxWaitMillis, maxWaitMillis,
+                                                  TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The use of a buffer by a thread, ended by {@link #close()}.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @return the buffer attached to the current thread, or null if it writes to the buffer of the search core
+     */
+    public static SolrDocumentBuffer getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Write the documents of the current thread to this buffer until the returned scope is closed.
+     *
+     * @return the scope, to close on the same thread once it is done writing to this buffer
+     */
+    public Scope attach() {
+        final SolrDocumentBuffer previous = current.get();
+        current.set(this);
+        return () -> {
+            if (current.get() != this) {
+                // closed on another thread, or already closed
+                return;
+            }
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @param indexingMetrics the metrics to record the size of the documents and the time spent sending them to
+     */
+    public void setIndexingMetrics(IndexingMetrics indexingMetrics) {
+        this.indexingMetrics = indexingMetrics;
+    }
+
+    /**
+     * Queue a document to be written to the search core, flushing the buffer if one of the limits is reached.
+     *
+     * @param doc the solr document to write
+     */
+    public void add(SolrInputDocument doc) {
+        long size = estimateSize(doc);
+        boolean full;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                oldestPendingMillis = Instant.now().toEpochMilli();
+            }
+            pending.add(doc);
+            pendingBytes += size;
+            full = isFull();
+        }
+        Object type = doc.getFieldValue(SearchUtils.RESOURCE_TYPE_FIELD);
+        if (indexingMetrics != null && type != null) {
+            indexingMetrics.recordDocumentSize(type.toString(), size);
+        }
+        if (full) {
+            synchronized (sendLock) {
+                // another thread may have sent the pending documents meanwhile
+                if (isFull()) {
+                    send(new ArrayList<>());
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete a document from the search core, discarding any pending write of that same document.
+     *
+     * @param uniqueId the unique index id of the document to delete
+     * @throws IOException         If IO error
+     * @throws SolrServerException If the delete could not be sent to the search core
+     */
+    public void deleteById(String uniqueId) throws IOException, SolrServerException {
+        synchronized (sendLock) {
+            discard(Set.of(uniqueId));
+            solrSupplier.get().deleteById(uniqueId);
+        }
+    }
+
+    /**
+     * Delete documents from the search core with a single request, discarding any pending write of these documents.
+     *
+     * @param uniqueIds the unique index ids of the documents to delete
+     * @throws IOException         If IO error
+     * @throws SolrServerException If the delete could not be sent to the search core
+     */
+    public void deleteById(List<String> uniqueIds) throws IOException, SolrServerException {
+        if (uniqueIds.isEmpty()) {
+            return;
+        }
+        synchronized (sendLock) {
+            discard(new HashSet<>(uniqueIds));
+            solrSupplier.get().deleteById(uniqueIds);
+        }
+    }
+
+    /**
+     * Delete all documents matching the query from the search core. The buffer is flushed first so that pending
+     * documents matching the query are deleted as well.
+     *
+     * @param query the solr query matching the documents to delete
+     * @throws IOException         If IO error
+     * @throws SolrServerException If the delete could not be sent to the search core
+     */
+    public void deleteByQuery(String query) throws IOException, SolrServerException {
+        synchronized (sendLock) {
+            flush();
+            solrSupplier.get().deleteByQuery(query);
+        }
+    }
+
+    /**
+     * Send all pending documents to the search core. This does not commit them. The documents refused by Solr are
+     * sent again until they have been sent {@link #MAX_ATTEMPTS} times.
+     *
+     * @return the unique ids of the documents which could not be written, never null
+     */
+    public List<String> flush() {
+        List<String> failed = new ArrayList<>();
+        synchronized (sendLock) {
+            // the refused documents are queued again, send them again until they are given up on
+            boolean requeued = true;
+            for (int i = 0; i < MAX_ATTEMPTS && requeued; i++) {
+                requeued = send(failed);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Discard all pending documents without sending them to the search core.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        pendingBytes = 0;
+        failedAttempts.clear();
+    }
+
+    /**
+     * Flush the remaining documents and stop the background flushing.
+     */
+    public void close() {
+        if (flushScheduler != null) {
+            flushScheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of documents waiting to be sent to the search core
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return the number of documents successfully sent to the search core
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return the number of documents the search core refused
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return the number of flushes which sent at least one document
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    private void flushIfExpired() {
+        try {
+            synchronized (sendLock) {
+                boolean expired;
+                synchronized (this) {
+                    expired = !pending.isEmpty()
+                        && Instant.now().toEpochMilli() - oldestPendingMillis >= maxWaitMillis;
+                }
+                if (expired) {
+                    send(new ArrayList<>());
+                }
+            }
+        } catch (RuntimeException e) {
+            // never let an exception cancel the scheduled task
+            log.error("Error while flushing the discovery document buffer", e);
+        }
+    }
+
+    private synchronized boolean isFull() {
+        return pending.size() >= maxDocuments || (maxBytes > 0 && pendingBytes >= maxBytes);
+    }
+
+    /**
+     * Send the pending documents as a single batch. The caller must hold the send lock.
+     *
+     * @param failed the list to add the unique ids of the documents given up on to
+     * @return whether some documents were refused and queued again
+     */
+    private boolean send(List<String> failed) {
+        List<SolrInputDocument> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return false;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            pendingBytes = 0;
+        }
+
+        List<SolrInputDocument> retries = new ArrayList<>();
+        SolrClient solr = solrSupplier.get();
+        long start = indexingMetrics != null ? indexingMetrics.start() : 0;
+        try {
+            solr.add(batch);
+            sentCount.addAndGet(batch.size());
+            forgetAttempts(batch);
+        } catch (IOException | SolrServerException | SolrException e) {
+            if (batch.size() == 1) {
+                refuse(batch.get(0), e, retries, failed);
+            } else {
+                log.warn("Writing a batch of {} documents to the search core failed, retrying them one by one: {}",
+                         batch.size(), e.getMessage());
+                for (SolrInputDocument doc : batch) {
+                    try {
+                        solr.add(doc);
+                        sentCount.incrementAndGet();
+                        forgetAttempts(List.of(doc));
+                    } catch (IOException | SolrServerException | SolrException ex) {
+                        refuse(doc, ex, retries, failed);
+                    }
+                }
+            }
+        }
+        batchCount.incrementAndGet();
+        if (indexingMetrics != null) {
+            indexingMetrics.recordPhase(IndexingMetrics.Phase.SOLR_SEND, start, batch.size());
+        }
+        return requeue(retries);
+    }
+
+    /**
+     * Count a refusal of a document by Solr, and either plan to send it again or give up on it.
+     */
+    private void refuse(SolrInputDocument doc, Exception e, List<SolrInputDocument> retries, List<String> failed) {
+        int attempts;
+        synchronized (this) {
+            attempts = failedAttempts.merge(doc, 1, Integer::sum);
+            if (attempts >= MAX_ATTEMPTS) {
+                failedAttempts.remove(doc);
+            }
+        }
+        if (attempts >= MAX_ATTEMPTS) {
+            failed.add(reportFailure(doc, e));
+        } else {
+            log.warn("Error occurred while writing SOLR document {}, it will be sent again: {}", getUniqueId(doc),
+                     e.getMessage());
+            retries.add(doc);
+        }
+    }
+
+    /**
+     * Queue refused documents again, unless a newer version of the same document is already pending.
+     *
+     * @return whether some documents were queued again
+     */
+    private synchronized boolean requeue(List<SolrInputDocument> retries) {
+        boolean requeued = false;
+        for (SolrInputDocument doc : retries) {
+            String uniqueId = getUniqueId(doc);
+            if (pending.stream().anyMatch(other -> Objects.equals(uniqueId, getUniqueId(other)))) {
+                failedAttempts.remove(doc);
+                continue;
+            }
+            if (pending.isEmpty()) {
+                oldestPendingMillis = Instant.now().toEpochMilli();
+            }
+            pending.add(doc);
+            pendingBytes += estimateSize(doc);
+            requeued = true;
+        }
+        return requeued;
+    }
+
+    private synchronized void forgetAttempts(List<SolrInputDocument> docs) {
+        if (!failedAttempts.isEmpty()) {
+            docs.forEach(failedAttempts::remove);
+        }
+    }
+
+    /**
+     * Discard the pending writes of the given documents, which are about to be deleted.
+     */
+    private synchronized void discard(Set<String> uniqueIds) {
+        boolean removed = pending.removeIf(doc -> {
+            if (uniqueIds.contains(getUniqueId(doc))) {
+                failedAttempts.remove(doc);
+                return true;
+            }
+            return false;
+        });
+        if (removed) {
+            recomputePendingBytes();
+        }
+    }
+
+    private String reportFailure(SolrInputDocument doc, Exception e) {
+        String uniqueId = getUniqueId(doc);
+        failedCount.incrementAndGet();
+        log.error("Error occurred while writing SOLR document {}", uniqueId, e);
+        return uniqueId;
+    }
+
+    private void recomputePendingBytes() {
+        pendingBytes = 0;
+        for (SolrInputDocument doc : pending) {
+            pendingBytes += estimateSize(doc);
+        }
+    }
+
+    private static String getUniqueId(SolrInputDocument doc) {
+        Object value = doc.getFieldValue(SearchUtils.RESOURCE_UNIQUE_ID);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Estimate the size of the document once serialized, in characters. Only the field names and the textual
+     * values are counted, which is close enough to bound the size of a batch.
+     *
+     * @param doc the solr document
+     * @return the estimated size of the document
+     */
+    public static long estimateSize(SolrInputDocument doc) {
+        long size = 0;
+        for (SolrInputField field : doc) {
+            size += field.getName().length();
+            Object value = field.getValue();
+            if (value instanceof Collection) {
+                for (Object v : (Collection<?>) value) {
+                    size += estimateValueSize(v);
+                }
+            } else {
+                size += estimateValueSize(value);
+            }
+        }
+        return size;
+    }
+
+    private static long estimateValueSize(Object value) {
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        } else if (value instanceof Map) {
+            long size = 0;
+            for (Object v : ((Map<?, ?>) value).values()) {
+                size += estimateValueSize(v);
+            }
+            return size;
+        }
+        return 16;
+    }
+}
@@ -8,8 +8,10 @@
 package org.dspace.discovery;
 
 import java.io.IOException;
+import java.util.List;
 
 import jakarta.inject.Named;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,17 +20,20 @@ import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
+import org.apache.solr.client.solrj.request.CoreAdminRequest;
+import org.apache.solr.common.params.CoreAdminParams;
 import org.dspace.discovery.indexobject.IndexableItem;
 import org.dspace.service.impl.HttpConnectionPoolService;
 import org.dspace.services.ConfigurationService;
 import org.dspace.storage.rdbms.DatabaseUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Bean containing the SolrClient for the search core.
  * @author Kevin Van de Velde (kevin at atmire dot com)
  */
-public class SolrSearchCore {
+public class SolrSearchCore implements DisposableBean {
 
     private final Logger log = LogManager.getLogger();
     @Autowired
@@ -37,12 +42,27 @@ public class SolrSearchCore {
     protected ConfigurationService configurationService;
     @Autowired @Named("solrHttpConnectionPoolService")
     protected HttpConnectionPoolService httpConnectionPoolService;
+    @Autowired(required = false)
+    protected IndexingMetrics indexingMetrics;
 
     /**
      *  SolrServer for processing indexing events.
      */
     protected SolrClient solr = null;
 
+    /**
+     * Buffer through which all documents are written to the search core, see getDocumentBuffer().
+     */
+    protected SolrDocumentBuffer documentBuffer = null;
+
+    /**
+     * Client of the shadow core and buffer through which all documents are written to it while the index is rebuilt
+     * into the shadow core, see startShadowBuild().
+     */
+    protected SolrClient shadowSolr = null;
+    protected SolrDocumentBuffer shadowDocumentBuffer = null;
+    private SolrDocumentBuffer.Scope shadowBuildScope = null;
+
     /**
      * Default HTTP method to use for all Solr Requests (we prefer POST).
      * This REQUEST_METHOD should be used in all Solr queries, e.g.
@@ -69,6 +89,219 @@ public class SolrSearchCore {
         return solr;
     }
 
+    /**
+     * Get access to the buffer used to write documents to the search core. The buffer is created on first use,
+     * sized by the discovery.solr.batch.* configuration properties. A thread to which another buffer is attached,
+     * e.g. a thread rebuilding the index into the shadow core, gets that buffer instead.
+     * @return the document buffer of the current thread
+     */
+    public synchronized SolrDocumentBuffer getDocumentBuffer() {
+        SolrDocumentBuffer current = SolrDocumentBuffer.getCurrent();
+        if (current != null) {
+            return current;
+        }
+        return getSearchCoreDocumentBuffer();
+    }
+
+    /**
+     * Get access to the buffer of the search core itself, whatever the buffer of the current thread, for the writes
+     * which must reach the core the searches are run against.
+     * @return the document buffer of the search core
+     */
+    public synchronized SolrDocumentBuffer getSearchCoreDocumentBuffer() {
+        if (documentBuffer == null) {
+            documentBuffer = new SolrDocumentBuffer(this::getSolr,
+                    configurationService.getIntProperty("discovery.solr.batch.size", 100),
+                    configurationService.getLongProperty("discovery.solr.batch.maxBytes", 10 * 1024 * 1024),
+                    configurationService.getLongProperty("discovery.solr.batch.maxWait", 1000));
+            documentBuffer.setIndexingMetrics(indexingMetrics);
+        }
+        return documentBuffer;
+    }
+
+    /**
+     * @return the name of the core which is rebuilt and swapped with the search core by a rebuild without downtime,
+     * see "discovery.index.shadow.core"
+     */
+    public String getShadowCoreName() {
+        return configurationService.getProperty("discovery.index.shadow.core", getCoreName() + "-rebuild");
+    }
+
+    /**
+     * @return whether the current thread rebuilds the index into the shadow core
+     */
+    public synchronized boolean isShadowBuild() {
+        return shadowDocumentBuffer != null && SolrDocumentBuffer.getCurrent() == shadowDocumentBuffer;
+    }
+
+    /**
+     * Send the documents waiting in the buffer of the current thread and commit them. The documents written to the
+     * shadow core are not committed, the shadow core is only committed once the rebuild is complete.
+     *
+     * @throws SolrServerException If the search core could not be committed
+     * @throws IOException         If IO error
+     */
+    public void commit() throws SolrServerException, IOException {
+        getDocumentBuffer().flush();
+        if (!isShadowBuild()) {
+            getSolr().commit();
+        }
+    }
+
+    /**
+     * Start rebuilding the index into the shadow core from the current thread. The shadow core is emptied and, until
+     * finishShadowBuild() or abortShadowBuild() is called, all documents written and deleted by the current thread
+     * through getDocumentBuffer() go to the shadow core, in large batches, and are not committed. Worker threads of
+     * the rebuild write to the shadow core as well by attaching its buffer, see SolrDocumentBuffer.attach(). Other
+     * threads, e.g. those of the webapp, keep writing to the search core, and searches keep using it.
+     *
+     * @throws SolrServerException If the shadow core could not be emptied
+     * @throws IOException         If IO error
+     */
+    public synchronized void startShadowBuild() throws SolrServerException, IOException {
+        if (shadowDocumentBuffer != null) {
+            throw new IllegalStateException("The index is already being rebuilt into the shadow core");
+        }
+        getDocumentBuffer().flush();
+        SolrClient shadow = createShadowSolr();
+        shadow.deleteByQuery("*:*");
+        shadowSolr = shadow;
+        shadowDocumentBuffer = new SolrDocumentBuffer(() -> shadowSolr,
+                configurationService.getIntProperty("discovery.index.shadow.batch.size", 1000),
+                configurationService.getLongProperty("discovery.index.shadow.batch.maxBytes", 50 * 1024 * 1024),
+                0);
+        shadowDocumentBuffer.setIndexingMetrics(indexingMetrics);
+        shadowBuildScope = shadowDocumentBuffer.attach();
+        log.info("Rebuilding the index into the shadow core {}", getShadowCoreName());
+    }
+
+    /**
+     * Complete the rebuild into the shadow core: the remaining documents are sent, the shadow core is committed and
+     * swapped with the search core, which then serves the rebuilt index under its own name. The previous index, now
+     * held by the shadow core, is emptied.
+     *
+     * @throws SolrServerException If the shadow core could not be committed or swapped
+     * @throws IOException         If IO error
+     */
+    public synchronized void finishShadowBuild() throws SolrServerException, IOException {
+        if (shadowDocumentBuffer == null) {
+            throw new IllegalStateException("The index is not being rebuilt into the shadow core");
+        }
+        try {
+            List<String> failed = shadowDocumentBuffer.flush();
+            if (!failed.isEmpty()) {
+                log.warn("{} documents could not be written to the shadow core", failed.size());
+            }
+            shadowSolr.commit();
+            swapCores(getCoreName(), getShadowCoreName());
+            log.info("Swapped the shadow core {} with the search core {}", getShadowCoreName(), getCoreName());
+        } finally {
+            endShadowBuild();
+        }
+        try (SolrClient previous = createShadowSolr()) {
+            previous.deleteByQuery("*:*");
+            previous.commit();
+        } catch (SolrServerException | IOException e) {
+            log.warn("Could not empty the previous index held by the shadow core {}", getShadowCoreName(), e);
+        }
+    }
+
+    /**
+     * Stop the rebuild into the shadow core without swapping it, the pending documents are discarded.
+     */
+    public synchronized void abortShadowBuild() {
+        if (shadowDocumentBuffer != null) {
+            shadowDocumentBuffer.clear();
+            endShadowBuild();
+            log.info("Aborted the rebuild into the shadow core {}", getShadowCoreName());
+        }
+    }
+
+    private void endShadowBuild() {
+        shadowBuildScope.close();
+        shadowBuildScope = null;
+        shadowDocumentBuffer.close();
+        shadowDocumentBuffer = null;
+        try {
+            shadowSolr.close();
+        } catch (IOException e) {
+            log.warn("Error while closing the client of the shadow core", e);
+        }
+        shadowSolr = null;
+    }
+
+    /**
+     * @return the name of the search core, the last part of "discovery.search.server"
+     */
+    protected String getCoreName() {
+        return StringUtils.substringAfterLast(
+            StringUtils.removeEnd(configurationService.getProperty("discovery.search.server"), "/"), "/");
+    }
+
+    /**
+     * @return the URL of the Solr server hosting the search core
+     */
+    protected String getBaseSolrUrl() {
+        return StringUtils.substringBeforeLast(
+            StringUtils.removeEnd(configurationService.getProperty("discovery.search.server"), "/"), "/");
+    }
+
+    /**
+     * Create a client of the shadow core. The core must exist: it is created once, as a copy of the search core, on
+     * the Solr server hosting it.
+     *
+     * @return the client, to close by the caller
+     * @throws SolrServerException If the shadow core does not exist
+     * @throws IOException         If IO error
+     */
+    protected SolrClient createShadowSolr() throws SolrServerException, IOException {
+        try (HttpSolrClient adminSolr = createAdminSolr()) {
+            if (CoreAdminRequest.getStatus(getShadowCoreName(), adminSolr).getStartTime(getShadowCoreName())
+                == null) {
+                throw new SolrServerException("The shadow core " + getShadowCoreName() + " does not exist on "
+                                                  + getBaseSolrUrl() + ", create it as a copy of the search core");
+            }
+        }
+        return new HttpSolrClient.Builder(getBaseSolrUrl() + "/" + getShadowCoreName())
+            .withHttpClient(httpConnectionPoolService.getClient())
+            .build();
+    }
+
+    /**
+     * Atomically swap the names of two cores, so that the clients of either core use the other one afterwards.
+     *
+     * @param coreName      the name of a core
+     * @param otherCoreName the name of the other core
+     * @throws SolrServerException If the cores could not be swapped
+     * @throws IOException         If IO error
+     */
+    protected void swapCores(String coreName, String otherCoreName) throws SolrServerException, IOException {
+        try (HttpSolrClient adminSolr = createAdminSolr()) {
+            CoreAdminRequest swapRequest = new CoreAdminRequest();
+            swapRequest.setCoreName(coreName);
+            swapRequest.setOtherCoreName(otherCoreName);
+            swapRequest.setAction(CoreAdminParams.CoreAdminAction.SWAP);
+            swapRequest.process(adminSolr);
+        }
+    }
+
+    private HttpSolrClient createAdminSolr() {
+        return new HttpSolrClient.Builder(getBaseSolrUrl())
+            .withHttpClient(httpConnectionPoolService.getClient())
+            .build();
+    }
+
+    /**
+     * Make sure no buffered document is lost when the application shuts down.
+     */
+    @Override
+    public void destroy() throws Exception {
+        abortShadowBuild();
+        if (documentBuffer != null) {
+            documentBuffer.close();
+        }
+    }
+
     /**
      * Initialize the solr search core
      */
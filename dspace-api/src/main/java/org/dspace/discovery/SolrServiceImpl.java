@@ -24,11 +24,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import jakarta.mail.MessagingException;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.collections4.Transformer;
 import org.apache.commons.lang3.StringUtils;
@@ -43,8 +46,11 @@ import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.params.HighlightParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.MoreLikeThisParams;
 import org.apache.solr.common.params.SpellingParams;
 import org.apache.solr.common.util.NamedList;
@@ -55,6 +61,7 @@ import org.dspace.content.Community;
 import org.dspace.content.DSpaceObject;
 import org.dspace.content.Item;
 import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
 import org.dspace.core.Constants;
 import org.dspace.core.Context;
 import org.dspace.core.Email;
@@ -65,16 +72,21 @@ import org.dspace.discovery.configuration.DiscoveryConfigurationParameters;
 import org.dspace.discovery.configuration.DiscoveryMoreLikeThisConfiguration;
 import org.dspace.discovery.configuration.DiscoverySearchFilterFacet;
 import org.dspace.discovery.configuration.DiscoverySortConfiguration;
+import org.dspace.discovery.indexobject.DocumentBuildCache;
 import org.dspace.discovery.indexobject.IndexableCollection;
 import org.dspace.discovery.indexobject.IndexableCommunity;
 import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.indexobject.ItemIndexFactoryImpl;
 import org.dspace.discovery.indexobject.factory.IndexFactory;
 import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
 import org.dspace.eperson.Group;
 import org.dspace.eperson.factory.EPersonServiceFactory;
 import org.dspace.eperson.service.GroupService;
+import org.dspace.scripts.handler.DSpaceRunnableHandler;
 import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.util.UUIDUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -107,6 +119,11 @@ public class SolrServiceImpl implements SearchService, IndexingService {
     // facet by indexing "each word to end of value' partial value
     public static final String SOLR_FIELD_SUFFIX_FACET_PREFIXES = "_prefix";
 
+    /**
+     * Number of documents read at once by the real time gets of {@link #updatePartially(Context, Map)}
+     */
+    protected static final int REAL_TIME_GET_PAGE_SIZE = 200;
+
     @Autowired
     protected ContentServiceFactory contentServiceFactory;
     @Autowired
@@ -117,6 +134,10 @@ public class SolrServiceImpl implements SearchService, IndexingService {
     protected SolrSearchCore solrSearchCore;
     @Autowired
     protected ConfigurationService configurationService;
+    @Autowired(required = false)
+    protected SearchResultCache searchResultCache;
+    @Autowired(required = false)
+    protected IndexingMetrics indexingMetrics;
 
     protected SolrServiceImpl() {
 
@@ -164,7 +185,11 @@ public class SolrServiceImpl implements SearchService, IndexingService {
 
     protected void update(Context context, IndexFactory indexableObjectService,
                           IndexableObject indexableObject) throws IOException, SQLException, SolrServerException {
+        long start = indexingMetrics != null ? indexingMetrics.start() : 0;
         final SolrInputDocument solrInputDocument = indexableObjectService.buildDocument(context, indexableObject);
+        if (indexingMetrics != null) {
+            indexingMetrics.recordFactory(indexableObjectService.getType(), start);
+        }
         indexableObjectService.writeDocument(context, indexableObject, solrInputDocument);
     }
 
@@ -220,7 +245,8 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             log.info("Try to delete uniqueID:" + uniqueID);
             indexObjectServiceFactory.getIndexableObjectFactory(indexableObject).delete(indexableObject);
             if (commit) {
-                solrSearchCore.getSolr().commit();
+                solrSearchCore.commit();
+                invalidateSearchResults();
             }
         } catch (IOException | SolrServerException exception) {
             log.error(exception.getMessage(), exception);
@@ -261,7 +287,8 @@ public class SolrServiceImpl implements SearchService, IndexingService {
                     log.warn("Object not found in Solr index: " + searchUniqueID);
                 }
                 if (commit) {
-                    solrSearchCore.getSolr().commit();
+                    solrSearchCore.commit();
+                    invalidateSearchResults();
                 }
             }
         } catch (SolrServerException e) {
@@ -336,21 +363,30 @@ public class SolrServiceImpl implements SearchService, IndexingService {
 
     @Override
     public void updateIndex(Context context, boolean force, String type) {
-        try {
+        try (DocumentBuildCache.Scope buildCache = DocumentBuildCache.open()) {
             final List<IndexFactory> indexableObjectServices = indexObjectServiceFactory.
                 getIndexFactories();
             for (IndexFactory indexableObjectService : indexableObjectServices) {
                 if (type == null || StringUtils.equals(indexableObjectService.getType(), type)) {
+                    if (!force && IndexableItem.TYPE.equals(indexableObjectService.getType())
+                        && updateItemIndex(context, indexableObjectService)) {
+                        continue;
+                    }
                     final Iterator<IndexableObject> indexableObjects = indexableObjectService.findAll(context);
                     while (indexableObjects.hasNext()) {
+                        long start = indexingMetrics != null ? indexingMetrics.start() : 0;
                         final IndexableObject indexableObject = indexableObjects.next();
+                        if (indexingMetrics != null) {
+                            indexingMetrics.recordPhase(IndexingMetrics.Phase.DB_LOAD, start);
+                        }
                         indexContent(context, indexableObject, force);
                         context.uncacheEntity(indexableObject.getIndexedObject());
                     }
                 }
             }
             if (solrSearchCore.getSolr() != null) {
-                solrSearchCore.getSolr().commit();
+                solrSearchCore.commit();
+                invalidateSearchResults();
             }
 
         } catch (IOException | SQLException | SolrServerException e) {
@@ -358,6 +394,71 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         }
     }
 
+    /**
+     * Bring the item documents up to date by comparing the item ids and last modified dates of the database with
+     * the ids and last indexed dates of the search core, see {@link ItemIndexDiff}. Only the stale and missing items
+     * are loaded and indexed, and documents of items which no longer exist are removed. This replaces the
+     * {@link #requiresIndexing(String, Instant)} query per item of a non forced update.
+     *
+     * @param context                the dspace context
+     * @param indexableObjectService the item index factory
+     * @return false if the comparison could not be done and the items need to be checked one by one
+     */
+    protected boolean updateItemIndex(Context context, IndexFactory indexableObjectService)
+        throws IOException, SQLException, SolrServerException {
+        if (solrSearchCore.getSolr() == null) {
+            return false;
+        }
+        final ItemService itemService = contentServiceFactory.getItemService();
+        final int pageSize = configurationService.getIntProperty("discovery.index.diff.pageSize", 1000);
+        final ItemIndexDiff diff = new ItemIndexDiff(itemService, solrSearchCore, pageSize);
+        final long[] counts = new long[3];
+        try {
+            diff.run(context, new ItemIndexDiff.Listener() {
+                @Override
+                public void stale(UUID id) throws SQLException, IOException, SolrServerException {
+                    counts[0]++;
+                    reindex(id);
+                }
+
+                @Override
+                public void missing(UUID id) throws SQLException, IOException, SolrServerException {
+                    counts[1]++;
+                    reindex(id);
+                }
+
+                @Override
+                public void orphan(String uniqueId) throws SQLException, IOException, SolrServerException {
+                    // the item may have been created after the database was read, only remove it if really gone
+                    String id = StringUtils.substringAfter(uniqueId, IndexableItem.TYPE + "-");
+                    UUID uuid = UUIDUtils.fromString(id);
+                    if (uuid == null || itemService.find(context, uuid) == null) {
+                        counts[2]++;
+                        log.info("Deleting: " + uniqueId);
+                        indexableObjectService.delete(uniqueId);
+                    }
+                }
+
+                private void reindex(UUID id) throws SQLException, IOException, SolrServerException {
+                    Item item = itemService.find(context, id);
+                    if (item != null) {
+                        IndexableItem indexableItem = new IndexableItem(item);
+                        update(context, indexableObjectService, indexableItem);
+                        log.info(LogHelper.getHeader(context, "indexed_object", indexableItem.getUniqueIndexID()));
+                        context.uncacheEntity(item);
+                    }
+                }
+            });
+        } catch (IllegalStateException e) {
+            log.warn("Unable to compare the items with the search core, checking them one by one instead: "
+                         + e.getMessage());
+            return false;
+        }
+        log.info("Compared {} items with the search core: {} stale, {} missing, {} removed",
+                 diff.getComparedCount(), counts[0], counts[1], counts[2]);
+        return true;
+    }
+
     /**
      * Removes all documents from the Lucene index
      */
@@ -368,6 +469,7 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             for (IndexFactory indexableObjectService : indexableObjectServices) {
                 indexableObjectService.deleteAll();
             }
+            invalidateSearchResults();
         } catch (IOException | SolrServerException e) {
             log.error("Error cleaning discovery index: " + e.getMessage(), e);
         }
@@ -383,6 +485,21 @@ public class SolrServiceImpl implements SearchService, IndexingService {
      */
     @Override
     public void cleanIndex() throws IOException, SQLException, SearchServiceException {
+        cleanIndex(null);
+    }
+
+    /**
+     * Iterates over all documents in the search core with a cursor and removes those of objects which are no longer
+     * in the database. The documents are read in pages of "discovery.index.clean.batchSize", the existence of the
+     * objects of a page is checked with one query per type and their documents are removed with one request per type.
+     *
+     * @param handler the handler to report progress to, or null to only log it
+     * @throws IOException            IO exception
+     * @throws SQLException           sql exception
+     * @throws SearchServiceException occurs when something went wrong with querying the solr server
+     */
+    @Override
+    public void cleanIndex(DSpaceRunnableHandler handler) throws IOException, SQLException, SearchServiceException {
         Context context = new Context();
         context.turnOffAuthorisationSystem();
 
@@ -390,48 +507,37 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             if (solrSearchCore.getSolr() == null) {
                 return;
             }
-            // First, we'll just get a count of the total results
-            SolrQuery countQuery = new SolrQuery("*:*");
-            countQuery.setRows(0);  // don't actually request any data
-            // Get the total amount of results
-            QueryResponse totalResponse = solrSearchCore.getSolr().query(countQuery,
-                                                                         solrSearchCore.REQUEST_METHOD);
-            long total = totalResponse.getResults().getNumFound();
-
-            int start = 0;
-            int batch = 100;
-
-            // Now get actual Solr Documents in batches
-            SolrQuery query = new SolrQuery();
+            final int batchSize = configurationService.getIntProperty("discovery.index.clean.batchSize", 5000);
+            SolrQuery query = new SolrQuery("*:*");
             query.setFields(SearchUtils.RESOURCE_UNIQUE_ID, SearchUtils.RESOURCE_ID_FIELD,
                             SearchUtils.RESOURCE_TYPE_FIELD);
-            query.addSort(SearchUtils.RESOURCE_UNIQUE_ID, SolrQuery.ORDER.asc);
-            query.setQuery("*:*");
-            query.setRows(batch);
-            // Keep looping until we hit the total number of Solr docs
-            while (start < total) {
-                query.setStart(start);
+            // a cursor requires a sort on the unique key, deletes do not shift the next pages
+            query.setSort(SearchUtils.RESOURCE_UNIQUE_ID, SolrQuery.ORDER.asc);
+            query.setRows(batchSize);
+
+            long checked = 0;
+            long deleted = 0;
+            String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            while (true) {
+                query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
                 QueryResponse rsp = solrSearchCore.getSolr().query(query, solrSearchCore.REQUEST_METHOD);
                 SolrDocumentList docs = rsp.getResults();
-
-                for (SolrDocument doc : docs) {
-                    String uniqueID = (String) doc.getFieldValue(SearchUtils.RESOURCE_UNIQUE_ID);
-
-                    IndexableObject o = findIndexableObject(context, doc);
-
-                    if (o == null) {
-                        log.info("Deleting: " + uniqueID);
-                        /*
-                         * Use IndexWriter to delete, its easier to manage
-                         * write.lock
-                         */
-                        unIndexContent(context, uniqueID);
-                    } else {
-                        log.debug("Keeping: " + o.getUniqueIndexID());
-                    }
+                deleted += deleteOrphans(context, docs);
+                checked += docs.size();
+                context.uncacheEntities();
+                if (!docs.isEmpty()) {
+                    logCleanProgress(handler, "Checked " + checked + " of " + docs.getNumFound()
+                        + " documents, " + deleted + " removed");
                 }
-
-                start += batch;
+                String nextCursorMark = rsp.getNextCursorMark();
+                if (docs.isEmpty() || cursorMark.equals(nextCursorMark)) {
+                    break;
+                }
+                cursorMark = nextCursorMark;
+            }
+            if (deleted > 0) {
+                solrSearchCore.commit();
+                invalidateSearchResults();
             }
         } catch (IOException | SQLException | SolrServerException e) {
             log.error("Error cleaning discovery index: " + e.getMessage(), e);
@@ -440,6 +546,55 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         }
     }
 
+    /**
+     * Remove the documents of a page whose objects are no longer in the database.
+     *
+     * @param context the dspace context
+     * @param docs    the page of documents, with their unique id, type and id fields
+     * @return the number of documents removed
+     */
+    protected long deleteOrphans(Context context, List<SolrDocument> docs)
+        throws SQLException, IOException, SolrServerException {
+        Map<String, List<SolrDocument>> docsByType = new LinkedHashMap<>();
+        for (SolrDocument doc : docs) {
+            docsByType.computeIfAbsent((String) doc.getFirstValue(SearchUtils.RESOURCE_TYPE_FIELD),
+                                       type -> new ArrayList<>())
+                      .add(doc);
+        }
+        long deleted = 0;
+        for (Map.Entry<String, List<SolrDocument>> entry : docsByType.entrySet()) {
+            final IndexFactory indexableObjectService = indexObjectServiceFactory.getIndexFactoryByType(entry.getKey());
+            if (indexableObjectService == null) {
+                log.warn("Keeping {} documents of the unknown type {}", entry.getValue().size(), entry.getKey());
+                continue;
+            }
+            List<String> ids = new ArrayList<>(entry.getValue().size());
+            for (SolrDocument doc : entry.getValue()) {
+                ids.add((String) doc.getFirstValue(SearchUtils.RESOURCE_ID_FIELD));
+            }
+            Set<String> existingIds = indexableObjectService.findExistingIds(context, ids);
+            List<String> orphans = new ArrayList<>();
+            for (SolrDocument doc : entry.getValue()) {
+                if (!existingIds.contains((String) doc.getFirstValue(SearchUtils.RESOURCE_ID_FIELD))) {
+                    String uniqueID = (String) doc.getFirstValue(SearchUtils.RESOURCE_UNIQUE_ID);
+                    log.info("Deleting: " + uniqueID);
+                    orphans.add(uniqueID);
+                }
+            }
+            indexableObjectService.delete(orphans);
+            deleted += orphans.size();
+        }
+        return deleted;
+    }
+
+    private void logCleanProgress(DSpaceRunnableHandler handler, String message) {
+        if (handler != null) {
+            handler.logInfo(message);
+        } else {
+            log.info(message);
+        }
+    }
+
     /**
      * Maintenance to keep a SOLR index efficient.
      * Note: This might take a long time.
@@ -486,7 +641,67 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         solrInputDocument.addField(SearchUtils.RESOURCE_UNIQUE_ID, uniqueIndexId);
         solrInputDocument.addField(field, fieldModifier);
 
-        solrSearchCore.getSolr().add(solrInputDocument);
+        solrSearchCore.getDocumentBuffer().add(solrInputDocument);
+    }
+
+    @Override
+    public void updatePartially(Context context, Map<IndexableItem, Set<ItemIndexChange>> changes)
+            throws SQLException, SearchServiceException {
+        if (changes.isEmpty() || solrSearchCore.getSolr() == null) {
+            return;
+        }
+        ItemIndexFactory itemIndexFactory =
+            (ItemIndexFactory) indexObjectServiceFactory.getIndexFactoryByType(IndexableItem.TYPE);
+        try {
+            // the real time get below must see the documents still waiting in the buffer
+            solrSearchCore.getDocumentBuffer().flush();
+            Map<String, SolrDocument> documents = getIndexedDocuments(changes.keySet());
+            for (Map.Entry<IndexableItem, Set<ItemIndexChange>> entry : changes.entrySet()) {
+                IndexableItem indexableItem = entry.getKey();
+                SolrDocument document = documents.get(indexableItem.getUniqueIndexID());
+                boolean partial = document != null;
+                if (partial && entry.getValue().contains(ItemIndexChange.METADATA)) {
+                    // only metadata which are not indexed may have changed
+                    partial = itemIndexFactory.getMetadataHash(indexableItem.getIndexedObject())
+                        .equals(document.getFirstValue(ItemIndexFactoryImpl.METADATA_HASH_FIELD));
+                }
+                if (partial) {
+                    solrSearchCore.getDocumentBuffer().add(
+                        itemIndexFactory.buildPartialDocument(context, indexableItem, entry.getValue()));
+                    log.debug("Partially updated {} for {}", indexableItem.getUniqueIndexID(), entry.getValue());
+                } else {
+                    update(context, itemIndexFactory, indexableItem);
+                }
+                log.info(LogHelper.getHeader(context, "indexed_object", indexableItem.getUniqueIndexID()));
+            }
+        } catch (IOException | SolrServerException e) {
+            throw new SearchServiceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the documents of the given items with real time gets, which also return the documents not committed yet.
+     *
+     * @return the documents found, with only their unique id and metadata hash, by unique id
+     */
+    protected Map<String, SolrDocument> getIndexedDocuments(java.util.Collection<IndexableItem> indexableItems)
+            throws IOException, SolrServerException {
+        Map<String, SolrDocument> documents = new HashMap<>();
+        List<String> uniqueIds = new ArrayList<>();
+        for (IndexableItem indexableItem : indexableItems) {
+            uniqueIds.add(indexableItem.getUniqueIndexID());
+        }
+        for (List<String> page : ListUtils.partition(uniqueIds, REAL_TIME_GET_PAGE_SIZE)) {
+            ModifiableSolrParams params = new ModifiableSolrParams();
+            params.set(CommonParams.QT, "/get");
+            params.set("ids", page.toArray(new String[0]));
+            params.set(CommonParams.FL, SearchUtils.RESOURCE_UNIQUE_ID, ItemIndexFactoryImpl.METADATA_HASH_FIELD);
+            QueryResponse response = solrSearchCore.getSolr().query(params, solrSearchCore.REQUEST_METHOD);
+            for (SolrDocument document : response.getResults()) {
+                documents.put((String) document.getFirstValue(SearchUtils.RESOURCE_UNIQUE_ID), document);
+            }
+        }
+        return documents;
     }
 
     // //////////////////////////////////
@@ -709,68 +924,64 @@ public class SolrServiceImpl implements SearchService, IndexingService {
     }
 
     /**
-     * This class implements an iterator over items that is specifically used to iterate over search results
+     * This class implements an iterator over items that is specifically used to iterate over search results. The
+     * results are retrieved by pages of the max results of the query, with a cursor unless the query starts at an
+     * offset.
      */
     private class SearchIterator implements Iterator<Item> {
-        private Context context;
-        private DiscoverQuery discoverQuery;
-        private DiscoverResult discoverResult;
+        private final Context context;
+        private final DiscoverQuery discoverQuery;
         private IndexableObject dso;
-        private int absoluteCursor;
-        private int relativeCursor;
-        private int pagesize;
-
-        SearchIterator(Context context, DiscoverQuery discoverQuery) throws SearchServiceException {
-            this.context = context;
-            this.discoverQuery = discoverQuery;
-            this.absoluteCursor = discoverQuery.getStart();
-            initialise();
-        }
+        private Iterator<IndexableObject> page = Collections.emptyIterator();
+        private boolean lastPage;
 
-        SearchIterator(Context context, IndexableObject dso, DiscoverQuery discoverQuery)
-            throws SearchServiceException {
+        SearchIterator(Context context, IndexableObject dso, DiscoverQuery discoverQuery) {
             this.context = context;
             this.dso = dso;
             this.discoverQuery = discoverQuery;
-            initialise();
-        }
-
-        private void initialise() throws SearchServiceException {
-            this.relativeCursor = 0;
-            if (discoverQuery.getMaxResults() != -1) {
-                pagesize = discoverQuery.getMaxResults();
-            } else {
-                pagesize = 10;
+            if (discoverQuery.getMaxResults() == -1) {
+                discoverQuery.setMaxResults(configurationService.getIntProperty("discovery.search.iterator.pageSize",
+                                                                                100));
+            }
+            if (discoverQuery.getStart() <= 0 && discoverQuery.getCursorMark() == null) {
+                discoverQuery.setCursorMark(DiscoverQuery.CURSOR_MARK_START);
             }
-            discoverQuery.setMaxResults(pagesize);
-            this.discoverResult = search(context, dso, discoverQuery);
         }
 
         @Override
         public boolean hasNext() {
-            return absoluteCursor < discoverResult.getTotalSearchResults();
+            while (!page.hasNext() && !lastPage) {
+                loadNextPage();
+            }
+            return page.hasNext();
         }
 
         @Override
         public Item next() {
-            //paginate getting results from the discoverquery.
-            if (relativeCursor == pagesize) {
-                //  get a new page of results when the last element of the previous page has been read
-                int offset = absoluteCursor;
-                // reset the position counter for getting element relativecursor on a page
-                relativeCursor = 0;
-                discoverQuery.setStart(offset);
-                try {
-                    discoverResult = search(context, dso, discoverQuery);
-                } catch (SearchServiceException e) {
-                    log.error("error while getting search results", e);
-                }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (Item) page.next().getIndexedObject();
+        }
+
+        private void loadNextPage() {
+            DiscoverResult discoverResult;
+            try {
+                // the scope of the search is added to the filter queries of the query with the first page
+                discoverResult = search(context, dso, discoverQuery);
+                dso = null;
+            } catch (SearchServiceException e) {
+                throw new RuntimeException("Error while getting search results", e);
+            }
+            page = discoverResult.getIndexableObjects().iterator();
+            if (discoverQuery.getCursorMark() != null) {
+                String nextCursorMark = discoverResult.getNextCursorMark();
+                lastPage = nextCursorMark == null || nextCursorMark.equals(discoverQuery.getCursorMark());
+                discoverQuery.setCursorMark(nextCursorMark);
+            } else {
+                discoverQuery.setStart(discoverQuery.getStart() + discoverQuery.getMaxResults());
+                lastPage = discoverQuery.getStart() >= discoverResult.getTotalSearchResults();
             }
-            // get the element at position relativecursor on a page
-            IndexableObject res = discoverResult.getIndexableObjects().get(relativeCursor);
-            relativeCursor++;
-            absoluteCursor++;
-            return (Item) res.getIndexedObject();
         }
     }
 
@@ -837,6 +1048,15 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             solrQuery.addSort(discoveryQuery.getSortField(), order);
         }
 
+        if (discoveryQuery.getCursorMark() != null) {
+            // a cursor requires the results to be sorted on the unique key, and to start at the first result
+            solrQuery.setStart(0);
+            if (!SearchUtils.RESOURCE_UNIQUE_ID.equals(discoveryQuery.getSortField())) {
+                solrQuery.addSort(SearchUtils.RESOURCE_UNIQUE_ID, SolrQuery.ORDER.asc);
+            }
+            solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, discoveryQuery.getCursorMark());
+        }
+
         for (String property : discoveryQuery.getProperties().keySet()) {
             List<String> values = discoveryQuery.getProperties().get(property);
             solrQuery.add(property, values.toArray(new String[values.size()]));
@@ -916,6 +1136,7 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         int executionCount = 0;
         DiscoverResult result = null;
         SolrQuery solrQuery = resolveToSolrQuery(context, query);
+        String cacheKey = isResultCacheable(query) ? searchResultCache.getKey(solrQuery) : null;
         // how many re-run of the query are allowed other than the first run
         int maxAttempts = configurationService.getIntProperty("discovery.removestale.attempts", 3);
         do {
@@ -925,17 +1146,28 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             boolean skipLoadingResponse = false;
             // use zombieDocs to collect stale found objects
             List<String> zombieDocs = new ArrayList<>();
-            QueryResponse solrQueryResponse = solrSearchCore.getSolr().query(solrQuery,
-                          solrSearchCore.REQUEST_METHOD);
+            QueryResponse solrQueryResponse = cacheKey != null ? searchResultCache.get(cacheKey) : null;
+            if (solrQueryResponse == null) {
+                long generation = cacheKey != null ? searchResultCache.getGeneration() : 0;
+                solrQueryResponse = solrSearchCore.getSolr().query(solrQuery, solrSearchCore.REQUEST_METHOD);
+                if (cacheKey != null && solrQueryResponse != null) {
+                    searchResultCache.put(cacheKey, generation, solrQueryResponse);
+                }
+            }
             if (solrQueryResponse != null) {
                 result.setSearchTime(solrQueryResponse.getQTime());
                 result.setStart(query.getStart());
                 result.setMaxResults(query.getMaxResults());
                 result.setTotalSearchResults(solrQueryResponse.getResults().getNumFound());
+                result.setNextCursorMark(solrQueryResponse.getNextCursorMark());
 
                 List<String> searchFields = query.getSearchFields();
-                for (SolrDocument doc : solrQueryResponse.getResults()) {
-                    IndexableObject indexableObject = findIndexableObject(context, doc);
+                SolrDocumentList docs = solrQueryResponse.getResults();
+                // load the objects of the whole page at once, rather than one query per hit
+                List<IndexableObject> indexableObjects = findIndexableObjects(context, docs);
+                for (int i = 0; i < docs.size(); i++) {
+                    SolrDocument doc = docs.get(i);
+                    IndexableObject indexableObject = indexableObjects.get(i);
 
                     if (indexableObject != null) {
                         result.addIndexableObject(indexableObject);
@@ -996,10 +1228,17 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             // Otherwise, the query is valid and the results are returned.
             if (!zombieDocs.isEmpty()) {
                 log.info("Cleaning " + zombieDocs.size() + " stale objects from Discovery Index");
+                if (cacheKey != null) {
+                    searchResultCache.remove(cacheKey);
+                }
                 log.info("ZombieDocs ");
                 zombieDocs.forEach(log::info);
-                solrSearchCore.getSolr().deleteById(zombieDocs);
+                // the stale entries are deleted from the core searched, even by a thread rebuilding the index
+                SolrDocumentBuffer documentBuffer = solrSearchCore.getSearchCoreDocumentBuffer();
+                documentBuffer.deleteById(zombieDocs);
+                documentBuffer.flush();
                 solrSearchCore.getSolr().commit();
+                invalidateSearchResults();
             } else {
                 valid = true;
             }
@@ -1015,6 +1254,20 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         return result;
     }
 
+    /**
+     * Whether the response to the given query may be taken from (and stored in) the search result cache: the cache
+     * must be enabled, as well as the use of the cache by the discovery configuration of the query.
+     */
+    protected boolean isResultCacheable(DiscoverQuery query) {
+        if (searchResultCache == null || !searchResultCache.isEnabled() || query.getCursorMark() != null) {
+            // walks through the results with a cursor are not repeated
+            return false;
+        }
+        DiscoveryConfiguration discoveryConfiguration =
+            SearchUtils.getConfigurationService().getDiscoveryConfiguration(query.getDiscoveryConfigurationName());
+        return discoveryConfiguration == null || discoveryConfiguration.isResultCacheEnabled();
+    }
+
     /**
      * Stores the total count of entries for metadata index browsing. The count is calculated by the
      * <code>json.facet</code> parameter with the following value:
@@ -1061,7 +1314,8 @@ public class SolrServiceImpl implements SearchService, IndexingService {
                                             .equals(DiscoveryConfigurationParameters.TYPE_DATE) && facetFieldConfig
                             .getSortOrder().equals(DiscoveryConfigurationParameters.SORT.VALUE)) {
                             //If we have a date & are sorting by value, ensure that the results are flipped for a
-                            // proper result
+                            // proper result. The response may be cached, so a copy is reversed.
+                            facetValues = new ArrayList<>(facetValues);
                             Collections.reverse(facetValues);
                         }
 
@@ -1153,6 +1407,47 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         return indexableObject.orElse(null);
     }
 
+    /**
+     * Find the indexable objects referenced by the given solr documents. The objects are grouped by type and each
+     * type is loaded at once by its {@link IndexFactory#findIndexableObjects(Context, List)}, rather than issuing one
+     * query per document.
+     *
+     * @param context
+     *            The relevant DSpace Context.
+     * @param docs
+     *            the solr documents, the following fields MUST be present RESOURCE_TYPE_FIELD and RESOURCE_ID_FIELD
+     * @return the indexable objects, in the order of the documents. The object of a document is null if it could not
+     *         be found, e.g. because it is no longer in the database.
+     * @throws SQLException
+     *             An exception that provides information on a database access error or other errors.
+     */
+    protected List<IndexableObject> findIndexableObjects(Context context, List<SolrDocument> docs)
+        throws SQLException {
+        Map<String, List<String>> idsByType = new LinkedHashMap<>();
+        for (SolrDocument doc : docs) {
+            idsByType.computeIfAbsent((String) doc.getFirstValue(SearchUtils.RESOURCE_TYPE_FIELD),
+                                      type -> new ArrayList<>())
+                     .add((String) doc.getFirstValue(SearchUtils.RESOURCE_ID_FIELD));
+        }
+        Map<String, Map<String, IndexableObject>> objectsByType = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : idsByType.entrySet()) {
+            final IndexFactory indexableObjectService = indexObjectServiceFactory.getIndexFactoryByType(entry.getKey());
+            objectsByType.put(entry.getKey(), indexableObjectService.findIndexableObjects(context, entry.getValue()));
+        }
+
+        List<IndexableObject> indexableObjects = new ArrayList<>(docs.size());
+        for (SolrDocument doc : docs) {
+            String type = (String) doc.getFirstValue(SearchUtils.RESOURCE_TYPE_FIELD);
+            String id = (String) doc.getFirstValue(SearchUtils.RESOURCE_ID_FIELD);
+            IndexableObject indexableObject = objectsByType.get(type).get(id);
+            if (indexableObject == null) {
+                log.warn("Not able to retrieve object RESOURCE_ID:" + id + " - RESOURCE_TYPE_ID:" + type);
+            }
+            indexableObjects.add(indexableObject);
+        }
+        return indexableObjects;
+    }
+
     public List<IndexableObject> search(Context context, String query, int offset, int max,
             String... filterquery) {
         return search(context, query, null, true, offset, max, filterquery);
@@ -1182,11 +1477,8 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             QueryResponse rsp = solrSearchCore.getSolr().query(solrQuery, solrSearchCore.REQUEST_METHOD);
             SolrDocumentList docs = rsp.getResults();
 
-            Iterator iter = docs.iterator();
             List<IndexableObject> result = new ArrayList<>();
-            while (iter.hasNext()) {
-                SolrDocument doc = (SolrDocument) iter.next();
-                IndexableObject o = findIndexableObject(context, doc);
+            for (IndexableObject o : findIndexableObjects(context, docs)) {
                 if (o != null) {
                     result.add(o);
                 }
@@ -1294,9 +1586,7 @@ public class SolrServiceImpl implements SearchService, IndexingService {
             NamedList mltResults = (NamedList) rsp.getResponse().get("moreLikeThis");
             if (mltResults != null && mltResults.get(item.getType() + "-" + item.getID()) != null) {
                 SolrDocumentList relatedDocs = (SolrDocumentList) mltResults.get(item.getType() + "-" + item.getID());
-                for (Object relatedDoc : relatedDocs) {
-                    SolrDocument relatedDocument = (SolrDocument) relatedDoc;
-                    IndexableObject relatedItem = findIndexableObject(context, relatedDocument);
+                for (IndexableObject relatedItem : findIndexableObjects(context, relatedDocs)) {
                     if (relatedItem instanceof IndexableItem) {
                         results.add(((IndexableItem) relatedItem).getIndexedObject());
                     }
@@ -1506,17 +1796,32 @@ public class SolrServiceImpl implements SearchService, IndexingService {
         }
     }
 
+    /**
+     * Send all documents still waiting in the document buffer of the search core and commit them.
+     *
+     * @throws SearchServiceException if the commit failed
+     */
     @Override
     public void commit() throws SearchServiceException {
         try {
             if (solrSearchCore.getSolr() != null) {
-                solrSearchCore.getSolr().commit();
+                solrSearchCore.commit();
+                invalidateSearchResults();
             }
         } catch (IOException | SolrServerException e) {
             throw new SearchServiceException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Invalidate the cached search results, once changes have been committed to the search core.
+     */
+    protected void invalidateSearchResults() {
+        if (searchResultCache != null) {
+            searchResultCache.invalidate();
+        }
+    }
+
     @Override
     public String escapeQueryChars(String query) {
         // Use Solr's built in query escape tool
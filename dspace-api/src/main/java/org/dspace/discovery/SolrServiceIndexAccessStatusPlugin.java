@@ -8,6 +8,7 @@
 package org.dspace.discovery;
 
 import java.sql.SQLException;
+import java.util.Set;
 
 import org.apache.solr.common.SolrInputDocument;
 import org.dspace.access.status.DefaultAccessStatusHelper;
@@ -24,10 +25,20 @@ import org.dspace.discovery.indexobject.IndexableItem;
  * @author paulo-graca
  *
  */
-public class SolrServiceIndexAccessStatusPlugin implements SolrServiceIndexPlugin {
+public class SolrServiceIndexAccessStatusPlugin implements SolrServicePartialIndexPlugin {
 
     AccessStatusService accessStatusService = AccessStatusServiceFactory.getInstance().getAccessStatusService();
 
+    @Override
+    public Set<ItemIndexChange> getIndexedChanges() {
+        return Set.of(ItemIndexChange.POLICIES);
+    }
+
+    @Override
+    public Set<String> getIndexedFields() {
+        return Set.of("access_status_keyword", "access_status_filter");
+    }
+
     @Override
     public void additionalIndex(Context context, IndexableObject indexableObject, SolrInputDocument document) {
         if (indexableObject instanceof IndexableItem) {
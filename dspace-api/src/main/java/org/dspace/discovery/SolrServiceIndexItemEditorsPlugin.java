@@ -12,6 +12,7 @@ import static org.dspace.discovery.IndexingUtils.findTransitiveAdminGroupIds;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.logging.log4j.Logger;
@@ -30,13 +31,23 @@ import org.springframework.beans.factory.annotation.Autowired;
  *
  * @author Koen Pauwels at atmire.com
  */
-public class SolrServiceIndexItemEditorsPlugin implements SolrServiceIndexPlugin {
+public class SolrServiceIndexItemEditorsPlugin implements SolrServicePartialIndexPlugin {
     private static final Logger log = org.apache.logging.log4j.LogManager
         .getLogger(SolrServiceIndexItemEditorsPlugin.class);
 
     @Autowired(required = true)
     protected AuthorizeService authorizeService;
 
+    @Override
+    public Set<ItemIndexChange> getIndexedChanges() {
+        return Set.of(ItemIndexChange.POLICIES);
+    }
+
+    @Override
+    public Set<String> getIndexedFields() {
+        return Set.of("edit");
+    }
+
     @Override
     public void additionalIndex(Context context, IndexableObject idxObj, SolrInputDocument document) {
         if (idxObj instanceof IndexableItem) {
@@ -0,0 +1,32 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.util.Set;
+
+/**
+ * Index plugin whose fields only depend on some changes of an item, see {@link ItemIndexChange}. When only these
+ * changes happened the plugin is run on its own and the fields it writes replace those of the document of the item
+ * with an atomic update.
+ * <p>
+ * Plugins not implementing this interface are not run by a partial update, their fields are expected not to depend
+ * on the changes which can be indexed partially.
+ */
+public interface SolrServicePartialIndexPlugin extends SolrServiceIndexPlugin {
+
+    /**
+     * @return the changes of an item which may modify the fields written by this plugin
+     */
+    Set<ItemIndexChange> getIndexedChanges();
+
+    /**
+     * @return the names of all the fields this plugin may write for an item, those it does not write on a partial
+     * update are removed from the document
+     */
+    Set<String> getIndexedFields();
+}
@@ -49,7 +49,7 @@ import org.springframework.beans.factory.annotation.Autowired;
  * @author Mark Diggory (markd at atmire dot com)
  * @author Ben Bosman (ben at atmire dot com)
  */
-public class SolrServiceResourceRestrictionPlugin implements SolrServiceIndexPlugin, SolrServiceSearchPlugin {
+public class SolrServiceResourceRestrictionPlugin implements SolrServicePartialIndexPlugin, SolrServiceSearchPlugin {
 
     private static final Logger log =
             org.apache.logging.log4j.LogManager.getLogger(SolrServiceResourceRestrictionPlugin.class);
@@ -65,6 +65,16 @@ public class SolrServiceResourceRestrictionPlugin implements SolrServiceIndexPlu
     @Autowired(required = true)
     protected ResourcePolicyService resourcePolicyService;
 
+    @Override
+    public Set<ItemIndexChange> getIndexedChanges() {
+        return Set.of(ItemIndexChange.POLICIES);
+    }
+
+    @Override
+    public Set<String> getIndexedFields() {
+        return Set.of("read", "admin");
+    }
+
     @Override
     public void additionalIndex(Context context, IndexableObject idxObj, SolrInputDocument document) {
         DSpaceObject dso = null;
@@ -52,6 +52,7 @@ public class DiscoveryConfiguration implements InitializingBean {
     private DiscoveryMoreLikeThisConfiguration moreLikeThisConfiguration;
     private boolean spellCheckEnabled;
     private boolean indexAlways = false;
+    private boolean resultCacheEnabled = true;
 
     /**
      * The `indexAlways` property determines whether the configuration should
@@ -71,6 +72,21 @@ public class DiscoveryConfiguration implements InitializingBean {
         this.indexAlways = indexAlways;
     }
 
+    /**
+     * The `resultCacheEnabled` property determines whether the responses of the search core to the queries of this
+     * configuration may be cached, when the search result cache is enabled ("discovery.search.cache.enabled").
+     * The default value is true. It can be disabled for configurations whose queries are rarely repeated, e.g.
+     * because they depend on the current user.
+     * @return true if the responses to the queries of this configuration may be cached.
+     */
+    public boolean isResultCacheEnabled() {
+        return resultCacheEnabled;
+    }
+
+    public void setResultCacheEnabled(boolean resultCacheEnabled) {
+        this.resultCacheEnabled = resultCacheEnabled;
+    }
+
     public String getId() {
         return id;
     }
@@ -0,0 +1,61 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery.dao;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+import org.dspace.core.Context;
+import org.dspace.core.GenericDAO;
+import org.dspace.discovery.IndexOutboxEntry;
+
+/**
+ * Database Access Object interface class for the IndexOutboxEntry object.
+ * The implementation of this class is responsible for all database calls for the IndexOutboxEntry object
+ * and is autowired by spring. This class should only be accessed from a single service and should never be
+ * exposed outside of the API
+ */
+public interface IndexOutboxDAO extends GenericDAO<IndexOutboxEntry> {
+
+    /**
+     * Find the oldest records due for processing, locking them for the rest of the transaction. Records already
+     * locked by another transaction are skipped when the database supports it.
+     *
+     * @param context the DSpace context
+     * @param now     only return records whose next attempt is not after this date
+     * @param limit   maximum number of records to return
+     * @return the records, ordered by id
+     * @throws SQLException If something goes wrong in the database
+     */
+    List<IndexOutboxEntry> findDueForUpdate(Context context, Instant now, int limit) throws SQLException;
+
+    /**
+     * Delete the records with the given ids.
+     *
+     * @param context the DSpace context
+     * @param ids     the ids of the records to delete
+     * @return the number of deleted records
+     * @throws SQLException If something goes wrong in the database
+     */
+    int deleteByIds(Context context, List<Integer> ids) throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @return the number of records in the outbox
+     * @throws SQLException If something goes wrong in the database
+     */
+    long countAll(Context context) throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @return the creation date of the oldest record in the outbox, null if it is empty
+     * @throws SQLException If something goes wrong in the database
+     */
+    Instant findOldestCreated(Context context) throws SQLException;
+}
@@ -0,0 +1,60 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery.dao.impl;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import org.dspace.core.AbstractHibernateDAO;
+import org.dspace.core.Context;
+import org.dspace.discovery.IndexOutboxEntry;
+import org.dspace.discovery.dao.IndexOutboxDAO;
+import org.hibernate.LockOptions;
+
+/**
+ * Hibernate implementation of the Database Access Object interface class for the IndexOutboxEntry object.
+ * This class is responsible for all database calls for the IndexOutboxEntry object and is autowired by spring
+ */
+public class IndexOutboxDAOImpl extends AbstractHibernateDAO<IndexOutboxEntry> implements IndexOutboxDAO {
+
+    @Override
+    public List<IndexOutboxEntry> findDueForUpdate(Context context, Instant now, int limit) throws SQLException {
+        Query query = createQuery(context,
+            "FROM IndexOutboxEntry WHERE nextAttempt <= :now ORDER BY id");
+        query.setParameter("now", now);
+        query.setMaxResults(limit);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.setHint("jakarta.persistence.lock.timeout", LockOptions.SKIP_LOCKED);
+        return list(query);
+    }
+
+    @Override
+    public int deleteByIds(Context context, List<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Query query = createQuery(context, "DELETE FROM IndexOutboxEntry WHERE id IN (:ids)");
+        query.setParameter("ids", ids);
+        return query.executeUpdate();
+    }
+
+    @Override
+    public long countAll(Context context) throws SQLException {
+        Query query = createQuery(context, "SELECT COUNT(e) FROM IndexOutboxEntry e");
+        return (long) query.getSingleResult();
+    }
+
+    @Override
+    public Instant findOldestCreated(Context context) throws SQLException {
+        Query query = createQuery(context, "SELECT MIN(e.created) FROM IndexOutboxEntry e");
+        return (Instant) query.getSingleResult();
+    }
+}
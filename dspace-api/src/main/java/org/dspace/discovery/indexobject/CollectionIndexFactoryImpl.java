@@ -11,17 +11,19 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.common.SolrInputDocument;
 import org.dspace.content.Collection;
-import org.dspace.content.Community;
 import org.dspace.content.Item;
-import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.content.service.CollectionService;
 import org.dspace.content.service.CommunityService;
 import org.dspace.core.Constants;
@@ -154,6 +156,25 @@ public class CollectionIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Ind
         return collection == null ? Optional.empty() : Optional.of(new IndexableCollection(collection));
     }
 
+    @Override
+    public Map<String, IndexableCollection> findIndexableObjects(Context context, List<String> ids)
+        throws SQLException {
+        Map<String, IndexableCollection> indexableObjects = new HashMap<>();
+        for (Collection collection : collectionService.findByIds(context, getUUIDs(ids))) {
+            indexableObjects.put(collection.getID().toString(), new IndexableCollection(collection));
+        }
+        return indexableObjects;
+    }
+
+    @Override
+    public Set<String> findExistingIds(Context context, List<String> ids) throws SQLException {
+        Set<String> existingIds = new HashSet<>();
+        for (UUID id : collectionService.findExistingIds(context, getUUIDs(ids))) {
+            existingIds.add(id.toString());
+        }
+        return existingIds;
+    }
+
     @Override
     public List<String> getLocations(Context context, IndexableCollection indexableCollection) throws SQLException {
         return getCollectionLocations(context, indexableCollection.getIndexedObject());
@@ -161,16 +182,6 @@ public class CollectionIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Ind
 
     @Override
     public List<String> getCollectionLocations(Context context, Collection collection) throws SQLException {
-        List<String> locations = new ArrayList<>();
-        // build list of community ids
-        List<Community> communities = ContentServiceFactory.getInstance().getCommunityService().
-                getAllParents(context, collection);
-
-        // now put those into strings
-        for (Community community : communities) {
-            locations.add("m" + community.getID());
-        }
-
-        return locations;
+        return new ArrayList<>(getCommunityLocations(context, collection));
     }
 }
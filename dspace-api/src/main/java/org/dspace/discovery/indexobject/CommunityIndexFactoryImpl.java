@@ -11,9 +11,13 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.apache.solr.common.SolrInputDocument;
@@ -121,6 +125,24 @@ public class CommunityIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Inde
         return community == null ? Optional.empty() : Optional.of(new IndexableCommunity(community));
     }
 
+    @Override
+    public Map<String, IndexableCommunity> findIndexableObjects(Context context, List<String> ids) throws SQLException {
+        Map<String, IndexableCommunity> indexableObjects = new HashMap<>();
+        for (Community community : communityService.findByIds(context, getUUIDs(ids))) {
+            indexableObjects.put(community.getID().toString(), new IndexableCommunity(community));
+        }
+        return indexableObjects;
+    }
+
+    @Override
+    public Set<String> findExistingIds(Context context, List<String> ids) throws SQLException {
+        Set<String> existingIds = new HashSet<>();
+        for (UUID id : communityService.findExistingIds(context, getUUIDs(ids))) {
+            existingIds.add(id.toString());
+        }
+        return existingIds;
+    }
+
     @Override
     public List<String> getLocations(Context context, IndexableCommunity indexableDSpaceObject) throws SQLException {
         final Community target = indexableDSpaceObject.getIndexedObject();
@@ -9,13 +9,19 @@ package org.dspace.discovery.indexobject;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.common.SolrInputDocument;
+import org.dspace.content.Collection;
+import org.dspace.content.Community;
 import org.dspace.content.DSpaceObject;
+import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.core.Context;
 import org.dspace.discovery.indexobject.factory.DSpaceObjectIndexFactory;
+import org.dspace.util.UUIDUtils;
 
 /**
  * Factory implementation for indexing/retrieving DSpaceObjects in the search core
@@ -43,6 +49,49 @@ public abstract class DSpaceObjectIndexFactoryImpl<T extends IndexableDSpaceObje
         return doc;
     }
 
+    /**
+     * Get the locations of the communities a collection belongs to, as indexed for the collection and its items.
+     * They are cached for the length of a bulk index run, see {@link DocumentBuildCache}.
+     *
+     * @param context    DSpace context object
+     * @param collection the collection
+     * @return the locations of all parent communities of the collection
+     * @throws SQLException if database error
+     */
+    protected List<String> getCommunityLocations(Context context, Collection collection) throws SQLException {
+        DocumentBuildCache cache = DocumentBuildCache.getCurrent();
+        List<String> locations = cache != null ? cache.getCommunityLocations(collection.getID()) : null;
+        if (locations == null) {
+            locations = new ArrayList<>();
+            for (Community community : ContentServiceFactory.getInstance().getCommunityService()
+                                                            .getAllParents(context, collection)) {
+                locations.add("m" + community.getID());
+            }
+            if (cache != null) {
+                cache.putCommunityLocations(collection.getID(), locations);
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Convert the identifiers of indexable objects to the UUIDs of their DSpaceObjects, to load them at once in
+     * {@link #findIndexableObjects(Context, List)}. Invalid identifiers are skipped.
+     *
+     * @param ids the identifiers of the indexable objects
+     * @return the UUIDs of the DSpaceObjects
+     */
+    protected List<UUID> getUUIDs(List<String> ids) {
+        List<UUID> uuids = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            UUID uuid = UUIDUtils.fromString(id);
+            if (uuid != null) {
+                uuids.add(uuid);
+            }
+        }
+        return uuids;
+    }
+
     /**
      * Add the metadata value of the community/collection to the solr document
      * IF needed highlighting is added !
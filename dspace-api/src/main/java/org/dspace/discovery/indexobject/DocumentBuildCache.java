@@ -0,0 +1,121 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery.indexobject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dspace.discovery.configuration.DiscoveryConfiguration;
+
+/**
+ * Cache of the values resolved while building the documents of items which only depend on their collections: the
+ * locations of the parent communities, the discovery configurations which apply and the fields these configurations
+ * index. Without it, they are resolved again for every item of a collection.
+ * <p>
+ * The cache only lives for the length of a bulk index run, so changes to the structure of the repository or to the
+ * discovery configuration are picked up by the next run. The run opens it with {@link #open()} on the thread building
+ * the documents, worker threads of the same run share it through {@link #attach()}. The document builds of other
+ * threads, e.g. those of the index event consumer, are not affected.
+ */
+public class DocumentBuildCache {
+
+    private static final ThreadLocal<DocumentBuildCache> current = new ThreadLocal<>();
+
+    private final Map<UUID, List<String>> communityLocations = new ConcurrentHashMap<>();
+    private final Map<List<UUID>, List<DiscoveryConfiguration>> discoveryConfigurations = new ConcurrentHashMap<>();
+    private final Map<List<DiscoveryConfiguration>, ItemIndexFactoryImpl.DiscoveryFieldsConfiguration>
+        discoveryFieldsConfigurations = new ConcurrentHashMap<>();
+
+    /**
+     * The use of a cache by a thread, ended by {@link #close()}.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @return the cache used by the current thread, or null if it is not part of a bulk index run
+     */
+    public static DocumentBuildCache getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Start caching on the current thread until the returned scope is closed. A cache already used by the thread,
+     * e.g. that of an enclosing run, is kept.
+     *
+     * @return the scope, to close once the run is over
+     */
+    public static Scope open() {
+        DocumentBuildCache cache = current.get();
+        return (cache != null ? cache : new DocumentBuildCache()).attach();
+    }
+
+    /**
+     * Use this cache on the current thread until the returned scope is closed.
+     *
+     * @return the scope, to close once the thread is done building documents
+     */
+    public Scope attach() {
+        final DocumentBuildCache previous = current.get();
+        current.set(this);
+        return () -> {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @param collectionId the UUID of a collection
+     * @return the locations of the communities the collection belongs to, or null if not cached
+     */
+    public List<String> getCommunityLocations(UUID collectionId) {
+        return communityLocations.get(collectionId);
+    }
+
+    public void putCommunityLocations(UUID collectionId, List<String> locations) {
+        communityLocations.put(collectionId, copyOf(locations));
+    }
+
+    /**
+     * @param collectionIds the UUIDs of the collections of an item
+     * @return the discovery configurations applying to the items of these collections, or null if not cached
+     */
+    public List<DiscoveryConfiguration> getDiscoveryConfigurations(List<UUID> collectionIds) {
+        return discoveryConfigurations.get(collectionIds);
+    }
+
+    public void putDiscoveryConfigurations(List<UUID> collectionIds, List<DiscoveryConfiguration> configurations) {
+        discoveryConfigurations.put(copyOf(collectionIds), copyOf(configurations));
+    }
+
+    ItemIndexFactoryImpl.DiscoveryFieldsConfiguration getDiscoveryFieldsConfiguration(
+        List<DiscoveryConfiguration> configurations) {
+        return discoveryFieldsConfigurations.get(configurations);
+    }
+
+    void putDiscoveryFieldsConfiguration(List<DiscoveryConfiguration> configurations,
+                                         ItemIndexFactoryImpl.DiscoveryFieldsConfiguration fieldsConfiguration) {
+        discoveryFieldsConfigurations.put(copyOf(configurations), fieldsConfiguration);
+    }
+
+    /**
+     * Copy a list to cache, unlike {@link List#copyOf} the list may contain null, e.g. a missing configuration.
+     */
+    private static <T> List<T> copyOf(List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+}
@@ -25,8 +25,10 @@ import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.csv.TextAndCSVParser;
 import org.apache.tika.sax.BodyContentHandler;
 import org.dspace.core.Context;
+import org.dspace.discovery.FullTextCache;
 import org.dspace.discovery.FullTextContentStreams;
 import org.dspace.discovery.IndexableObject;
+import org.dspace.discovery.IndexingMetrics;
 import org.dspace.discovery.SearchUtils;
 import org.dspace.discovery.SolrSearchCore;
 import org.dspace.discovery.SolrServiceIndexPlugin;
@@ -48,6 +50,10 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
     protected List<SolrServiceIndexPlugin> solrServiceIndexPlugins;
     @Autowired
     protected SolrSearchCore solrSearchCore;
+    @Autowired(required = false)
+    protected FullTextCache fullTextCache;
+    @Autowired(required = false)
+    protected IndexingMetrics indexingMetrics;
 
     @Override
     public SolrInputDocument buildDocument(Context context, T indexableObject) throws SQLException, IOException {
@@ -64,8 +70,12 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
 
         //Do any additional indexing, depends on the plugins
         for (SolrServiceIndexPlugin solrServiceIndexPlugin : ListUtils.emptyIfNull(solrServiceIndexPlugins)) {
+            long start = startTiming();
             try {
                 solrServiceIndexPlugin.additionalIndex(context, indexableObject, doc);
+                if (indexingMetrics != null) {
+                    indexingMetrics.recordPlugin(solrServiceIndexPlugin, start);
+                }
             } catch (Exception e) {
                 log.error("An error occurred while indexing additional fields. " +
                         "Could not fully index item with UUID: {}. Plugin: {}",
@@ -95,6 +105,9 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
 
     /**
      * Write the document to the index under the appropriate unique identifier.
+     * The document is queued in the {@link org.dspace.discovery.SolrDocumentBuffer} of the search core and sent to
+     * solr with the next batch. The full text is read from the {@link FullTextCache} when enabled, and only parsed
+     * if it is not cached yet.
      *
      * @param doc     the solr document to be written to the server
      * @param streams list of bitstream content streams
@@ -105,58 +118,94 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
         final SolrClient solr = solrSearchCore.getSolr();
         if (solr != null) {
             // If full text stream(s) were passed in, we'll index them as part of the SolrInputDocument
+            long start = startTiming();
             if (streams != null && !streams.isEmpty()) {
                 // limit full text indexing to first 100,000 characters unless configured otherwise
                 final int charLimit = DSpaceServicesFactory.getInstance().getConfigurationService()
                         .getIntProperty("discovery.solr.fulltext.charLimit",
                                 100000);
 
-                // Use Tika's Text parser as the streams are always from the TEXT bundle (i.e. already extracted text)
-                TextAndCSVParser tikaParser = new TextAndCSVParser();
-                BodyContentHandler tikaHandler = new BodyContentHandler(charLimit);
-                Metadata tikaMetadata = new Metadata();
-                ParseContext tikaContext = new ParseContext();
-
-                // Use Apache Tika to parse the full text stream(s)
-                boolean extractionSucceeded = false;
-                try (InputStream fullTextStreams = streams.getStream()) {
-                    tikaParser.parse(fullTextStreams, tikaHandler, tikaMetadata, tikaContext);
-                    extractionSucceeded = true;
-                } catch (SAXException saxe) {
-                    // Check if this SAXException is just a notice that this file was longer than the character limit.
-                    // Unfortunately there is not a unique, public exception type to catch here. This error is thrown
-                    // by Tika's WriteOutContentHandler when it encounters a document longer than the char limit
-                    // https://github.com/apache/tika/blob/main/tika-core/src/main/java/org/apache/tika/sax/WriteOutContentHandler.java
-                    if (saxe.getMessage().contains("limit has been reached")) {
-                        // log that we only indexed up to that configured limit
-                        log.info("Full text is larger than the configured limit (discovery.solr.fulltext.charLimit)."
-                                + " Only the first {} characters were indexed.", charLimit);
-                        extractionSucceeded = true;
-                    } else {
-                        log.error("Tika parsing error. Could not index full text.", saxe);
-                        throw new IOException("Tika parsing error. Could not index full text.", saxe);
+                FullTextCache.Entry fullText = null;
+                String cacheKey = fullTextCache != null && fullTextCache.isEnabled()
+                    ? fullTextCache.getKey(streams, charLimit) : null;
+                if (cacheKey != null) {
+                    fullText = fullTextCache.get(cacheKey);
+                }
+                if (fullText == null) {
+                    fullText = parseFullText(streams, charLimit);
+                    if (fullText != null && cacheKey != null && !streams.hasStreamErrors()) {
+                        fullTextCache.put(cacheKey, fullText);
                     }
-                } catch (TikaException | IOException ex) {
-                    log.error("Tika parsing error. Could not index full text.", ex);
-                    throw new IOException("Tika parsing error. Could not index full text.", ex);
                 }
-                if (extractionSucceeded) {
+                if (fullText != null) {
                     // Write Tika metadata to "tika_meta_*" fields.
                     // This metadata is not very useful right now,
                     // but we'll keep it just in case it becomes more useful.
+                    Metadata tikaMetadata = fullText.getMetadata();
                     for (String name : tikaMetadata.names()) {
                         for (String value : tikaMetadata.getValues(name)) {
                             doc.addField("tika_meta_" + name, value);
                         }
                     }
                     // Save (parsed) full text to "fulltext" field
-                    doc.addField("fulltext", tikaHandler.toString());
+                    doc.addField("fulltext", fullText.getText());
+                }
+                if (indexingMetrics != null) {
+                    indexingMetrics.recordPhase(IndexingMetrics.Phase.FULL_TEXT, start);
                 }
             }
-            // Add document to index
-            solr.add(doc);
+            // Add document to index, the buffer sends it to solr along with the other pending documents
+            solrSearchCore.getDocumentBuffer().add(doc);
+
+        }
+    }
+
+    /**
+     * @return the start time to pass to the {@link IndexingMetrics}, or 0 if no timings are recorded
+     */
+    protected long startTiming() {
+        return indexingMetrics != null ? indexingMetrics.start() : 0;
+    }
+
+    /**
+     * Parse the full text stream(s) with Tika.
+     *
+     * @param streams   list of bitstream content streams
+     * @param charLimit maximum number of characters to extract
+     * @return the parsed full text and its Tika metadata, or null if nothing could be extracted
+     * @throws IOException if the full text could not be parsed
+     */
+    protected FullTextCache.Entry parseFullText(FullTextContentStreams streams, int charLimit) throws IOException {
+        // Use Tika's Text parser as the streams are always from the TEXT bundle (i.e. already extracted text)
+        TextAndCSVParser tikaParser = new TextAndCSVParser();
+        BodyContentHandler tikaHandler = new BodyContentHandler(charLimit);
+        Metadata tikaMetadata = new Metadata();
+        ParseContext tikaContext = new ParseContext();
 
+        // Use Apache Tika to parse the full text stream(s)
+        boolean extractionSucceeded = false;
+        try (InputStream fullTextStreams = streams.getStream()) {
+            tikaParser.parse(fullTextStreams, tikaHandler, tikaMetadata, tikaContext);
+            extractionSucceeded = true;
+        } catch (SAXException saxe) {
+            // Check if this SAXException is just a notice that this file was longer than the character limit.
+            // Unfortunately there is not a unique, public exception type to catch here. This error is thrown
+            // by Tika's WriteOutContentHandler when it encounters a document longer than the char limit
+            // https://github.com/apache/tika/blob/main/tika-core/src/main/java/org/apache/tika/sax/WriteOutContentHandler.java
+            if (saxe.getMessage().contains("limit has been reached")) {
+                // log that we only indexed up to that configured limit
+                log.info("Full text is larger than the configured limit (discovery.solr.fulltext.charLimit)."
+                        + " Only the first {} characters were indexed.", charLimit);
+                extractionSucceeded = true;
+            } else {
+                log.error("Tika parsing error. Could not index full text.", saxe);
+                throw new IOException("Tika parsing error. Could not index full text.", saxe);
+            }
+        } catch (TikaException | IOException ex) {
+            log.error("Tika parsing error. Could not index full text.", ex);
+            throw new IOException("Tika parsing error. Could not index full text.", ex);
         }
+        return extractionSucceeded ? new FullTextCache.Entry(tikaHandler.toString(), tikaMetadata) : null;
     }
 
 
@@ -232,16 +281,21 @@ public abstract class IndexFactoryImpl<T extends IndexableObject, S> implements
 
     @Override
     public void delete(T indexableObject) throws IOException, SolrServerException {
-        solrSearchCore.getSolr().deleteById(indexableObject.getUniqueIndexID());
+        solrSearchCore.getDocumentBuffer().deleteById(indexableObject.getUniqueIndexID());
     }
 
     @Override
     public void delete(String indexableObjectIdentifier) throws IOException, SolrServerException {
-        solrSearchCore.getSolr().deleteById(indexableObjectIdentifier);
+        solrSearchCore.getDocumentBuffer().deleteById(indexableObjectIdentifier);
+    }
+
+    @Override
+    public void delete(List<String> indexableObjectIdentifiers) throws IOException, SolrServerException {
+        solrSearchCore.getDocumentBuffer().deleteById(indexableObjectIdentifiers);
     }
 
     @Override
     public void deleteAll() throws IOException, SolrServerException {
-        solrSearchCore.getSolr().deleteByQuery(SearchUtils.RESOURCE_TYPE_FIELD + ":" + getType());
+        solrSearchCore.getDocumentBuffer().deleteByQuery(SearchUtils.RESOURCE_TYPE_FIELD + ":" + getType());
     }
 }
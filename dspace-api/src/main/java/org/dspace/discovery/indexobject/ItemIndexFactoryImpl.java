@@ -10,13 +10,19 @@ package org.dspace.discovery.indexobject;
 import static org.dspace.discovery.SolrServiceImpl.SOLR_FIELD_SUFFIX_FACET_PREFIXES;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +32,9 @@ import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.Logger;
@@ -33,7 +42,6 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
 import org.dspace.authority.service.AuthorityValueService;
 import org.dspace.content.Collection;
-import org.dspace.content.Community;
 import org.dspace.content.Item;
 import org.dspace.content.MetadataField;
 import org.dspace.content.MetadataSchema;
@@ -47,7 +55,11 @@ import org.dspace.content.service.WorkspaceItemService;
 import org.dspace.core.Context;
 import org.dspace.core.LogHelper;
 import org.dspace.discovery.FullTextContentStreams;
+import org.dspace.discovery.IndexingMetrics;
+import org.dspace.discovery.ItemIndexChange;
 import org.dspace.discovery.SearchUtils;
+import org.dspace.discovery.SolrServiceIndexPlugin;
+import org.dspace.discovery.SolrServicePartialIndexPlugin;
 import org.dspace.discovery.configuration.DiscoveryConfiguration;
 import org.dspace.discovery.configuration.DiscoveryConfigurationParameters;
 import org.dspace.discovery.configuration.DiscoveryHitHighlightFieldConfiguration;
@@ -84,6 +96,7 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
     public static final String STORE_SEPARATOR = "\n|||\n";
     public static final String STATUS_FIELD = "database_status";
     public static final String STATUS_FIELD_PREDB = "predb";
+    public static final String METADATA_HASH_FIELD = "search.metadatahash_s";
 
 
     @Autowired
@@ -150,6 +163,7 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         doc.addField("discoverable", item.isDiscoverable());
         doc.addField("lastModified", SolrUtils.getDateFormatter().format(item.getLastModified()));
         doc.addField("latestVersion", itemService.isLatestVersion(context, item));
+        doc.addField(METADATA_HASH_FIELD, getMetadataHash(item));
 
         EPerson submitter = item.getSubmitter();
         if (submitter != null && !(DSpaceServicesFactory.getInstance().getConfigurationService().getBooleanProperty(
@@ -160,7 +174,7 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         }
 
         // Add the item metadata
-        List<DiscoveryConfiguration> discoveryConfigurations = SearchUtils.getAllDiscoveryConfigurations(context, item);
+        List<DiscoveryConfiguration> discoveryConfigurations = getDiscoveryConfigurations(context, item);
         addDiscoveryFields(doc, context, indexableItem.getIndexedObject(), discoveryConfigurations);
 
         //mandatory facet to show status on mydspace
@@ -175,96 +189,84 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         return doc;
     }
 
-    @Override
-    public SolrInputDocument buildNewDocument(Context context, IndexableItem indexableItem)
-            throws SQLException, IOException {
-        SolrInputDocument doc = buildDocument(context, indexableItem);
-        doc.addField(STATUS_FIELD, STATUS_FIELD_PREDB);
-        return doc;
+    /**
+     * Get the discovery configurations applying to an item, which only depend on its collections. They are cached
+     * for the length of a bulk index run, see {@link DocumentBuildCache}.
+     */
+    protected List<DiscoveryConfiguration> getDiscoveryConfigurations(Context context, Item item)
+            throws SQLException {
+        DocumentBuildCache cache = DocumentBuildCache.getCurrent();
+        if (cache == null) {
+            return SearchUtils.getAllDiscoveryConfigurations(context, item);
+        }
+        List<UUID> collectionIds = new ArrayList<>();
+        for (Collection collection : item.getCollections()) {
+            collectionIds.add(collection.getID());
+        }
+        List<DiscoveryConfiguration> discoveryConfigurations = cache.getDiscoveryConfigurations(collectionIds);
+        if (discoveryConfigurations == null) {
+            discoveryConfigurations = SearchUtils.getAllDiscoveryConfigurations(context, item);
+            cache.putDiscoveryConfigurations(collectionIds, discoveryConfigurations);
+        }
+        return discoveryConfigurations;
     }
 
-    @Override
-    public void addDiscoveryFields(SolrInputDocument doc, Context context, Item item,
-                                   List<DiscoveryConfiguration> discoveryConfigurations)
-            throws SQLException, IOException {
-        // use the item service to retrieve the owning collection also for inprogress submission
-        Collection collection = (Collection) itemService.getParentObject(context, item);
-        //Keep a list of our sort values which we added, sort values can only be added once
-        List<String> sortFieldsAdded = new ArrayList<>();
-        Map<String, List<DiscoverySearchFilter>> searchFilters = new HashMap<>();
-        Set<String> hitHighlightingFields = new HashSet<>();
-        try {
-            //A map used to save each sidebarFacet config by the metadata fields
-            Map<String, DiscoverySortFieldConfiguration> sortFields = new HashMap<>();
-            Map<String, DiscoveryRecentSubmissionsConfiguration> recentSubmissionsConfigurationMap = new
-                    HashMap<>();
-            Set<String> moreLikeThisFields = new HashSet<>();
+    /**
+     * Get the fields indexed for the given discovery configurations. They are cached for the length of a bulk index
+     * run, see {@link DocumentBuildCache}.
+     */
+    protected DiscoveryFieldsConfiguration getDiscoveryFieldsConfiguration(
+            List<DiscoveryConfiguration> discoveryConfigurations) {
+        DocumentBuildCache cache = DocumentBuildCache.getCurrent();
+        if (cache == null) {
+            return new DiscoveryFieldsConfiguration(discoveryConfigurations);
+        }
+        DiscoveryFieldsConfiguration fieldsConfiguration = cache.getDiscoveryFieldsConfiguration(
+                discoveryConfigurations);
+        if (fieldsConfiguration == null) {
+            fieldsConfiguration = new DiscoveryFieldsConfiguration(discoveryConfigurations);
+            cache.putDiscoveryFieldsConfiguration(discoveryConfigurations, fieldsConfiguration);
+        }
+        return fieldsConfiguration;
+    }
+
+    /**
+     * The fields indexed for a list of discovery configurations, as read from their search filters, sort options,
+     * recent submissions, hit highlighting and more like this configurations. These do not depend on the item being
+     * indexed.
+     */
+    static class DiscoveryFieldsConfiguration {
+        //A map used to save each sidebarFacet config by the metadata fields
+        final Map<String, List<DiscoverySearchFilter>> searchFilters = new HashMap<>();
+        // the facets exposing the min and max values of the item
+        final List<DiscoverySearchFilter> minMaxSearchFilters = new ArrayList<>();
+        final Map<String, DiscoverySortFieldConfiguration> sortFields = new HashMap<>();
+        final Map<String, DiscoveryRecentSubmissionsConfiguration> recentSubmissionsConfigurationMap =
+                new HashMap<>();
+        final Set<String> hitHighlightingFields = new HashSet<>();
+        final Set<String> moreLikeThisFields = new HashSet<>();
+
+        DiscoveryFieldsConfiguration(List<DiscoveryConfiguration> discoveryConfigurations) {
             // some configuration are returned multiple times, skip them to save CPU cycles
             Set<String> appliedConf = new HashSet<>();
             // it is common to have search filter shared between multiple configurations
             Set<String> appliedDiscoverySearchFilter = new HashSet<>();
 
             for (DiscoveryConfiguration discoveryConfiguration : discoveryConfigurations) {
-                if (appliedConf.contains(discoveryConfiguration.getId())) {
+                if (!appliedConf.add(discoveryConfiguration.getId())) {
                     continue;
-                } else {
-                    appliedConf.add(discoveryConfiguration.getId());
                 }
-                for (int i = 0; i < discoveryConfiguration.getSearchFilters().size(); i++) {
-                    if (appliedDiscoverySearchFilter
-                            .contains(discoveryConfiguration.getSearchFilters().get(i).getIndexFieldName())) {
+                for (DiscoverySearchFilter discoverySearchFilter : discoveryConfiguration.getSearchFilters()) {
+                    if (!appliedDiscoverySearchFilter.add(discoverySearchFilter.getIndexFieldName())) {
                         continue;
-                    } else {
-                        appliedDiscoverySearchFilter
-                                .add(discoveryConfiguration.getSearchFilters().get(i).getIndexFieldName());
                     }
-                    List<MetadataValue> metadataValueList = new LinkedList<>();
-                    boolean shouldExposeMinMax = false;
-                    DiscoverySearchFilter discoverySearchFilter = discoveryConfiguration.getSearchFilters().get(i);
-                    if (StringUtils.equalsIgnoreCase(discoverySearchFilter.getFilterType(), "facet")) {
-                        if (((DiscoverySearchFilterFacet) discoverySearchFilter).exposeMinAndMaxValue()) {
-                            shouldExposeMinMax = true;
-                        }
+                    if (StringUtils.equalsIgnoreCase(discoverySearchFilter.getFilterType(), "facet")
+                            && ((DiscoverySearchFilterFacet) discoverySearchFilter).exposeMinAndMaxValue()) {
+                        minMaxSearchFilters.add(discoverySearchFilter);
                     }
-                    for (int j = 0; j < discoverySearchFilter.getMetadataFields().size(); j++) {
-                        String metadataField = discoverySearchFilter.getMetadataFields().get(j);
-                        List<DiscoverySearchFilter> resultingList;
-                        if (searchFilters.get(metadataField) != null) {
-                            resultingList = searchFilters.get(metadataField);
-                        } else {
-                            //New metadata field, create a new list for it
-                            resultingList = new ArrayList<>();
-                        }
-
-
-                        if (shouldExposeMinMax) {
-                            String[] splittedMetadataField = metadataField.split("\\.");
-                            String schema = splittedMetadataField[0];
-                            String element = splittedMetadataField.length > 1 ? splittedMetadataField[1] : null;
-                            String qualifier = splittedMetadataField.length > 2 ? splittedMetadataField[2] : null;
-
-                            metadataValueList.addAll(itemService.getMetadata(item, schema,
-                                    element, qualifier, Item.ANY));
-
-                        }
-
-                        resultingList.add(discoverySearchFilter);
-
-                        searchFilters.put(metadataField, resultingList);
-                    }
-
-                    if (!metadataValueList.isEmpty() && shouldExposeMinMax) {
-                        metadataValueList.sort((mdv1, mdv2) -> mdv1.getValue().compareTo(mdv2.getValue()));
-                        MetadataValue firstMetadataValue = metadataValueList.get(0);
-                        MetadataValue lastMetadataValue = metadataValueList.get(metadataValueList.size() - 1);
-
-                        doc.addField(discoverySearchFilter.getIndexFieldName() + "_min", firstMetadataValue.getValue());
-                        doc.addField(discoverySearchFilter.getIndexFieldName()
-                                + "_min_sort", firstMetadataValue.getValue());
-                        doc.addField(discoverySearchFilter.getIndexFieldName() + "_max", lastMetadataValue.getValue());
-                        doc.addField(discoverySearchFilter.getIndexFieldName()
-                                + "_max_sort", lastMetadataValue.getValue());
-
+                    for (String metadataField : discoverySearchFilter.getMetadataFields()) {
+                        searchFilters.computeIfAbsent(metadataField, field -> new ArrayList<>())
+                                     .add(discoverySearchFilter);
                     }
                 }
 
@@ -286,21 +288,153 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
                 DiscoveryHitHighlightingConfiguration hitHighlightingConfiguration = discoveryConfiguration
                         .getHitHighlightingConfiguration();
                 if (hitHighlightingConfiguration != null) {
-                    List<DiscoveryHitHighlightFieldConfiguration> fieldConfigurations = hitHighlightingConfiguration
-                            .getMetadataFields();
-                    for (DiscoveryHitHighlightFieldConfiguration fieldConfiguration : fieldConfigurations) {
+                    for (DiscoveryHitHighlightFieldConfiguration fieldConfiguration : hitHighlightingConfiguration
+                            .getMetadataFields()) {
                         hitHighlightingFields.add(fieldConfiguration.getField());
                     }
                 }
                 DiscoveryMoreLikeThisConfiguration moreLikeThisConfiguration = discoveryConfiguration
                         .getMoreLikeThisConfiguration();
                 if (moreLikeThisConfiguration != null) {
-                    for (String metadataField : moreLikeThisConfiguration.getSimilarityMetadataFields()) {
-                        moreLikeThisFields.add(metadataField);
+                    moreLikeThisFields.addAll(moreLikeThisConfiguration.getSimilarityMetadataFields());
+                }
+            }
+        }
+    }
+
+    @Override
+    public SolrInputDocument buildPartialDocument(Context context, IndexableItem indexableItem,
+                                                  Set<ItemIndexChange> changes) throws SQLException {
+        final Item item = indexableItem.getIndexedObject();
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField(SearchUtils.RESOURCE_UNIQUE_ID, indexableItem.getUniqueIndexID());
+        setField(doc, SearchUtils.LAST_INDEXED_FIELD, SolrUtils.getDateFormatter().format(Instant.now()));
+        setField(doc, "lastModified", SolrUtils.getDateFormatter().format(item.getLastModified()));
+
+        Set<ItemIndexChange> pluginChanges = EnumSet.noneOf(ItemIndexChange.class);
+        pluginChanges.addAll(changes);
+        if (changes.contains(ItemIndexChange.WITHDRAWAL)) {
+            setField(doc, "archived", item.isArchived());
+            setField(doc, "withdrawn", item.isWithdrawn());
+            // withdrawing or reinstating an item also switches its READ policies
+            pluginChanges.add(ItemIndexChange.POLICIES);
+        }
+        if (changes.contains(ItemIndexChange.DISCOVERABILITY)) {
+            setField(doc, "discoverable", item.isDiscoverable());
+        }
+
+        // run the plugins depending on the changes only, their fields are replaced as a whole
+        SolrInputDocument pluginDoc = new SolrInputDocument();
+        Set<String> pluginFields = new LinkedHashSet<>();
+        for (SolrServiceIndexPlugin plugin : ListUtils.emptyIfNull(solrServiceIndexPlugins)) {
+            if (plugin instanceof SolrServicePartialIndexPlugin) {
+                SolrServicePartialIndexPlugin partialPlugin = (SolrServicePartialIndexPlugin) plugin;
+                if (!Collections.disjoint(partialPlugin.getIndexedChanges(), pluginChanges)) {
+                    long start = startTiming();
+                    partialPlugin.additionalIndex(context, indexableItem, pluginDoc);
+                    if (indexingMetrics != null) {
+                        indexingMetrics.recordPlugin(partialPlugin, start);
                     }
+                    pluginFields.addAll(partialPlugin.getIndexedFields());
                 }
             }
+        }
+        for (String field : pluginFields) {
+            // a field not written anymore is removed
+            setField(doc, field, pluginDoc.getFieldValues(field));
+        }
+        return doc;
+    }
+
+    /**
+     * @return all metadata values of the item, including the virtual metadata of its relationships
+     */
+    protected List<MetadataValue> getAllMetadata(Item item) {
+        long start = startTiming();
+        List<MetadataValue> metadataValues = itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
+        if (indexingMetrics != null) {
+            indexingMetrics.recordPhase(IndexingMetrics.Phase.VIRTUAL_METADATA, start);
+        }
+        return metadataValues;
+    }
+
+    @Override
+    public String getMetadataHash(Item item) {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        List<String> toIgnoreMetadataFields = SearchUtils.getIgnoredMetadataFields(item.getType());
+        for (MetadataValue meta : getAllMetadata(item)) {
+            MetadataField metadataField = meta.getMetadataField();
+            String field = metadataField.toString('.');
+            String unqualifiedField = metadataField.getMetadataSchema().getName() + "." + metadataField.getElement();
+            if (toIgnoreMetadataFields != null && (toIgnoreMetadataFields.contains(field)
+                    || toIgnoreMetadataFields.contains(unqualifiedField + "." + Item.ANY))) {
+                continue;
+            }
+            for (Object part : new Object[] {field, meta.getLanguage(), meta.getValue(), meta.getAuthority(),
+                meta.getConfidence(), meta.getPlace()}) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
 
+    /**
+     * Add an atomic update replacing the values of the field, or removing the field if the value is null
+     */
+    private void setField(SolrInputDocument doc, String field, Object value) {
+        doc.addField(field, Collections.singletonMap("set", value));
+    }
+
+    @Override
+    public SolrInputDocument buildNewDocument(Context context, IndexableItem indexableItem)
+            throws SQLException, IOException {
+        SolrInputDocument doc = buildDocument(context, indexableItem);
+        doc.addField(STATUS_FIELD, STATUS_FIELD_PREDB);
+        return doc;
+    }
+
+    @Override
+    public void addDiscoveryFields(SolrInputDocument doc, Context context, Item item,
+                                   List<DiscoveryConfiguration> discoveryConfigurations)
+            throws SQLException, IOException {
+        // use the item service to retrieve the owning collection also for inprogress submission
+        Collection collection = (Collection) itemService.getParentObject(context, item);
+        //Keep a list of our sort values which we added, sort values can only be added once
+        List<String> sortFieldsAdded = new ArrayList<>();
+        try {
+            DiscoveryFieldsConfiguration fieldsConfiguration = getDiscoveryFieldsConfiguration(discoveryConfigurations);
+            Map<String, List<DiscoverySearchFilter>> searchFilters = fieldsConfiguration.searchFilters;
+            Map<String, DiscoverySortFieldConfiguration> sortFields = fieldsConfiguration.sortFields;
+            Map<String, DiscoveryRecentSubmissionsConfiguration> recentSubmissionsConfigurationMap =
+                    fieldsConfiguration.recentSubmissionsConfigurationMap;
+            Set<String> hitHighlightingFields = fieldsConfiguration.hitHighlightingFields;
+            Set<String> moreLikeThisFields = fieldsConfiguration.moreLikeThisFields;
+
+            for (DiscoverySearchFilter discoverySearchFilter : fieldsConfiguration.minMaxSearchFilters) {
+                List<MetadataValue> metadataValueList = new LinkedList<>();
+                for (String metadataField : discoverySearchFilter.getMetadataFields()) {
+                    String[] splittedMetadataField = metadataField.split("\\.");
+                    String schema = splittedMetadataField[0];
+                    String element = splittedMetadataField.length > 1 ? splittedMetadataField[1] : null;
+                    String qualifier = splittedMetadataField.length > 2 ? splittedMetadataField[2] : null;
+
+                    metadataValueList.addAll(itemService.getMetadata(item, schema, element, qualifier, Item.ANY));
+                }
+
+                if (!metadataValueList.isEmpty()) {
+                    metadataValueList.sort((mdv1, mdv2) -> mdv1.getValue().compareTo(mdv2.getValue()));
+                    MetadataValue firstMetadataValue = metadataValueList.get(0);
+                    MetadataValue lastMetadataValue = metadataValueList.get(metadataValueList.size() - 1);
+
+                    doc.addField(discoverySearchFilter.getIndexFieldName() + "_min", firstMetadataValue.getValue());
+                    doc.addField(discoverySearchFilter.getIndexFieldName()
+                            + "_min_sort", firstMetadataValue.getValue());
+                    doc.addField(discoverySearchFilter.getIndexFieldName() + "_max", lastMetadataValue.getValue());
+                    doc.addField(discoverySearchFilter.getIndexFieldName()
+                            + "_max_sort", lastMetadataValue.getValue());
+                }
+            }
 
             List<String> toProjectionFields = new ArrayList<>();
             String[] projectionFields = DSpaceServicesFactory.getInstance().getConfigurationService()
@@ -312,7 +446,7 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
             }
 
             List<String> toIgnoreMetadataFields = SearchUtils.getIgnoredMetadataFields(item.getType());
-            List<MetadataValue> mydc = itemService.getMetadata(item, Item.ANY, Item.ANY, Item.ANY, Item.ANY);
+            List<MetadataValue> mydc = getAllMetadata(item);
             for (MetadataValue meta : mydc) {
                 MetadataField metadataField = meta.getMetadataField();
                 MetadataSchema metadataSchema = metadataField.getMetadataSchema();
@@ -604,21 +738,16 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         final Item item = indexableDSpaceObject.getIndexedObject();
         List<String> locations = new ArrayList<>();
 
-        // build list of community ids
-        List<Community> communities = itemService.getCommunities(context, item);
-
         // build list of collection ids
         List<Collection> collections = item.getCollections();
 
-        // now put those into strings
-        int i = 0;
-
-        for (i = 0; i < communities.size(); i++) {
-            locations.add("m" + communities.get(i).getID());
+        // now put the community ids and the collection ids into strings
+        for (Collection collection : collections) {
+            locations.addAll(getCommunityLocations(context, collection));
         }
 
-        for (i = 0; i < collections.size(); i++) {
-            locations.add("l" + collections.get(i).getID());
+        for (Collection collection : collections) {
+            locations.add("l" + collection.getID());
         }
 
         return locations;
@@ -631,10 +760,15 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
     }
 
     private void deleteInProgressData(String indexableObjectIdentifier) throws SolrServerException, IOException {
-        // Also delete any possible workflowItem / workspaceItem / tasks related to this item
-        String query = "inprogress.item:\"" + indexableObjectIdentifier + "\"";
+        deleteInProgressData(List.of(indexableObjectIdentifier));
+    }
+
+    private void deleteInProgressData(List<String> indexableObjectIdentifiers)
+        throws SolrServerException, IOException {
+        // Also delete any possible workflowItem / workspaceItem / tasks related to these items
+        String query = "inprogress.item:(\"" + String.join("\" OR \"", indexableObjectIdentifiers) + "\")";
         log.debug("Try to delete all in progress submission [DELETEBYQUERY]:" + query);
-        solrSearchCore.getSolr().deleteByQuery(query);
+        solrSearchCore.getDocumentBuffer().deleteByQuery(query);
     }
 
     @Override
@@ -643,6 +777,15 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         deleteInProgressData(indexableObjectIdentifier);
     }
 
+    @Override
+    public void delete(List<String> indexableObjectIdentifiers) throws IOException, SolrServerException {
+        if (indexableObjectIdentifiers.isEmpty()) {
+            return;
+        }
+        super.delete(indexableObjectIdentifiers);
+        deleteInProgressData(indexableObjectIdentifiers);
+    }
+
     @Override
     public boolean supports(Object object) {
         return object instanceof Item;
@@ -682,6 +825,24 @@ public class ItemIndexFactoryImpl extends DSpaceObjectIndexFactoryImpl<Indexable
         return item == null ? Optional.empty() : Optional.of(new IndexableItem(item));
     }
 
+    @Override
+    public Map<String, IndexableItem> findIndexableObjects(Context context, List<String> ids) throws SQLException {
+        Map<String, IndexableItem> indexableObjects = new HashMap<>();
+        for (Item item : itemService.findByIds(context, getUUIDs(ids))) {
+            indexableObjects.put(item.getID().toString(), new IndexableItem(item));
+        }
+        return indexableObjects;
+    }
+
+    @Override
+    public Set<String> findExistingIds(Context context, List<String> ids) throws SQLException {
+        Set<String> existingIds = new HashSet<>();
+        for (UUID id : itemService.findExistingIds(context, getUUIDs(ids))) {
+            existingIds.add(id.toString());
+        }
+        return existingIds;
+    }
+
     /**
      * Handles indexing when discoverySearchFilter is of type facet.
      *
@@ -9,9 +9,13 @@ package org.dspace.discovery.indexobject.factory;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
@@ -82,6 +86,19 @@ public interface IndexFactory<T extends IndexableObject, S> {
      */
     void delete(String indexableObjectIdentifier) throws IOException, SolrServerException;
 
+    /**
+     * Remove the provided indexable objects from the solr core. Implementations should override this to remove all
+     * documents at once, this default implementation removes them one by one.
+     * @param indexableObjectIdentifiers The identifiers that we want to remove from the search core
+     * @throws IOException               If IO error
+     * @throws SolrServerException       If the solr documents could not be removed from the search core
+     */
+    default void delete(List<String> indexableObjectIdentifiers) throws IOException, SolrServerException {
+        for (String indexableObjectIdentifier : indexableObjectIdentifiers) {
+            delete(indexableObjectIdentifier);
+        }
+    }
+
     /**
      * Remove all indexable objects of the implementing type from the search core
      * @throws IOException          If IO error
@@ -98,6 +115,37 @@ public interface IndexFactory<T extends IndexableObject, S> {
      */
     Optional<T> findIndexableObject(Context context, String id) throws SQLException;
 
+    /**
+     * Retrieve the indexable objects with the provided identifiers, e.g. all the hits of a page of search results.
+     * Implementations should override this to load all objects at once, this default implementation retrieves them
+     * one by one.
+     * @param context       DSpace context object
+     * @param ids           The identifiers for which we want to retrieve our indexable objects
+     * @return              The indexable objects found, mapped by identifier. Unknown identifiers are not mapped
+     * @throws SQLException If database error
+     */
+    default Map<String, T> findIndexableObjects(Context context, List<String> ids) throws SQLException {
+        Map<String, T> indexableObjects = new HashMap<>();
+        for (String id : ids) {
+            findIndexableObject(context, id).ifPresent(indexableObject -> indexableObjects.put(id, indexableObject));
+        }
+        return indexableObjects;
+    }
+
+    /**
+     * Find which of the provided identifiers belong to existing indexable objects, e.g. to remove the documents of
+     * deleted objects from the search core. Implementations should override this to check all identifiers at once
+     * without loading the objects, this default implementation retrieves them with
+     * {@link #findIndexableObjects(Context, List)}.
+     * @param context       DSpace context object
+     * @param ids           The identifiers to look for
+     * @return              The identifiers of the existing indexable objects
+     * @throws SQLException If database error
+     */
+    default Set<String> findExistingIds(Context context, List<String> ids) throws SQLException {
+        return new HashSet<>(findIndexableObjects(context, ids).keySet());
+    }
+
     /**
      * Determine whether the class can handle the factory implementation
      * @param object        The object which we want to check
@@ -10,10 +10,12 @@ package org.dspace.discovery.indexobject.factory;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.solr.common.SolrInputDocument;
 import org.dspace.content.Item;
 import org.dspace.core.Context;
+import org.dspace.discovery.ItemIndexChange;
 import org.dspace.discovery.configuration.DiscoveryConfiguration;
 import org.dspace.discovery.indexobject.IndexableItem;
 
@@ -38,4 +40,22 @@ public interface ItemIndexFactory extends DSpaceObjectIndexFactory<IndexableItem
                             List<DiscoveryConfiguration> discoveryConfigurations)
             throws SQLException, IOException;
 
+    /**
+     * Build an atomic update of the document of the item, replacing only the fields affected by the given changes
+     * @param context       DSpace context object
+     * @param indexableItem the changed item
+     * @param changes       what has changed since the document was built, may be empty
+     * @return the atomic update document
+     * @throws SQLException If database error
+     */
+    SolrInputDocument buildPartialDocument(Context context, IndexableItem indexableItem, Set<ItemIndexChange> changes)
+            throws SQLException;
+
+    /**
+     * Compute the hash of the metadata of the item which are indexed, stored in the document of the item to detect
+     * whether a metadata change requires the document to be rebuilt
+     * @param item the item
+     * @return the hash of the indexed metadata
+     */
+    String getMetadataHash(Item item);
 }
\ No newline at end of file
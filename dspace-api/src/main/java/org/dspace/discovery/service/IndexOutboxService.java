@@ -0,0 +1,88 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery.service;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+import org.dspace.core.Context;
+import org.dspace.discovery.IndexOutboxEntry;
+
+/**
+ * Service interface class for the IndexOutboxEntry object. When asynchronous indexing is enabled, the
+ * {@link org.dspace.discovery.IndexEventConsumer} records its indexing intents in the outbox, in the same
+ * transaction as the changes, instead of updating the search core itself. The
+ * {@link org.dspace.discovery.IndexOutboxProcessor} then applies them in the background.
+ */
+public interface IndexOutboxService {
+
+    /**
+     * @return true if the index event consumer should write to the outbox instead of indexing synchronously
+     */
+    boolean isEnabled();
+
+    /**
+     * Record an indexing intent in the outbox. It is part of the current transaction and only becomes visible to
+     * the workers once this transaction is committed.
+     *
+     * @param context  the DSpace context
+     * @param uniqueId the unique index id of the object
+     * @param action   what to do with the document of the object
+     * @param preDb    whether the object should be indexed with a "preDB" status
+     * @return the new record
+     * @throws SQLException If something goes wrong in the database
+     */
+    IndexOutboxEntry enqueue(Context context, String uniqueId, IndexOutboxEntry.Action action, boolean preDb)
+        throws SQLException;
+
+    /**
+     * Take the oldest records due for processing and push their next attempt back by the given lease, so that no
+     * other worker takes them in the meantime. The caller must commit the context for the claim to be visible.
+     *
+     * @param context     the DSpace context
+     * @param limit       maximum number of records to claim
+     * @param leaseMillis time after which the records may be claimed again if they were not processed
+     * @return the claimed records, ordered by id
+     * @throws SQLException If something goes wrong in the database
+     */
+    List<IndexOutboxEntry> claim(Context context, int limit, long leaseMillis) throws SQLException;
+
+    /**
+     * Remove the successfully processed records from the outbox.
+     *
+     * @param context the DSpace context
+     * @param entries the processed records
+     * @throws SQLException If something goes wrong in the database
+     */
+    void complete(Context context, List<IndexOutboxEntry> entries) throws SQLException;
+
+    /**
+     * Record a failed attempt: the record is kept and retried after an exponentially growing delay.
+     *
+     * @param context the DSpace context
+     * @param entry   the record which could not be processed
+     * @param error   description of the failure
+     * @throws SQLException If something goes wrong in the database
+     */
+    void fail(Context context, IndexOutboxEntry entry, String error) throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @return the number of records waiting in the outbox, including the ones being retried
+     * @throws SQLException If something goes wrong in the database
+     */
+    long countPending(Context context) throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @return the creation date of the oldest record waiting in the outbox, null if it is empty
+     * @throws SQLException If something goes wrong in the database
+     */
+    Instant getOldestPending(Context context) throws SQLException;
+}
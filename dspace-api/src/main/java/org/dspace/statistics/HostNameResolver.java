@@ -0,0 +1,247 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Resolves the host names of client addresses in the background, and keeps them in a bounded cache for a while.
+ * <p>
+ * A reverse DNS lookup may take seconds when the resolver is slow or broken, so the threads which log usage events
+ * only read the cache with {@link #getCachedHostName(String)}. A miss starts the lookup on a small pool of resolver
+ * threads, whose queue is bounded: when the resolver cannot keep up, new lookups are skipped rather than queued
+ * forever. The events logged before the lookup completed are marked, and their host name is filled in later with
+ * {@link #resolve(String, long)}, which waits for the lookup at most for the given time.
+ */
+public class HostNameResolver {
+
+    private static final Logger log = LogManager.getLogger(HostNameResolver.class);
+
+    /**
+     * Looks up the host name of an address.
+     */
+    @FunctionalInterface
+    public interface Lookup {
+        /**
+         * @param ip the address
+         * @return the host name, or the address if it has none
+         * @throws IOException if the address could not be looked up
+         */
+        String lookup(String ip) throws IOException;
+    }
+
+    private final Lookup lookup;
+    private final long ttlMillis;
+    private final Map<String, Entry> cache;
+    private final Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    /**
+     * A cached host name, with the time after which it must be looked up again.
+     */
+    private static class Entry {
+        private final String hostName;
+        private final long expires;
+
+        Entry(String hostName, long expires) {
+            this.hostName = hostName;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Create a resolver which looks up the host names with {@link InetAddress#getHostName()}.
+     *
+     * @param cacheSize the maximum number of host names kept
+     * @param ttlMillis how long a host name is kept
+     * @param threads   the number of resolver threads
+     * @param queueSize the maximum number of lookups waiting for a resolver thread
+     */
+    public HostNameResolver(int cacheSize, long ttlMillis, int threads, int queueSize) {
+        this(cacheSize, ttlMillis, threads, queueSize, ip -> InetAddress.getByName(ip).getHostName());
+    }
+
+    /**
+     * Create a resolver.
+     *
+     * @param cacheSize the maximum number of host names kept
+     * @param ttlMillis how long a host name is kept
+     * @param threads   the number of resolver threads
+     * @param queueSize the maximum number of lookups waiting for a resolver thread
+     * @param lookup    looks up the host names
+     */
+    public HostNameResolver(int cacheSize, long ttlMillis, int threads, int queueSize, Lookup lookup) {
+        this.lookup = lookup;
+        this.ttlMillis = ttlMillis;
+        int maxEntries = Math.max(1, cacheSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 60, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+                                                   Thread thread = new Thread(runnable, "statistics-dns-resolver-"
+                                                       + threadCount.incrementAndGet());
+                                                   thread.setDaemon(true);
+                                                   return thread;
+                                               });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Get the host name of an address if it is in the cache. Otherwise, start looking it up in the background, so
+     * that it is in the cache for the next events of the same client. Never waits for the resolver.
+     *
+     * @param ip the address
+     * @return the host name in lower case, or null if it is not known yet
+     */
+    public String getCachedHostName(String ip) {
+        String hostName = getFromCache(ip);
+        if (hostName != null) {
+            hitCount.incrementAndGet();
+            return hostName;
+        }
+        missCount.incrementAndGet();
+        startLookup(ip);
+        return null;
+    }
+
+    /**
+     * Get the host name of an address, from the cache or else from the resolver.
+     *
+     * @param ip            the address
+     * @param timeoutMillis how long to wait for the resolver
+     * @return the host name in lower case, or null if it could not be found in time
+     */
+    public String resolve(String ip, long timeoutMillis) {
+        String hostName = getFromCache(ip);
+        if (hostName != null) {
+            return hostName;
+        }
+        CompletableFuture<String> future = startLookup(ip);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @return the number of lookups answered from the cache by {@link #getCachedHostName(String)}
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups not answered from the cache by {@link #getCachedHostName(String)}
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of lookups skipped because all the resolver threads were busy and their queue full
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * Stop the resolver threads. The lookups in progress are abandoned.
+     */
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private String getFromCache(String ip) {
+        synchronized (cache) {
+            Entry entry = cache.get(ip);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expires < System.currentTimeMillis()) {
+                cache.remove(ip);
+                return null;
+            }
+            return entry.hostName;
+        }
+    }
+
+    /**
+     * Start looking up an address, unless it is being looked up already.
+     *
+     * @return the lookup, or null if it was skipped
+     */
+    private CompletableFuture<String> startLookup(String ip) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> running = pending.putIfAbsent(ip, future);
+        if (running != null) {
+            return running;
+        }
+        try {
+            executor.execute(() -> {
+                String hostName = null;
+                Exception error = null;
+                try {
+                    hostName = lookup.lookup(ip).toLowerCase(Locale.ROOT);
+                    synchronized (cache) {
+                        cache.put(ip, new Entry(hostName, System.currentTimeMillis() + ttlMillis));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.info("Failed DNS Lookup for IP:  {}", ip);
+                    log.debug(e.getMessage(), e);
+                    error = e;
+                }
+                // no longer pending before it is completed, so that a failed lookup can be started again at once
+                pending.remove(ip, future);
+                if (error == null) {
+                    future.complete(hostName);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            skippedCount.incrementAndGet();
+            pending.remove(ip, future);
+            future.completeExceptionally(e);
+            return null;
+        }
+        return future;
+    }
+}
@@ -8,11 +8,7 @@
 package org.dspace.statistics;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
@@ -26,14 +22,14 @@ import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.Year;
 import java.time.YearMonth;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,20 +37,16 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.maxmind.geoip2.DatabaseReader;
 import com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.maxmind.geoip2.model.CityResponse;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrClient;
@@ -62,8 +54,6 @@ import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.apache.solr.client.solrj.impl.HttpSolrClient.RemoteSolrException;
-import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
-import org.apache.solr.client.solrj.request.ContentStreamUpdateRequest;
 import org.apache.solr.client.solrj.request.CoreAdminRequest;
 import org.apache.solr.client.solrj.request.LukeRequest;
 import org.apache.solr.client.solrj.response.CoreAdminResponse;
@@ -72,14 +62,13 @@ import org.apache.solr.client.solrj.response.LukeResponse;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.RangeFacet;
 import org.apache.solr.client.solrj.response.SolrPingResponse;
-import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.luke.FieldFlag;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.CoreAdminParams.CoreAdminAction;
-import org.apache.solr.common.params.FacetParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.MapSolrParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.ShardParams;
@@ -89,7 +78,6 @@ import org.dspace.content.Bitstream;
 import org.dspace.content.Bundle;
 import org.dspace.content.Collection;
 import org.dspace.content.Community;
-import org.dspace.content.DCDate;
 import org.dspace.content.DSpaceObject;
 import org.dspace.content.Item;
 import org.dspace.content.factory.ContentServiceFactory;
@@ -99,12 +87,15 @@ import org.dspace.core.Constants;
 import org.dspace.core.Context;
 import org.dspace.eperson.EPerson;
 import org.dspace.eperson.Group;
+import org.dspace.eperson.service.EPersonService;
 import org.dspace.service.ClientInfoService;
 import org.dspace.services.ConfigurationService;
 import org.dspace.statistics.service.SolrLoggerService;
+import org.dspace.statistics.util.BitstreamBundleCache;
 import org.dspace.statistics.util.LocationUtils;
 import org.dspace.statistics.util.SpiderDetector;
 import org.dspace.usage.UsageWorkflowEvent;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -117,11 +108,9 @@ import org.springframework.beans.factory.annotation.Autowired;
  * @author kevinvandevelde at atmire.com
  * @author mdiggory at atmire.com
  */
-public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBean {
+public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBean, DisposableBean {
     private static final Logger log = LogManager.getLogger();
 
-    private static final String MULTIPLE_VALUES_SPLITTER = "|";
-
     public static final String DATE_FORMAT_8601 = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
 
     public static final String DATE_FORMAT_DCDATE = "yyyy-MM-dd'T'HH:mm:ss'Z'";
@@ -136,6 +125,16 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
     private static final String IP_V4_REGEX = "^((?:\\d{1,3}\\.){3})\\d{1,3}$";
     private static final String IP_V6_REGEX = "^(.*):.*:.*$";
 
+    /**
+     * Marks the usage events logged before the host name of the client was resolved.
+     */
+    public static final String DNS_PENDING_FIELD = "dnsPending";
+
+    /**
+     * The time at which the statistics core received a usage event, which the schema sets by default.
+     */
+    public static final String INGEST_TIME_FIELD = "ingestTime";
+
     @Autowired(required = true)
     protected BitstreamService bitstreamService;
     @Autowired(required = true)
@@ -150,9 +149,26 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
     protected GeoIpService geoIpService;
     @Autowired
     private AuthorizeService authorizeService;
+    @Autowired
+    protected EPersonService ePersonService;
 
     protected SolrClient solr;
 
+    /**
+     * The queue of the views to write asynchronously, null if they are written by the request threads.
+     */
+    protected UsageEventQueue usageEventQueue;
+
+    /**
+     * Resolves the host names of the clients in the background, null if they are resolved by the logging threads.
+     */
+    protected HostNameResolver hostNameResolver;
+
+    /**
+     * Fills in the host names of the events marked with {@link #DNS_PENDING_FIELD}, null if not scheduled.
+     */
+    private ScheduledExecutorService hostNameUpdater;
+
     /** Name of the current-year statistics core.  Prior-year shards will have a year suffixed. */
     private String statisticsCoreBase;
 
@@ -204,6 +220,91 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             log.error(ex);
         }
         locationService = service;
+
+        initUsageEventQueue();
+        initHostNameResolver();
+    }
+
+    /**
+     * Start the queue of the views to write asynchronously, if enabled by {@code solr-statistics.async.enabled}.
+     */
+    protected void initUsageEventQueue() {
+        if (!configurationService.getBooleanProperty("solr-statistics.async.enabled", false)) {
+            if (configurationService.getBooleanProperty("solr-statistics.spool.enabled", false)) {
+                log.warn("The statistics spool is only used when solr-statistics.async.enabled is true");
+            }
+            return;
+        }
+        UsageEventSpool spool = null;
+        if (configurationService.getBooleanProperty("solr-statistics.spool.enabled", false)) {
+            String directory = configurationService.getProperty("solr-statistics.spool.dir",
+                configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                    + "statistics-spool");
+            try {
+                spool = new UsageEventSpool(Paths.get(directory),
+                    configurationService.getLongProperty("solr-statistics.spool.segmentSize", 16777216),
+                    configurationService.getLongProperty("solr-statistics.spool.maxSize", 1073741824));
+            } catch (IOException e) {
+                log.error("Unable to open the statistics spool {}, the usage events which cannot be written to "
+                              + "Solr will be lost", directory, e);
+            }
+        }
+        usageEventQueue = new UsageEventQueue(
+            configurationService.getIntProperty("solr-statistics.async.queueSize", 10000),
+            configurationService.getIntProperty("solr-statistics.async.batchSize", 500),
+            configurationService.getLongProperty("solr-statistics.async.maxWait", 1000),
+            UsageEventQueue.OverflowPolicy.fromString(
+                configurationService.getProperty("solr-statistics.async.overflow", "drop")),
+            configurationService.getLongProperty("solr-statistics.async.blockTimeout", 100),
+            this::writeUsageRecords, spool,
+            configurationService.getLongProperty("solr-statistics.spool.replayInterval", 60000));
+    }
+
+    /**
+     * Start resolving the host names of the clients in the background, if enabled by
+     * {@code usage-statistics.resolver.async}, and schedule the update of the events logged before their host name
+     * was resolved.
+     */
+    protected void initHostNameResolver() {
+        if (!configurationService.getBooleanProperty("usage-statistics.resolver.async", false)) {
+            return;
+        }
+        hostNameResolver = createHostNameResolver();
+        long interval = configurationService.getLongProperty("usage-statistics.resolver.updateInterval", 60000);
+        if (interval > 0) {
+            hostNameUpdater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "statistics-dns-updater");
+                thread.setDaemon(true);
+                return thread;
+            });
+            hostNameUpdater.scheduleWithFixedDelay(this::resolvePendingHostNames, interval, interval,
+                                                   TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private HostNameResolver createHostNameResolver() {
+        return new HostNameResolver(
+            configurationService.getIntProperty("usage-statistics.resolver.cacheSize", 10000),
+            configurationService.getLongProperty("usage-statistics.resolver.cacheTtl", 3600000),
+            configurationService.getIntProperty("usage-statistics.resolver.threads", 4),
+            configurationService.getIntProperty("usage-statistics.resolver.queueSize", 1000));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (usageEventQueue != null) {
+            usageEventQueue.close(configurationService.getLongProperty("solr-statistics.async.shutdownTimeout",
+                                                                       10000));
+            usageEventQueue = null;
+        }
+        if (hostNameUpdater != null) {
+            hostNameUpdater.shutdownNow();
+            hostNameUpdater = null;
+        }
+        if (hostNameResolver != null) {
+            hostNameResolver.close();
+            hostNameResolver = null;
+        }
     }
 
     @Override
@@ -221,9 +322,16 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
     @Override
     public void postView(DSpaceObject dspaceObject, HttpServletRequest request,
                          EPerson currentUser, String referrer) {
-        Context context = new Context();
+        if (usageEventQueue != null) {
+            // the administrators are skipped by the writer thread
+            if (solr != null && dspaceObject != null) {
+                queueView(dspaceObject, request, currentUser, referrer);
+            }
+            return;
+        }
+
         // Do not record statistics for Admin users
-        try {
+        try (Context context = new Context(Context.Mode.READ_ONLY)) {
             if (authorizeService.isAdmin(context, currentUser)) {
                 return;
             }
@@ -242,13 +350,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             if (doc1 == null) {
                 return;
             }
-            if (dspaceObject instanceof Bitstream) {
-                Bitstream bit = (Bitstream) dspaceObject;
-                List<Bundle> bundles = bit.getBundles();
-                for (Bundle bundle : bundles) {
-                    doc1.addField("bundleName", bundle.getName());
-                }
-            }
+            storeBundleNames(doc1, dspaceObject);
 
             doc1.addField("statistics_type", StatisticsType.VIEW.text());
 
@@ -281,6 +383,12 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
         if (solr == null) {
             return;
         }
+        if (usageEventQueue != null) {
+            if (dspaceObject != null) {
+                queueView(dspaceObject, ip, userAgent, xforwardedfor, currentUser, referrer);
+            }
+            return;
+        }
         initSolrYearCores();
 
         try {
@@ -289,13 +397,7 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             if (doc1 == null) {
                 return;
             }
-            if (dspaceObject instanceof Bitstream) {
-                Bitstream bit = (Bitstream) dspaceObject;
-                List<Bundle> bundles = bit.getBundles();
-                for (Bundle bundle : bundles) {
-                    doc1.addField("bundleName", bundle.getName());
-                }
-            }
+            storeBundleNames(doc1, dspaceObject);
 
             doc1.addField("statistics_type", StatisticsType.VIEW.text());
 
@@ -352,17 +454,6 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
         // Save our basic info that we already have
 
         if (request != null) {
-            String ip = clientInfoService.getClientIp(request);
-            if (configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false)) {
-                try {
-                    doc1.addField("ip", anonymizeIp(ip));
-                } catch (UnknownHostException e) {
-                    log.warn(e.getMessage(), e);
-                }
-            } else {
-                doc1.addField("ip", ip);
-            }
-
             //Also store the referrer
             if (referrer != null) {
                 doc1.addField("referrer", referrer);
@@ -370,54 +461,11 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 doc1.addField("referrer", request.getHeader("referer"));
             }
 
-            InetAddress ipAddress = null;
-            try {
-                String dns;
-                if (!configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false)) {
-                    ipAddress = InetAddress.getByName(ip);
-                    dns = ipAddress.getHostName();
-                } else {
-                    dns = configurationService.getProperty("anonymize_statistics.dns_mask", "anonymized");
-                }
-                doc1.addField("dns", dns.toLowerCase(Locale.ROOT));
-            } catch (UnknownHostException e) {
-                log.info("Failed DNS Lookup for IP:  {}", ip);
-                log.debug(e.getMessage(), e);
-            }
             if (request.getHeader("User-Agent") != null) {
                 doc1.addField("userAgent", request.getHeader("User-Agent"));
             }
             doc1.addField("isBot", isSpiderBot);
-            // Save the location information if valid, save the event without
-            // location information if not valid
-            if (locationService != null && ipAddress != null) {
-                try {
-                    CityResponse location = locationService.city(ipAddress);
-                    String countryCode = location.getCountry().getIsoCode();
-                    double latitude = location.getLocation().getLatitude();
-                    double longitude = location.getLocation().getLongitude();
-                    if (!(
-                            "--".equals(countryCode)
-                            && latitude == -180
-                            && longitude == -180)
-                    ) {
-                        try {
-                            doc1.addField("continent", LocationUtils
-                                .getContinentCode(countryCode));
-                        } catch (Exception e) {
-                            log.warn("Failed to load country/continent table: {}", countryCode);
-                        }
-                        doc1.addField("countryCode", countryCode);
-                        doc1.addField("city", location.getCity().getName());
-                        doc1.addField("latitude", latitude);
-                        doc1.addField("longitude", longitude);
-                    }
-                } catch (IOException e) {
-                    log.warn("GeoIP lookup failed.", e);
-                } catch (GeoIp2Exception e) {
-                    log.info("Unable to get location of request: {}", e.getMessage());
-                }
-            }
+            storeClientAddress(doc1, clientInfoService.getClientIp(request));
         }
 
         if (dspaceObject != null) {
@@ -446,8 +494,42 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
         SolrInputDocument doc1 = new SolrInputDocument();
         // Save our basic info that we already have
 
-        ip = clientInfoService.getClientIp(ip, xforwardedfor);
-        if (configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false)) {
+        // Add the referrer, if present
+        if (referrer != null) {
+            doc1.addField("referrer", referrer);
+        }
+
+        if (userAgent != null) {
+            doc1.addField("userAgent", userAgent);
+        }
+        doc1.addField("isBot", isSpiderBot);
+        storeClientAddress(doc1, clientInfoService.getClientIp(ip, xforwardedfor));
+
+        if (dspaceObject != null) {
+            doc1.addField("id", dspaceObject.getID().toString());
+            doc1.addField("type", dspaceObject.getType());
+            storeParents(doc1, dspaceObject);
+        }
+        // Save the current time
+        doc1.addField("time", Instant.now().toString());
+        if (currentUser != null) {
+            doc1.addField("epersonid", currentUser.getID().toString());
+        }
+
+        return doc1;
+    }
+
+
+    /**
+     * Store the address of the client, its host name and its location, or their anonymized versions if
+     * {@code anonymize_statistics.anonymize_on_log} is enabled.
+     *
+     * @param doc1 the usage event document
+     * @param ip   the address of the client
+     */
+    protected void storeClientAddress(SolrInputDocument doc1, String ip) {
+        boolean anonymize = configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false);
+        if (anonymize) {
             try {
                 doc1.addField("ip", anonymizeIp(ip));
             } catch (UnknownHostException e) {
@@ -457,32 +539,32 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             doc1.addField("ip", ip);
         }
 
-        // Add the referrer, if present
-        if (referrer != null) {
-            doc1.addField("referrer", referrer);
-        }
-
         InetAddress ipAddress = null;
         try {
             String dns;
-            if (!configurationService.getBooleanProperty("anonymize_statistics.anonymize_on_log", false)) {
+            if (!anonymize) {
                 ipAddress = InetAddress.getByName(ip);
-                dns = ipAddress.getHostName();
+                if (hostNameResolver != null) {
+                    // never wait for the resolver, the host name is filled in later if it is not cached
+                    dns = hostNameResolver.getCachedHostName(ip);
+                } else {
+                    dns = ipAddress.getHostName();
+                }
             } else {
                 dns = configurationService.getProperty("anonymize_statistics.dns_mask", "anonymized");
             }
-            doc1.addField("dns", dns.toLowerCase(Locale.ROOT));
+            if (dns != null) {
+                doc1.addField("dns", dns.toLowerCase(Locale.ROOT));
+            } else {
+                doc1.addField(DNS_PENDING_FIELD, true);
+            }
         } catch (UnknownHostException e) {
             log.info("Failed DNS Lookup for IP:  {}", ip);
             log.debug(e.getMessage(), e);
         }
-        if (userAgent != null) {
-            doc1.addField("userAgent", userAgent);
-        }
-        doc1.addField("isBot", isSpiderBot);
         // Save the location information if valid, save the event without
         // location information if not valid
-        if (locationService != null) {
+        if (locationService != null && ipAddress != null) {
             try {
                 CityResponse location = locationService.city(ipAddress);
                 String countryCode = location.getCountry().getIsoCode();
@@ -490,15 +572,14 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 double longitude = location.getLocation().getLongitude();
                 if (!(
                         "--".equals(countryCode)
-                                && latitude == -180
-                                && longitude == -180)
+                        && latitude == -180
+                        && longitude == -180)
                 ) {
                     try {
                         doc1.addField("continent", LocationUtils
-                                .getContinentCode(countryCode));
+                            .getContinentCode(countryCode));
                     } catch (Exception e) {
-                        System.out
-                                .println("COUNTRY ERROR: " + countryCode);
+                        log.warn("Failed to load country/continent table: {}", countryCode);
                     }
                     doc1.addField("countryCode", countryCode);
                     doc1.addField("city", location.getCity().getName());
@@ -511,22 +592,152 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
                 log.info("Unable to get location of request: {}", e.getMessage());
             }
         }
+    }
+
+    /**
+     * Store the names of the bundles of a viewed bitstream.
+     *
+     * @param doc1         the usage event document
+     * @param dspaceObject the viewed object
+     */
+    protected void storeBundleNames(SolrInputDocument doc1, DSpaceObject dspaceObject) throws SQLException {
+        if (dspaceObject instanceof Bitstream) {
+            Bitstream bit = (Bitstream) dspaceObject;
+            List<Bundle> bundles = bit.getBundles();
+            for (Bundle bundle : bundles) {
+                doc1.addField("bundleName", bundle.getName());
+            }
+        }
+    }
 
+    /**
+     * Queue a view to be written by the writer thread, capturing what is only available on the request thread.
+     */
+    protected void queueView(DSpaceObject dspaceObject, HttpServletRequest request, EPerson currentUser,
+                             String referrer) {
+        boolean isSpiderBot = request != null && SpiderDetector.isSpider(request);
+        if (isSpiderBot &&
+            !configurationService.getBooleanProperty("usage-statistics.logBots", true)) {
+            return;
+        }
+        String ip = null;
+        String userAgent = null;
+        if (request != null) {
+            ip = clientInfoService.getClientIp(request);
+            userAgent = request.getHeader("User-Agent");
+            if (referrer == null) {
+                referrer = request.getHeader("referer");
+            }
+        }
+        usageEventQueue.offer(new UsageRecord(dspaceObject.getType(), dspaceObject.getID(),
+                                              currentUser != null ? currentUser.getID() : null, true, ip,
+                                              userAgent, referrer, isSpiderBot, Instant.now()));
+    }
+
+    /**
+     * Queue a view to be written by the writer thread, capturing what is only available on the request thread.
+     */
+    protected void queueView(DSpaceObject dspaceObject, String ip, String userAgent, String xforwardedfor,
+                             EPerson currentUser, String referrer) {
+        boolean isSpiderBot = SpiderDetector.isSpider(ip);
+        if (isSpiderBot &&
+            !configurationService.getBooleanProperty("usage-statistics.logBots", true)) {
+            return;
+        }
+        usageEventQueue.offer(new UsageRecord(dspaceObject.getType(), dspaceObject.getID(),
+                                              currentUser != null ? currentUser.getID() : null, false,
+                                              clientInfoService.getClientIp(ip, xforwardedfor), userAgent,
+                                              referrer, isSpiderBot, Instant.now()));
+    }
+
+    /**
+     * Write a batch of queued views to the statistics core, with a single request. The viewed objects and the users
+     * are loaded again in a context of the writer thread, used for the whole batch.
+     *
+     * @param records the queued views
+     * @throws SQLException        if database error
+     * @throws IOException         if IO error
+     * @throws SolrServerException if the documents could not be sent to the statistics core
+     */
+    protected void writeUsageRecords(List<UsageRecord> records)
+        throws SQLException, IOException, SolrServerException {
+        if (solr == null) {
+            return;
+        }
+        initSolrYearCores();
+        List<SolrInputDocument> docs = new ArrayList<>(records.size());
+        try (Context context = new Context(Context.Mode.READ_ONLY)) {
+            for (UsageRecord record : records) {
+                try {
+                    SolrInputDocument doc = getUsageRecordSolrDoc(context, record);
+                    if (doc != null) {
+                        docs.add(doc);
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    log.error("Error building the VIEW event of DSpaceObject {}", record.getObjectId(), e);
+                }
+            }
+        }
+        if (docs.isEmpty()) {
+            return;
+        }
+        solr.add(docs);
+        // commits are executed automatically using the solr autocommit
+        boolean useAutoCommit = configurationService.getBooleanProperty("solr-statistics.autoCommit", true);
+        if (!useAutoCommit) {
+            solr.commit(false, false);
+        }
+    }
+
+    /**
+     * Build the VIEW event document of a queued view.
+     *
+     * @param context the context of the writer thread
+     * @param record  the queued view
+     * @return the document, or null if the view is not recorded because the user is an administrator
+     * @throws SQLException if database error
+     */
+    protected SolrInputDocument getUsageRecordSolrDoc(Context context, UsageRecord record) throws SQLException {
+        EPerson currentUser = null;
+        if (record.getEpersonId() != null) {
+            currentUser = ePersonService.find(context, record.getEpersonId());
+            // Do not record statistics for Admin users
+            if (record.isSkipAdmin() && authorizeService.isAdmin(context, currentUser)) {
+                return null;
+            }
+        }
+
+        SolrInputDocument doc1 = new SolrInputDocument();
+        if (record.getReferrer() != null) {
+            doc1.addField("referrer", record.getReferrer());
+        }
+        if (record.getUserAgent() != null) {
+            doc1.addField("userAgent", record.getUserAgent());
+        }
+        doc1.addField("isBot", record.isBot());
+        if (record.getIp() != null) {
+            storeClientAddress(doc1, record.getIp());
+        }
+
+        doc1.addField("id", record.getObjectId().toString());
+        doc1.addField("type", record.getObjectType());
+        DSpaceObject dspaceObject = contentServiceFactory.getDSpaceObjectService(record.getObjectType())
+                                                         .find(context, record.getObjectId());
+        // the object may have been deleted since it was viewed, its view is recorded without its parents
         if (dspaceObject != null) {
-            doc1.addField("id", dspaceObject.getID().toString());
-            doc1.addField("type", dspaceObject.getType());
             storeParents(doc1, dspaceObject);
         }
-        // Save the current time
-        doc1.addField("time", Instant.now().toString());
+        doc1.addField("time", record.getTime().toString());
         if (currentUser != null) {
             doc1.addField("epersonid", currentUser.getID().toString());
         }
-
+        if (dspaceObject != null) {
+            storeBundleNames(doc1, dspaceObject);
+        }
+        doc1.addField("statistics_type", StatisticsType.VIEW.text());
         return doc1;
     }
 
-
     @Override
     public void postSearch(DSpaceObject resultObject, HttpServletRequest request, EPerson currentUser,
                            List<String> queries, int rpp, String sortBy, String order, int page, DSpaceObject scope) {
@@ -799,6 +1010,120 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
         }
     }
 
+    @Override
+    public void resolvePendingHostNames() {
+        if (solr == null) {
+            return;
+        }
+        HostNameResolver resolver = hostNameResolver;
+        boolean temporary = resolver == null;
+        if (temporary) {
+            resolver = createHostNameResolver();
+        }
+        try {
+            resolvePendingHostNames(solr, resolver);
+
+            // the events moved to the cores of past years by sharding may still be pending
+            initSolrYearCores();
+            if (solr instanceof HttpSolrClient) {
+                String baseUrl = ((HttpSolrClient) solr).getBaseURL();
+                String scheme = StringUtils.substringBefore(baseUrl, "://") + "://";
+                String baseCore = StringUtils.removeStart(baseUrl, scheme);
+                for (String yearCore : new ArrayList<>(statisticYearCores)) {
+                    if (yearCore.equals(baseCore)) {
+                        continue;
+                    }
+                    try (HttpSolrClient yearSolr = new HttpSolrClient.Builder(scheme + yearCore).build()) {
+                        resolvePendingHostNames(yearSolr, resolver);
+                    } catch (IOException e) {
+                        log.error("Failed while closing the client of the statistics core {}", yearCore, e);
+                    }
+                }
+            }
+        } finally {
+            if (temporary) {
+                resolver.close();
+            }
+        }
+    }
+
+    /**
+     * Fill in the host name of the events of a statistics core which are marked with {@link #DNS_PENDING_FIELD}.
+     * The events older than usage-statistics.resolver.maxAge whose host name still cannot be found are given up on:
+     * their IP address is stored as their host name, as InetAddress.getHostName() does when the lookup fails.
+     *
+     * @param core     the statistics core
+     * @param resolver the resolver of the host names
+     */
+    private void resolvePendingHostNames(SolrClient core, HostNameResolver resolver) {
+        int batchSize = configurationService.getIntProperty("usage-statistics.resolver.updateBatchSize", 500);
+        long timeout = configurationService.getLongProperty("usage-statistics.resolver.timeout", 200);
+        Instant maxAge = Instant.now().minusMillis(
+            configurationService.getLongProperty("usage-statistics.resolver.maxAge", 24 * 60 * 60 * 1000L));
+        long resolved = 0;
+        long givenUp = 0;
+        long unresolved = 0;
+        try {
+            SolrQuery query = new SolrQuery(DNS_PENDING_FIELD + ":true");
+            query.setFields("uid", "ip", "time");
+            query.setRows(Math.max(1, batchSize));
+            query.setSort("uid", SolrQuery.ORDER.asc);
+            String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            while (true) {
+                query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+                QueryResponse response = core.query(query);
+                SolrDocumentList results = response.getResults();
+
+                // start all the lookups of the batch before waiting for any of them
+                for (SolrDocument result : results) {
+                    resolver.getCachedHostName((String) result.getFieldValue("ip"));
+                }
+                List<SolrInputDocument> updates = new ArrayList<>(results.size());
+                for (SolrDocument result : results) {
+                    String ip = (String) result.getFieldValue("ip");
+                    String hostName = resolver.resolve(ip, timeout);
+                    if (hostName == null) {
+                        Date time = (Date) result.getFieldValue("time");
+                        if (ip == null || time == null || !time.toInstant().isBefore(maxAge)) {
+                            // left marked, for the next run
+                            unresolved++;
+                            continue;
+                        }
+                        hostName = ip;
+                        givenUp++;
+                    } else {
+                        resolved++;
+                    }
+                    SolrInputDocument update = new SolrInputDocument();
+                    update.addField("uid", result.getFieldValue("uid"));
+                    update.addField("dns", Collections.singletonMap("set", hostName.toLowerCase(Locale.ROOT)));
+                    update.addField(DNS_PENDING_FIELD, Collections.singletonMap("set", null));
+                    updates.add(update);
+                }
+                if (!updates.isEmpty()) {
+                    core.add(updates);
+                }
+
+                String nextCursorMark = response.getNextCursorMark();
+                if (cursorMark.equals(nextCursorMark)) {
+                    break;
+                }
+                cursorMark = nextCursorMark;
+            }
+            // commits are executed automatically using the solr autocommit
+            if (resolved + givenUp > 0
+                && !configurationService.getBooleanProperty("solr-statistics.autoCommit", true)) {
+                core.commit(false, false);
+            }
+            if (resolved + givenUp + unresolved > 0) {
+                log.info("Resolved the host name of {} usage events, gave up on {}, {} are left for later",
+                         resolved, givenUp, unresolved);
+            }
+        } catch (SolrServerException | IOException | RuntimeException e) {
+            log.error("Failed while resolving the host names of usage events.", e);
+        }
+    }
+
     @Override
     public void deleteRobots() {
         try {
@@ -1037,7 +1362,6 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
         // System.out.println("QUERY");
         SolrQuery solrQuery = new SolrQuery().setRows(rows).setQuery(query)
                                              .setFacetMinCount(facetMinCount);
-        addAdditionalSolrYearCores(solrQuery);
 
         // Set the date facet if present
         if (dateType != null) {
@@ -1072,6 +1396,25 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             solrQuery.setFacetLimit(max);
         }
 
+        if (sort != null) {
+            solrQuery.addSort(sort, (ascending ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc));
+        }
+
+        if (filterQuery != null) {
+            solrQuery.addFilterQuery(filterQuery);
+        }
+
+        return query(solrQuery, defaultFilterQueries);
+    }
+
+    @Override
+    public QueryResponse query(SolrQuery solrQuery, boolean defaultFilterQueries)
+            throws SolrServerException, IOException {
+        if (solr == null) {
+            return null;
+        }
+        addAdditionalSolrYearCores(solrQuery);
+
         // A filter is used instead of a regular query to improve
         // performance and ensure the search result ordering will
         // not be influenced
@@ -1083,10 +1426,6 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             solrQuery.addFilterQuery("-isBot:true");
         }
 
-        if (sort != null) {
-            solrQuery.addSort(sort, (ascending ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc));
-        }
-
         String[] bundles = configurationService.getArrayProperty("solr-statistics.query.filter.bundles");
         if (defaultFilterQueries && bundles != null && bundles.length > 0) {
 
@@ -1110,16 +1449,12 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             solrQuery.addFilterQuery(bundleQuery.toString());
         }
 
-        if (filterQuery != null) {
-            solrQuery.addFilterQuery(filterQuery);
-        }
-
         QueryResponse response;
         try {
             // solr.set
             response = solr.query(solrQuery);
         } catch (SolrServerException | IOException e) {
-            log.error("Error searching Solr usage events using query {}", query, e);
+            log.error("Error searching Solr usage events using query {}", solrQuery.getQuery(), e);
             throw e;
         }
         return response;
@@ -1131,128 +1466,15 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
             return;
         }
 
-        /*
-        Start by faceting by year so we can include each year in a separate core !
-         */
-        SolrQuery yearRangeQuery = new SolrQuery();
-        yearRangeQuery.setQuery("*:*");
-        yearRangeQuery.setRows(0);
-        yearRangeQuery.setFacet(true);
-        yearRangeQuery.add(FacetParams.FACET_RANGE, "time");
-        //We go back to 2000 the year 2000, this is a bit overkill but this way we ensure we have everything
-        //The alternative would be to sort but that isn't recommended since it would be a very costly query !
-        yearRangeQuery.add(FacetParams.FACET_RANGE_START,
-                           "NOW/YEAR-" + (Year.now().getValue() - 2000) + "YEARS");
-        //Add the +0year to ensure that we DO NOT include the current year
-        yearRangeQuery.add(FacetParams.FACET_RANGE_END, "NOW/YEAR+0YEARS");
-        yearRangeQuery.add(FacetParams.FACET_RANGE_GAP, "+1YEAR");
-        yearRangeQuery.add(FacetParams.FACET_MINCOUNT, String.valueOf(1));
-
-        //Create a temp directory to store our files in !
-        File tempDirectory = new File(
-            configurationService.getProperty("dspace.dir") + File.separator + "temp" + File.separator);
-        tempDirectory.mkdirs();
-
-
-        QueryResponse queryResponse = solr.query(yearRangeQuery);
-        //We only have one range query !
-        List<RangeFacet.Count> yearResults = queryResponse.getFacetRanges().get(0).getCounts();
-        for (RangeFacet.Count count : yearResults) {
-            long totalRecords = count.getCount();
-
-            //Create a range query from this !
-            //We start with out current year
-            DCDate dcStart = new DCDate(count.getValue());
-            //Advance one year for the start of the next one !
-            DCDate dcEndDate = new DCDate(dcStart.toDate().plus(1, ChronoUnit.YEARS));
-
-            StringBuilder filterQuery = new StringBuilder();
-            filterQuery.append("time:([");
-            filterQuery.append(ClientUtils.escapeQueryChars(dcStart.toString()));
-            filterQuery.append(" TO ");
-            filterQuery.append(ClientUtils.escapeQueryChars(dcEndDate.toString()));
-            filterQuery.append("]");
-            //The next part of the filter query excludes the content from midnight of the next year !
-            filterQuery.append(" NOT ").append(ClientUtils.escapeQueryChars(dcEndDate.toString()));
-            filterQuery.append(")");
-
-
-            Map<String, String> yearQueryParams = new HashMap<>();
-            yearQueryParams.put(CommonParams.Q, "*:*");
-            yearQueryParams.put(CommonParams.ROWS, String.valueOf(10000));
-            yearQueryParams.put(CommonParams.FQ, filterQuery.toString());
-            yearQueryParams.put(CommonParams.WT, "csv");
-
-            //Tell SOLR how to escape and separate the values of multi-valued fields
-            yearQueryParams.put("csv.escape", "\\");
-            yearQueryParams.put("csv.mv.separator", MULTIPLE_VALUES_SPLITTER);
-
-            //Start by creating a new core
-            String coreName = statisticsCoreBase + "-" + dcStart.getYearUTC();
-            HttpSolrClient statisticsYearServer = createCore((HttpSolrClient) solr, coreName);
-
-            System.out.println("Moving: " + totalRecords + " into core " + coreName);
-            log.info("Moving: " + totalRecords + " records into core " + coreName);
-
-            List<File> filesToUpload = new ArrayList<>();
-            for (int i = 0; i < totalRecords; i += 10000) {
-                String solrRequestUrl = ((HttpSolrClient) solr).getBaseURL() + "/select";
-                solrRequestUrl = generateURL(solrRequestUrl, yearQueryParams);
-
-                HttpGet get = new HttpGet(solrRequestUrl);
-                InputStream csvInputstream;
-                File csvFile = new File(tempDirectory.getPath()
-                        + File.separatorChar
-                        + "temp."
-                        + dcStart.getYearUTC()
-                        + "."
-                        + i
-                        + ".csv");
-                try ( CloseableHttpClient hc = HttpClientBuilder.create().build(); ) {
-                    HttpResponse response = hc.execute(get);
-                    csvInputstream = response.getEntity().getContent();
-                    //Write the csv output to a file !
-                    FileUtils.copyInputStreamToFile(csvInputstream, csvFile);
-                }
-                filesToUpload.add(csvFile);
-
-                //Add 10000 & start over again
-                yearQueryParams.put(CommonParams.START, String.valueOf((i + 10000)));
-            }
-
-            Set<String> multivaluedFields = getMultivaluedFieldNames();
-
-            for (File tempCsv : filesToUpload) {
-                //Upload the data in the csv files to our new solr core
-                ContentStreamUpdateRequest contentStreamUpdateRequest = new ContentStreamUpdateRequest("/update");
-                contentStreamUpdateRequest.setParam("stream.contentType", "text/csv;charset=utf-8");
-                contentStreamUpdateRequest.setParam("escape", "\\");
-                contentStreamUpdateRequest.setParam("skip", "_version_");
-                contentStreamUpdateRequest.setAction(AbstractUpdateRequest.ACTION.COMMIT, true, true);
-                contentStreamUpdateRequest.addFile(tempCsv, "text/csv;charset=utf-8");
-
-                //Add parsing directives for the multivalued fields so that they are stored as separate values
-                // instead of one value
-                for (String multivaluedField : multivaluedFields) {
-                    contentStreamUpdateRequest.setParam("f." + multivaluedField + ".split", Boolean.TRUE.toString());
-                    contentStreamUpdateRequest
-                        .setParam("f." + multivaluedField + ".separator", MULTIPLE_VALUES_SPLITTER);
-                }
-
-                statisticsYearServer.request(contentStreamUpdateRequest);
-            }
-
-            statisticsYearServer.commit(true, true);
-
-
-            //Delete contents of this year from our year query !
-            solr.deleteByQuery(filterQuery.toString());
-            solr.commit(true, true);
-
-            log.info("Moved {} records into core: {}", totalRecords, coreName);
-        }
-
-        FileUtils.deleteDirectory(tempDirectory);
+        Path checkpointFile = Paths.get(configurationService.getProperty("solr-statistics.shard.checkpoint",
+            configurationService.getProperty("dspace.dir") + File.separator + "var" + File.separator
+                + "statistics-shard.checkpoint"));
+        StatisticsSharder sharder = new StatisticsSharder(solr,
+            year -> createCore((HttpSolrClient) solr, statisticsCoreBase + "-" + year), checkpointFile,
+            configurationService.getIntProperty("solr-statistics.shard.batchSize", 1000),
+            configurationService.getIntProperty("solr-statistics.shard.threads", 4),
+            configurationService.getIntProperty("solr-statistics.shard.checkpointInterval", 100));
+        sharder.shard();
     }
 
     protected HttpSolrClient createCore(HttpSolrClient solr, String coreName)
@@ -1316,125 +1538,72 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
 
     @Override
     public void reindexBitstreamHits(boolean removeDeletedBitstreams) throws Exception {
-        if (!(solr instanceof HttpSolrClient)) {
+        if (solr == null) {
             return;
         }
+        int batchSize = configurationService.getIntProperty("solr-statistics.reindex-bitstreams.batchSize", 1000);
+        long pause = configurationService.getLongProperty("solr-statistics.reindex-bitstreams.pause", 100);
 
-        Context context = new Context();
-
+        Context context = new Context(Context.Mode.READ_ONLY);
+        BitstreamBundleCache bundleCache = new BitstreamBundleCache();
+        long updated = 0;
+        long deleted = 0;
         try {
-            //First of all retrieve the total number of records to be updated
-            SolrQuery query = new SolrQuery();
-            query.setQuery("*:*");
+            // Only the records which do not have a bundle name, read with a cursor rather than with pages, which
+            // get slower as they go deeper. The records are updated in place, so the year cores are not included.
+            SolrQuery query = new SolrQuery("*:*");
             query.addFilterQuery("type:" + Constants.BITSTREAM);
-            //Only retrieve records which do not have a bundle name
             query.addFilterQuery("-bundleName:[* TO *]");
-            query.setRows(0);
-            addAdditionalSolrYearCores(query);
-            long totalRecords = solr.query(query).getResults().getNumFound();
-
-            File tempDirectory = new File(
-                configurationService.getProperty("dspace.dir") + File.separator + "temp" + File.separator);
-            tempDirectory.mkdirs();
-            List<File> tempCsvFiles = new ArrayList<>();
-            for (int i = 0; i < totalRecords; i += 10000) {
-                Map<String, String> params = new HashMap<>();
-                params.put(CommonParams.Q, "*:*");
-                params.put(CommonParams.FQ, "-bundleName:[* TO *] AND type:" + Constants.BITSTREAM);
-                params.put(CommonParams.WT, "csv");
-                params.put(CommonParams.ROWS, String.valueOf(10000));
-                params.put(CommonParams.START, String.valueOf(i));
-
-                String solrRequestUrl = ((HttpSolrClient) solr).getBaseURL() + "/select";
-                solrRequestUrl = generateURL(solrRequestUrl, params);
-
-                HttpGet get = new HttpGet(solrRequestUrl);
-                List<String[]> rows;
-                try ( CloseableHttpClient hc = HttpClientBuilder.create().build(); ) {
-                    HttpResponse response = hc.execute(get);
-                    InputStream csvOutput = response.getEntity().getContent();
-                    Reader csvReader = new InputStreamReader(csvOutput);
-                    rows = new CSVReader(csvReader).readAll();
-                }
-                String[][] csvParsed = rows.toArray(new String[rows.size()][]);
-                String[] header = csvParsed[0];
-                //Attempt to find the bitstream id index !
-                int idIndex = 0;
-                for (int j = 0; j < header.length; j++) {
-                    if (header[j].equals("id")) {
-                        idIndex = j;
+            query.setFields("uid", "id");
+            query.setRows(batchSize);
+            query.setSort("uid", SolrQuery.ORDER.asc);
+
+            String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            while (true) {
+                query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+                QueryResponse response = solr.query(query);
+
+                List<SolrInputDocument> updates = new ArrayList<>();
+                List<String> deletions = new ArrayList<>();
+                for (SolrDocument document : response.getResults()) {
+                    String uid = (String) document.getFirstValue("uid");
+                    String bundleName = getBundleName(context, bundleCache,
+                                                      String.valueOf(document.getFirstValue("id")));
+                    if (bundleName == null && removeDeletedBitstreams) {
+                        deletions.add(uid);
+                    } else {
+                        // an atomic update, so that the other fields of the record are kept as they are
+                        SolrInputDocument update = new SolrInputDocument();
+                        update.addField("uid", uid);
+                        update.addField("bundleName",
+                                        Map.of("set", bundleName != null ? bundleName : "BITSTREAM_DELETED"));
+                        updates.add(update);
                     }
                 }
-
-                File tempCsv = new File(tempDirectory.getPath() + File.separatorChar + "temp." + i + ".csv");
-                tempCsvFiles.add(tempCsv);
-                CSVWriter csvp = new CSVWriter(new FileWriter(tempCsv));
-                //csvp.setAlwaysQuote(false);
-
-                //Write the header !
-                csvp.writeNext((String[]) ArrayUtils.add(header, "bundleName"));
-                Map<String, String> bitBundleCache = new HashMap<>();
-                //Loop over each line (skip the headers though)!
-                for (int j = 1; j < csvParsed.length; j++) {
-                    String[] csvLine = csvParsed[j];
-                    //Write the default line !
-                    String bitstreamId = csvLine[idIndex];
-                    //Attempt to retrieve our bundle name from the cache !
-                    String bundleName = bitBundleCache.get(bitstreamId);
-                    if (bundleName == null) {
-                        //Nothing found retrieve the bitstream
-                        Bitstream bitstream = bitstreamService.findByIdOrLegacyId(context, bitstreamId);
-                        //Attempt to retrieve our bitstream !
-                        if (bitstream != null) {
-                            List<Bundle> bundles = bitstream.getBundles();
-                            if (bundles != null && 0 < bundles.size()) {
-                                Bundle bundle = bundles.get(0);
-                                bundleName = bundle.getName();
-                            } else {
-                                //No bundle found, we are either a collection or a community logo, check for it !
-                                DSpaceObject parentObject = bitstreamService.getParentObject(context, bitstream);
-                                if (parentObject instanceof Collection) {
-                                    bundleName = "LOGO-COLLECTION";
-                                } else if (parentObject instanceof Community) {
-                                    bundleName = "LOGO-COMMUNITY";
-                                }
-
-                            }
-                            //Cache the bundle name
-                            bitBundleCache.put(bitstream.getID().toString(), bundleName);
-                            //Remove the bitstream from cache
-                        }
-                        //Check if we don't have a bundlename
-                        //If we don't have one & we do not need to delete the deleted bitstreams ensure that a
-                        // BITSTREAM_DELETED bundle name is given !
-                        if (bundleName == null && !removeDeletedBitstreams) {
-                            bundleName = "BITSTREAM_DELETED";
-                        }
-                    }
-                    csvp.writeNext((String[]) ArrayUtils.add(csvLine, bundleName));
+                if (!updates.isEmpty()) {
+                    solr.add(updates);
+                    updated += updates.size();
+                }
+                if (!deletions.isEmpty()) {
+                    solr.deleteById(deletions);
+                    deleted += deletions.size();
                 }
 
-                //Loop over our parsed csv
-                csvp.flush();
-                csvp.close();
-            }
-
-            //Add all the separate csv files
-            for (File tempCsv : tempCsvFiles) {
-                ContentStreamUpdateRequest contentStreamUpdateRequest = new ContentStreamUpdateRequest("/update");
-                contentStreamUpdateRequest.setParam("stream.contentType", "text/csv;charset=utf-8");
-                contentStreamUpdateRequest.setAction(AbstractUpdateRequest.ACTION.COMMIT, true, true);
-                contentStreamUpdateRequest.addFile(tempCsv, "text/csv;charset=utf-8");
-
-                solr.request(contentStreamUpdateRequest);
+                String nextCursorMark = response.getNextCursorMark();
+                if (response.getResults().isEmpty() || cursorMark.equals(nextCursorMark)) {
+                    break;
+                }
+                cursorMark = nextCursorMark;
+                // leave some room to the queries of the live core
+                if (pause > 0) {
+                    Thread.sleep(pause);
+                }
             }
 
-            //Now that all our new bitstream stats are in place, delete all the old ones !
-            solr.deleteByQuery("-bundleName:[* TO *] AND type:" + Constants.BITSTREAM);
-            //Commit everything to wrap up
-            solr.commit(true, true);
-            //Clean up our directory !
-            FileUtils.deleteDirectory(tempDirectory);
+            // a single commit at the end, the searchers of the live core are not reopened for every batch
+            solr.commit();
+            log.info("Updated the bundle name of {} bitstream records, deleted {} records of {} bitstreams",
+                     updated, deleted, bundleCache.size());
         } catch (Exception e) {
             log.error("Error while updating the bitstream statistics", e);
             throw e;
@@ -1443,6 +1612,42 @@ public class SolrLoggerServiceImpl implements SolrLoggerService, InitializingBea
         }
     }
 
+    /**
+     * Find the name of the bundle of a bitstream, or the kind of logo it is.
+     *
+     * @param context     The relevant DSpace Context.
+     * @param bundleCache the bundle names already found
+     * @param bitstreamId the id of the bitstream, a UUID or a legacy id
+     * @return the bundle name, or null if the bitstream was deleted or has no bundle
+     * @throws SQLException if database error
+     */
+    protected String getBundleName(Context context, BitstreamBundleCache bundleCache, String bitstreamId)
+        throws SQLException {
+        if (bundleCache.contains(bitstreamId)) {
+            return bundleCache.get(bitstreamId);
+        }
+        String bundleName = null;
+        Bitstream bitstream = bitstreamService.findByIdOrLegacyId(context, bitstreamId);
+        if (bitstream != null) {
+            List<Bundle> bundles = bitstream.getBundles();
+            if (bundles != null && 0 < bundles.size()) {
+                bundleName = bundles.get(0).getName();
+            } else {
+                //No bundle found, we are either a collection or a community logo, check for it !
+                DSpaceObject parentObject = bitstreamService.getParentObject(context, bitstream);
+                if (parentObject instanceof Collection) {
+                    bundleName = "LOGO-COLLECTION";
+                } else if (parentObject instanceof Community) {
+                    bundleName = "LOGO-COMMUNITY";
+                }
+            }
+            // the bitstream is not needed anymore, do not let the session grow with every bitstream
+            context.uncacheEntity(bitstream);
+        }
+        bundleCache.put(bitstreamId, bundleName);
+        return bundleName;
+    }
+
 
     @Override
     public void exportHits() throws Exception {
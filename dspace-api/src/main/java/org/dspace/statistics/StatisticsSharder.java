@@ -0,0 +1,345 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.RangeFacet;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.FacetParams;
+
+/**
+ * Moves the usage events of the past years from the statistics core into a core per year.
+ * <p>
+ * The events of a year are read in batches with a cursor, and each batch is written to the core of the year by a
+ * pool of writer threads while the next one is read, so that nothing is staged on the disk. Every few batches, the
+ * writes are waited for and committed, and the position of the cursor is saved in a checkpoint file: an interrupted
+ * run is resumed from there by the next one. Events written again after a resume replace their earlier copy, as
+ * they have the same unique id.
+ * <p>
+ * Once all the events of a year are copied, they are only deleted from the statistics core if the core of the year
+ * gained as many events as were read, and no event of the year was added to the statistics core meanwhile.
+ */
+public class StatisticsSharder {
+
+    private static final Logger log = LogManager.getLogger(StatisticsSharder.class);
+
+    /**
+     * Opens the core of a year, creating it if needed.
+     */
+    @FunctionalInterface
+    public interface CoreProvider {
+        /**
+         * @param year the year
+         * @return a client of the core of the year
+         * @throws IOException         if the core could not be reached
+         * @throws SolrServerException if the core could not be created
+         */
+        SolrClient getCore(int year) throws IOException, SolrServerException;
+    }
+
+    private final SolrClient source;
+    private final CoreProvider cores;
+    private final Path checkpointFile;
+    private final int batchSize;
+    private final int threads;
+    private final int checkpointInterval;
+
+    private final Properties checkpoint = new Properties();
+
+    /**
+     * @param source             the statistics core
+     * @param cores              opens the core of each year
+     * @param checkpointFile     the file in which the progress is saved
+     * @param batchSize          the number of events read and written at once
+     * @param threads            the number of writer threads
+     * @param checkpointInterval the number of batches between two checkpoints
+     */
+    public StatisticsSharder(SolrClient source, CoreProvider cores, Path checkpointFile, int batchSize, int threads,
+                             int checkpointInterval) {
+        this.source = source;
+        this.cores = cores;
+        this.checkpointFile = checkpointFile;
+        this.batchSize = Math.max(1, batchSize);
+        this.threads = Math.max(1, threads);
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
+    /**
+     * Move the usage events of all the years before the current one into their own core, resuming from the
+     * checkpoint file if there is one.
+     *
+     * @return the number of events moved
+     * @throws IOException         if the checkpoint file could not be read or written, or if the events of a year
+     *                             could not be verified
+     * @throws SolrServerException if Solr failed
+     */
+    public long shard() throws IOException, SolrServerException {
+        loadCheckpoint();
+
+        SolrQuery yearRangeQuery = new SolrQuery("*:*");
+        yearRangeQuery.setRows(0);
+        yearRangeQuery.setFacet(true);
+        yearRangeQuery.add(FacetParams.FACET_RANGE, "time");
+        // back to the year 2000, to be sure we have everything without sorting on the time, which is costly
+        yearRangeQuery.add(FacetParams.FACET_RANGE_START, "NOW/YEAR-" + (Year.now().getValue() - 2000) + "YEARS");
+        // not the current year
+        yearRangeQuery.add(FacetParams.FACET_RANGE_END, "NOW/YEAR+0YEARS");
+        yearRangeQuery.add(FacetParams.FACET_RANGE_GAP, "+1YEAR");
+        yearRangeQuery.add(FacetParams.FACET_MINCOUNT, String.valueOf(1));
+        List<RangeFacet.Count> years = source.query(yearRangeQuery).getFacetRanges().get(0).getCounts();
+
+        long moved = 0;
+        for (RangeFacet.Count count : years) {
+            int year = Instant.parse(count.getValue()).atZone(ZoneOffset.UTC).getYear();
+            moved += shardYear(year);
+        }
+        Files.deleteIfExists(checkpointFile);
+        return moved;
+    }
+
+    /**
+     * Move the usage events of a year into its own core.
+     *
+     * @param year the year
+     * @return the number of events moved
+     */
+    protected long shardYear(int year) throws IOException, SolrServerException {
+        String filterQuery = "time:[" + Year.of(year).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant() + " TO "
+            + Year.of(year + 1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant() + "}";
+        SolrClient target = cores.getCore(year);
+
+        String cursorMark = checkpoint.getProperty(year + ".cursorMark");
+        long copied;
+        long baseline;
+        if (cursorMark == null) {
+            cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            copied = 0;
+            baseline = count(target, filterQuery);
+            saveCheckpoint(year, cursorMark, copied, baseline);
+        } else {
+            copied = Long.parseLong(checkpoint.getProperty(year + ".copied"));
+            baseline = Long.parseLong(checkpoint.getProperty(year + ".baseline"));
+            log.info("Resuming the move of the usage events of {} after {} events", year, copied);
+        }
+
+        long total = count(source, filterQuery);
+        log.info("Moving {} records into the core of {}", total, year);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new WriterThreadFactory(year));
+        // the batches read ahead of the writers, so that the memory used is bounded
+        Semaphore slots = new Semaphore(threads * 2);
+        Deque<Future<?>> writes = new ArrayDeque<>();
+        try {
+            int batches = 0;
+            boolean done = false;
+            while (!done) {
+                SolrQuery query = new SolrQuery("*:*");
+                query.addFilterQuery(filterQuery);
+                query.setRows(batchSize);
+                query.setSort("uid", SolrQuery.ORDER.asc);
+                query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+                QueryResponse response = source.query(query);
+                SolrDocumentList documents = response.getResults();
+                String nextCursorMark = response.getNextCursorMark();
+                done = documents.isEmpty() || cursorMark.equals(nextCursorMark);
+
+                if (!documents.isEmpty()) {
+                    List<SolrInputDocument> batch = toInputDocuments(documents);
+                    acquire(slots);
+                    writes.add(executor.submit(() -> {
+                        try {
+                            target.add(batch);
+                        } finally {
+                            slots.release();
+                        }
+                        return null;
+                    }));
+                }
+                copied += documents.size();
+                cursorMark = nextCursorMark;
+                batches++;
+
+                if (done || batches % checkpointInterval == 0) {
+                    awaitWrites(writes);
+                    target.commit(true, true);
+                    saveCheckpoint(year, cursorMark, copied, baseline);
+                    log.debug("Copied {} of {} records into the core of {}", copied, total, year);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(year, target, filterQuery, copied, baseline);
+
+        source.deleteByQuery(filterQuery);
+        source.commit(true, true);
+        clearCheckpoint(year);
+        log.info("Moved {} records into the core of {}", copied, year);
+        return copied;
+    }
+
+    /**
+     * Check that the core of a year gained all the events read, and that the statistics core has no other event of
+     * the year, before they are deleted from the statistics core.
+     */
+    private void verify(int year, SolrClient target, String filterQuery, long copied, long baseline)
+        throws IOException, SolrServerException {
+        long remaining = count(source, filterQuery);
+        if (remaining != copied) {
+            // start the year over on the next run, the events already copied are only replaced
+            saveCheckpoint(year, CursorMarkParams.CURSOR_MARK_START, 0, baseline);
+            throw new IOException("The statistics core has " + remaining + " records of " + year + ", but "
+                                      + copied + " were copied: they changed while they were copied. Nothing was "
+                                      + "deleted, run the sharding again.");
+        }
+        long gained = count(target, filterQuery) - baseline;
+        if (gained != copied) {
+            throw new IOException("The core of " + year + " gained " + gained + " records instead of " + copied
+                                      + ". Nothing was deleted from the statistics core, check the core of " + year
+                                      + " and remove " + checkpointFile + " before sharding again.");
+        }
+    }
+
+    private long count(SolrClient client, String filterQuery) throws IOException, SolrServerException {
+        SolrQuery query = new SolrQuery("*:*");
+        query.addFilterQuery(filterQuery);
+        query.setRows(0);
+        return client.query(query).getResults().getNumFound();
+    }
+
+    private List<SolrInputDocument> toInputDocuments(SolrDocumentList documents) {
+        List<SolrInputDocument> inputDocuments = new ArrayList<>(documents.size());
+        for (SolrDocument document : documents) {
+            SolrInputDocument inputDocument = new SolrInputDocument();
+            for (String name : document.getFieldNames()) {
+                // the version is assigned by the target core
+                if (!"_version_".equals(name)) {
+                    inputDocument.addField(name, document.getFieldValue(name));
+                }
+            }
+            inputDocuments.add(inputDocument);
+        }
+        return inputDocuments;
+    }
+
+    private void awaitWrites(Deque<Future<?>> writes) throws IOException, SolrServerException {
+        while (!writes.isEmpty()) {
+            try {
+                writes.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing usage events", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SolrServerException) {
+                    throw (SolrServerException) e.getCause();
+                }
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    private void acquire(Semaphore slots) throws IOException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading usage events", e);
+        }
+    }
+
+    private void loadCheckpoint() throws IOException {
+        checkpoint.clear();
+        if (Files.exists(checkpointFile)) {
+            try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+                checkpoint.load(reader);
+            }
+        }
+    }
+
+    private void saveCheckpoint(int year, String cursorMark, long copied, long baseline) throws IOException {
+        checkpoint.setProperty(year + ".cursorMark", cursorMark);
+        checkpoint.setProperty(year + ".copied", String.valueOf(copied));
+        checkpoint.setProperty(year + ".baseline", String.valueOf(baseline));
+        storeCheckpoint();
+    }
+
+    private void clearCheckpoint(int year) throws IOException {
+        checkpoint.remove(year + ".cursorMark");
+        checkpoint.remove(year + ".copied");
+        checkpoint.remove(year + ".baseline");
+        storeCheckpoint();
+    }
+
+    /**
+     * Replace the checkpoint file atomically, so that it is never left half written.
+     */
+    private void storeCheckpoint() throws IOException {
+        if (checkpointFile.getParent() != null) {
+            Files.createDirectories(checkpointFile.getParent());
+        }
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            checkpoint.store(writer, "Progress of the sharding of the statistics core");
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Names the writer threads after the year they write.
+     */
+    private static class WriterThreadFactory implements ThreadFactory {
+        private final int year;
+        private final AtomicInteger count = new AtomicInteger();
+
+        WriterThreadFactory(int year) {
+            this.year = year;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "statistics-shard-" + year + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A bounded queue of {@link UsageRecord}s, filled by the request threads and emptied by a single writer thread which
+ * hands them in batches to a {@link BatchWriter}, so that recording a view never waits for the database or for Solr.
+ * <p>
+ * The queue is a fixed size circular array. A batch is written once it holds {@code batchSize} records or once its
+ * first record has waited {@code maxWaitMillis}. When the queue is full, the {@link OverflowPolicy} decides whether
+ * the new record is dropped at once or whether the request thread waits for some room, at most
+ * {@code blockTimeoutMillis}, before dropping it, or whether it is appended to the {@link UsageEventSpool}.
+ * <p>
+ * With a spool, the batches which could not be written, e.g. because Solr is down, are appended to the spool
+ * instead of being lost, and the spool is replayed every {@code replayIntervalMillis}.
+ */
+public class UsageEventQueue {
+
+    private static final Logger log = LogManager.getLogger(UsageEventQueue.class);
+
+    /**
+     * Log the number of dropped records every time this many more are dropped.
+     */
+    private static final long DROP_WARNING_INTERVAL = 1000;
+
+    /**
+     * What to do with a new record when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the new record, the request thread never waits.
+         */
+        DROP,
+        /**
+         * Make the request thread wait for room in the queue, dropping the record after the block timeout.
+         */
+        BLOCK,
+        /**
+         * Append the new record to the spool, to be replayed later. Without a spool, drop it.
+         */
+        SPOOL;
+
+        /**
+         * @param name the name of the policy, case insensitive
+         * @return the policy of that name, {@link #DROP} if there is none
+         */
+        public static OverflowPolicy fromString(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                log.warn("Unknown usage event overflow policy {}, using {}", name, DROP);
+                return DROP;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of records to the statistics core.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        /**
+         * @param records the records to write, in the order they were queued
+         * @throws Exception if the batch could not be written, all its records are then spooled, or counted as
+         *                   failed without a spool
+         */
+        void write(List<UsageRecord> records) throws Exception;
+    }
+
+    private final BlockingQueue<UsageRecord> queue;
+    private final int batchSize;
+    private final long maxWaitMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final BatchWriter batchWriter;
+    private final UsageEventSpool spool;
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong spooledCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * Guards the number of records handled by the writer thread, to wait for it in {@link #flush(long)}.
+     */
+    private final Object handledLock = new Object();
+    private long handledCount = 0;
+
+    private final Thread writerThread;
+    private ScheduledExecutorService replayScheduler;
+    private volatile boolean closed = false;
+
+    /**
+     * Create the queue, without a spool, and start its writer thread.
+     *
+     * @param capacity           the maximum number of records waiting to be written
+     * @param batchSize          the maximum number of records written at once
+     * @param maxWaitMillis      the maximum time a record waits for its batch to fill up
+     * @param overflowPolicy     what to do with a new record when the queue is full
+     * @param blockTimeoutMillis with {@link OverflowPolicy#BLOCK}, how long a request thread waits for room in the
+     *                           queue before dropping its record
+     * @param batchWriter        writes the batches
+     */
+    public UsageEventQueue(int capacity, int batchSize, long maxWaitMillis, OverflowPolicy overflowPolicy,
+                           long blockTimeoutMillis, BatchWriter batchWriter) {
+        this(capacity, batchSize, maxWaitMillis, overflowPolicy, blockTimeoutMillis, batchWriter, null, 0);
+    }
+
+    /**
+     * Create the queue and start its writer thread and the replay of its spool.
+     *
+     * @param capacity             the maximum number of records waiting to be written
+     * @param batchSize            the maximum number of records written at once
+     * @param maxWaitMillis        the maximum time a record waits for its batch to fill up
+     * @param overflowPolicy       what to do with a new record when the queue is full
+     * @param blockTimeoutMillis   with {@link OverflowPolicy#BLOCK}, how long a request thread waits for room in the
+     *                             queue before dropping its record
+     * @param batchWriter          writes the batches
+     * @param spool                keeps the records which could not be written, may be null
+     * @param replayIntervalMillis the time between two replays of the spool, starting at once
+     */
+    public UsageEventQueue(int capacity, int batchSize, long maxWaitMillis, OverflowPolicy overflowPolicy,
+                           long blockTimeoutMillis, BatchWriter batchWriter, UsageEventSpool spool,
+                           long replayIntervalMillis) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = Math.max(0, blockTimeoutMillis);
+        this.batchWriter = batchWriter;
+        this.spool = spool;
+        writerThread = new Thread(this::run, "statistics-usage-event-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        if (spool != null) {
+            replayScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "statistics-spool-replay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            replayScheduler.scheduleWithFixedDelay(this::replaySpool, 0, Math.max(1, replayIntervalMillis),
+                                                   TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queue a record to be written.
+     *
+     * @param record the record
+     * @return whether the record was queued or spooled, false if it was dropped
+     */
+    public boolean offer(UsageRecord record) {
+        boolean accepted = false;
+        if (!closed) {
+            accepted = queue.offer(record);
+            if (!accepted && overflowPolicy == OverflowPolicy.BLOCK) {
+                blockedCount.incrementAndGet();
+                try {
+                    accepted = queue.offer(record, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if (accepted) {
+            acceptedCount.incrementAndGet();
+        } else if (!closed && overflowPolicy == OverflowPolicy.SPOOL && spool != null
+            && spool.append(List.of(record))) {
+            spooledCount.incrementAndGet();
+            return true;
+        } else {
+            long dropped = droppedCount.incrementAndGet();
+            if (dropped % DROP_WARNING_INTERVAL == 1) {
+                log.warn("The usage event queue is {}, {} usage events were dropped so far",
+                         closed ? "closed" : "full", dropped);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Wait until all the records queued before this call are written.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return whether all these records were written in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long target = acceptedCount.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (handledLock) {
+            while (handledCount < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                handledLock.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop accepting records, and wait for the writer thread to write those already queued.
+     *
+     * @param timeoutMillis the maximum time to wait for the writer thread
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void close(long timeoutMillis) throws InterruptedException {
+        closed = true;
+        if (replayScheduler != null) {
+            replayScheduler.shutdownNow();
+        }
+        writerThread.interrupt();
+        writerThread.join(timeoutMillis);
+        if (writerThread.isAlive()) {
+            log.warn("The usage event writer did not finish in {} ms, {} usage events are lost",
+                     timeoutMillis, queue.size());
+        }
+        if (spool != null) {
+            spool.close();
+        }
+        log.info("Usage event queue closed: {} accepted, {} dropped, {} written in {} batches, {} failed, "
+                     + "{} spooled", getAcceptedCount(), getDroppedCount(), getWrittenCount(), getBatchCount(),
+                 getFailedCount(), getSpooledCount());
+    }
+
+    /**
+     * Replay the spool now, if there is one. The replay is also scheduled every {@code replayIntervalMillis}.
+     *
+     * @return the number of records replayed
+     * @throws Exception the error of the batch which failed
+     */
+    public long replay() throws Exception {
+        return spool != null ? spool.replay(batchWriter, batchSize) : 0;
+    }
+
+    /**
+     * @return the number of records waiting to be written
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of records queued
+     */
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    /**
+     * @return the number of records dropped because the queue was full or closed
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the number of times a request thread had to wait for room in the queue
+     */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    /**
+     * @return the number of records handed to the batch writer without error
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * @return the number of records in the batches the batch writer failed to write
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return the number of records appended to the spool, because the queue was full or their batch failed
+     */
+    public long getSpooledCount() {
+        return spooledCount.get();
+    }
+
+    /**
+     * @return the number of batches handed to the batch writer
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    private void run() {
+        List<UsageRecord> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                // closing: write what was collected, then drain the queue without waiting
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Collect the next batch, waiting for its first record and then at most {@code maxWaitMillis} for the others.
+     * Once the queue is closed, only the records already queued are collected.
+     */
+    private void fillBatch(List<UsageRecord> batch) throws InterruptedException {
+        if (closed) {
+            queue.drainTo(batch, batchSize);
+            return;
+        }
+        UsageRecord first = queue.take();
+        batch.add(first);
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.currentTimeMillis();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            UsageRecord next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<UsageRecord> batch) {
+        try {
+            batchWriter.write(batch);
+            writtenCount.addAndGet(batch.size());
+        } catch (Exception e) {
+            if (spool != null && spool.append(batch)) {
+                spooledCount.addAndGet(batch.size());
+                log.warn("Error writing a batch of {} usage events to Solr, they are spooled to be replayed later: "
+                             + "{}", batch.size(), e.getMessage());
+            } else {
+                failedCount.addAndGet(batch.size());
+                log.error("Error writing a batch of {} usage events to Solr", batch.size(), e);
+            }
+        } finally {
+            // the interrupt of close() may arrive while writing, it is only meant to stop the waiting
+            Thread.interrupted();
+            batchCount.incrementAndGet();
+            synchronized (handledLock) {
+                handledCount += batch.size();
+                handledLock.notifyAll();
+            }
+        }
+    }
+
+    private void replaySpool() {
+        if (spool.isEmpty()) {
+            return;
+        }
+        try {
+            spool.replay(batchWriter, batchSize);
+        } catch (Exception e) {
+            // never let an exception cancel the scheduled task
+            log.warn("The statistics spool could not be replayed, it will be retried: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An append-only spool of {@link UsageRecord}s on the local disk, which keeps the views that could not be written to
+ * the statistics core, because Solr was unreachable or the {@link UsageEventQueue} was full, until they can be
+ * replayed.
+ * <p>
+ * The records are appended, one JSON object per line, to segment files named after a sequence number, so that the
+ * segments sort in the order they were written. A segment is closed once it reaches {@code maxSegmentBytes} or when
+ * a replay starts, and only closed segments are replayed, oldest first. A replayed segment is deleted. If the replay
+ * of a segment fails halfway, the segment is replaced by its records which were not replayed yet, so that no record
+ * is written twice.
+ */
+public class UsageEventSpool {
+
+    private static final Logger log = LogManager.getLogger(UsageEventSpool.class);
+
+    private static final String SEGMENT_PREFIX = "usage-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long maxBytes;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * The size of all the segments, in bytes.
+     */
+    private long size = 0;
+    private long nextSegment = 0;
+    private Writer writer;
+    private long writerBytes = 0;
+
+    /**
+     * Only one replay at a time.
+     */
+    private final Object replayLock = new Object();
+
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong replayedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Open the spool in a directory, which is created if needed. The segments left in it, e.g. by a previous run,
+     * are replayed by the next replay.
+     *
+     * @param directory       the directory of the segments
+     * @param maxSegmentBytes the size after which a segment is closed and a new one started
+     * @param maxBytes        the maximum size of all the segments, after which new records are dropped, values
+     *                        below 1 disable the check
+     * @throws IOException if the directory could not be created or read
+     */
+    public UsageEventSpool(Path directory, long maxSegmentBytes, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = Math.max(1, maxSegmentBytes);
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        for (Path segment : segments) {
+            size += Files.size(segment);
+        }
+        if (!segments.isEmpty()) {
+            nextSegment = getSequence(segments.get(segments.size() - 1)) + 1;
+            log.info("Found {} bytes of usage events in the statistics spool {}, they will be replayed", size,
+                     directory);
+        }
+    }
+
+    /**
+     * Append records to the spool.
+     *
+     * @param records the records
+     * @return whether all the records were appended, false if some were dropped because the spool is full or could
+     * not be written
+     */
+    public synchronized boolean append(List<UsageRecord> records) {
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                String line = toJson(records.get(i)) + "\n";
+                int length = line.getBytes(StandardCharsets.UTF_8).length;
+                if (maxBytes > 0 && size + length > maxBytes) {
+                    drop(records.size() - i, "the statistics spool is full");
+                    flush();
+                    return false;
+                }
+                if (writer == null || writerBytes >= maxSegmentBytes) {
+                    openSegment();
+                }
+                writer.write(line);
+                writerBytes += length;
+                size += length;
+                appendedCount.incrementAndGet();
+            } catch (IOException e) {
+                log.error("Error writing to the statistics spool {}", directory, e);
+                drop(records.size() - i, "the statistics spool could not be written");
+                closeSegment();
+                return false;
+            }
+        }
+        flush();
+        return true;
+    }
+
+    /**
+     * Replay the spooled records, oldest first, in batches. The replay stops at the first batch which fails, the
+     * records not replayed yet are replayed by the next replay.
+     *
+     * @param batchWriter writes the batches
+     * @param batchSize   the maximum number of records written at once
+     * @return the number of records replayed
+     * @throws Exception the error of the batch which failed
+     */
+    public long replay(UsageEventQueue.BatchWriter batchWriter, int batchSize) throws Exception {
+        synchronized (replayLock) {
+            List<Path> segments;
+            synchronized (this) {
+                // the segment being written is closed so that it can be replayed as well
+                closeSegment();
+                segments = listSegments();
+            }
+            long replayed = 0;
+            for (Path segment : segments) {
+                replayed += replaySegment(segment, batchWriter, Math.max(1, batchSize));
+            }
+            if (replayed > 0) {
+                log.info("Replayed {} usage events from the statistics spool {}", replayed, directory);
+            }
+            return replayed;
+        }
+    }
+
+    /**
+     * @return whether there is nothing to replay
+     */
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the size of the spooled records, in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of records appended to the spool
+     */
+    public long getAppendedCount() {
+        return appendedCount.get();
+    }
+
+    /**
+     * @return the number of records replayed from the spool
+     */
+    public long getReplayedCount() {
+        return replayedCount.get();
+    }
+
+    /**
+     * @return the number of records which could not be appended to the spool
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Close the segment being written. The spooled records stay on the disk, to be replayed after a restart.
+     */
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    private long replaySegment(Path segment, UsageEventQueue.BatchWriter batchWriter, int batchSize)
+        throws Exception {
+        List<UsageRecord> records = readSegment(segment);
+        int done = 0;
+        try {
+            while (done < records.size()) {
+                List<UsageRecord> batch = new ArrayList<>(records.subList(done, Math.min(done + batchSize,
+                                                                                          records.size())));
+                batchWriter.write(batch);
+                done += batch.size();
+                replayedCount.addAndGet(batch.size());
+            }
+        } catch (Exception e) {
+            if (done > 0) {
+                rewriteSegment(segment, records.subList(done, records.size()));
+            }
+            throw e;
+        }
+        deleteSegment(segment);
+        return done;
+    }
+
+    private List<UsageRecord> readSegment(Path segment) throws IOException {
+        List<UsageRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    records.add(fromJson(line));
+                } catch (IOException | RuntimeException e) {
+                    // e.g. the last line of a segment being written when DSpace was killed
+                    log.warn("Skipping an unreadable usage event in the statistics spool segment {}: {}", segment,
+                             e.getMessage());
+                }
+            }
+        }
+        return records;
+    }
+
+    private synchronized void rewriteSegment(Path segment, List<UsageRecord> records) throws IOException {
+        Path temp = segment.resolveSibling(segment.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (UsageRecord record : records) {
+                out.write(toJson(record));
+                out.write('\n');
+            }
+        }
+        size -= Files.size(segment);
+        Files.move(temp, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        size += Files.size(segment);
+    }
+
+    private synchronized void deleteSegment(Path segment) throws IOException {
+        long segmentSize = Files.size(segment);
+        Files.delete(segment);
+        size -= segmentSize;
+    }
+
+    private void openSegment() throws IOException {
+        closeSegment();
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        writer = Files.newBufferedWriter(segment, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW,
+                                         StandardOpenOption.WRITE);
+        writerBytes = 0;
+    }
+
+    private void closeSegment() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.error("Error closing a segment of the statistics spool {}", directory, e);
+            }
+            writer = null;
+        }
+    }
+
+    private void flush() {
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                log.error("Error writing to the statistics spool {}", directory, e);
+                closeSegment();
+            }
+        }
+    }
+
+    private void drop(long count, String reason) {
+        long dropped = droppedCount.addAndGet(count);
+        log.warn("{} usage events were dropped because {}, {} so far", count, reason, dropped);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                                                                     SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        // the sequence numbers are zero padded
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long getSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private String toJson(UsageRecord record) throws IOException {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("type", record.getObjectType());
+        node.put("id", record.getObjectId().toString());
+        if (record.getEpersonId() != null) {
+            node.put("eperson", record.getEpersonId().toString());
+        }
+        node.put("skipAdmin", record.isSkipAdmin());
+        node.put("ip", record.getIp());
+        node.put("userAgent", record.getUserAgent());
+        node.put("referrer", record.getReferrer());
+        node.put("bot", record.isBot());
+        node.put("time", record.getTime().toString());
+        return mapper.writeValueAsString(node);
+    }
+
+    private UsageRecord fromJson(String line) throws IOException {
+        JsonNode node = mapper.readTree(line);
+        return new UsageRecord(node.get("type").asInt(), UUID.fromString(node.get("id").asText()),
+                               node.hasNonNull("eperson") ? UUID.fromString(node.get("eperson").asText()) : null,
+                               node.get("skipAdmin").asBoolean(), getText(node, "ip"), getText(node, "userAgent"),
+                               getText(node, "referrer"), node.get("bot").asBoolean(),
+                               Instant.parse(node.get("time").asText()));
+    }
+
+    private static String getText(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What the request thread knows about a view of a DSpace object, captured when the view happens so that the usage
+ * event document can be built later by the writer thread of the {@link UsageEventQueue}. It only holds identifiers
+ * and strings: the objects are loaded again, their parents found and the client address located when the document
+ * is built.
+ */
+public class UsageRecord {
+
+    private final int objectType;
+    private final UUID objectId;
+    private final UUID epersonId;
+    private final boolean skipAdmin;
+    private final String ip;
+    private final String userAgent;
+    private final String referrer;
+    private final boolean bot;
+    private final Instant time;
+
+    /**
+     * @param objectType the type of the viewed object, see {@link org.dspace.core.Constants}
+     * @param objectId   the id of the viewed object
+     * @param epersonId  the id of the current user, null if anonymous
+     * @param skipAdmin  whether the view is not recorded if the current user is an administrator
+     * @param ip         the address of the client
+     * @param userAgent  the user agent of the client, may be null
+     * @param referrer   the referrer of the request, may be null
+     * @param bot        whether the client was detected as a spider
+     * @param time       when the view happened
+     */
+    public UsageRecord(int objectType, UUID objectId, UUID epersonId, boolean skipAdmin, String ip,
+                       String userAgent, String referrer, boolean bot, Instant time) {
+        this.objectType = objectType;
+        this.objectId = objectId;
+        this.epersonId = epersonId;
+        this.skipAdmin = skipAdmin;
+        this.ip = ip;
+        this.userAgent = userAgent;
+        this.referrer = referrer;
+        this.bot = bot;
+        this.time = time;
+    }
+
+    public int getObjectType() {
+        return objectType;
+    }
+
+    public UUID getObjectId() {
+        return objectId;
+    }
+
+    public UUID getEpersonId() {
+        return epersonId;
+    }
+
+    public boolean isSkipAdmin() {
+        return skipAdmin;
+    }
+
+    public String getIp() {
+        return ip;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public String getReferrer() {
+        return referrer;
+    }
+
+    public boolean isBot() {
+        return bot;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+}
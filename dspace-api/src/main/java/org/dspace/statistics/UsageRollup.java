@@ -0,0 +1,132 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.dspace.core.Context;
+import org.dspace.core.ReloadableEntity;
+import org.dspace.statistics.service.UsageRollupService;
+
+/**
+ * Database entity representation of the statistics_usage_rollup table. Each record counts the views of an object
+ * from a country during a day, as the usage reports would count them in the statistics core.
+ */
+@Entity
+@Table(name = "statistics_usage_rollup")
+public class UsageRollup implements ReloadableEntity<Integer> {
+
+    /**
+     * The country code of the views whose country is not known.
+     */
+    public static final String UNKNOWN_COUNTRY = "";
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "statistics_usage_rollup_id_seq")
+    @SequenceGenerator(name = "statistics_usage_rollup_id_seq", sequenceName = "statistics_usage_rollup_id_seq",
+        allocationSize = 1)
+    private Integer id;
+
+    /**
+     * The day of the views, in UTC.
+     */
+    @Column(name = "usage_day")
+    private LocalDate usageDay;
+
+    /**
+     * The type of the object, see {@link org.dspace.core.Constants}.
+     */
+    @Column(name = "dso_type")
+    private int dsoType;
+
+    /**
+     * The id of the object as it is in the statistics core: its UUID, or its legacy id for old usage events.
+     */
+    @Column(name = "dso_id")
+    private String dsoId;
+
+    /**
+     * The item of a bitstream, null for the other objects.
+     */
+    @Column(name = "owning_item")
+    private String owningItem;
+
+    @Column(name = "country_code")
+    private String countryCode = UNKNOWN_COUNTRY;
+
+    @Column(name = "views")
+    private long views;
+
+    /**
+     * Protected constructor, the records are created by the {@link UsageRollupService#update(Context)}
+     */
+    protected UsageRollup() {
+
+    }
+
+    @Override
+    public Integer getID() {
+        return id;
+    }
+
+    public LocalDate getUsageDay() {
+        return usageDay;
+    }
+
+    public void setUsageDay(LocalDate usageDay) {
+        this.usageDay = usageDay;
+    }
+
+    public int getDsoType() {
+        return dsoType;
+    }
+
+    public void setDsoType(int dsoType) {
+        this.dsoType = dsoType;
+    }
+
+    public String getDsoId() {
+        return dsoId;
+    }
+
+    public void setDsoId(String dsoId) {
+        this.dsoId = dsoId;
+    }
+
+    public String getOwningItem() {
+        return owningItem;
+    }
+
+    public void setOwningItem(String owningItem) {
+        this.owningItem = owningItem;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public void setCountryCode(String countryCode) {
+        this.countryCode = countryCode;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public void setViews(long views) {
+        this.views = views;
+    }
+}
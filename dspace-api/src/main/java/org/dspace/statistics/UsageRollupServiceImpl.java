@@ -0,0 +1,389 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.FieldStatsInfo;
+import org.apache.solr.client.solrj.response.PivotField;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.RangeFacet;
+import org.apache.solr.common.SolrDocumentList;
+import org.dspace.content.DSpaceObject;
+import org.dspace.content.DSpaceObjectLegacySupport;
+import org.dspace.content.Item;
+import org.dspace.core.Constants;
+import org.dspace.core.Context;
+import org.dspace.services.ConfigurationService;
+import org.dspace.statistics.dao.UsageRollupDAO;
+import org.dspace.statistics.factory.StatisticsServiceFactory;
+import org.dspace.statistics.service.SolrLoggerService;
+import org.dspace.statistics.service.UsageRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Implementation of {@link UsageRollupService}.
+ * <p>
+ * The usage events of a day are counted with a single pivot facet query on the type, id and country code, with the
+ * view filter of the usage reports and the default filters on the robots and bundles. The bitstreams are counted
+ * under their owning item as well, so that the downloads of an item can be answered from the rollups.
+ * <p>
+ * The runs follow the time at which the statistics core received the usage events, from the {@link
+ * SolrLoggerServiceImpl#INGEST_TIME_FIELD} field, rather than the time of the events, so that the events written late,
+ * e.g. by the asynchronous writer or from its spool, are still counted under their own day. The usage events logged
+ * before that field existed are followed by their time.
+ */
+public class UsageRollupServiceImpl implements UsageRollupService {
+
+    private static final Logger log = LogManager.getLogger(UsageRollupServiceImpl.class);
+
+    /**
+     * Only the views, and the old usage events which have no statistics type, as {@link
+     * org.dspace.statistics.content.StatisticsDataVisits} counts them.
+     */
+    protected static final String VIEW_FILTER = "-(statistics_type:[* TO *] AND -statistics_type:"
+        + SolrLoggerServiceImpl.StatisticsType.VIEW.text() + ")";
+
+    private static final String COUNTRY_PIVOT = "type,id,countryCode";
+    private static final String OWNING_ITEM_PIVOT = "id,owningItem";
+
+    @Autowired
+    private UsageRollupDAO usageRollupDAO;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    protected UsageRollupServiceImpl() {
+
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return configurationService.getBooleanProperty("usage-statistics.rollup.enabled", false);
+    }
+
+    @Override
+    public boolean isAvailable(Context context) throws SQLException {
+        return isEnabled() && getProcessedUntil(context) != null;
+    }
+
+    @Override
+    public Instant getProcessedUntil(Context context) throws SQLException {
+        UsageRollupWatermark watermark = usageRollupDAO.findWatermark(context);
+        return watermark == null ? null : watermark.getProcessedUntil();
+    }
+
+    @Override
+    public long update(Context context) throws SQLException, SolrServerException, IOException {
+        // leave the usage events which are received but not visible in the statistics core yet to the next run
+        Instant end = Instant.now().truncatedTo(ChronoUnit.SECONDS)
+                             .minusMillis(configurationService.getLongProperty("usage-statistics.rollup.lag", 300000));
+        Instant start = getProcessedUntil(context);
+        if (start == null) {
+            Instant first = findFirstUsageEvent();
+            if (first == null) {
+                setProcessedUntil(context, end);
+                context.commit();
+                return 0;
+            }
+            // a usage event is received after it happens
+            start = first.atZone(ZoneOffset.UTC).toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        long total = 0;
+        while (start.isBefore(end)) {
+            LocalDate day = start.atZone(ZoneOffset.UTC).toLocalDate();
+            Instant dayEnd = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant chunkEnd = dayEnd.isBefore(end) ? dayEnd : end;
+            String received = getReceivedFilter(start, chunkEnd);
+            long views = 0;
+            for (LocalDate usageDay : findUsageDays(received)) {
+                views += rollup(context, usageDay, received);
+            }
+            setProcessedUntil(context, chunkEnd);
+            context.commit();
+            context.uncacheEntities();
+            log.debug("Counted {} views from {} to {}", views, start, chunkEnd);
+            total += views;
+            start = chunkEnd;
+        }
+        log.info("Counted {} views in the usage rollups, up to {}", total, end);
+        return total;
+    }
+
+    @Override
+    public long rebuild(Context context, LocalDate from) throws SQLException, SolrServerException, IOException {
+        Instant processedUntil = getProcessedUntil(context);
+        if (from == null || processedUntil == null) {
+            usageRollupDAO.deleteFrom(context, null);
+            setProcessedUntil(context, null);
+            return 0;
+        }
+        // the watermark stays: the usage events of these days received since then are counted by the next update
+        usageRollupDAO.deleteFrom(context, from);
+        String received = getReceivedFilter(null, processedUntil);
+        long total = 0;
+        for (LocalDate day : findUsageDays(received, "time:[" + from.atStartOfDay(ZoneOffset.UTC).toInstant()
+            + " TO *]")) {
+            total += rollup(context, day, received);
+            // a rebuild which is interrupted is simply run again
+            context.commit();
+            context.uncacheEntities();
+        }
+        log.info("Counted {} views again in the usage rollups, from {}", total, from);
+        return total;
+    }
+
+    @Override
+    public long countViews(Context context, DSpaceObject dso) throws SQLException {
+        return usageRollupDAO.sumViews(context, dso.getType(), getIds(dso));
+    }
+
+    @Override
+    public Map<YearMonth, Long> countViewsPerMonth(Context context, DSpaceObject dso, YearMonth from, YearMonth to)
+        throws SQLException {
+        Map<YearMonth, Long> months = new LinkedHashMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.put(month, 0L);
+        }
+        for (Map.Entry<LocalDate, Long> day : usageRollupDAO.sumViewsPerDay(context, dso.getType(), getIds(dso),
+                                                                            from.atDay(1),
+                                                                            to.plusMonths(1).atDay(1))) {
+            months.merge(YearMonth.from(day.getKey()), day.getValue(), Long::sum);
+        }
+        return months;
+    }
+
+    @Override
+    public List<Map.Entry<String, Long>> countViewsPerCountry(Context context, DSpaceObject dso, int limit)
+        throws SQLException {
+        return usageRollupDAO.sumViewsPerCountry(context, dso.getType(), getIds(dso), limit);
+    }
+
+    @Override
+    public List<Map.Entry<String, Long>> countBitstreamViews(Context context, Item item, int limit)
+        throws SQLException {
+        return usageRollupDAO.sumBitstreamViews(context, getIds(item), limit);
+    }
+
+    /**
+     * Count the views of a day matching a filter on the time they were received, and add them to the records of the
+     * day.
+     *
+     * @return the number of views counted
+     */
+    protected long rollup(Context context, LocalDate day, String received)
+        throws SQLException, SolrServerException, IOException {
+        SolrQuery query = createQuery(day, received);
+        query.addFacetPivotField(COUNTRY_PIVOT);
+        QueryResponse response = getSolrLoggerService().query(query, true);
+        if (response == null || response.getFacetPivot() == null
+            || response.getFacetPivot().get(COUNTRY_PIVOT) == null) {
+            return 0;
+        }
+
+        Map<String, String> owningItems = null;
+        // the records of the day are only updated if an earlier run or chunk of the day created some
+        boolean update = usageRollupDAO.existsForDay(context, day);
+        long total = 0;
+        for (PivotField typePivot : response.getFacetPivot().get(COUNTRY_PIVOT)) {
+            int type = Integer.parseInt(String.valueOf(typePivot.getValue()));
+            if (type == Constants.BITSTREAM && owningItems == null) {
+                owningItems = findOwningItems(day, received);
+            }
+            for (PivotField idPivot : emptyIfNull(typePivot.getPivot())) {
+                String id = String.valueOf(idPivot.getValue());
+                String owningItem = type == Constants.BITSTREAM ? owningItems.get(id) : null;
+                long unknown = idPivot.getCount();
+                for (PivotField countryPivot : emptyIfNull(idPivot.getPivot())) {
+                    String countryCode = String.valueOf(countryPivot.getValue());
+                    addViews(context, update, day, type, id, owningItem, countryCode, countryPivot.getCount());
+                    unknown -= countryPivot.getCount();
+                }
+                if (unknown > 0) {
+                    addViews(context, update, day, type, id, owningItem, UsageRollup.UNKNOWN_COUNTRY, unknown);
+                }
+                total += idPivot.getCount();
+            }
+        }
+        return total;
+    }
+
+    private void addViews(Context context, boolean update, LocalDate day, int type, String id, String owningItem,
+                          String countryCode, long views) throws SQLException {
+        if (update && usageRollupDAO.addViews(context, day, type, id, countryCode, views) > 0) {
+            return;
+        }
+        UsageRollup rollup = new UsageRollup();
+        rollup.setUsageDay(day);
+        rollup.setDsoType(type);
+        rollup.setDsoId(id);
+        rollup.setOwningItem(owningItem);
+        rollup.setCountryCode(countryCode);
+        rollup.setViews(views);
+        usageRollupDAO.create(context, rollup);
+    }
+
+    /**
+     * @return the owning item of each bitstream viewed on a day, among the views matching a filter on the time they
+     * were received
+     */
+    private Map<String, String> findOwningItems(LocalDate day, String received)
+        throws SolrServerException, IOException {
+        SolrQuery query = createQuery(day, received);
+        query.addFilterQuery("type:" + Constants.BITSTREAM);
+        query.addFacetPivotField(OWNING_ITEM_PIVOT);
+        QueryResponse response = getSolrLoggerService().query(query, true);
+        Map<String, String> owningItems = new HashMap<>();
+        if (response != null && response.getFacetPivot() != null) {
+            for (PivotField idPivot : emptyIfNull(response.getFacetPivot().get(OWNING_ITEM_PIVOT))) {
+                List<PivotField> items = emptyIfNull(idPivot.getPivot());
+                if (!items.isEmpty()) {
+                    // a bitstream is only counted once, under the first item it was viewed in
+                    owningItems.put(String.valueOf(idPivot.getValue()), String.valueOf(items.get(0).getValue()));
+                }
+            }
+        }
+        return owningItems;
+    }
+
+    private SolrQuery createQuery(LocalDate day, String received) {
+        SolrQuery query = new SolrQuery("*:*");
+        query.setRows(0);
+        query.setFacet(true);
+        query.setFacetLimit(-1);
+        query.setFacetMinCount(1);
+        query.addFilterQuery("time:[" + day.atStartOfDay(ZoneOffset.UTC).toInstant() + " TO "
+                                 + day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() + "}");
+        query.addFilterQuery(received);
+        query.addFilterQuery(VIEW_FILTER);
+        return query;
+    }
+
+    /**
+     * @param from the first time, null for no lower bound
+     * @param to   the time after the last one
+     * @return the filter on the usage events received between two times
+     */
+    private static String getReceivedFilter(Instant from, Instant to) {
+        String range = "[" + (from == null ? "*" : from.toString()) + " TO " + to + "}";
+        // the usage events logged before their ingestion time was recorded are followed by their time
+        return SolrLoggerServiceImpl.INGEST_TIME_FIELD + ":" + range + " OR (time:" + range + " AND -"
+            + SolrLoggerServiceImpl.INGEST_TIME_FIELD + ":[* TO *])";
+    }
+
+    /**
+     * @param filters the filters on the usage events
+     * @return the days with views matching the filters
+     */
+    private List<LocalDate> findUsageDays(String... filters) throws SolrServerException, IOException {
+        SolrQuery query = new SolrQuery("*:*");
+        query.setRows(0);
+        query.setFilterQueries(filters);
+        query.addFilterQuery(VIEW_FILTER);
+        query.setGetFieldStatistics("time");
+        QueryResponse response = getSolrLoggerService().query(query, true);
+        List<LocalDate> days = new ArrayList<>();
+        FieldStatsInfo stats = response == null || response.getFieldStatsInfo() == null ? null
+            : response.getFieldStatsInfo().get("time");
+        if (stats == null || stats.getMin() == null || stats.getMax() == null) {
+            return days;
+        }
+        LocalDate first = ((Date) stats.getMin()).toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+        LocalDate last = ((Date) stats.getMax()).toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+        if (first.equals(last)) {
+            days.add(first);
+            return days;
+        }
+
+        // the usage events received together are usually of the same day, late ones may be of any day before
+        query.setGetFieldStatistics(false);
+        query.setFacet(true);
+        query.setFacetMinCount(1);
+        query.addDateRangeFacet("time", Date.from(first.atStartOfDay(ZoneOffset.UTC).toInstant()),
+                                Date.from(last.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()), "+1DAY");
+        response = getSolrLoggerService().query(query, true);
+        if (response != null && response.getFacetRanges() != null) {
+            for (RangeFacet<?, ?> range : response.getFacetRanges()) {
+                for (RangeFacet.Count count : range.getCounts()) {
+                    if (count.getCount() > 0) {
+                        days.add(Instant.parse(count.getValue()).atZone(ZoneOffset.UTC).toLocalDate());
+                    }
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * @return the time of the first usage event counted in the rollups, null if there is none
+     */
+    private Instant findFirstUsageEvent() throws SolrServerException, IOException {
+        SolrQuery query = new SolrQuery("*:*");
+        query.setRows(1);
+        query.setFields("time");
+        query.addSort("time", SolrQuery.ORDER.asc);
+        query.addFilterQuery(VIEW_FILTER);
+        QueryResponse response = getSolrLoggerService().query(query, true);
+        if (response == null) {
+            return null;
+        }
+        SolrDocumentList results = response.getResults();
+        if (results.isEmpty() || results.get(0).getFieldValue("time") == null) {
+            return null;
+        }
+        return ((Date) results.get(0).getFieldValue("time")).toInstant();
+    }
+
+    private void setProcessedUntil(Context context, Instant processedUntil) throws SQLException {
+        UsageRollupWatermark watermark = usageRollupDAO.findWatermark(context);
+        if (watermark == null) {
+            watermark = new UsageRollupWatermark();
+        }
+        watermark.setProcessedUntil(processedUntil);
+        usageRollupDAO.saveWatermark(context, watermark);
+    }
+
+    /**
+     * @return the ids of an object in the statistics core: its UUID, and its legacy id if it has one
+     */
+    private List<String> getIds(DSpaceObject dso) {
+        List<String> ids = new ArrayList<>(2);
+        ids.add(dso.getID().toString());
+        if (dso instanceof DSpaceObjectLegacySupport
+            && ((DSpaceObjectLegacySupport) dso).getLegacyId() != null) {
+            ids.add(String.valueOf(((DSpaceObjectLegacySupport) dso).getLegacyId()));
+        }
+        return ids;
+    }
+
+    private SolrLoggerService getSolrLoggerService() {
+        // the Solr logger is created lazily, on its first use
+        return StatisticsServiceFactory.getInstance().getSolrLoggerService();
+    }
+
+    private static List<PivotField> emptyIfNull(List<PivotField> pivots) {
+        return pivots == null ? List.of() : pivots;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.dspace.core.ReloadableEntity;
+
+/**
+ * Database entity representation of the statistics_usage_rollup_watermark table, which holds a single record: the
+ * time up to which the usage events received by the statistics core have been counted in the {@link UsageRollup}
+ * records. It is updated in the same
+ * transaction as the records, so that an interrupted run neither loses nor counts twice any usage event.
+ */
+@Entity
+@Table(name = "statistics_usage_rollup_watermark")
+public class UsageRollupWatermark implements ReloadableEntity<Integer> {
+
+    /**
+     * The id of the single record.
+     */
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id = ID;
+
+    /**
+     * The usage events received before this time are counted, those received from this time on are not.
+     */
+    @Column(name = "processed_until")
+    private Instant processedUntil;
+
+    protected UsageRollupWatermark() {
+
+    }
+
+    @Override
+    public Integer getID() {
+        return id;
+    }
+
+    public Instant getProcessedUntil() {
+        return processedUntil;
+    }
+
+    public void setProcessedUntil(Instant processedUntil) {
+        this.processedUntil = processedUntil;
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics.dao;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.dspace.core.Context;
+import org.dspace.core.GenericDAO;
+import org.dspace.statistics.UsageRollup;
+import org.dspace.statistics.UsageRollupWatermark;
+
+/**
+ * Database Access Object interface class for the UsageRollup object.
+ * The implementation of this class is responsible for all database calls for the UsageRollup object
+ * and is autowired by spring. This class should only be accessed from a single service and should never be
+ * exposed outside of the API
+ */
+public interface UsageRollupDAO extends GenericDAO<UsageRollup> {
+
+    /**
+     * Add views to the record of an object, a day and a country.
+     *
+     * @param context     the DSpace context
+     * @param day         the day
+     * @param dsoType     the type of the object
+     * @param dsoId       the id of the object
+     * @param countryCode the country code
+     * @param views       the number of views to add
+     * @return the number of updated records, 0 if there is no such record yet
+     * @throws SQLException If something goes wrong in the database
+     */
+    int addViews(Context context, LocalDate day, int dsoType, String dsoId, String countryCode, long views)
+        throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @param day     the day
+     * @return whether there are records for the day
+     * @throws SQLException If something goes wrong in the database
+     */
+    boolean existsForDay(Context context, LocalDate day) throws SQLException;
+
+    /**
+     * Delete the records of a day and of all the following days.
+     *
+     * @param context the DSpace context
+     * @param from    the first day to delete, null to delete all the records
+     * @return the number of deleted records
+     * @throws SQLException If something goes wrong in the database
+     */
+    int deleteFrom(Context context, LocalDate from) throws SQLException;
+
+    /**
+     * Count the views of an object.
+     *
+     * @param context the DSpace context
+     * @param dsoType the type of the object
+     * @param dsoIds  the ids of the object: its UUID, and its legacy id if it has one
+     * @return the number of views
+     * @throws SQLException If something goes wrong in the database
+     */
+    long sumViews(Context context, int dsoType, List<String> dsoIds) throws SQLException;
+
+    /**
+     * Count the views of an object per day, for the days with views.
+     *
+     * @param context the DSpace context
+     * @param dsoType the type of the object
+     * @param dsoIds  the ids of the object
+     * @param from    the first day
+     * @param to      the day after the last one
+     * @return the days, in order, with their number of views
+     * @throws SQLException If something goes wrong in the database
+     */
+    List<Map.Entry<LocalDate, Long>> sumViewsPerDay(Context context, int dsoType, List<String> dsoIds,
+                                                    LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Count the views of an object per country, for the known countries.
+     *
+     * @param context the DSpace context
+     * @param dsoType the type of the object
+     * @param dsoIds  the ids of the object
+     * @param limit   the maximum number of countries
+     * @return the country codes with their number of views, the most viewed first
+     * @throws SQLException If something goes wrong in the database
+     */
+    List<Map.Entry<String, Long>> sumViewsPerCountry(Context context, int dsoType, List<String> dsoIds, int limit)
+        throws SQLException;
+
+    /**
+     * Count the views of the bitstreams of an item.
+     *
+     * @param context the DSpace context
+     * @param itemIds the ids of the item: its UUID, and its legacy id if it has one
+     * @param limit   the maximum number of bitstreams
+     * @return the ids of the bitstreams with their number of views, the most viewed first
+     * @throws SQLException If something goes wrong in the database
+     */
+    List<Map.Entry<String, Long>> sumBitstreamViews(Context context, List<String> itemIds, int limit)
+        throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @return the watermark, null if the usage events were never rolled up
+     * @throws SQLException If something goes wrong in the database
+     */
+    UsageRollupWatermark findWatermark(Context context) throws SQLException;
+
+    /**
+     * Create or update the watermark.
+     *
+     * @param context   the DSpace context
+     * @param watermark the watermark
+     * @throws SQLException If something goes wrong in the database
+     */
+    void saveWatermark(Context context, UsageRollupWatermark watermark) throws SQLException;
+}
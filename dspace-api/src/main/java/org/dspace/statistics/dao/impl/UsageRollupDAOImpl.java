@@ -0,0 +1,128 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics.dao.impl;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.Query;
+import org.dspace.core.AbstractHibernateDAO;
+import org.dspace.core.Context;
+import org.dspace.statistics.UsageRollup;
+import org.dspace.statistics.UsageRollupWatermark;
+import org.dspace.statistics.dao.UsageRollupDAO;
+
+/**
+ * Hibernate implementation of the Database Access Object interface class for the UsageRollup object.
+ * This class is responsible for all database calls for the UsageRollup object and is autowired by spring
+ */
+public class UsageRollupDAOImpl extends AbstractHibernateDAO<UsageRollup> implements UsageRollupDAO {
+
+    @Override
+    public int addViews(Context context, LocalDate day, int dsoType, String dsoId, String countryCode, long views)
+        throws SQLException {
+        Query query = createQuery(context, "UPDATE UsageRollup SET views = views + :views WHERE usageDay = :day"
+            + " AND dsoType = :dsoType AND dsoId = :dsoId AND countryCode = :countryCode");
+        query.setParameter("views", views);
+        query.setParameter("day", day);
+        query.setParameter("dsoType", dsoType);
+        query.setParameter("dsoId", dsoId);
+        query.setParameter("countryCode", countryCode);
+        return query.executeUpdate();
+    }
+
+    @Override
+    public boolean existsForDay(Context context, LocalDate day) throws SQLException {
+        Query query = createQuery(context, "SELECT r.id FROM UsageRollup r WHERE r.usageDay = :day");
+        query.setParameter("day", day);
+        query.setMaxResults(1);
+        return !query.getResultList().isEmpty();
+    }
+
+    @Override
+    public int deleteFrom(Context context, LocalDate from) throws SQLException {
+        Query query;
+        if (from == null) {
+            query = createQuery(context, "DELETE FROM UsageRollup");
+        } else {
+            query = createQuery(context, "DELETE FROM UsageRollup WHERE usageDay >= :from");
+            query.setParameter("from", from);
+        }
+        return query.executeUpdate();
+    }
+
+    @Override
+    public long sumViews(Context context, int dsoType, List<String> dsoIds) throws SQLException {
+        Query query = createQuery(context, "SELECT COALESCE(SUM(r.views), 0) FROM UsageRollup r"
+            + " WHERE r.dsoType = :dsoType AND r.dsoId IN (:dsoIds)");
+        query.setParameter("dsoType", dsoType);
+        query.setParameter("dsoIds", dsoIds);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    public List<Map.Entry<LocalDate, Long>> sumViewsPerDay(Context context, int dsoType, List<String> dsoIds,
+                                                           LocalDate from, LocalDate to) throws SQLException {
+        Query query = createQuery(context, "SELECT r.usageDay, SUM(r.views) FROM UsageRollup r"
+            + " WHERE r.dsoType = :dsoType AND r.dsoId IN (:dsoIds) AND r.usageDay >= :from AND r.usageDay < :to"
+            + " GROUP BY r.usageDay ORDER BY r.usageDay");
+        query.setParameter("dsoType", dsoType);
+        query.setParameter("dsoIds", dsoIds);
+        query.setParameter("from", from);
+        query.setParameter("to", to);
+        return toEntries(query.getResultList());
+    }
+
+    @Override
+    public List<Map.Entry<String, Long>> sumViewsPerCountry(Context context, int dsoType, List<String> dsoIds,
+                                                            int limit) throws SQLException {
+        Query query = createQuery(context, "SELECT r.countryCode, SUM(r.views) FROM UsageRollup r"
+            + " WHERE r.dsoType = :dsoType AND r.dsoId IN (:dsoIds) AND r.countryCode <> :unknown"
+            + " GROUP BY r.countryCode ORDER BY SUM(r.views) DESC, r.countryCode");
+        query.setParameter("dsoType", dsoType);
+        query.setParameter("dsoIds", dsoIds);
+        query.setParameter("unknown", UsageRollup.UNKNOWN_COUNTRY);
+        query.setMaxResults(limit);
+        return toEntries(query.getResultList());
+    }
+
+    @Override
+    public List<Map.Entry<String, Long>> sumBitstreamViews(Context context, List<String> itemIds, int limit)
+        throws SQLException {
+        Query query = createQuery(context, "SELECT r.dsoId, SUM(r.views) FROM UsageRollup r"
+            + " WHERE r.owningItem IN (:itemIds)"
+            + " GROUP BY r.dsoId ORDER BY SUM(r.views) DESC, r.dsoId");
+        query.setParameter("itemIds", itemIds);
+        query.setMaxResults(limit);
+        return toEntries(query.getResultList());
+    }
+
+    @Override
+    public UsageRollupWatermark findWatermark(Context context) throws SQLException {
+        return getHibernateSession(context).get(UsageRollupWatermark.class, UsageRollupWatermark.ID);
+    }
+
+    @Override
+    public void saveWatermark(Context context, UsageRollupWatermark watermark) throws SQLException {
+        getHibernateSession(context).merge(watermark);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K> List<Map.Entry<K, Long>> toEntries(List<?> rows) {
+        List<Map.Entry<K, Long>> entries = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] values = (Object[]) row;
+            entries.add(new AbstractMap.SimpleEntry<>((K) values[0], ((Number) values[1]).longValue()));
+        }
+        return entries;
+    }
+}
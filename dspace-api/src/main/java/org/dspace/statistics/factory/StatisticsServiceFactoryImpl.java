@@ -9,6 +9,7 @@ package org.dspace.statistics.factory;
 
 import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.statistics.service.SolrLoggerService;
+import org.dspace.statistics.service.UsageRollupService;
 import org.dspace.statistics.util.SpiderDetectorService;
 
 /**
@@ -31,4 +32,10 @@ public class StatisticsServiceFactoryImpl extends StatisticsServiceFactory {
         return DSpaceServicesFactory.getInstance().getServiceManager()
                                     .getServiceByName("spiderDetectorService", SpiderDetectorService.class);
     }
+
+    @Override
+    public UsageRollupService getUsageRollupService() {
+        return DSpaceServicesFactory.getInstance().getServiceManager()
+                                    .getServiceByName("usageRollupService", UsageRollupService.class);
+    }
 }
@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrInputDocument;
@@ -119,6 +120,14 @@ public interface SolrLoggerService {
      */
     public void markRobots();
 
+    /**
+     * Fill in the host name of the 'statistics' documents which were logged before the reverse DNS lookup of
+     * their client address completed, see {@code usage-statistics.resolver.async}, in the main statistics core and in
+     * the cores of past years. The documents whose host name still cannot be found are left for the next run, unless
+     * they are older than {@code usage-statistics.resolver.maxAge}: their IP address is then kept as host name.
+     */
+    public void resolvePendingHostNames();
+
     /**
      * Delete all 'statistics' documents having 'isBot:true'.
      */
@@ -262,6 +271,18 @@ public interface SolrLoggerService {
                                int facetMinCount, boolean defaultFilterQueries)
             throws SolrServerException, IOException;
 
+    /**
+     * Perform a solr query on the usage events, in the statistics core and in its yearly shards.
+     *
+     * @param solrQuery            the query
+     * @param defaultFilterQueries add the default filter queries, on the robots and on the bundles
+     * @return the response, or null if there is no statistics core
+     * @throws SolrServerException Exception from the Solr server to the solrj Java client.
+     * @throws java.io.IOException passed through.
+     */
+    public QueryResponse query(SolrQuery solrQuery, boolean defaultFilterQueries)
+            throws SolrServerException, IOException;
+
     public void shardSolrIndex() throws IOException, SolrServerException;
 
     public void reindexBitstreamHits(boolean removeDeletedBitstreams) throws Exception;
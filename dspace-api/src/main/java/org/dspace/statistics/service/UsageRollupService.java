@@ -0,0 +1,118 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics.service;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.dspace.content.DSpaceObject;
+import org.dspace.content.Item;
+import org.dspace.core.Context;
+
+/**
+ * Service interface class for the daily usage rollups: the views of each object per day and per country, counted
+ * from the statistics core with the same filters as the usage reports. The usage reports can then be answered from a
+ * few database records instead of faceting over all the usage events of an object.
+ * <p>
+ * The rollups are kept up to date by {@link #update(Context)}, which only counts the usage events received by the
+ * statistics core since its previous run, up to a short while ago so that the events which are not visible yet are
+ * not missed. The usage events received late, e.g. from a spool, are counted under the day they happened.
+ */
+public interface UsageRollupService {
+
+    /**
+     * @return whether the usage reports should be answered from the rollups
+     */
+    boolean isEnabled();
+
+    /**
+     * @param context the DSpace context
+     * @return whether the usage reports can be answered from the rollups: they are enabled and have been computed
+     * @throws SQLException If something goes wrong in the database
+     */
+    boolean isAvailable(Context context) throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @return the time up to which the usage events received by the statistics core are counted in the rollups, null
+     * if they were never computed
+     * @throws SQLException If something goes wrong in the database
+     */
+    Instant getProcessedUntil(Context context) throws SQLException;
+
+    /**
+     * Count the usage events received since the previous run in the rollups, a day at a time. The context is committed
+     * after each day, so that an interrupted run can be resumed by the next one.
+     *
+     * @param context the DSpace context
+     * @return the number of views counted
+     * @throws SQLException        If something goes wrong in the database
+     * @throws SolrServerException Exception from the Solr server to the solrj Java client.
+     * @throws IOException         passed through.
+     */
+    long update(Context context) throws SQLException, SolrServerException, IOException;
+
+    /**
+     * Count the usage events again from a day on, e.g. after usage events were imported or removed. The rollups of
+     * these days are deleted and counted again at once, up to the time of the previous run, and the context is
+     * committed after each day. Without a day, all the rollups are deleted and the next {@link #update(Context)}
+     * counts all the usage events again.
+     *
+     * @param context the DSpace context
+     * @param from    the first day to count again, null to count all the usage events again
+     * @return the number of views counted again
+     * @throws SQLException        If something goes wrong in the database
+     * @throws SolrServerException Exception from the Solr server to the solrj Java client.
+     * @throws IOException         passed through.
+     */
+    long rebuild(Context context, LocalDate from) throws SQLException, SolrServerException, IOException;
+
+    /**
+     * @param context the DSpace context
+     * @param dso     the object
+     * @return the number of views of the object
+     * @throws SQLException If something goes wrong in the database
+     */
+    long countViews(Context context, DSpaceObject dso) throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @param dso     the object
+     * @param from    the first month
+     * @param to      the last month
+     * @return each month, in order, with the number of views of the object
+     * @throws SQLException If something goes wrong in the database
+     */
+    Map<YearMonth, Long> countViewsPerMonth(Context context, DSpaceObject dso, YearMonth from, YearMonth to)
+        throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @param dso     the object
+     * @param limit   the maximum number of countries
+     * @return the codes of the countries with the most views of the object, with their number of views
+     * @throws SQLException If something goes wrong in the database
+     */
+    List<Map.Entry<String, Long>> countViewsPerCountry(Context context, DSpaceObject dso, int limit)
+        throws SQLException;
+
+    /**
+     * @param context the DSpace context
+     * @param item    the item
+     * @param limit   the maximum number of bitstreams
+     * @return the ids of the most viewed bitstreams of the item, with their number of views
+     * @throws SQLException If something goes wrong in the database
+     */
+    List<Map.Entry<String, Long>> countBitstreamViews(Context context, Item item, int limit) throws SQLException;
+}
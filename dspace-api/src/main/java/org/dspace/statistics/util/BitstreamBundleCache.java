@@ -0,0 +1,171 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Caches the bundle name of bitstreams by their id, for a run over the usage events of many bitstreams.
+ * <p>
+ * There are few distinct bundle names but possibly millions of bitstreams, so the UUIDs are kept as pairs of
+ * {@code long} in an open addressing table, and the bundle names as a {@code short} index into the list of distinct
+ * names: a few dozen bytes per bitstream instead of a couple of hundred in a {@link HashMap} of strings. The ids
+ * which are not UUIDs, i.e. legacy ids, are kept in a plain map. A bitstream without a bundle name, e.g. because it
+ * was deleted, is cached as well, with a null name.
+ * <p>
+ * This class is not thread safe.
+ */
+public class BitstreamBundleCache {
+
+    /**
+     * The value of an empty slot. Otherwise, the value is the index of the bundle name plus one, 0 for null.
+     */
+    private static final short EMPTY = -1;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] mostSignificantBits;
+    private long[] leastSignificantBits;
+    private short[] values;
+    private int size;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Short> nameIndexes = new HashMap<>();
+    private final Map<String, String> legacyIds = new HashMap<>();
+
+    public BitstreamBundleCache() {
+        allocate(1024);
+    }
+
+    /**
+     * @param id the id of a bitstream
+     * @return whether the bundle name of the bitstream is cached, possibly as null
+     */
+    public boolean contains(String id) {
+        UUID uuid = toUuid(id);
+        if (uuid == null) {
+            return legacyIds.containsKey(id);
+        }
+        return values[find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())] != EMPTY;
+    }
+
+    /**
+     * @param id the id of a bitstream
+     * @return the cached bundle name of the bitstream, null if it is not cached or cached as null
+     */
+    public String get(String id) {
+        UUID uuid = toUuid(id);
+        if (uuid == null) {
+            return legacyIds.get(id);
+        }
+        short value = values[find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())];
+        return value > 0 ? names.get(value - 1) : null;
+    }
+
+    /**
+     * @param id         the id of a bitstream
+     * @param bundleName the bundle name of the bitstream, or null if it has none
+     */
+    public void put(String id, String bundleName) {
+        UUID uuid = toUuid(id);
+        if (uuid == null) {
+            legacyIds.put(id, bundleName);
+            return;
+        }
+        short value = bundleName == null ? 0 : getNameIndex(bundleName);
+        int slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (values[slot] == EMPTY) {
+            if (size + 1 > values.length * LOAD_FACTOR) {
+                rehash();
+                slot = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            }
+            mostSignificantBits[slot] = uuid.getMostSignificantBits();
+            leastSignificantBits[slot] = uuid.getLeastSignificantBits();
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * @return the number of bitstreams cached
+     */
+    public int size() {
+        return size + legacyIds.size();
+    }
+
+    private short getNameIndex(String bundleName) {
+        Short index = nameIndexes.get(bundleName);
+        if (index == null) {
+            if (names.size() >= Short.MAX_VALUE - 1) {
+                throw new IllegalStateException("Too many distinct bundle names");
+            }
+            names.add(bundleName);
+            index = (short) names.size();
+            nameIndexes.put(bundleName, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return the slot of the key, or the empty slot where it would be added
+     */
+    private int find(long most, long least) {
+        int mask = values.length - 1;
+        int slot = mix(most ^ least) & mask;
+        while (values[slot] != EMPTY
+            && (mostSignificantBits[slot] != most || leastSignificantBits[slot] != least)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldMost = mostSignificantBits;
+        long[] oldLeast = leastSignificantBits;
+        short[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                int slot = find(oldMost[i], oldLeast[i]);
+                mostSignificantBits[slot] = oldMost[i];
+                leastSignificantBits[slot] = oldLeast[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostSignificantBits = new long[capacity];
+        leastSignificantBits = new long[capacity];
+        values = new short[capacity];
+        Arrays.fill(values, EMPTY);
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static UUID toUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
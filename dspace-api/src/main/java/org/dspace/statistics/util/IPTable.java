@@ -8,102 +8,69 @@
 package org.dspace.statistics.util;
 
 import java.net.InetAddress;
-import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 /**
- * A Spare v4 IPTable implementation that uses nested HashMaps
- * to optimize IP address matching over ranges of IP addresses.
+ * A table of IPv4 and IPv6 addresses and ranges of addresses, to check quickly whether an address is in one of them.
+ * <p>
+ * The ranges are added one by one, then indexed on the first lookup: the overlapping ranges are merged and the
+ * remaining ones are sorted in arrays of their first and last addresses, as {@code long}s for IPv4 and as pairs of
+ * {@code long}s (the high and low 64 bits) for IPv6. A lookup parses the address without {@link InetAddress}, so
+ * without any DNS lookup, and finds the range which may contain it with a binary search. The index is immutable, so
+ * that any number of threads can look up addresses while the table is not modified.
  *
  * @author mdiggory at atmire.com
  */
 public class IPTable {
-    private static final Logger log = LogManager.getLogger(IPTable.class);
 
-    /* A lookup tree for IP addresses and SubnetRanges */
-    private final Set<IPRange> ipRanges = new HashSet<>();
+    /* The ranges added so far, as {first, last} for IPv4 and {firstHigh, firstLow, lastHigh, lastLow} for IPv6 */
+    private final List<long[]> ipv4Ranges = new ArrayList<>();
+    private final List<long[]> ipv6Ranges = new ArrayList<>();
 
-    /**
-     * Internal class representing an IP range
-     */
-    static class IPRange {
-
-        /* Lowest address in the range */
-        private final long ipLo;
-
-        /* Highest address in the range */
-        private final long ipHi;
-
-        IPRange(long ipLo, long ipHi) {
-            this.ipLo = ipLo;
-            this.ipHi = ipHi;
-        }
-
-        /**
-         * Get the lowest address in the range
-         * @return  the lowest address as a long integer
-         */
-        public long getIpLo() {
-            return ipLo;
-        }
-
-        /**
-         * Get the highest address in the range
-         * @return  the highest address as a long integer
-         */
-        public long getIpHi() {
-            return ipHi;
-        }
-    }
+    /* The index of the ranges, null until the first lookup after an add */
+    private volatile RangeIndex index;
 
     /**
-     * Can be full v4 IP, subnet or range string.
+     * Can be full v4 IP, subnet or range string, or a full v6 IP, subnet or range string.
      * <ul>
      *   <li>A full address is a complete dotted-quad:  {@code "1.2.3.4".}
      *   <li>A subnet is a dotted-triplet:  {@code "1.2.3"}.  It means an entire
      *       Class C subnet:  "1.2.3.0-1.2.3.255".
-     *   <li>A range is two dotted-quad addresses separated by hyphen:
-     *       {@code "1.2.3.4-1.2.3.14"}.  Only the final octet may be different.
+     *   <li>A range is two addresses separated by hyphen:
+     *       {@code "1.2.3.4-1.2.3.14"}.
+     *   <li>A subnet in CIDR notation: {@code "172.16.0.0/12"} or {@code "2001:db8::/32"}.
      * </ul>
      *
-     * Any attempt at CIDR notation is ignored.
-     *
      * @param ip IP address(es)
      * @throws IPFormatException Exception Class to deal with IPFormat errors.
      */
-    public void add(String ip) throws IPFormatException {
-
-        String start;
-
-        String end;
+    public synchronized void add(String ip) throws IPFormatException {
+        if (ip.indexOf(':') >= 0) {
+            addIPv6(ip);
+            return;
+        }
 
         String[] range = ip.split("-");
 
         if (range.length == 2) {
-
-            start = range[0].trim();
-            end = range[1].trim();
-
-            try {
-                long ipLo = ipToLong(InetAddress.getByName(start));
-                long ipHi = ipToLong(InetAddress.getByName(end));
-                ipRanges.add(new IPRange(ipLo, ipHi));
-                return;
-            } catch (UnknownHostException e) {
+            long ipLo = parseIPv4(range[0]);
+            long ipHi = parseIPv4(range[1]);
+            if (ipLo < 0 || ipHi < 0) {
                 throw new IPFormatException(ip + " - Range format should be similar to 1.2.3.0-1.2.3.255");
             }
-
+            addIPv4Range(ipLo, ipHi);
         } else {
             // Convert implicit ranges to netmask format
             //  192       -> 192.0.0.0/8
             //  192.168   -> 192.168.0.0/16
             //  192.168.1 -> 192.168.1.0/24
+            ip = ip.trim();
             int periods = StringUtils.countMatches(ip, '.');
             if (periods < 3) {
                 ip = StringUtils.join(ip, StringUtils.repeat(".0", 4 - periods - 1), "/", (periods + 1) * 8);
@@ -111,28 +78,64 @@ public class IPTable {
 
             if (ip.contains("/")) {
                 String[] parts = ip.split("/");
-                try {
-                    long ipLong = ipToLong(InetAddress.getByName(parts[0]));
-                    long mask = (long) Math.pow(2, 32 - Integer.parseInt(parts[1]));
-                    long ipLo = (ipLong / mask) * mask;
-                    long ipHi = (( (ipLong / mask) + 1) * mask) - 1;
-                    ipRanges.add(new IPRange(ipLo, ipHi));
-                    return;
-                } catch (Exception e) {
+                long ipLong = parts.length == 2 ? parseIPv4(parts[0]) : -1;
+                int prefix = parts.length == 2 ? parsePrefix(parts[1], 32) : -1;
+                if (ipLong < 0 || prefix < 0) {
                     throw new IPFormatException(ip + " - Range format should be similar to 172.16.0.0/12");
                 }
+                long hostMask = (1L << (32 - prefix)) - 1;
+                addIPv4Range(ipLong & ~hostMask, ipLong | hostMask);
             } else {
-                try {
-                    long ipLo = ipToLong(InetAddress.getByName(ip));
-                    ipRanges.add(new IPRange(ipLo, ipLo));
-                    return;
-                } catch (UnknownHostException e) {
+                long ipLo = parseIPv4(ip);
+                if (ipLo < 0) {
                     throw new IPFormatException(ip + " - IP address format should be similar to 1.2.3.14");
                 }
+                addIPv4Range(ipLo, ipLo);
+            }
+        }
+    }
+
+    private void addIPv6(String ip) throws IPFormatException {
+        long[] first = new long[2];
+        long[] last = new long[2];
+        String[] range = ip.split("-");
+        if (range.length == 2) {
+            if (!parseIPv6(range[0], first) || !parseIPv6(range[1], last)
+                || compare(first[0], first[1], last[0], last[1]) > 0) {
+                throw new IPFormatException(ip + " - Range format should be similar to 2001:db8::-2001:db8::ffff");
+            }
+        } else if (ip.contains("/")) {
+            String[] parts = ip.split("/");
+            int prefix = parts.length == 2 ? parsePrefix(parts[1], 128) : -1;
+            if (prefix < 0 || !parseIPv6(parts[0], first)) {
+                throw new IPFormatException(ip + " - Range format should be similar to 2001:db8::/32");
             }
+            long highMask = prefix >= 64 ? -1L : prefix == 0 ? 0 : -1L << (64 - prefix);
+            long lowMask = prefix <= 64 ? 0 : prefix == 128 ? -1L : -1L << (128 - prefix);
+            last[0] = first[0] | ~highMask;
+            last[1] = first[1] | ~lowMask;
+            first[0] &= highMask;
+            first[1] &= lowMask;
+        } else {
+            if (!parseIPv6(ip, first)) {
+                throw new IPFormatException(ip + " - IP address format should be similar to 2001:db8::1");
+            }
+            last[0] = first[0];
+            last[1] = first[1];
+        }
+        if (isIPv4Mapped(first[0], first[1]) && isIPv4Mapped(last[0], last[1])) {
+            addIPv4Range(first[1] & 0xffffffffL, last[1] & 0xffffffffL);
+        } else {
+            ipv6Ranges.add(new long[] {first[0], first[1], last[0], last[1]});
+            index = null;
         }
     }
 
+    private void addIPv4Range(long ipLo, long ipHi) {
+        ipv4Ranges.add(new long[] {ipLo, ipHi});
+        index = null;
+    }
+
     /**
      * Convert an IP address to a long integer
      * @param ip    the IP address
@@ -168,43 +171,43 @@ public class IPTable {
     /**
      * Check whether a given address is contained in this netblock.
      *
-     * @param ip the address to be tested
-     * @return true if {@code ip} is within this table's limits.  Returns false
-     *         if {@code ip} looks like an IPv6 address.
-     * @throws IPFormatException Exception Class to deal with IPFormat errors.
+     * @param ip the address to be tested, IPv4 or IPv6
+     * @return true if {@code ip} is within this table's limits.
+     * @throws IPFormatException if {@code ip} is not an IP address.
      */
     public boolean contains(String ip) throws IPFormatException {
         if (null == ip) {
             throw new IPFormatException("Address may not be null");
         }
 
-        try {
-            long ipToTest = ipToLong(InetAddress.getByName(ip));
-            return ipRanges.stream()
-                    .anyMatch(ipRange -> (ipToTest >= ipRange.getIpLo() && ipToTest <= ipRange.getIpHi()));
-        } catch (UnknownHostException e) {
+        RangeIndex ranges = getIndex();
+        long ipv4 = parseIPv4(ip);
+        if (ipv4 >= 0) {
+            return ranges.containsIPv4(ipv4);
+        }
+        long[] ipv6 = new long[2];
+        if (!parseIPv6(ip, ipv6)) {
             throw new IPFormatException("ip not valid");
         }
+        if (isIPv4Mapped(ipv6[0], ipv6[1])) {
+            return ranges.containsIPv4(ipv6[1] & 0xffffffffL);
+        }
+        return ranges.containsIPv6(ipv6[0], ipv6[1]);
     }
 
     /**
-     * Convert to a Set. This set contains all IPs in the range
+     * Convert to a Set. This set contains all IPv4 addresses in the ranges, the IPv6 ranges are not expanded.
      *
      * @return this table's content as a Set
      */
     public Set<String> toSet() {
         HashSet<String> set = new HashSet<>();
-
-        Iterator<IPRange> ipRangeIterator = ipRanges.iterator();
-        while (ipRangeIterator.hasNext()) {
-            IPRange ipRange = ipRangeIterator.next();
-            long ipLo = ipRange.getIpLo();
-            long ipHi = ipRange.getIpHi();
-            for (long ip = ipLo; ip <= ipHi; ip++) {
+        RangeIndex ranges = getIndex();
+        for (int i = 0; i < ranges.ipv4First.length; i++) {
+            for (long ip = ranges.ipv4First[i]; ip <= ranges.ipv4Last[i]; ip++) {
                 set.add(longToIp(ip));
             }
         }
-
         return set;
     }
 
@@ -212,8 +215,8 @@ public class IPTable {
      * Return whether IPTable is empty (having no entries)
      * @return true if empty, false otherwise
      */
-    public boolean isEmpty() {
-        return ipRanges.isEmpty();
+    public synchronized boolean isEmpty() {
+        return ipv4Ranges.isEmpty() && ipv6Ranges.isEmpty();
     }
 
     /**
@@ -231,17 +234,322 @@ public class IPTable {
      */
     @Override
     public String toString() {
-        StringBuilder stringBuilder = new StringBuilder();
-        Iterator<IPRange> ipRangeIterator = ipRanges.iterator();
-        while (ipRangeIterator.hasNext()) {
-            IPRange ipRange = ipRangeIterator.next();
-            stringBuilder.append(longToIp(ipRange.getIpLo()))
-                    .append("-")
-                    .append(longToIp(ipRange.getIpHi()));
-            if (ipRangeIterator.hasNext()) {
-                stringBuilder.append(", ");
-            }
-        }
-        return stringBuilder.toString();
+        RangeIndex ranges = getIndex();
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < ranges.ipv4First.length; i++) {
+            strings.add(longToIp(ranges.ipv4First[i]) + "-" + longToIp(ranges.ipv4Last[i]));
+        }
+        for (int i = 0; i < ranges.ipv6FirstHigh.length; i++) {
+            strings.add(ipv6ToString(ranges.ipv6FirstHigh[i], ranges.ipv6FirstLow[i]) + "-"
+                            + ipv6ToString(ranges.ipv6LastHigh[i], ranges.ipv6LastLow[i]));
+        }
+        return String.join(", ", strings);
+    }
+
+    private RangeIndex getIndex() {
+        RangeIndex ranges = index;
+        if (ranges == null) {
+            synchronized (this) {
+                if (index == null) {
+                    index = new RangeIndex(ipv4Ranges, ipv6Ranges);
+                }
+                ranges = index;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Parse a dotted-quad IPv4 address, ignoring the surrounding white space.
+     *
+     * @param ip the address
+     * @return the address as a long integer, or -1 if it is not a dotted-quad IPv4 address
+     */
+    static long parseIPv4(String ip) {
+        int start = 0;
+        int end = ip.length();
+        while (start < end && Character.isWhitespace(ip.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(ip.charAt(end - 1))) {
+            end--;
+        }
+        return parseIPv4(ip, start, end);
+    }
+
+    private static long parseIPv4(String ip, int start, int end) {
+        long result = 0;
+        int octets = 0;
+        int octet = -1;
+        for (int i = start; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                result = (result << 8) | octet;
+                octets++;
+                octet = -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (result << 8) | octet;
+    }
+
+    /**
+     * Parse an IPv6 address, in any of the text forms of RFC 4291 (with "::" and with an IPv4 address as last 32
+     * bits), optionally between brackets and with a zone index, ignoring the surrounding white space.
+     *
+     * @param ip     the address
+     * @param result receives the high and low 64 bits of the address
+     * @return whether {@code ip} is an IPv6 address
+     */
+    static boolean parseIPv6(String ip, long[] result) {
+        int start = 0;
+        int end = ip.length();
+        while (start < end && Character.isWhitespace(ip.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(ip.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start >= 2 && ip.charAt(start) == '[' && ip.charAt(end - 1) == ']') {
+            start++;
+            end--;
+        }
+        int zone = ip.indexOf('%', start);
+        if (zone >= 0 && zone < end) {
+            end = zone;
+        }
+        if (end - start < 2) {
+            return false;
+        }
+
+        // the groups before the "::" (if any) are moved to the head once it is found
+        long headHigh = 0;
+        long headLow = 0;
+        int headGroups = 0;
+        boolean compressed = false;
+        long high = 0;
+        long low = 0;
+        int groups = 0;
+        int i = start;
+        if (ip.charAt(i) == ':') {
+            if (ip.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int group = 0;
+            while (i < end && i - groupStart <= 4 && Character.digit(ip.charAt(i), 16) >= 0) {
+                group = (group << 4) | Character.digit(ip.charAt(i), 16);
+                i++;
+            }
+            if (i < end && ip.charAt(i) == '.') {
+                // the last 32 bits, as an IPv4 address
+                long ipv4 = parseIPv4(ip, groupStart, end);
+                if (ipv4 < 0 || headGroups + groups + 2 > 8) {
+                    return false;
+                }
+                high = (high << 32) | (low >>> 32);
+                low = (low << 32) | ipv4;
+                groups += 2;
+                break;
+            }
+            if (i == groupStart || i - groupStart > 4 || headGroups + groups == 8) {
+                return false;
+            }
+            high = (high << 16) | (low >>> 48);
+            low = (low << 16) | group;
+            groups++;
+            if (i == end) {
+                break;
+            }
+            if (ip.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (ip.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                headHigh = high;
+                headLow = low;
+                headGroups = groups;
+                high = 0;
+                low = 0;
+                groups = 0;
+                i++;
+            }
+        }
+        if (!compressed) {
+            if (groups != 8) {
+                return false;
+            }
+            result[0] = high;
+            result[1] = low;
+        } else {
+            if (headGroups + groups > 7) {
+                return false;
+            }
+            // the "::" stands for the zero groups between the head and the groups after it
+            int shift = (8 - headGroups) * 16;
+            result[0] = shiftLeftHigh(headHigh, headLow, shift) | high;
+            result[1] = shiftLeftLow(headLow, shift) | low;
+        }
+        return true;
+    }
+
+    /**
+     * @return the high 64 bits of the 128 bit integer {@code (high, low) << bits}
+     */
+    private static long shiftLeftHigh(long high, long low, int bits) {
+        if (bits == 0) {
+            return high;
+        } else if (bits < 64) {
+            return (high << bits) | (low >>> (64 - bits));
+        } else if (bits < 128) {
+            return low << (bits - 64);
+        }
+        return 0;
+    }
+
+    /**
+     * @return the low 64 bits of the 128 bit integer {@code (high, low) << bits}
+     */
+    private static long shiftLeftLow(long low, int bits) {
+        return bits < 64 ? low << bits : 0;
+    }
+
+    private static boolean isIPv4Mapped(long high, long low) {
+        return high == 0 && (low >>> 32) == 0xffffL;
+    }
+
+    private static int parsePrefix(String prefix, int max) {
+        try {
+            int value = Integer.parseInt(prefix.trim());
+            return value >= 0 && value <= max ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Compare two IPv6 addresses, as unsigned 128 bit integers.
+     */
+    private static int compare(long high1, long low1, long high2, long low2) {
+        int result = Long.compareUnsigned(high1, high2);
+        return result != 0 ? result : Long.compareUnsigned(low1, low2);
+    }
+
+    private static String ipv6ToString(long high, long low) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            long half = i < 4 ? high : low;
+            if (i > 0) {
+                builder.append(':');
+            }
+            builder.append(Long.toHexString((half >>> ((3 - i % 4) * 16)) & 0xffff));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The disjoint ranges of a table, sorted by their first address.
+     */
+    private static final class RangeIndex {
+        private final long[] ipv4First;
+        private final long[] ipv4Last;
+        private final long[] ipv6FirstHigh;
+        private final long[] ipv6FirstLow;
+        private final long[] ipv6LastHigh;
+        private final long[] ipv6LastLow;
+
+        RangeIndex(List<long[]> ipv4Ranges, List<long[]> ipv6Ranges) {
+            List<long[]> ipv4 = new ArrayList<>(ipv4Ranges);
+            ipv4.sort(Comparator.comparingLong(range -> range[0]));
+            List<long[]> merged = new ArrayList<>();
+            for (long[] range : ipv4) {
+                long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (previous != null && range[0] <= previous[1] + 1) {
+                    previous[1] = Math.max(previous[1], range[1]);
+                } else {
+                    merged.add(new long[] {range[0], range[1]});
+                }
+            }
+            ipv4First = new long[merged.size()];
+            ipv4Last = new long[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                ipv4First[i] = merged.get(i)[0];
+                ipv4Last[i] = merged.get(i)[1];
+            }
+
+            List<long[]> ipv6 = new ArrayList<>(ipv6Ranges);
+            ipv6.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+            merged.clear();
+            for (long[] range : ipv6) {
+                long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (previous != null && compare(range[0], range[1], previous[2], previous[3]) <= 0) {
+                    if (compare(range[2], range[3], previous[2], previous[3]) > 0) {
+                        previous[2] = range[2];
+                        previous[3] = range[3];
+                    }
+                } else {
+                    merged.add(range.clone());
+                }
+            }
+            ipv6FirstHigh = new long[merged.size()];
+            ipv6FirstLow = new long[merged.size()];
+            ipv6LastHigh = new long[merged.size()];
+            ipv6LastLow = new long[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                ipv6FirstHigh[i] = merged.get(i)[0];
+                ipv6FirstLow[i] = merged.get(i)[1];
+                ipv6LastHigh[i] = merged.get(i)[2];
+                ipv6LastLow[i] = merged.get(i)[3];
+            }
+        }
+
+        boolean containsIPv4(long ip) {
+            // the last range starting at or before the address
+            int low = 0;
+            int high = ipv4First.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (ipv4First[middle] <= ip) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return found >= 0 && ip <= ipv4Last[found];
+        }
+
+        boolean containsIPv6(long ipHigh, long ipLow) {
+            int low = 0;
+            int high = ipv6FirstHigh.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (compare(ipv6FirstHigh[middle], ipv6FirstLow[middle], ipHigh, ipLow) <= 0) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return found >= 0 && compare(ipHigh, ipLow, ipv6LastHigh[found], ipv6LastLow[found]) <= 0;
+        }
     }
 }
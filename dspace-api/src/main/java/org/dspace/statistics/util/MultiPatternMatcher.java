@@ -0,0 +1,386 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Finds whether any of a set of regular expressions occurs in a string, with a single pass over the string.
+ * <p>
+ * Most of the robot patterns are literal names, possibly anchored or followed by a version number, so a literal
+ * which every match of the pattern must contain is extracted from each pattern. All these literals are searched at
+ * once with an Aho-Corasick automaton, and a pattern is only run when its literal was found, to confirm the match. The
+ * few patterns without such a literal, e.g. {@code ^.?$}, are always run. The cost of a lookup thus depends on the
+ * length of the string and the number of patterns which nearly match, not on the number of patterns.
+ * <p>
+ * Instances are immutable and thread safe.
+ */
+public class MultiPatternMatcher {
+
+    private final Pattern[] patterns;
+
+    /**
+     * The patterns without a required literal, which are run for every string.
+     */
+    private final int[] unfiltered;
+
+    /**
+     * The outgoing edges of each node of the automaton: the sorted characters and the nodes they lead to.
+     */
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+
+    /**
+     * The node of the longest proper suffix of each node which is also in the trie.
+     */
+    private final int[] failure;
+
+    /**
+     * The patterns whose literal ends at each node, null if there are none.
+     */
+    private final int[][] outputs;
+
+    /**
+     * The nearest node on the failure chain of each node which has outputs, -1 if there is none.
+     */
+    private final int[] outputLinks;
+
+    /**
+     * Compile a set of regular expressions.
+     *
+     * @param regexes the regular expressions, with the {@link Pattern} syntax
+     * @throws java.util.regex.PatternSyntaxException if one of the expressions is not valid
+     */
+    public MultiPatternMatcher(Collection<String> regexes) {
+        patterns = new Pattern[regexes.size()];
+        List<Integer> always = new ArrayList<>();
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        nodeOutputs.add(null);
+
+        int index = 0;
+        for (String regex : regexes) {
+            patterns[index] = Pattern.compile(regex);
+            String literal = getRequiredLiteral(regex);
+            if (literal == null) {
+                always.add(index);
+            } else {
+                int node = 0;
+                for (int i = 0; i < literal.length(); i++) {
+                    Integer next = trie.get(node).get(literal.charAt(i));
+                    if (next == null) {
+                        next = trie.size();
+                        trie.add(new TreeMap<>());
+                        nodeOutputs.add(null);
+                        trie.get(node).put(literal.charAt(i), next);
+                    }
+                    node = next;
+                }
+                if (nodeOutputs.get(node) == null) {
+                    nodeOutputs.set(node, new ArrayList<>());
+                }
+                nodeOutputs.get(node).add(index);
+            }
+            index++;
+        }
+        unfiltered = always.stream().mapToInt(Integer::intValue).toArray();
+
+        int size = trie.size();
+        edgeChars = new char[size][];
+        edgeTargets = new int[size][];
+        outputs = new int[size][];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> edges = trie.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int edge = 0;
+            // a TreeMap, so that the characters are sorted for the binary search
+            for (Map.Entry<Character, Integer> entry : edges.entrySet()) {
+                edgeChars[node][edge] = entry.getKey();
+                edgeTargets[node][edge] = entry.getValue();
+                edge++;
+            }
+            if (nodeOutputs.get(node) != null) {
+                outputs[node] = nodeOutputs.get(node).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        // breadth first, so that the failure node of a node is always computed before the node
+        failure = new int[size];
+        outputLinks = new int[size];
+        outputLinks[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            failure[child] = 0;
+            outputLinks[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edge = 0; edge < edgeChars[node].length; edge++) {
+                char c = edgeChars[node][edge];
+                int child = edgeTargets[node][edge];
+                int fallback = failure[node];
+                while (fallback != 0 && getTarget(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = getTarget(fallback, c);
+                failure[child] = target >= 0 ? target : 0;
+                outputLinks[child] = outputs[failure[child]] != null ? failure[child] : outputLinks[failure[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Find whether any of the patterns occurs in a string, as {@link java.util.regex.Matcher#find()} would.
+     *
+     * @param input the string
+     * @return whether a pattern matches
+     */
+    public boolean find(CharSequence input) {
+        BitSet tried = null;
+        int node = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            int target = getTarget(node, c);
+            while (target < 0 && node != 0) {
+                node = failure[node];
+                target = getTarget(node, c);
+            }
+            node = target >= 0 ? target : 0;
+
+            for (int match = outputs[node] != null ? node : outputLinks[node]; match >= 0;
+                 match = outputLinks[match]) {
+                for (int pattern : outputs[match]) {
+                    if (tried == null) {
+                        tried = new BitSet(patterns.length);
+                    }
+                    if (!tried.get(pattern)) {
+                        tried.set(pattern);
+                        if (patterns[pattern].matcher(input).find()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int pattern : unfiltered) {
+            if (patterns[pattern].matcher(input).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of patterns
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    /**
+     * @return the number of patterns which are run for every string, because they have no required literal
+     */
+    public int getUnfilteredCount() {
+        return unfiltered.length;
+    }
+
+    private int getTarget(int node, char c) {
+        char[] chars = edgeChars[node];
+        int low = 0;
+        int high = chars.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (chars[middle] < c) {
+                low = middle + 1;
+            } else if (chars[middle] > c) {
+                high = middle - 1;
+            } else {
+                return edgeTargets[node][middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the longest literal which every match of a regular expression contains. Only the top level of the
+     * expression is considered: groups, character classes and quantified characters end a literal. This is
+     * conservative, an expression is only given a literal when it is sure to be in every match.
+     *
+     * @param regex the regular expression
+     * @return the literal, or null if none was found, e.g. because of an alternation or of inline flags
+     */
+    static String getRequiredLiteral(String regex) {
+        String longest = "";
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            Character literal = null;
+            int next;
+            if (c == '\\') {
+                if (i + 1 >= regex.length()) {
+                    return null;
+                }
+                char escaped = regex.charAt(i + 1);
+                if (escaped == 'Q' || escaped == 'E') {
+                    return null;
+                }
+                if ("xuc0kNpP".indexOf(escaped) >= 0 || (escaped >= '1' && escaped <= '9')) {
+                    // the escape goes on after this character, e.g. \x41, \0101, \cM, \p{Alpha} or a back
+                    // reference with several digits, so the characters which follow it are not literals
+                    return null;
+                }
+                if (!Character.isLetterOrDigit(escaped)) {
+                    literal = escaped;
+                }
+                // else a class like \d, a boundary, a back reference or a control character
+                next = i + 2;
+            } else if (c == '[') {
+                next = skipClass(regex, i);
+            } else if (c == '(') {
+                if (regex.startsWith("(?", i) && i + 2 < regex.length()
+                    && ":=!<>".indexOf(regex.charAt(i + 2)) < 0) {
+                    // inline flags, e.g. (?i), change how the rest is matched
+                    return null;
+                }
+                next = skipGroup(regex, i);
+            } else if (c == '|' || c == ')' || c == '*' || c == '+' || c == '?' || c == '{') {
+                return null;
+            } else {
+                if (c != '.' && c != '^' && c != '$') {
+                    literal = c;
+                }
+                next = i + 1;
+            }
+            if (next < 0) {
+                return null;
+            }
+
+            int afterQuantifier = skipQuantifier(regex, next);
+            if (afterQuantifier < 0) {
+                return null;
+            }
+            boolean quantified = afterQuantifier > next;
+            if (literal != null && (!quantified || regex.charAt(next) == '+')) {
+                // a character repeated one or more times is required, but not what follows it
+                run.append(literal.charValue());
+            }
+            if (literal == null || quantified) {
+                if (run.length() > longest.length()) {
+                    longest = run.toString();
+                }
+                run.setLength(0);
+            }
+            i = afterQuantifier;
+        }
+        if (run.length() > longest.length()) {
+            longest = run.toString();
+        }
+        return longest.isEmpty() ? null : longest;
+    }
+
+    /**
+     * @return the index after the character class starting at {@code start}, -1 if it is not closed
+     */
+    private static int skipClass(String regex, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                i++;
+                // a closing bracket right after the opening one, possibly negated, is a literal
+                if (i < regex.length() && regex.charAt(i) == '^') {
+                    i++;
+                }
+                if (i < regex.length() && regex.charAt(i) == ']') {
+                    i++;
+                }
+                continue;
+            }
+            if (c == ']' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index after the group starting at {@code start}, -1 if it is not closed
+     */
+    private static int skipGroup(String regex, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+                if (i < 0) {
+                    return -1;
+                }
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index after the quantifier at {@code start}, {@code start} if there is none, -1 if it is not
+     * closed
+     */
+    private static int skipQuantifier(String regex, int start) {
+        if (start >= regex.length()) {
+            return start;
+        }
+        int i = start;
+        char c = regex.charAt(i);
+        if (c == '*' || c == '+' || c == '?') {
+            i++;
+        } else if (c == '{') {
+            i = regex.indexOf('}', i);
+            if (i < 0) {
+                return -1;
+            }
+            i++;
+        } else {
+            return start;
+        }
+        // lazy or possessive
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -12,11 +12,13 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotNull;
@@ -44,19 +46,32 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
 
     private Boolean useCaseInsensitiveMatching;
 
-    private final List<Pattern> agents
-        = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * The default number of distinct user agents whose result is cached.
+     */
+    private static final int DEFAULT_AGENT_CACHE_SIZE = 10000;
+
+    /**
+     * The agent and domain patterns, each compiled into a single matcher when first needed.
+     */
+    private volatile MultiPatternMatcher agents = null;
 
-    private final List<Pattern> domains
-        = Collections.synchronizedList(new ArrayList<>());
+    private volatile MultiPatternMatcher domains = null;
+
+    /**
+     * Whether a user agent is a spider, for the most recently seen user agents. Most hits come from a few hundred
+     * browsers and robots, so most lookups don't need to run the patterns at all. Created before the agent
+     * patterns are published, and null if the cache is disabled.
+     */
+    private Map<String, Boolean> agentCache = null;
 
     private final ConfigurationService configurationService;
     private final ClientInfoService clientInfoService;
 
     /**
-     * Sparse HashTable structure to hold IP address ranges.
+     * Index of the IP address ranges of the spiders, replaced as a whole once fully loaded.
      */
-    private IPTable table = null;
+    private volatile IPTable table = null;
 
     @Autowired(required = true)
     public SpiderDetectorServiceImpl(ConfigurationService configurationService, ClientInfoService clientInfoService) {
@@ -77,25 +92,13 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
     public boolean isSpider(@NotNull String clientIP, String proxyIPs, String hostname, String agent) {
         // See if any agent patterns match
         if (null != agent) {
-            synchronized (agents) {
-                if (agents.isEmpty()) {
-                    loadPatterns("agents", agents);
-                }
-            }
-
             if (isUseCaseInsensitiveMatching()) {
                 agent = StringUtils.lowerCase(agent);
                 hostname = StringUtils.lowerCase(hostname);
             }
 
-            for (Pattern candidate : agents) {
-
-                // prevent matcher() invocation from a null Pattern object
-                if (null != candidate && candidate.matcher(agent).find()) {
-                    return true;
-                }
-
-
+            if (isSpiderAgent(agent)) {
+                return true;
             }
         }
 
@@ -115,16 +118,12 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
 
         // No.  See if any DNS names match
         if (null != hostname) {
-            synchronized (domains) {
-                if (domains.isEmpty()) {
-                    loadPatterns("domains", domains);
-                }
+            MultiPatternMatcher matcher = domains;
+            if (matcher == null) {
+                matcher = loadDomainPatterns();
             }
-            for (Pattern candidate : domains) {
-                // prevent matcher() invocation from a null Pattern object
-                if (null != candidate && candidate.matcher(hostname).find()) {
-                    return true;
-                }
+            if (matcher.find(hostname)) {
+                return true;
             }
         }
 
@@ -160,16 +159,69 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
         return patterns;
     }
 
+    /**
+     * Check a user agent against the agent patterns, or find the result in the cache.
+     *
+     * @param agent the user agent, already lower cased if the matching is case insensitive
+     * @return whether the user agent matches an agent pattern
+     */
+    private boolean isSpiderAgent(String agent) {
+        MultiPatternMatcher matcher = agents;
+        if (matcher == null) {
+            matcher = loadAgentPatterns();
+        }
+        Map<String, Boolean> cache = agentCache;
+        if (cache == null) {
+            return matcher.find(agent);
+        }
+
+        Boolean spider;
+        synchronized (cache) {
+            spider = cache.get(agent);
+        }
+        if (spider == null) {
+            spider = matcher.find(agent);
+            synchronized (cache) {
+                cache.put(agent, spider);
+            }
+        }
+        return spider;
+    }
+
+    private synchronized MultiPatternMatcher loadAgentPatterns() {
+        if (agents == null) {
+            int cacheSize = configurationService.getIntProperty("usage-statistics.bots.agent-cache-size",
+                                                                DEFAULT_AGENT_CACHE_SIZE);
+            if (cacheSize > 0) {
+                agentCache = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > cacheSize;
+                    }
+                };
+            }
+            agents = loadPatterns("agents");
+        }
+        return agents;
+    }
+
+    private synchronized MultiPatternMatcher loadDomainPatterns() {
+        if (domains == null) {
+            domains = loadPatterns("domains");
+        }
+        return domains;
+    }
+
     /**
      * Load agent name patterns from all files in a single subdirectory of config/spiders.
      *
-     * @param directory   simple directory name (e.g. "agents").
-     *                    "${dspace.dir}/config/spiders" will be prepended to yield the path to
-     *                    the directory of pattern files.
-     * @param patternList patterns read from the files in {@code directory} will
-     *                    be added to this List.
+     * @param directory simple directory name (e.g. "agents").
+     *                  "${dspace.dir}/config/spiders" will be prepended to yield the path to
+     *                  the directory of pattern files.
+     * @return a matcher for all the patterns read from the files in {@code directory}
      */
-    private void loadPatterns(String directory, List<Pattern> patternList) {
+    private MultiPatternMatcher loadPatterns(String directory) {
+        List<String> patternList = new ArrayList<>();
         String dspaceHome = configurationService.getProperty("dspace.dir");
         File spidersDir = new File(dspaceHome, "config/spiders");
         File patternsDir = new File(spidersDir, directory);
@@ -188,7 +240,13 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
                     if (isUseCaseInsensitiveMatching()) {
                         pattern = StringUtils.lowerCase(pattern);
                     }
-                    patternList.add(Pattern.compile(pattern));
+                    try {
+                        Pattern.compile(pattern);
+                    } catch (PatternSyntaxException e) {
+                        log.warn("Not loading pattern {} from {}:  {}", pattern, file, e.getMessage());
+                        continue;
+                    }
+                    patternList.add(pattern);
                 }
 
 
@@ -197,6 +255,11 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
         } else {
             log.info("No patterns loaded from {}", patternsDir::getPath);
         }
+
+        MultiPatternMatcher matcher = new MultiPatternMatcher(patternList);
+        log.info("Compiled {} {} patterns, {} of which have no literal to search for and are run for every lookup",
+                 matcher.size(), directory, matcher.getUnfilteredCount());
+        return matcher;
     }
 
     @Override
@@ -209,12 +272,14 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
 
     @Override
     public boolean isSpider(String ip) {
-        if (table == null) {
+        IPTable spiders = table;
+        if (spiders == null) {
             loadSpiderIpAddresses();
+            spiders = table;
         }
 
         try {
-            if (table.contains(ip)) {
+            if (spiders.contains(ip)) {
                 return true;
             }
         } catch (IPTable.IPFormatException e) {
@@ -229,7 +294,8 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
     public synchronized void loadSpiderIpAddresses() {
 
         if (table == null) {
-            table = new IPTable();
+            // the lookups only see the table once all the files are loaded
+            IPTable spiders = new IPTable();
 
             String filePath = configurationService.getProperty("dspace.dir");
 
@@ -241,7 +307,7 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
                         if (file.isFile()) {
                             for (String ip : readPatterns(file)) {
                                 log.debug("Loading {}", ip);
-                                if (!Character.isDigit(ip.charAt(0))) {
+                                if (!Character.isDigit(ip.charAt(0)) && ip.indexOf(':') < 0) {
                                     try {
                                         ip = DnsLookup.forward(ip);
                                         log.debug("Resolved to {}", ip);
@@ -250,7 +316,11 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
                                         continue;
                                     }
                                 }
-                                table.add(ip);
+                                try {
+                                    spiders.add(ip);
+                                } catch (IPTable.IPFormatException e) {
+                                    log.warn("Not loading {} from {}:  {}", ip, file, e.getMessage());
+                                }
                             }
                             log.info("Loaded Spider IP file: " + file);
                         }
@@ -258,10 +328,11 @@ public class SpiderDetectorServiceImpl implements SpiderDetectorService {
                 } else {
                     log.info("No spider file loaded");
                 }
-            } catch (IOException | IPTable.IPFormatException e) {
+            } catch (IOException e) {
                 log.error("Error Loading Spiders:" + e.getMessage(), e);
             }
 
+            table = spiders;
         }
 
     }
@@ -9,18 +9,22 @@ package org.dspace.statistics.util;
 
 import java.io.File;
 import java.net.URL;
+import java.time.LocalDate;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.logging.log4j.Logger;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.Get;
+import org.dspace.core.Context;
 import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.statistics.factory.StatisticsServiceFactory;
 import org.dspace.statistics.service.SolrLoggerService;
+import org.dspace.statistics.service.UsageRollupService;
 
 /**
  * Class to load intermediate statistics files into Solr.
@@ -66,6 +70,15 @@ public class StatisticsClient {
 
         options.addOption("m", "mark-spiders", false, "Update isBot Flag in Solr");
         options.addOption("f", "delete-spiders-by-flag", false, "Delete Spiders in Solr By isBot Flag");
+        options.addOption("d", "resolve-host-names", false,
+                          "Fill in the host names of the hits logged before their reverse DNS lookup completed");
+        options.addOption("o", "update-usage-rollups", false,
+                          "Count the views logged since the last run in the daily usage rollups");
+        options.addOption(Option.builder("O").longOpt("rebuild-usage-rollups").hasArg().optionalArg(true)
+                                .argName("yyyy-MM-dd")
+                                .desc("Count the views in the daily usage rollups again, from the given day on or "
+                                          + "from the first one")
+                                .build());
         options.addOption("b", "reindex-bitstreams", false, "Reindex the bitstreams to ensure we have the bundle name");
         options.addOption("e", "export", false,
                           "Export SOLR view statistics data to usage-statistics-intermediate-format");
@@ -89,6 +102,10 @@ public class StatisticsClient {
             solrLoggerService.markRobots();
         } else if (line.hasOption('f')) {
             solrLoggerService.deleteRobots();
+        } else if (line.hasOption('d')) {
+            solrLoggerService.resolvePendingHostNames();
+        } else if (line.hasOption('o') || line.hasOption('O')) {
+            StatisticsClient.updateUsageRollups(line.hasOption('O'), line.getOptionValue('O'));
         } else if (line.hasOption('b')) {
             solrLoggerService.reindexBitstreamHits(line.hasOption('r'));
         } else if (line.hasOption('e')) {
@@ -100,6 +117,34 @@ public class StatisticsClient {
         }
     }
 
+    /**
+     * Count the views logged since the last run in the daily usage rollups.
+     *
+     * @param rebuild whether to count the views again
+     * @param from    the first day whose views are counted again, null for all of them
+     * @throws Exception If something goes wrong
+     */
+    private static void updateUsageRollups(boolean rebuild, String from) throws Exception {
+        UsageRollupService usageRollupService = StatisticsServiceFactory.getInstance().getUsageRollupService();
+        Context context = new Context(Context.Mode.BATCH_EDIT);
+        try {
+            if (rebuild) {
+                long views = usageRollupService.rebuild(context, from == null ? null : LocalDate.parse(from));
+                if (from != null) {
+                    System.out.println("Counted " + views + " views again in the usage rollups, from " + from);
+                }
+            }
+            long views = usageRollupService.update(context);
+            System.out.println("Counted " + views + " views in the usage rollups, up to "
+                                   + usageRollupService.getProcessedUntil(context));
+            context.complete();
+        } finally {
+            if (context.isValid()) {
+                context.abort();
+            }
+        }
+    }
+
     /**
      * Method to update Spiders in configuration directory.
      */
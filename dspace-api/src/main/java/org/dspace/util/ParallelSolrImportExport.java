@@ -0,0 +1,426 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.schema.SchemaRequest;
+import org.apache.solr.client.solrj.response.FieldStatsInfo;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.RangeFacet;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.FacetParams;
+
+/**
+ * Exports and imports a Solr index with several workers at once.
+ * <p>
+ * The export is split by month of the time field, and the months are shared among the workers. Each worker reads
+ * the documents of its month with a cursor, and writes each page to a gzip-compressed chunk, with one JSON document
+ * per line, so that multi-valued fields and values containing separators are kept as they are. A manifest listing
+ * the chunks and their number of documents is written once all of them are complete: an export without a manifest
+ * is not complete, and is not imported.
+ * <p>
+ * The import shares the chunks of the manifest among the workers, which add their documents to the index in batches
+ * of a bounded size. The index is committed once, after all the chunks were imported.
+ */
+public class ParallelSolrImportExport {
+
+    private static final Logger log = LogManager.getLogger(ParallelSolrImportExport.class);
+
+    private static final String EXPORT_SEP = "_export_";
+    private static final String CHUNK_SUFFIX = ".jsonl.gz";
+    private static final String MANIFEST_SUFFIX = EXPORT_SEP + "manifest.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SolrClient solr;
+    private final int threads;
+    private final int rowsPerChunk;
+    private final int batchSize;
+
+    /**
+     * @param solr         the index to export or import
+     * @param threads      the number of workers
+     * @param rowsPerChunk the maximum number of documents in a chunk
+     * @param batchSize    the maximum number of documents added to the index at once
+     */
+    public ParallelSolrImportExport(SolrClient solr, int threads, int rowsPerChunk, int batchSize) {
+        this.solr = solr;
+        this.threads = Math.max(1, threads);
+        this.rowsPerChunk = Math.max(1, rowsPerChunk);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Export the documents of an index to gzip-compressed chunks, and write their manifest.
+     *
+     * @param indexName   the name of the index, which prefixes the names of the files
+     * @param toDir       the directory to write the files to. Must exist and be writable.
+     * @param timeField   the time field by which the export is split
+     * @param filterQuery a filter query limiting the documents exported, or null to export all of them
+     * @param overwrite   if set, allow existing files to be overwritten
+     * @return the number of documents exported
+     * @throws SolrServerException       if there is a problem with exporting the index.
+     * @throws IOException               if there is a problem creating the files or communicating with Solr.
+     * @throws SolrImportExportException if a file already exists, or if a worker failed.
+     */
+    public long exportIndex(String indexName, File toDir, String timeField, String filterQuery, boolean overwrite)
+        throws SolrServerException, IOException, SolrImportExportException {
+        File manifestFile = new File(toDir, indexName + MANIFEST_SUFFIX);
+        if (manifestFile.exists() && !overwrite) {
+            throw new SolrImportExportException("Solr export manifest [" + manifestFile.getCanonicalPath()
+                                                    + "] already exists. Export failed for Index [" + indexName + "]");
+        }
+        // until the new manifest is written, the files in the directory are not a complete export
+        Files.deleteIfExists(manifestFile.toPath());
+        String uniqueKey = new SchemaRequest.UniqueKey().process(solr).getUniqueKey();
+
+        List<RangeFacet.Count> months = getMonths(timeField, filterQuery);
+        // the largest months first, so that the workers finish at about the same time
+        months.sort(Comparator.comparingInt(RangeFacet.Count::getCount).reversed());
+
+        List<Callable<List<ObjectNode>>> tasks = new ArrayList<>();
+        for (RangeFacet.Count month : months) {
+            tasks.add(() -> exportMonth(indexName, toDir, uniqueKey, timeField, filterQuery, month.getValue(),
+                                        overwrite));
+        }
+        List<ObjectNode> chunks = new ArrayList<>();
+        for (List<ObjectNode> monthChunks : runAll(indexName, "export", tasks)) {
+            chunks.addAll(monthChunks);
+        }
+        chunks.sort(Comparator.comparing(chunk -> chunk.get("file").asText()));
+
+        long documents = 0;
+        ObjectNode manifest = objectMapper.createObjectNode();
+        manifest.put("index", indexName);
+        manifest.put("uniqueKey", uniqueKey);
+        manifest.put("timeField", timeField);
+        manifest.put("exported", Instant.now().toString());
+        ArrayNode chunkArray = manifest.putArray("chunks");
+        for (ObjectNode chunk : chunks) {
+            documents += chunk.get("documents").asLong();
+            chunkArray.add(chunk);
+        }
+        manifest.put("documents", documents);
+        Path temporary = new File(toDir, manifestFile.getName() + ".tmp").toPath();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), manifest);
+        Files.move(temporary, manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        log.info("Exported {} documents of index {} in {} chunks to {}", documents, indexName, chunks.size(),
+                 toDir.getCanonicalPath());
+        return documents;
+    }
+
+    /**
+     * Import the chunks listed in the manifest of an export into the index, and commit it once they are all added.
+     *
+     * @param indexName the name of the index which was exported
+     * @param fromDir   the directory of the export. Must exist and be readable.
+     * @return the number of documents imported
+     * @throws SolrServerException       if there is a problem with importing the documents.
+     * @throws IOException               if there is a problem reading the files or communicating with Solr.
+     * @throws SolrImportExportException if there is no manifest, if a chunk does not match it, or if a worker failed.
+     */
+    public long importIndex(String indexName, File fromDir)
+        throws SolrServerException, IOException, SolrImportExportException {
+        File manifestFile = new File(fromDir, indexName + MANIFEST_SUFFIX);
+        if (!manifestFile.canRead()) {
+            throw new SolrImportExportException("No readable export manifest " + manifestFile.getCanonicalPath()
+                                                    + " for index " + indexName + ", the export is incomplete or "
+                                                    + "was not made with parallel workers.");
+        }
+        JsonNode manifest = objectMapper.readTree(manifestFile);
+
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (JsonNode chunk : manifest.get("chunks")) {
+            File file = new File(fromDir, chunk.get("file").asText());
+            long expected = chunk.get("documents").asLong();
+            tasks.add(() -> importChunk(file, expected));
+        }
+        long documents = 0;
+        for (Long chunkDocuments : runAll(indexName, "import", tasks)) {
+            documents += chunkDocuments;
+        }
+        solr.commit(true, true);
+
+        log.info("Imported {} documents into index {} from {}", documents, indexName, fromDir.getCanonicalPath());
+        return documents;
+    }
+
+    /**
+     * Find the months in which there are documents to export.
+     */
+    private List<RangeFacet.Count> getMonths(String timeField, String filterQuery)
+        throws SolrServerException, IOException {
+        SolrQuery query = new SolrQuery("*:*");
+        if (filterQuery != null) {
+            query.addFilterQuery(filterQuery);
+        }
+        query.setRows(0);
+        query.setGetFieldStatistics(timeField);
+        Map<String, FieldStatsInfo> fieldInfo = solr.query(query).getFieldStatsInfo();
+        if (fieldInfo == null || fieldInfo.get(timeField) == null || fieldInfo.get(timeField).getMin() == null) {
+            log.warn("No earliest date found in time field {}, nothing to export", timeField);
+            return new ArrayList<>();
+        }
+        Instant earliestTimestamp = ((Date) fieldInfo.get(timeField).getMin()).toInstant();
+
+        query.setGetFieldStatistics(false);
+        query.setFacet(true);
+        query.add(FacetParams.FACET_RANGE, timeField);
+        query.add(FacetParams.FACET_RANGE_START, earliestTimestamp + "/MONTH");
+        query.add(FacetParams.FACET_RANGE_END, "NOW/MONTH+1MONTH");
+        query.add(FacetParams.FACET_RANGE_GAP, "+1MONTH");
+        query.setFacetMinCount(1);
+        return new ArrayList<>(solr.query(query).getFacetRanges().get(0).getCounts());
+    }
+
+    /**
+     * Export the documents of a month, one chunk per page of the cursor.
+     *
+     * @return the manifest entries of the chunks written
+     */
+    private List<ObjectNode> exportMonth(String indexName, File toDir, String uniqueKey, String timeField,
+                                         String filterQuery, String monthStart, boolean overwrite)
+        throws SolrServerException, IOException, SolrImportExportException {
+        String month = YearMonth.from(Instant.parse(monthStart).atZone(ZoneOffset.UTC)).toString();
+        SolrQuery query = new SolrQuery("*:*");
+        if (filterQuery != null) {
+            query.addFilterQuery(filterQuery);
+        }
+        query.addFilterQuery(timeField + ":[" + monthStart + " TO " + monthStart + "+1MONTH}");
+        query.setRows(rowsPerChunk);
+        query.setSort(uniqueKey, SolrQuery.ORDER.asc);
+
+        List<ObjectNode> chunks = new ArrayList<>();
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        while (true) {
+            query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            QueryResponse response = solr.query(query);
+            if (response.getResults().isEmpty()) {
+                break;
+            }
+            String fileName = String.format("%s%s%s_%05d%s", indexName, EXPORT_SEP, month, chunks.size(),
+                                            CHUNK_SUFFIX);
+            writeChunk(new File(toDir, fileName), response.getResults(), overwrite);
+            ObjectNode chunk = objectMapper.createObjectNode();
+            chunk.put("file", fileName);
+            chunk.put("month", month);
+            chunk.put("documents", response.getResults().size());
+            chunks.add(chunk);
+
+            if (cursorMark.equals(response.getNextCursorMark())) {
+                break;
+            }
+            cursorMark = response.getNextCursorMark();
+        }
+        log.info("Solr export of Index [{}] Month [{}] complete in {} chunks", indexName, month, chunks.size());
+        return chunks;
+    }
+
+    private void writeChunk(File file, Collection<SolrDocument> documents, boolean overwrite)
+        throws IOException, SolrImportExportException {
+        if (!file.createNewFile() && !overwrite) {
+            throw new SolrImportExportException("Solr export file [" + file.getCanonicalPath()
+                                                    + "] already exists or cannot be created.");
+        }
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+            new GZIPOutputStream(Files.newOutputStream(file.toPath())), StandardCharsets.UTF_8))) {
+            for (SolrDocument document : documents) {
+                Map<String, Object> fields = new LinkedHashMap<>();
+                for (String name : document.getFieldNames()) {
+                    // the version is assigned by the index the document is imported into
+                    if (!"_version_".equals(name)) {
+                        fields.put(name, toJsonValue(document.getFieldValue(name)));
+                    }
+                }
+                writer.write(objectMapper.writeValueAsString(fields));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Dates are written in the format Solr parses, instead of the epoch milliseconds of Jackson.
+     */
+    private Object toJsonValue(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toInstant().toString();
+        }
+        if (value instanceof Collection) {
+            List<Object> values = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                values.add(toJsonValue(item));
+            }
+            return values;
+        }
+        return value;
+    }
+
+    /**
+     * Add the documents of a chunk to the index in batches, without committing.
+     *
+     * @return the number of documents added
+     */
+    private long importChunk(File file, long expected) throws SolrServerException, IOException,
+        SolrImportExportException {
+        long documents = 0;
+        List<SolrInputDocument> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(file.toPath())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(toInputDocument(objectMapper.readTree(line)));
+                if (batch.size() >= batchSize) {
+                    solr.add(batch);
+                    documents += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            solr.add(batch);
+            documents += batch.size();
+        }
+        if (documents != expected) {
+            throw new SolrImportExportException("Solr export file [" + file.getCanonicalPath() + "] has "
+                                                    + documents + " documents, but the manifest lists " + expected);
+        }
+        log.info("Imported file {}", file.getCanonicalPath());
+        return documents;
+    }
+
+    private SolrInputDocument toInputDocument(JsonNode node) {
+        SolrInputDocument document = new SolrInputDocument();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isArray()) {
+                for (JsonNode value : field.getValue()) {
+                    document.addField(field.getKey(), toFieldValue(value));
+                }
+            } else {
+                document.addField(field.getKey(), toFieldValue(field.getValue()));
+            }
+        }
+        return document;
+    }
+
+    private Object toFieldValue(JsonNode value) {
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        if (value.isIntegralNumber()) {
+            return value.longValue();
+        }
+        if (value.isNumber()) {
+            return value.doubleValue();
+        }
+        return value.asText();
+    }
+
+    /**
+     * Run tasks on the workers, and stop them all as soon as one of them fails.
+     *
+     * @return the results of the tasks, in the order of the tasks
+     */
+    private <T> List<T> runAll(String indexName, String action, List<Callable<T>> tasks)
+        throws SolrServerException, IOException, SolrImportExportException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory(indexName, action));
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolrImportExportException("Interrupted during the " + action + " of index " + indexName, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SolrServerException) {
+                throw (SolrServerException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof SolrImportExportException) {
+                throw (SolrImportExportException) cause;
+            }
+            throw new SolrImportExportException("The " + action + " of index " + indexName + " failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Names the worker threads after the index and the action.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        WorkerThreadFactory(String indexName, String action) {
+            this.prefix = "solr-" + action + "-" + indexName + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
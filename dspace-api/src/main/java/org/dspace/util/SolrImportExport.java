@@ -63,9 +63,15 @@ public class SolrImportExport {
     private static final String INDEX_NAME_OPTION = "i";
     private static final String KEEP_OPTION = "k";
     private static final String LAST_OPTION = "l";
+    private static final String THREADS_OPTION = "t";
 
     public static final int ROWS_PER_FILE = 10_000;
 
+    /**
+     * The maximum number of documents added to the index at once by a worker of a parallel import.
+     */
+    public static final int ROWS_PER_BATCH = 1_000;
+
     private static final String MULTIPLE_VALUES_SPLITTER = ",";
 
     private static final Logger log = LogManager.getLogger(SolrImportExport.class);
@@ -102,6 +108,16 @@ public class SolrImportExport {
 
             String directoryName = makeDirectoryName(line.getOptionValue(DIRECTORY_OPTION));
 
+            int threads = 0;
+            if (line.hasOption(THREADS_OPTION)) {
+                try {
+                    threads = Integer.parseInt(line.getOptionValue(THREADS_OPTION));
+                } catch (NumberFormatException e) {
+                    System.err.println("The number of threads must be a number.");
+                    printHelpAndExit(options, 1);
+                }
+            }
+
             String action = line.getOptionValue(ACTION_OPTION, "export");
             if ("import".equals(action)) {
                 for (String indexName : indexNames) {
@@ -116,7 +132,7 @@ public class SolrImportExport {
                     try {
                         String solrUrl = makeSolrUrl(indexName);
                         boolean clear = line.hasOption(CLEAR_OPTION);
-                        importIndex(indexName, importDir, solrUrl, clear);
+                        importIndex(indexName, importDir, solrUrl, clear, threads);
                     } catch (IOException | SolrServerException | SolrImportExportException e) {
                         System.err.println("Problem encountered while trying to import index " + indexName + ".");
                         e.printStackTrace(System.err);
@@ -146,7 +162,7 @@ public class SolrImportExport {
                         String solrUrl = makeSolrUrl(indexName);
                         String timeField = makeTimeField(indexName);
                         exportIndex(indexName, exportDir, solrUrl, timeField, lastValue,
-                                    line.hasOption(OVERWRITE_OPTION));
+                                    line.hasOption(OVERWRITE_OPTION), threads);
                     } catch (SolrServerException | IOException | SolrImportExportException e) {
                         System.err.println("Problem encountered while trying to export index " + indexName + ".");
                         e.printStackTrace(System.err);
@@ -157,7 +173,7 @@ public class SolrImportExport {
                     try {
                         boolean keepExport = line.hasOption(KEEP_OPTION);
                         boolean overwrite = line.hasOption(OVERWRITE_OPTION);
-                        reindex(indexName, directoryName, keepExport, overwrite);
+                        reindex(indexName, directoryName, keepExport, overwrite, threads);
                     } catch (IOException | SolrServerException | SolrImportExportException e) {
                         e.printStackTrace();
                     }
@@ -197,6 +213,10 @@ public class SolrImportExport {
             " a number, in which case the last [number] of days are exported, through to now (use 0 for today's data)" +
             "." +
             " Date calculation is done in UTC. If omitted, all documents are exported.");
+        options.addOption(THREADS_OPTION, "threads", true, "Export, import or reindex with this number of parallel" +
+            " workers. The export is then split by month among the workers, and written as gzip-compressed JSON" +
+            " chunks with a manifest; only such an export can be imported in parallel. If omitted, the export is" +
+            " written as CSV files, one after another.");
         return options;
     }
 
@@ -211,8 +231,10 @@ public class SolrImportExport {
      *                      export directory was created by this method, the export directory will be deleted at the
      *                      end of the reimport.
      * @param overwrite     allow export files to be overwritten during re-index
+     * @param threads       the number of parallel workers, or 0 to export and import sequentially
      */
-    private static void reindex(String indexName, String exportDirName, boolean keepExport, boolean overwrite)
+    private static void reindex(String indexName, String exportDirName, boolean keepExport, boolean overwrite,
+                                int threads)
         throws IOException, SolrServerException, SolrImportExportException {
         String tempIndexName = indexName + "-temp";
 
@@ -305,10 +327,10 @@ public class SolrImportExport {
 
             try {
                 // export from the actual core (from temp core name, actual data dir)
-                exportIndex(indexName, exportDir, tempSolrUrl, timeField, overwrite);
+                exportIndex(indexName, exportDir, tempSolrUrl, timeField, null, overwrite, threads);
 
                 // clear actual core (temp core name, clearing actual data dir) & import
-                importIndex(indexName, exportDir, tempSolrUrl, true);
+                importIndex(indexName, exportDir, tempSolrUrl, true, threads);
             } catch (IOException | SolrServerException | SolrImportExportException e) {
                 // we ran into some problems with the export/import -- keep going to try and restore the solr cores
                 System.err.println(
@@ -330,9 +352,9 @@ public class SolrImportExport {
             // export all docs from now-temp core into export directory -- this won't cause name collisions with the
             // actual export
             // because the core name for the temporary export has -temp in it while the actual core doesn't
-            exportIndex(tempIndexName, exportDir, tempSolrUrl, timeField, overwrite);
+            exportIndex(tempIndexName, exportDir, tempSolrUrl, timeField, null, overwrite, threads);
             // ...and import them into the now-again-actual core *without* clearing
-            importIndex(tempIndexName, exportDir, origSolrUrl, false);
+            importIndex(tempIndexName, exportDir, origSolrUrl, false, threads);
 
             // commit changes
             origSolr.commit();
@@ -386,6 +408,24 @@ public class SolrImportExport {
      * @throws SolrImportExportException if there is a problem communicating with Solr.
      */
     public static void importIndex(final String indexName, File fromDir, String solrUrl, boolean clear)
+        throws IOException, SolrServerException, SolrImportExportException {
+        importIndex(indexName, fromDir, solrUrl, clear, 0);
+    }
+
+    /**
+     * Import previously exported documents into the specified index, with parallel workers if requested.
+     *
+     * @param indexName the index to import.
+     * @param fromDir   the source directory. Must exist and be readable.
+     * @param solrUrl   The solr URL for the index to import. Must not be null.
+     * @param clear     if true, clear the index before importing.
+     * @param threads   the number of parallel workers, importing the chunks listed in the manifest of a parallel
+     *                  export (see {@link ParallelSolrImportExport}), or 0 to import the CSV files one after another.
+     * @throws IOException               if there is a problem reading the files or communicating with Solr.
+     * @throws SolrServerException       if there is a problem reading the files or communicating with Solr.
+     * @throws SolrImportExportException if there is a problem communicating with Solr.
+     */
+    public static void importIndex(final String indexName, File fromDir, String solrUrl, boolean clear, int threads)
         throws IOException, SolrServerException, SolrImportExportException {
         if (StringUtils.isBlank(solrUrl)) {
             throw new SolrImportExportException(
@@ -407,6 +447,11 @@ public class SolrImportExport {
             clearIndex(solrUrl);
         }
 
+        if (threads > 0) {
+            new ParallelSolrImportExport(solr, threads, ROWS_PER_FILE, ROWS_PER_BATCH).importIndex(indexName, fromDir);
+            return;
+        }
+
         File[] files = fromDir.listFiles(new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
@@ -497,6 +542,29 @@ public class SolrImportExport {
     public static void exportIndex(String indexName, File toDir, String solrUrl, String timeField, String fromWhen,
                                    boolean overwrite)
         throws SolrServerException, IOException, SolrImportExportException {
+        exportIndex(indexName, toDir, solrUrl, timeField, fromWhen, overwrite, 0);
+    }
+
+    /**
+     * Exports documents from the given index to the specified target directory, starting at fromWhen (or all
+     * documents), with parallel workers if requested.
+     *
+     * @param indexName The index to export.
+     * @param toDir     The target directory for the export. The directory must be writeable.
+     * @param solrUrl   The solr URL for the index to export. Must not be null.
+     * @param timeField The time field to use for splitting the export. Must not be null.
+     * @param fromWhen  Optionally, from when to export. See options for allowed values. If null or empty, all
+     *                  documents will be exported.
+     * @param overwrite If set, allow export files to be overwritten
+     * @param threads   the number of parallel workers, writing gzip-compressed chunks and a manifest (see
+     *                  {@link ParallelSolrImportExport}), or 0 to write CSV files one after another.
+     * @throws SolrServerException       if there is a problem with exporting the index.
+     * @throws IOException               if there is a problem creating the files or communicating with Solr.
+     * @throws SolrImportExportException if there is a problem in communicating with Solr.
+     */
+    public static void exportIndex(String indexName, File toDir, String solrUrl, String timeField, String fromWhen,
+                                   boolean overwrite, int threads)
+        throws SolrServerException, IOException, SolrImportExportException {
         log.info(String.format("Export Index [%s] to [%s] using [%s] Time Field[%s] FromWhen[%s]", indexName, toDir,
                                solrUrl, timeField, fromWhen));
         if (StringUtils.isBlank(solrUrl)) {
@@ -512,6 +580,13 @@ public class SolrImportExport {
 
         HttpSolrClient solr = new HttpSolrClient.Builder(solrUrl).build();
 
+        if (threads > 0) {
+            String filterQuery = StringUtils.isNotBlank(fromWhen) ? makeFilterQuery(timeField, fromWhen) : null;
+            new ParallelSolrImportExport(solr, threads, ROWS_PER_FILE, ROWS_PER_BATCH)
+                .exportIndex(indexName, toDir, timeField, filterQuery, overwrite);
+            return;
+        }
+
         SolrQuery query = new SolrQuery("*:*");
         if (StringUtils.isNotBlank(fromWhen)) {
             String lastValueFilter = makeFilterQuery(timeField, fromWhen);
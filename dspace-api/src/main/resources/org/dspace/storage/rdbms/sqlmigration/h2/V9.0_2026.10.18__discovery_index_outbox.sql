@@ -0,0 +1,29 @@
+--
+-- The contents of this file are subject to the license and copyright
+-- detailed in the LICENSE and NOTICE files at the root of the source
+-- tree and available online at
+--
+-- http://www.dspace.org/license/
+--
+
+-----------------------------------------------------------------------------------
+-- Create table for the asynchronous Discovery indexing outbox
+-----------------------------------------------------------------------------------
+
+CREATE SEQUENCE discovery_index_outbox_id_seq;
+
+CREATE TABLE discovery_index_outbox
+(
+    id INTEGER NOT NULL,
+    unique_id VARCHAR(255) NOT NULL,
+    action VARCHAR(32) NOT NULL,
+    pre_db BOOLEAN DEFAULT false,
+    attempts INTEGER DEFAULT 0,
+    created TIMESTAMP,
+    next_attempt TIMESTAMP,
+    last_error TEXT,
+    CONSTRAINT discovery_index_outbox_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX discovery_index_outbox_next_attempt_idx ON discovery_index_outbox(next_attempt);
+CREATE INDEX discovery_index_outbox_unique_id_idx ON discovery_index_outbox(unique_id);
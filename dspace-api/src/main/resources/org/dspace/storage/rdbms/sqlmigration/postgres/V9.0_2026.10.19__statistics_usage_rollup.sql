@@ -0,0 +1,36 @@
+--
+-- The contents of this file are subject to the license and copyright
+-- detailed in the LICENSE and NOTICE files at the root of the source
+-- tree and available online at
+--
+-- http://www.dspace.org/license/
+--
+
+-----------------------------------------------------------------------------------
+-- Create tables for the daily usage statistics rollups
+-----------------------------------------------------------------------------------
+
+CREATE SEQUENCE statistics_usage_rollup_id_seq;
+
+CREATE TABLE statistics_usage_rollup
+(
+    id INTEGER NOT NULL,
+    usage_day DATE NOT NULL,
+    dso_type INTEGER NOT NULL,
+    dso_id VARCHAR(64) NOT NULL,
+    owning_item VARCHAR(64),
+    country_code VARCHAR(8) NOT NULL,
+    views BIGINT DEFAULT 0,
+    CONSTRAINT statistics_usage_rollup_pkey PRIMARY KEY (id),
+    CONSTRAINT statistics_usage_rollup_unique UNIQUE (dso_id, dso_type, usage_day, country_code)
+);
+
+CREATE INDEX statistics_usage_rollup_usage_day_idx ON statistics_usage_rollup(usage_day);
+CREATE INDEX statistics_usage_rollup_owning_item_idx ON statistics_usage_rollup(owning_item);
+
+CREATE TABLE statistics_usage_rollup_watermark
+(
+    id INTEGER NOT NULL,
+    processed_until TIMESTAMP,
+    CONSTRAINT statistics_usage_rollup_watermark_pkey PRIMARY KEY (id)
+);
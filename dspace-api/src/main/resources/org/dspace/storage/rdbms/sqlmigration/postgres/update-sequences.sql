@@ -28,6 +28,7 @@ SELECT setval('cwf_in_progress_user_seq', max(in_progress_user_id)) FROM cwf_in_
 SELECT setval('cwf_pooltask_seq', max(pooltask_id)) FROM cwf_pooltask;
 SELECT setval('cwf_workflowitem_seq', max(workflowitem_id)) FROM cwf_workflowitem;
 SELECT setval('cwf_workflowitemrole_seq', max(workflowitemrole_id)) FROM cwf_workflowitemrole;
+SELECT setval('discovery_index_outbox_id_seq', max(id)) FROM discovery_index_outbox;
 SELECT setval('doi_seq', max(doi_id)) FROM doi;
 SELECT setval('entity_type_id_seq', max(id)) FROM entity_type;
 SELECT setval('fileextension_seq', max(file_extension_id)) FROM fileextension;
@@ -47,6 +48,7 @@ SELECT setval('relationship_id_seq', max(id)) FROM relationship;
 SELECT setval('relationship_type_id_seq', max(id)) FROM relationship_type;
 SELECT setval('requestitem_seq', max(requestitem_id)) FROM requestitem;
 SELECT setval('resourcepolicy_seq', max(policy_id)) FROM resourcepolicy;
+SELECT setval('statistics_usage_rollup_id_seq', max(id)) FROM statistics_usage_rollup;
 SELECT setval('subscription_parameter_seq', max(subscription_id)) FROM subscription_parameter;
 SELECT setval('subscription_seq', max(subscription_id)) FROM subscription;
 SELECT setval('supervision_orders_seq', max(id)) FROM supervision_orders;
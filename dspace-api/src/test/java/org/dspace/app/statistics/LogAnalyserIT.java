@@ -0,0 +1,138 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Integration tests for {@link LogAnalyser}, which check that the log files
+ * analysed with several threads give the same aggregation file as when they
+ * are read one after another.
+ */
+public class LogAnalyserIT extends AbstractIntegrationTestWithDatabase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File logDir;
+
+    private long splitSize;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        splitSize = LogAnalyser.splitSize;
+        // split the log files in many small ranges of lines
+        LogAnalyser.splitSize = 512;
+
+        logDir = temporaryFolder.newFolder("log");
+        writeLog("dspace.log.2024-01-01", 1, "\n");
+        writeLog("dspace.log.2024-01-11", 11, "\r\n");
+        writeLog("other.log", 1, "\n");
+    }
+
+    @After
+    @Override
+    public void destroy() throws Exception {
+        LogAnalyser.splitSize = splitSize;
+        super.destroy();
+    }
+
+    @Test
+    public void testParallelAnalysis() throws Exception {
+        String sequential = analyse(null, null, 0);
+        assertTrue(sequential.contains("log_lines=400\n"));
+        assertTrue(sequential.contains("warnings=80\n"));
+        assertTrue(sequential.contains("exceptions=80\n"));
+        assertTrue(sequential.contains("start_date=01/01/2024\n"));
+        assertTrue(sequential.contains("end_date=20/01/2024\n"));
+        assertTrue(sequential.contains("action.view_item=80\n"));
+
+        assertEquals(sequential, analyse(null, null, 4));
+    }
+
+    @Test
+    public void testParallelAnalysisWithDates() throws Exception {
+        String sequential = analyse(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 15), 0);
+        // the lines from the 4th to the 10th of the first file, and from the
+        // 11th to the 14th of the second one
+        assertTrue(sequential.contains("log_lines=" + (11 * 20) + "\n"));
+        assertTrue(sequential.contains("start_date=03/01/2024\n"));
+        assertTrue(sequential.contains("end_date=15/01/2024\n"));
+
+        assertEquals(sequential, analyse(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 15), 3));
+    }
+
+    /**
+     * @return the aggregation file, without the processing time
+     */
+    private String analyse(LocalDate startDate, LocalDate endDate, int threads) throws Exception {
+        File outFile = new File(temporaryFolder.getRoot(), "dstat-" + threads + ".dat");
+        LogAnalyser.processLogs(context, logDir.getPath(), "dspace\\.log.*", null, outFile.getPath(),
+                                startDate, endDate, true, threads);
+        return Arrays.stream(Files.readString(outFile.toPath(), Charset.defaultCharset()).split("\n"))
+                     .filter(line -> !line.startsWith("analysis_process_time="))
+                     .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    /**
+     * Write a log file of 10 days from the given day of January 2024, with
+     * 20 lines a day, of which a fifth are warnings and a fifth are errors
+     * with a stack trace.
+     */
+    private void writeLog(String name, int firstDay, String lineSeparator) throws Exception {
+        StringBuilder log = new StringBuilder();
+        for (int day = firstDay; day < firstDay + 10; day++) {
+            String date = String.format("2024-01-%02d", day);
+            for (int i = 0; i < 20; i++) {
+                String time = date + String.format(" 12:%02d:00,000 ", i);
+                String prefix = ":session_id=ABC" + i + ":ip_addr=10.0.0." + i + ":";
+                switch (i % 5) {
+                    case 0:
+                        log.append(time).append("INFO  org.dspace.app.webui.servlet.DSpaceServlet @ anonymous")
+                           .append(prefix).append("view_item:handle=123456789/").append(day * 3 + i % 3);
+                        break;
+                    case 1:
+                        log.append(time).append("INFO  org.dspace.app.webui.servlet.DSpaceServlet @ anonymous")
+                           .append(prefix).append("search:query=Open Access repository ").append(day % 4)
+                           .append(" theses,results=(3,2,1)");
+                        break;
+                    case 2:
+                        log.append(time).append("INFO  org.dspace.app.webui.servlet.DSpaceServlet @ user")
+                           .append(i % 3).append("@example.org").append(prefix).append("login:type=explicit");
+                        break;
+                    case 3:
+                        log.append(time).append("WARN  org.dspace.core.Context @ Something went wrong ").append(i);
+                        break;
+                    default:
+                        log.append(time).append("ERROR org.dspace.core.Context @ Something failed ").append(i)
+                           .append(lineSeparator).append("\tat org.dspace.core.Context.complete(Context.java:1)");
+                        break;
+                }
+                log.append(lineSeparator);
+            }
+        }
+        Files.writeString(new File(logDir, name).toPath(), log, Charset.defaultCharset());
+    }
+}
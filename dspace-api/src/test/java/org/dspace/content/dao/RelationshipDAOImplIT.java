@@ -12,6 +12,7 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.Logger;
 import org.dspace.AbstractIntegrationTest;
@@ -150,6 +151,19 @@ public class RelationshipDAOImplIT extends AbstractIntegrationTest {
                 relationshipType));
     }
 
+    /**
+     * Test findItemsWithVirtualMetadataFrom should only return the publication, which gets the name of its author as
+     * virtual metadata, and not the other way round.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFindItemsWithVirtualMetadataFrom() throws Exception {
+        assertEquals(Set.of(itemOne.getID()), relationshipService.findItemsWithVirtualMetadataFrom(context,
+                List.of(itemTwo)));
+        assertEquals(Set.of(), relationshipService.findItemsWithVirtualMetadataFrom(context, List.of(itemOne)));
+    }
+
     /**
      * Test countTotal should return our defined relationshipsList's size given our test Context
      * context
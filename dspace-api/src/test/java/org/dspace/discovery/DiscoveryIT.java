@@ -14,14 +14,23 @@ import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +38,8 @@ import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
 import org.dspace.AbstractIntegrationTestWithDatabase;
 import org.dspace.app.launcher.ScriptLauncher;
 import org.dspace.app.scripts.handler.impl.TestDSpaceRunnableHandler;
@@ -37,13 +48,18 @@ import org.dspace.builder.ClaimedTaskBuilder;
 import org.dspace.builder.CollectionBuilder;
 import org.dspace.builder.CommunityBuilder;
 import org.dspace.builder.EPersonBuilder;
+import org.dspace.builder.EntityTypeBuilder;
 import org.dspace.builder.ItemBuilder;
 import org.dspace.builder.PoolTaskBuilder;
+import org.dspace.builder.RelationshipBuilder;
+import org.dspace.builder.RelationshipTypeBuilder;
 import org.dspace.builder.WorkflowItemBuilder;
 import org.dspace.builder.WorkspaceItemBuilder;
 import org.dspace.content.Collection;
 import org.dspace.content.Community;
+import org.dspace.content.EntityType;
 import org.dspace.content.Item;
+import org.dspace.content.RelationshipType;
 import org.dspace.content.WorkspaceItem;
 import org.dspace.content.authority.Choices;
 import org.dspace.content.authority.factory.ContentAuthorityServiceFactory;
@@ -54,12 +70,16 @@ import org.dspace.content.service.ItemService;
 import org.dspace.content.service.WorkspaceItemService;
 import org.dspace.discovery.configuration.DiscoveryConfiguration;
 import org.dspace.discovery.configuration.DiscoverySortFieldConfiguration;
+import org.dspace.discovery.indexobject.DocumentBuildCache;
 import org.dspace.discovery.indexobject.IndexableClaimedTask;
 import org.dspace.discovery.indexobject.IndexableCollection;
+import org.dspace.discovery.indexobject.IndexableCommunity;
 import org.dspace.discovery.indexobject.IndexableItem;
 import org.dspace.discovery.indexobject.IndexablePoolTask;
 import org.dspace.discovery.indexobject.IndexableWorkflowItem;
 import org.dspace.discovery.indexobject.IndexableWorkspaceItem;
+import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
 import org.dspace.eperson.EPerson;
 import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
@@ -749,6 +769,373 @@ public class DiscoveryIT extends AbstractIntegrationTestWithDatabase {
         }
     }
 
+    @Test
+    public void cursorSearchTest() throws SearchServiceException {
+        int numberItems = 25;
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, community).build();
+        for (int i = 0; i < numberItems; i++) {
+            ItemBuilder.createItem(context, collection).withTitle(String.format("item %02d", i)).build();
+        }
+        context.restoreAuthSystemState();
+
+        // walk through the results by pages of 4 with a cursor, sorted on the title
+        DiscoverQuery discoverQuery = new DiscoverQuery();
+        discoverQuery.addFilterQueries("location.coll:" + collection.getID());
+        discoverQuery.setDSpaceObjectFilter(IndexableItem.TYPE);
+        discoverQuery.setSortField("dc.title_sort", DiscoverQuery.SORT_ORDER.asc);
+        discoverQuery.setMaxResults(4);
+        discoverQuery.setCursorMark(DiscoverQuery.CURSOR_MARK_START);
+        List<String> titles = new ArrayList<>();
+        String cursorMark;
+        int pages = 0;
+        do {
+            cursorMark = discoverQuery.getCursorMark();
+            DiscoverResult result = searchService.search(context, discoverQuery);
+            for (IndexableObject indexableObject : result.getIndexableObjects()) {
+                titles.add(((Item) indexableObject.getIndexedObject()).getName());
+            }
+            assertEquals(numberItems, result.getTotalSearchResults());
+            discoverQuery.setCursorMark(result.getNextCursorMark());
+            pages++;
+        } while (!cursorMark.equals(discoverQuery.getCursorMark()));
+        // 7 pages of results, and an empty one telling the walk is over
+        assertEquals(8, pages);
+        assertEquals(numberItems, titles.size());
+        for (int i = 0; i < numberItems; i++) {
+            assertEquals(String.format("item %02d", i), titles.get(i));
+        }
+
+        // the iterator walks with a cursor as well, by pages of the max results of the query
+        discoverQuery = new DiscoverQuery();
+        discoverQuery.setDSpaceObjectFilter(IndexableItem.TYPE);
+        discoverQuery.setMaxResults(3);
+        Iterator<Item> itemIterator =
+            searchService.iteratorSearch(context, new IndexableCollection(collection), discoverQuery);
+        Set<Item> foundItems = new HashSet<>();
+        while (itemIterator.hasNext()) {
+            assertTrue(foundItems.add(itemIterator.next()));
+        }
+        assertEquals(numberItems, foundItems.size());
+        assertFalse(itemIterator.hasNext());
+
+        // ...unless it starts from an offset
+        discoverQuery = new DiscoverQuery();
+        discoverQuery.setDSpaceObjectFilter(IndexableItem.TYPE);
+        discoverQuery.setMaxResults(3);
+        discoverQuery.setStart(20);
+        itemIterator = searchService.iteratorSearch(context, new IndexableCollection(collection), discoverQuery);
+        int counter = 0;
+        while (itemIterator.hasNext()) {
+            itemIterator.next();
+            counter++;
+        }
+        assertEquals(numberItems - 20, counter);
+    }
+
+    @Test
+    public void searchResultsKeepTheOrderOfTheIndexTest() throws Exception {
+        // keep the stale entry in the results
+        configurationService.setProperty("discovery.removestale.attempts", -1);
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, community).build();
+        List<String> uniqueIds = new ArrayList<>(List.of(new IndexableCommunity(community).getUniqueIndexID(),
+                                                         new IndexableCollection(collection).getUniqueIndexID()));
+        for (int i = 0; i < 5; i++) {
+            Item item = ItemBuilder.createItem(context, collection).withTitle("item " + i).build();
+            uniqueIds.add(new IndexableItem(item).getUniqueIndexID());
+        }
+        Item deletedItem = ItemBuilder.createItem(context, collection).withTitle("deleted item").build();
+        context.restoreAuthSystemState();
+        context.commit();
+
+        String deletedUniqueId = new IndexableItem(deletedItem).getUniqueIndexID();
+        DiscoverQuery discoverQuery = new DiscoverQuery();
+        discoverQuery.addFilterQueries(SearchUtils.RESOURCE_UNIQUE_ID + ":(\""
+                                           + String.join("\" OR \"", uniqueIds) + "\" OR \"" + deletedUniqueId
+                                           + "\")");
+        discoverQuery.setSortField(SearchUtils.RESOURCE_UNIQUE_ID, DiscoverQuery.SORT_ORDER.desc);
+        discoverQuery.setMaxResults(10);
+
+        // remove the item from the database only, its document is now stale
+        context.setDispatcher("noindex");
+        context.turnOffAuthorisationSystem();
+        itemService.delete(context, context.reloadEntity(deletedItem));
+        context.restoreAuthSystemState();
+
+        // the objects of each type are loaded at once, the results are still in the order of the index
+        DiscoverResult result = searchService.search(context, discoverQuery);
+        assertEquals(uniqueIds.size() + 1, result.getTotalSearchResults());
+        uniqueIds.sort(Comparator.reverseOrder());
+        List<String> foundUniqueIds = new ArrayList<>();
+        for (IndexableObject indexableObject : result.getIndexableObjects()) {
+            foundUniqueIds.add(indexableObject.getUniqueIndexID());
+        }
+        assertEquals(uniqueIds, foundUniqueIds);
+    }
+
+    @Test
+    public void documentBuildCacheBuildsTheSameDocumentsTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Community subCommunity = CommunityBuilder.createSubCommunity(context, community).build();
+        Collection collection = CollectionBuilder.createCollection(context, subCommunity).build();
+        Item firstItem = ItemBuilder.createItem(context, collection).withTitle("first item")
+                                    .withIssueDate("2020-01-01").withSubject("subject").build();
+        Item secondItem = ItemBuilder.createItem(context, collection).withTitle("second item")
+                                     .withIssueDate("2021-01-01").withAuthor("Smith, John").build();
+        context.restoreAuthSystemState();
+
+        ItemIndexFactory itemIndexFactory = (ItemIndexFactory) IndexObjectFactoryFactory.getInstance()
+                                                                                        .getIndexFactoryByType(
+                                                                                            IndexableItem.TYPE);
+        List<SolrInputDocument> expected = new ArrayList<>();
+        for (Item item : List.of(firstItem, secondItem)) {
+            expected.add(itemIndexFactory.buildDocument(context, new IndexableItem(item)));
+        }
+        assertNull(DocumentBuildCache.getCurrent());
+
+        try (DocumentBuildCache.Scope scope = DocumentBuildCache.open()) {
+            DocumentBuildCache cache = DocumentBuildCache.getCurrent();
+            // the second item is built with the values resolved for the first one
+            for (int i = 0; i < 2; i++) {
+                Item item = i == 0 ? firstItem : secondItem;
+                SolrInputDocument doc = itemIndexFactory.buildDocument(context, new IndexableItem(item));
+                assertEquals(withoutLastIndexed(expected.get(i)), withoutLastIndexed(doc));
+            }
+            assertEquals(Set.of("m" + community.getID(), "m" + subCommunity.getID()),
+                         new HashSet<>(cache.getCommunityLocations(collection.getID())));
+            assertNotNull(cache.getDiscoveryConfigurations(List.of(collection.getID())));
+            try (DocumentBuildCache.Scope nestedScope = DocumentBuildCache.open()) {
+                assertEquals(cache, DocumentBuildCache.getCurrent());
+            }
+            assertEquals(cache, DocumentBuildCache.getCurrent());
+        }
+        assertNull(DocumentBuildCache.getCurrent());
+    }
+
+    @Test
+    public void cleanIndexRemovesTheDocumentsOfDeletedObjectsTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, community).build();
+        Collection deletedCollection = CollectionBuilder.createCollection(context, community).build();
+        List<String> keptUniqueIds = new ArrayList<>(List.of(new IndexableCommunity(community).getUniqueIndexID(),
+                                                             new IndexableCollection(collection).getUniqueIndexID()));
+        List<String> deletedUniqueIds = new ArrayList<>(
+            List.of(new IndexableCollection(deletedCollection).getUniqueIndexID()));
+        List<Item> deletedItems = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Item item = ItemBuilder.createItem(context, collection).withTitle("item " + i).build();
+            if (i % 2 == 0) {
+                deletedItems.add(item);
+                deletedUniqueIds.add(new IndexableItem(item).getUniqueIndexID());
+            } else {
+                keptUniqueIds.add(new IndexableItem(item).getUniqueIndexID());
+            }
+        }
+        context.restoreAuthSystemState();
+        context.commit();
+
+        // remove the objects from the database only, their documents are now stale
+        context.setDispatcher("noindex");
+        context.turnOffAuthorisationSystem();
+        for (Item item : deletedItems) {
+            itemService.delete(context, context.reloadEntity(item));
+        }
+        collectionService.delete(context, context.reloadEntity(deletedCollection));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        // read the documents a few at a time, so that the cleanup walks through several pages
+        configurationService.setProperty("discovery.index.clean.batchSize", 3);
+        try {
+            TestDSpaceRunnableHandler handler = new TestDSpaceRunnableHandler();
+            indexer.cleanIndex(handler);
+            assertFalse(handler.getInfoMessages().isEmpty());
+        } finally {
+            configurationService.setProperty("discovery.index.clean.batchSize", null);
+        }
+
+        for (String uniqueId : keptUniqueIds) {
+            assertEquals(uniqueId, 1, countDocuments(uniqueId));
+        }
+        for (String uniqueId : deletedUniqueIds) {
+            assertEquals(uniqueId, 0, countDocuments(uniqueId));
+        }
+    }
+
+    private long countDocuments(String uniqueId) throws Exception {
+        SolrQuery solrQuery = new SolrQuery(SearchUtils.RESOURCE_UNIQUE_ID + ":\"" + uniqueId + "\"");
+        return solrSearchCore.getSolr().query(solrQuery).getResults().getNumFound();
+    }
+
+    private Map<String, List<Object>> withoutLastIndexed(SolrInputDocument doc) {
+        Map<String, List<Object>> fields = new HashMap<>();
+        for (String field : doc.getFieldNames()) {
+            if (!SearchUtils.LAST_INDEXED_FIELD.equals(field)) {
+                fields.put(field, new ArrayList<>(doc.getFieldValues(field)));
+            }
+        }
+        return fields;
+    }
+
+    @Test
+    public void rebuildIndexWithSeveralThreadsTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, community).build();
+        int numberItems = 25;
+        for (int i = 0; i < numberItems; i++) {
+            ItemBuilder.createItem(context, collection)
+                .withTitle("item " + i)
+                .build();
+        }
+        WorkspaceItemBuilder.createWorkspaceItem(context, collection)
+            .withTitle("workspace item")
+            .build();
+        context.restoreAuthSystemState();
+        // the workers use their own database connections, so they only see committed items
+        context.commit();
+
+        String[] args = new String[] {"index-discovery", "-b", "-p", "3"};
+        TestDSpaceRunnableHandler testDSpaceRunnableHandler = new TestDSpaceRunnableHandler();
+        ScriptLauncher
+                .handleScript(args, ScriptLauncher.getConfig(kernelImpl), testDSpaceRunnableHandler, kernelImpl);
+
+        assertTrue(testDSpaceRunnableHandler.getErrorMessages().isEmpty());
+        assertSearchQuery(IndexableItem.TYPE, numberItems, numberItems, 0, numberItems);
+        assertSearchQuery(IndexableWorkspaceItem.TYPE, 1);
+        assertSearchQuery(IndexableCollection.TYPE, 1);
+    }
+
+    @Test
+    public void updateIndexOnlyReindexesMissingAndOrphanedItemsTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, community).build();
+        Item missingItem = ItemBuilder.createItem(context, collection).withTitle("missing item").build();
+        Item currentItem = ItemBuilder.createItem(context, collection).withTitle("current item").build();
+        context.restoreAuthSystemState();
+        context.commit();
+        indexer.commit();
+
+        String orphanId = IndexableItem.TYPE + "-" + UUID.randomUUID();
+        SolrInputDocument orphan = new SolrInputDocument();
+        orphan.addField(SearchUtils.RESOURCE_UNIQUE_ID, orphanId);
+        orphan.addField(SearchUtils.RESOURCE_TYPE_FIELD, IndexableItem.TYPE);
+        orphan.addField(SearchUtils.RESOURCE_ID_FIELD, orphanId.substring(IndexableItem.TYPE.length() + 1));
+        orphan.addField(SearchUtils.LAST_INDEXED_FIELD, new Date());
+        solrSearchCore.getSolr().add(orphan);
+        solrSearchCore.getSolr().deleteById(IndexableItem.TYPE + "-" + missingItem.getID());
+        solrSearchCore.getSolr().commit();
+        Object lastIndexed = getLastIndexed(IndexableItem.TYPE + "-" + currentItem.getID());
+
+        String[] args = new String[] {"index-discovery"};
+        TestDSpaceRunnableHandler testDSpaceRunnableHandler = new TestDSpaceRunnableHandler();
+        ScriptLauncher
+                .handleScript(args, ScriptLauncher.getConfig(kernelImpl), testDSpaceRunnableHandler, kernelImpl);
+
+        assertTrue(testDSpaceRunnableHandler.getErrorMessages().isEmpty());
+        assertNotNull(getLastIndexed(IndexableItem.TYPE + "-" + missingItem.getID()));
+        assertNull(getLastIndexed(orphanId));
+        // the item was up to date, so it must not have been indexed again
+        assertEquals(lastIndexed, getLastIndexed(IndexableItem.TYPE + "-" + currentItem.getID()));
+    }
+
+    @Test
+    public void changedPersonReindexesItsPublicationsTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection publications = CollectionBuilder.createCollection(context, community)
+                                                   .withEntityType("Publication").build();
+        Collection people = CollectionBuilder.createCollection(context, community).withEntityType("Person").build();
+        EntityType publicationType = EntityTypeBuilder.createEntityTypeBuilder(context, "Publication").build();
+        EntityType personType = EntityTypeBuilder.createEntityTypeBuilder(context, "Person").build();
+        RelationshipType isAuthorOfPublication = RelationshipTypeBuilder
+            .createRelationshipTypeBuilder(context, publicationType, personType, "isAuthorOfPublication",
+                                           "isPublicationOfAuthor", null, null, null, null).build();
+        Item person = ItemBuilder.createItem(context, people).withPersonIdentifierLastName("Smith")
+                                 .withPersonIdentifierFirstName("John").build();
+        Item firstPublication = ItemBuilder.createItem(context, publications).withTitle("first").build();
+        Item secondPublication = ItemBuilder.createItem(context, publications).withTitle("second").build();
+        RelationshipBuilder.createRelationshipBuilder(context, firstPublication, person, isAuthorOfPublication)
+                           .build();
+        RelationshipBuilder.createRelationshipBuilder(context, secondPublication, person, isAuthorOfPublication)
+                           .build();
+        context.commit();
+        assertEquals(1, countAuthoredDocuments(firstPublication, "Smith, John"));
+        assertEquals(1, countAuthoredDocuments(secondPublication, "Smith, John"));
+
+        // only the person changes, the virtual metadata of its publications follows
+        person = context.reloadEntity(person);
+        itemService.clearMetadata(context, person, "person", "familyName", null, Item.ANY);
+        itemService.addMetadata(context, person, "person", "familyName", null, null, "Jones");
+        itemService.update(context, person);
+        context.commit();
+        context.restoreAuthSystemState();
+
+        assertEquals(1, countAuthoredDocuments(firstPublication, "Jones, John"));
+        assertEquals(1, countAuthoredDocuments(secondPublication, "Jones, John"));
+        assertEquals(0, countAuthoredDocuments(firstPublication, "Smith, John"));
+    }
+
+    @Test
+    public void relatedItemsAboveTheMaxAreReindexedInBatchesTest() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection publications = CollectionBuilder.createCollection(context, community)
+                                                   .withEntityType("Publication").build();
+        Collection people = CollectionBuilder.createCollection(context, community).withEntityType("Person").build();
+        EntityType publicationType = EntityTypeBuilder.createEntityTypeBuilder(context, "Publication").build();
+        EntityType personType = EntityTypeBuilder.createEntityTypeBuilder(context, "Person").build();
+        RelationshipType isAuthorOfPublication = RelationshipTypeBuilder
+            .createRelationshipTypeBuilder(context, publicationType, personType, "isAuthorOfPublication",
+                                           "isPublicationOfAuthor", null, null, null, null).build();
+        Item person = ItemBuilder.createItem(context, people).withPersonIdentifierLastName("Smith")
+                                 .withPersonIdentifierFirstName("John").build();
+        List<Item> authoredPublications = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Item publication = ItemBuilder.createItem(context, publications).withTitle("publication " + i).build();
+            RelationshipBuilder.createRelationshipBuilder(context, publication, person, isAuthorOfPublication)
+                               .build();
+            authoredPublications.add(publication);
+        }
+        context.commit();
+
+        // fewer related items than the publications of the person are indexed at once
+        configurationService.setProperty("discovery.index.relateditems.max", 2);
+        try {
+            person = context.reloadEntity(person);
+            itemService.clearMetadata(context, person, "person", "familyName", null, Item.ANY);
+            itemService.addMetadata(context, person, "person", "familyName", null, null, "Jones");
+            itemService.update(context, person);
+            context.commit();
+        } finally {
+            configurationService.setProperty("discovery.index.relateditems.max", null);
+        }
+        context.restoreAuthSystemState();
+
+        for (Item publication : authoredPublications) {
+            assertEquals(1, countAuthoredDocuments(publication, "Jones, John"));
+        }
+    }
+
+    private long countAuthoredDocuments(Item item, String author) throws Exception {
+        SolrQuery solrQuery = new SolrQuery(SearchUtils.RESOURCE_UNIQUE_ID + ":\"" + IndexableItem.TYPE + "-"
+                                                + item.getID() + "\" AND dc.contributor.author:\"" + author + "\"");
+        return solrSearchCore.getSolr().query(solrQuery).getResults().getNumFound();
+    }
+
+    private Object getLastIndexed(String uniqueId) throws Exception {
+        SolrQuery query = new SolrQuery(SearchUtils.RESOURCE_UNIQUE_ID + ":\"" + uniqueId + "\"");
+        query.setFields(SearchUtils.LAST_INDEXED_FIELD);
+        SolrDocumentList docs = solrSearchCore.getSolr().query(query).getResults();
+        return docs.isEmpty() ? null : docs.get(0).getFieldValue(SearchUtils.LAST_INDEXED_FIELD);
+    }
+
     /**
      * Test designed to check if default sort option for Discovery is working, using <code>workspace</code>
      * DiscoveryConfiguration <br/>
@@ -0,0 +1,104 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.apache.tika.metadata.Metadata;
+import org.dspace.services.ConfigurationService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FullTextCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @InjectMocks
+    private FullTextCache cache;
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    @Mock
+    private FullTextContentStreams streams;
+
+    @Before
+    public void setUp() throws Exception {
+        when(configurationService.getProperty("discovery.solr.fulltext.cache.dir"))
+            .thenReturn(folder.getRoot().getAbsolutePath());
+    }
+
+    @Test
+    public void testPutAndGet() {
+        when(streams.getChecksums()).thenReturn(Arrays.asList("MD5:abc", "MD5:def"));
+        String key = cache.getKey(streams, 100);
+        assertNull(cache.get(key));
+
+        Metadata metadata = new Metadata();
+        metadata.add("Content-Type", "text/plain; charset=UTF-8");
+        metadata.add("Content-Encoding", "UTF-8");
+        cache.put(key, new FullTextCache.Entry("Some text with accents: éàü", metadata));
+
+        FullTextCache.Entry entry = cache.get(key);
+        assertNotNull(entry);
+        assertEquals("Some text with accents: éàü", entry.getText());
+        assertArrayEquals(new String[] {"text/plain; charset=UTF-8"}, entry.getMetadata().getValues("Content-Type"));
+        assertArrayEquals(new String[] {"UTF-8"}, entry.getMetadata().getValues("Content-Encoding"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testKeyDependsOnChecksumsAndCharLimit() {
+        when(streams.getChecksums()).thenReturn(Arrays.asList("MD5:abc", "MD5:def"));
+        String key = cache.getKey(streams, 100);
+        assertEquals(key, cache.getKey(streams, 100));
+        assertNotEquals(key, cache.getKey(streams, 200));
+
+        when(streams.getChecksums()).thenReturn(Arrays.asList("MD5:def", "MD5:abc"));
+        assertNotEquals(key, cache.getKey(streams, 100));
+
+        when(streams.getChecksums()).thenReturn(null);
+        assertNull(cache.getKey(streams, 100));
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        when(streams.getChecksums()).thenReturn(Arrays.asList("MD5:abc"));
+        String unused = cache.getKey(streams, 100);
+        cache.put(unused, new FullTextCache.Entry("unused", new Metadata()));
+        when(streams.getChecksums()).thenReturn(Arrays.asList("MD5:def"));
+        String used = cache.getKey(streams, 100);
+        cache.put(used, new FullTextCache.Entry("used", new Metadata()));
+
+        Thread.sleep(20);
+        Instant buildStart = Instant.now();
+        Thread.sleep(20);
+        assertNotNull(cache.get(used));
+
+        assertEquals(1, cache.prune(buildStart));
+        assertNull(cache.get(unused));
+        assertEquals("used", cache.get(used).getText());
+    }
+}
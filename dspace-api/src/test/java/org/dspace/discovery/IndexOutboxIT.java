@@ -0,0 +1,175 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Community;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.discovery.dao.IndexOutboxDAO;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.service.IndexOutboxService;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the asynchronous indexing through the {@link IndexOutboxService} and the {@link IndexOutboxProcessor}.
+ */
+public class IndexOutboxIT extends AbstractIntegrationTestWithDatabase {
+
+    private final ConfigurationService configurationService =
+        DSpaceServicesFactory.getInstance().getConfigurationService();
+
+    private final IndexOutboxService indexOutboxService = DSpaceServicesFactory.getInstance().getServiceManager()
+        .getServiceByName(IndexOutboxService.class.getName(), IndexOutboxService.class);
+
+    private final IndexOutboxDAO indexOutboxDAO = DSpaceServicesFactory.getInstance().getServiceManager()
+        .getServicesByType(IndexOutboxDAO.class).get(0);
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+
+    private final MockSolrSearchCore solrSearchCore = DSpaceServicesFactory.getInstance().getServiceManager()
+        .getServiceByName(null, MockSolrSearchCore.class);
+
+    private Collection collection;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, community).build();
+        context.restoreAuthSystemState();
+        context.commit();
+        configurationService.setProperty("discovery.index.async.enabled", true);
+    }
+
+    @After
+    @Override
+    public void destroy() throws Exception {
+        configurationService.setProperty("discovery.index.async.enabled", false);
+        for (IndexOutboxEntry entry : indexOutboxDAO.findAll(context, IndexOutboxEntry.class)) {
+            indexOutboxDAO.delete(context, entry);
+        }
+        context.commit();
+        super.destroy();
+    }
+
+    @Test
+    public void testChangesAreQueuedAndIndexedInTheBackground() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Queued item").build();
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertTrue(indexOutboxService.countPending(context) > 0);
+        assertNotNull(indexOutboxService.getOldestPending(context));
+        assertEquals(0, countDocuments(IndexableItem.TYPE + "-" + item.getID()));
+
+        IndexOutboxProcessor processor = new IndexOutboxProcessor();
+        while (processor.processBatch() > 0) {
+            // drain the outbox
+        }
+
+        assertEquals(0, indexOutboxService.countPending(context));
+        assertEquals(1, countDocuments(IndexableItem.TYPE + "-" + item.getID()));
+        assertEquals(0, processor.getFailedCount());
+        assertEquals(0, processor.getLagMillis());
+    }
+
+    @Test
+    public void testRepeatedChangesAreMerged() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Changed item").build();
+        context.commit();
+        for (int i = 0; i < 3; i++) {
+            item = context.reloadEntity(item);
+            itemService.addMetadata(context, item, "dc", "subject", null, null, "subject " + i);
+            itemService.update(context, item);
+            context.commit();
+        }
+        context.restoreAuthSystemState();
+
+        IndexOutboxProcessor processor = new IndexOutboxProcessor();
+        while (processor.processBatch() > 0) {
+            // drain the outbox
+        }
+
+        assertTrue(processor.getMergedCount() > 0);
+        assertEquals(1, countDocuments(IndexableItem.TYPE + "-" + item.getID()));
+        assertEquals(1, countQuery("dc.subject:\"subject 2\" AND " + SearchUtils.RESOURCE_UNIQUE_ID + ":\""
+                                       + IndexableItem.TYPE + "-" + item.getID() + "\""));
+    }
+
+    @Test
+    public void testDeletedObjectsAreRemoved() throws Exception {
+        context.turnOffAuthorisationSystem();
+        Item item = ItemBuilder.createItem(context, collection).withTitle("Deleted item").build();
+        context.commit();
+        IndexOutboxProcessor processor = new IndexOutboxProcessor();
+        while (processor.processBatch() > 0) {
+            // drain the outbox
+        }
+        assertEquals(1, countDocuments(IndexableItem.TYPE + "-" + item.getID()));
+
+        itemService.delete(context, context.reloadEntity(item));
+        context.commit();
+        context.restoreAuthSystemState();
+        while (processor.processBatch() > 0) {
+            // drain the outbox
+        }
+
+        assertEquals(0, countDocuments(IndexableItem.TYPE + "-" + item.getID()));
+    }
+
+    @Test
+    public void testFailedRecordsAreRetriedLater() throws Exception {
+        IndexOutboxEntry entry = indexOutboxService.enqueue(context, "Item-not-a-document",
+                                                            IndexOutboxEntry.Action.UPDATE, false);
+        context.commit();
+
+        List<IndexOutboxEntry> claimed = indexOutboxService.claim(context, 10, 60000);
+        assertEquals(1, claimed.size());
+        indexOutboxService.fail(context, claimed.get(0), "search core unavailable");
+        context.commit();
+
+        // neither leased nor failed records are claimed before their next attempt
+        assertTrue(indexOutboxService.claim(context, 10, 60000).isEmpty());
+        entry = context.reloadEntity(entry);
+        assertEquals(1, entry.getAttempts());
+        assertEquals("search core unavailable", entry.getLastError());
+        assertTrue(entry.getNextAttempt().isAfter(Instant.now()));
+    }
+
+    private long countDocuments(String uniqueId) throws Exception {
+        return countQuery(SearchUtils.RESOURCE_UNIQUE_ID + ":\"" + uniqueId + "\"");
+    }
+
+    private long countQuery(String query) throws Exception {
+        SolrQuery solrQuery = new SolrQuery(query);
+        solrQuery.setRows(0);
+        return solrSearchCore.getSolr().query(solrQuery).getResults().getNumFound();
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.services.ConfigurationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IndexingMetricsTest {
+
+    @InjectMocks
+    private IndexingMetrics indexingMetrics;
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    @Before
+    public void setUp() {
+        lenient().when(configurationService.getBooleanProperty(eq("discovery.index.metrics.enabled"), anyBoolean()))
+                 .thenReturn(true);
+        indexingMetrics.afterPropertiesSet();
+    }
+
+    @Test
+    public void testTimingsAreRecordedPerPluginFactoryAndPhase() throws Exception {
+        SolrServiceIndexPlugin plugin = mock(SolrServiceIndexPlugin.class);
+        for (int i = 0; i < 3; i++) {
+            long start = indexingMetrics.start();
+            Thread.sleep(1);
+            indexingMetrics.recordPlugin(plugin, start);
+            indexingMetrics.recordFactory("Item", start);
+            indexingMetrics.recordPhase(IndexingMetrics.Phase.SOLR_SEND, start, 10);
+        }
+
+        IndexingMetrics.Metric pluginMetric = indexingMetrics.getPlugins().get(plugin.getClass().getSimpleName());
+        assertEquals(3, pluginMetric.getCount());
+        assertTrue(pluginMetric.getTotal() >= 3_000_000);
+        assertTrue(pluginMetric.getMax() >= 1_000_000);
+        assertEquals(3, indexingMetrics.getFactories().get("Item").getCount());
+        assertEquals(30, indexingMetrics.getPhases().get(IndexingMetrics.Phase.SOLR_SEND).getCount());
+        assertEquals(0, indexingMetrics.getPhases().get(IndexingMetrics.Phase.FULL_TEXT).getCount());
+    }
+
+    @Test
+    public void testDocumentSizesAreRecordedByTheDocumentBuffer() {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> mock(SolrClient.class),
+                                                           100, 0, 0);
+        buffer.setIndexingMetrics(indexingMetrics);
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField(SearchUtils.RESOURCE_UNIQUE_ID, "Item-1");
+        doc.addField(SearchUtils.RESOURCE_TYPE_FIELD, "Item");
+        buffer.add(doc);
+        buffer.flush();
+
+        IndexingMetrics.Metric sizes = indexingMetrics.getDocumentSizes().get("Item");
+        assertEquals(1, sizes.getCount());
+        assertEquals(SolrDocumentBuffer.estimateSize(doc), sizes.getTotal());
+        assertEquals(1, indexingMetrics.getPhases().get(IndexingMetrics.Phase.SOLR_SEND).getCount());
+
+        List<String> summary = indexingMetrics.getSummary();
+        assertTrue(summary.get(0).startsWith("phase solr_send: 1 times"));
+        assertTrue(summary.get(1).startsWith("document Item: 1 documents"));
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenDisabledOrAfterAReset() {
+        indexingMetrics.recordFactory("Item", indexingMetrics.start());
+        indexingMetrics.reset();
+        assertTrue(indexingMetrics.getFactories().isEmpty());
+        assertTrue(indexingMetrics.getSummary().isEmpty());
+
+        when(configurationService.getBooleanProperty(eq("discovery.index.metrics.enabled"), anyBoolean()))
+            .thenReturn(false);
+        indexingMetrics.afterPropertiesSet();
+        indexingMetrics.recordFactory("Item", indexingMetrics.start());
+        indexingMetrics.recordDocumentSize("Item", 100);
+        assertTrue(indexingMetrics.getFactories().isEmpty());
+        assertTrue(indexingMetrics.getDocumentSizes().isEmpty());
+    }
+}
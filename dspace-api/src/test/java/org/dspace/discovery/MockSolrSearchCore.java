@@ -8,7 +8,6 @@
 package org.dspace.discovery;
 
 import org.dspace.solr.MockSolrServer;
-import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +17,7 @@ import org.springframework.stereotype.Service;
  */
 @Service
 public class MockSolrSearchCore extends SolrSearchCore
-        implements InitializingBean, DisposableBean {
+        implements InitializingBean {
     private MockSolrServer mockSolrServer;
 
     @Override
@@ -31,11 +30,15 @@ public class MockSolrSearchCore extends SolrSearchCore
      * Reset the core for the next test.  See {@link MockSolrServer#reset()}.
      */
     public void reset() {
+        if (documentBuffer != null) {
+            documentBuffer.clear();
+        }
         mockSolrServer.reset();
     }
 
     @Override
     public void destroy() throws Exception {
+        super.destroy();
         mockSolrServer.destroy();
     }
 }
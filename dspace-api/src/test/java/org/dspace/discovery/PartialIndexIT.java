@@ -0,0 +1,212 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.authorize.factory.AuthorizeServiceFactory;
+import org.dspace.authorize.service.AuthorizeService;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Community;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Constants;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.indexobject.ItemIndexFactoryImpl;
+import org.dspace.eperson.Group;
+import org.dspace.eperson.factory.EPersonServiceFactory;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the partial update of the documents of items through {@link IndexingService#updatePartially}. A marker
+ * field is written to the document of the item beforehand: it is kept by a partial update and lost when the
+ * document is rebuilt.
+ */
+public class PartialIndexIT extends AbstractIntegrationTestWithDatabase {
+
+    private static final String MARKER_FIELD = "partial.marker_s";
+
+    private final ConfigurationService configurationService =
+        DSpaceServicesFactory.getInstance().getConfigurationService();
+
+    private final ItemService itemService = ContentServiceFactory.getInstance().getItemService();
+
+    private final AuthorizeService authorizeService = AuthorizeServiceFactory.getInstance().getAuthorizeService();
+
+    private final MockSolrSearchCore solrSearchCore = DSpaceServicesFactory.getInstance().getServiceManager()
+        .getServiceByName(null, MockSolrSearchCore.class);
+
+    private Item item;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).build();
+        Collection collection = CollectionBuilder.createCollection(context, community).build();
+        item = ItemBuilder.createItem(context, collection).withTitle("Partially indexed item").build();
+        context.restoreAuthSystemState();
+        context.commit();
+        addMarker();
+    }
+
+    @After
+    @Override
+    public void destroy() throws Exception {
+        configurationService.setProperty("discovery.index.partial.enabled", true);
+        super.destroy();
+    }
+
+    @Test
+    public void testPolicyChangeIsIndexedPartially() throws Exception {
+        Group anonymous = EPersonServiceFactory.getInstance().getGroupService().findByName(context, Group.ANONYMOUS);
+        assertTrue(getDocument().getFieldValues("read").contains("g" + anonymous.getID()));
+
+        context.turnOffAuthorisationSystem();
+        authorizeService.removeGroupPolicies(context, context.reloadEntity(item), anonymous);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        SolrDocument document = getDocument();
+        assertEquals("marker", document.getFirstValue(MARKER_FIELD));
+        assertTrue(document.getFieldValues("read") == null
+                       || !document.getFieldValues("read").contains("g" + anonymous.getID()));
+        assertEquals(Collections.singletonList("Partially indexed item"), document.getFieldValues("dc.title"));
+    }
+
+    @Test
+    public void testDiscoverabilityChangeIsIndexedPartially() throws Exception {
+        context.turnOffAuthorisationSystem();
+        item = context.reloadEntity(item);
+        item.setDiscoverable(false);
+        itemService.update(context, item);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        SolrDocument document = getDocument();
+        assertEquals("marker", document.getFirstValue(MARKER_FIELD));
+        assertEquals("false", document.getFirstValue("discoverable"));
+    }
+
+    @Test
+    public void testWithdrawalIsIndexedPartially() throws Exception {
+        context.turnOffAuthorisationSystem();
+        itemService.withdraw(context, context.reloadEntity(item));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        SolrDocument document = getDocument();
+        assertEquals("marker", document.getFirstValue(MARKER_FIELD));
+        assertEquals("true", document.getFirstValue("withdrawn"));
+        assertEquals("false", document.getFirstValue("archived"));
+
+        addMarker();
+        context.turnOffAuthorisationSystem();
+        itemService.reinstate(context, context.reloadEntity(item));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        document = getDocument();
+        assertEquals("marker", document.getFirstValue(MARKER_FIELD));
+        assertEquals("false", document.getFirstValue("withdrawn"));
+        assertEquals("true", document.getFirstValue("archived"));
+    }
+
+    @Test
+    public void testNotIndexedMetadataChangeIsIndexedPartially() throws Exception {
+        context.turnOffAuthorisationSystem();
+        item = context.reloadEntity(item);
+        itemService.addMetadata(context, item, "dc", "description", "provenance", null, "Some provenance");
+        itemService.update(context, item);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertEquals("marker", getDocument().getFirstValue(MARKER_FIELD));
+    }
+
+    @Test
+    public void testIndexedMetadataChangeRebuildsTheDocument() throws Exception {
+        String hash = (String) getDocument().getFirstValue(ItemIndexFactoryImpl.METADATA_HASH_FIELD);
+        assertNotNull(hash);
+
+        context.turnOffAuthorisationSystem();
+        item = context.reloadEntity(item);
+        itemService.addMetadata(context, item, "dc", "subject", null, null, "Some subject");
+        itemService.update(context, item);
+        context.restoreAuthSystemState();
+        context.commit();
+
+        SolrDocument document = getDocument();
+        assertNull(document.getFirstValue(MARKER_FIELD));
+        assertEquals(Collections.singletonList("Some subject"), document.getFieldValues("dc.subject"));
+        assertFalse(hash.equals(document.getFirstValue(ItemIndexFactoryImpl.METADATA_HASH_FIELD)));
+    }
+
+    @Test
+    public void testChangesRebuildTheDocumentWhenDisabled() throws Exception {
+        configurationService.setProperty("discovery.index.partial.enabled", false);
+        context.turnOffAuthorisationSystem();
+        authorizeService.removeAllPolicies(context, context.reloadEntity(item));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        assertNull(getDocument().getFirstValue(MARKER_FIELD));
+    }
+
+    @Test
+    public void testMissingDocumentIsIndexedFully() throws Exception {
+        solrSearchCore.getSolr().deleteById(IndexableItem.TYPE + "-" + item.getID());
+        solrSearchCore.getSolr().commit();
+
+        context.turnOffAuthorisationSystem();
+        authorizeService.addPolicy(context, context.reloadEntity(item), Constants.READ,
+                                   EPersonServiceFactory.getInstance().getGroupService()
+                                                        .findByName(context, Group.ADMIN));
+        context.restoreAuthSystemState();
+        context.commit();
+
+        SolrDocument document = getDocument();
+        assertEquals(Collections.singletonList("Partially indexed item"), document.getFieldValues("dc.title"));
+    }
+
+    private void addMarker() throws Exception {
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField(SearchUtils.RESOURCE_UNIQUE_ID, IndexableItem.TYPE + "-" + item.getID());
+        doc.addField(MARKER_FIELD, Collections.singletonMap("set", "marker"));
+        solrSearchCore.getSolr().add(doc);
+        solrSearchCore.getSolr().commit();
+    }
+
+    private SolrDocument getDocument() throws Exception {
+        SolrQuery solrQuery = new SolrQuery(SearchUtils.RESOURCE_UNIQUE_ID + ":\"" + IndexableItem.TYPE + "-"
+                                                + item.getID() + "\"");
+        SolrDocumentList results = solrSearchCore.getSolr().query(solrQuery).getResults();
+        assertEquals(1, results.getNumFound());
+        return results.get(0);
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.dspace.services.ConfigurationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchResultCacheTest {
+
+    @InjectMocks
+    private SearchResultCache cache;
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    @Before
+    public void setUp() {
+        lenient().when(configurationService.getLongProperty(eq("discovery.search.cache.ttl"), anyLong()))
+                 .thenReturn(60L);
+        lenient().when(configurationService.getLongProperty(eq("discovery.search.cache.maxSize"), anyLong()))
+            .thenReturn(100000L);
+    }
+
+    @Test
+    public void testKeyIgnoresTheOrderOfFilterQueries() {
+        SolrQuery query = new SolrQuery("*:*");
+        query.addFilterQuery("location:l1", "read:g0");
+        query.setRows(10);
+        SolrQuery sameQuery = new SolrQuery();
+        sameQuery.setRows(10);
+        sameQuery.addFilterQuery("read:g0", "location:l1");
+        sameQuery.setQuery("*:*");
+        assertEquals(cache.getKey(query), cache.getKey(sameQuery));
+
+        SolrQuery otherGroups = new SolrQuery("*:*");
+        otherGroups.addFilterQuery("location:l1", "read:g1");
+        otherGroups.setRows(10);
+        assertNotEquals(cache.getKey(query), cache.getKey(otherGroups));
+    }
+
+    @Test
+    public void testCommitInvalidatesTheCachedResponses() {
+        QueryResponse response = response("some value");
+        cache.put("key", cache.getGeneration(), response);
+        assertSame(response, cache.get("key"));
+        assertEquals(1, cache.getEntryCount());
+
+        cache.invalidate();
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testResponseRetrievedBeforeACommitIsNotCached() {
+        long generation = cache.getGeneration();
+        cache.invalidate();
+        cache.put("key", generation, response("some value"));
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testExpiredResponsesAreNotReturned() {
+        when(configurationService.getLongProperty(eq("discovery.search.cache.ttl"), anyLong())).thenReturn(0L);
+        cache.put("key", cache.getGeneration(), response("some value"));
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResponsesAreEvicted() {
+        String value = StringUtils.repeat('x', 9000);
+        for (int i = 0; i < 5; i++) {
+            cache.put("key" + i, cache.getGeneration(), response(value));
+        }
+        // read the first response so that it is the most recently used one
+        cache.get("key0");
+        cache.put("key5", cache.getGeneration(), response(value));
+
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("key1"));
+        assertEquals(value, cache.get("key0").getResults().get(0).getFirstValue("field"));
+        assertEquals(5, cache.getEntryCount());
+    }
+
+    @Test
+    public void testLargeResponsesAreNotCached() {
+        cache.put("key", cache.getGeneration(), response(StringUtils.repeat('x', 20000)));
+        assertNull(cache.get("key"));
+    }
+
+    private QueryResponse response(String value) {
+        SolrDocument document = new SolrDocument();
+        document.addField("field", value);
+        SolrDocumentList results = new SolrDocumentList();
+        results.add(document);
+        results.setNumFound(1);
+        NamedList<Object> namedList = new NamedList<>();
+        namedList.add("response", results);
+        QueryResponse response = new QueryResponse();
+        response.setResponse(namedList);
+        return response;
+    }
+}
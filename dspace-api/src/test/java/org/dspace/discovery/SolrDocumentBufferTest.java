@@ -0,0 +1,179 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SolrDocumentBufferTest {
+
+    @Mock
+    private SolrClient solr;
+
+    @Test
+    public void testFlushOnDocumentCount() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 3, 0, 0);
+
+        buffer.add(document("Item-1"));
+        buffer.add(document("Item-2"));
+        verify(solr, never()).add(anyCollection());
+        assertEquals(2, buffer.getPendingCount());
+
+        buffer.add(document("Item-3"));
+        verify(solr, times(1)).add(argThat((Collection<SolrInputDocument> docs) -> docs.size() == 3));
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(3, buffer.getSentCount());
+    }
+
+    @Test
+    public void testFlushOnPayloadSize() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 100, 10, 0);
+
+        SolrInputDocument doc = document("Item-1");
+        doc.addField("fulltext", "a value which is longer than the maximum batch size");
+        buffer.add(doc);
+
+        verify(solr, times(1)).add(anyCollection());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    public void testDeleteByIdDiscardsPendingDocument() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 100, 0, 0);
+
+        buffer.add(document("Item-1"));
+        buffer.add(document("Item-2"));
+        buffer.deleteById("Item-1");
+        buffer.flush();
+
+        verify(solr).deleteById("Item-1");
+        verify(solr).add(argThat((Collection<SolrInputDocument> docs) -> docs.size() == 1
+            && "Item-2".equals(docs.iterator().next().getFieldValue(SearchUtils.RESOURCE_UNIQUE_ID))));
+    }
+
+    @Test
+    public void testDeleteByQueryFlushesFirst() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 100, 0, 0);
+
+        buffer.add(document("Item-1"));
+        buffer.deleteByQuery("search.resourcetype:Item");
+
+        InOrder order = inOrder(solr);
+        order.verify(solr).add(anyCollection());
+        order.verify(solr).deleteByQuery("search.resourcetype:Item");
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedPerDocument() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 100, 0, 0);
+        SolrInputDocument good = document("Item-1");
+        SolrInputDocument bad = document("Item-2");
+        when(solr.add(anyCollection())).thenThrow(new SolrServerException("batch refused"));
+        when(solr.add(bad)).thenThrow(new SolrServerException("document refused"));
+
+        buffer.add(good);
+        buffer.add(bad);
+        List<String> failed = buffer.flush();
+
+        assertEquals(List.of("Item-2"), failed);
+        verify(solr).add(good);
+        assertEquals(1, buffer.getSentCount());
+        assertEquals(1, buffer.getFailedCount());
+    }
+
+    @Test
+    public void testRefusedDocumentIsSentWithTheNextBatch() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 2, 0, 0);
+        SolrInputDocument good = document("Item-1");
+        SolrInputDocument bad = document("Item-2");
+        when(solr.add(anyCollection())).thenThrow(new SolrServerException("batch refused")).thenReturn(null);
+        when(solr.add(bad)).thenThrow(new SolrServerException("document refused"));
+
+        buffer.add(good);
+        buffer.add(bad);
+        assertEquals(1, buffer.getSentCount());
+        assertEquals(1, buffer.getPendingCount());
+        assertEquals(0, buffer.getFailedCount());
+
+        assertTrue(buffer.flush().isEmpty());
+        assertEquals(2, buffer.getSentCount());
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(0, buffer.getFailedCount());
+    }
+
+    @Test
+    public void testAddIsNotBlockedWhileABatchIsSent() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 2, 0, 0);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(solr.add(anyCollection())).thenAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        });
+
+        Thread writer = new Thread(() -> {
+            buffer.add(document("Item-1"));
+            buffer.add(document("Item-2"));
+        });
+        writer.start();
+        try {
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+            buffer.add(document("Item-3"));
+            assertEquals(1, buffer.getPendingCount());
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+        assertEquals(2, buffer.getSentCount());
+    }
+
+    @Test
+    public void testFlushOnElapsedTime() throws Exception {
+        SolrDocumentBuffer buffer = new SolrDocumentBuffer(() -> solr, 100, 0, 50);
+        try {
+            buffer.add(document("Item-1"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (buffer.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(0, buffer.getPendingCount());
+            assertTrue(buffer.getSentCount() > 0);
+        } finally {
+            buffer.close();
+        }
+    }
+
+    private SolrInputDocument document(String uniqueId) {
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField(SearchUtils.RESOURCE_UNIQUE_ID, uniqueId);
+        return doc;
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.services.ConfigurationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SolrSearchCoreTest {
+
+    @Mock
+    private ConfigurationService configurationService;
+
+    @Mock
+    private SolrClient liveSolr;
+
+    @Mock
+    private SolrClient shadowSolr;
+
+    @Mock
+    private SolrClient previousSolr;
+
+    private final List<SolrClient> shadowClients = new ArrayList<>();
+    private final List<String> swaps = new ArrayList<>();
+
+    private SolrSearchCore solrSearchCore;
+
+    @Before
+    public void setUp() {
+        lenient().when(configurationService.getProperty("discovery.search.server"))
+                 .thenReturn("http://localhost:8983/solr/search");
+        lenient().when(configurationService.getProperty(eq("discovery.index.shadow.core"), eq("search-rebuild")))
+                 .thenReturn("search-rebuild");
+        lenient().when(configurationService.getIntProperty(eq("discovery.solr.batch.size"), anyInt()))
+                 .thenReturn(100);
+        lenient().when(configurationService.getIntProperty(eq("discovery.index.shadow.batch.size"), anyInt()))
+                 .thenReturn(1000);
+        lenient().when(configurationService.getLongProperty(anyString(), anyLong())).thenReturn(0L);
+        shadowClients.add(shadowSolr);
+        shadowClients.add(previousSolr);
+
+        solrSearchCore = new SolrSearchCore() {
+            @Override
+            protected SolrClient createShadowSolr() {
+                return shadowClients.remove(0);
+            }
+
+            @Override
+            protected void swapCores(String coreName, String otherCoreName) {
+                swaps.add(coreName + "<->" + otherCoreName);
+            }
+        };
+        solrSearchCore.configurationService = configurationService;
+        solrSearchCore.solr = liveSolr;
+    }
+
+    @Test
+    public void testShadowBuildWritesToTheShadowCoreAndSwapsIt() throws Exception {
+        SolrDocumentBuffer liveBuffer = solrSearchCore.getDocumentBuffer();
+        solrSearchCore.startShadowBuild();
+        assertTrue(solrSearchCore.isShadowBuild());
+        verify(shadowSolr).deleteByQuery("*:*");
+
+        SolrDocumentBuffer shadowBuffer = solrSearchCore.getDocumentBuffer();
+        assertNotSame(liveBuffer, shadowBuffer);
+        shadowBuffer.add(document("Item-1"));
+        shadowBuffer.flush();
+        verify(shadowSolr).add(anyList());
+        verify(liveSolr, never()).add(anyList());
+
+        solrSearchCore.finishShadowBuild();
+        InOrder order = inOrder(shadowSolr, previousSolr);
+        order.verify(shadowSolr).commit();
+        order.verify(shadowSolr).close();
+        order.verify(previousSolr).deleteByQuery("*:*");
+        order.verify(previousSolr).commit();
+        assertEquals(List.of("search<->search-rebuild"), swaps);
+        assertFalse(solrSearchCore.isShadowBuild());
+        assertSame(liveBuffer, solrSearchCore.getDocumentBuffer());
+        verify(liveSolr, never()).commit();
+    }
+
+    @Test
+    public void testShadowBuildIsScopedToItsThreads() throws Exception {
+        SolrDocumentBuffer liveBuffer = solrSearchCore.getDocumentBuffer();
+        solrSearchCore.startShadowBuild();
+        SolrDocumentBuffer shadowBuffer = solrSearchCore.getDocumentBuffer();
+
+        // another thread, e.g. a request of the webapp, keeps writing to the search core
+        List<SolrDocumentBuffer> otherBuffers = new ArrayList<>();
+        List<Boolean> otherShadowBuilds = new ArrayList<>();
+        Thread other = new Thread(() -> {
+            otherBuffers.add(solrSearchCore.getDocumentBuffer());
+            otherShadowBuilds.add(solrSearchCore.isShadowBuild());
+        });
+        other.start();
+        other.join();
+        assertSame(liveBuffer, otherBuffers.get(0));
+        assertFalse(otherShadowBuilds.get(0));
+
+        // a worker of the rebuild writes to the shadow core once the shadow buffer is attached to it
+        List<SolrDocumentBuffer> workerBuffers = new ArrayList<>();
+        Thread worker = new Thread(() -> {
+            try (SolrDocumentBuffer.Scope scope = shadowBuffer.attach()) {
+                workerBuffers.add(solrSearchCore.getDocumentBuffer());
+            }
+            workerBuffers.add(solrSearchCore.getDocumentBuffer());
+        });
+        worker.start();
+        worker.join();
+        assertSame(shadowBuffer, workerBuffers.get(0));
+        assertSame(liveBuffer, workerBuffers.get(1));
+
+        // deletes of the rebuild go to the shadow core, and its commits do not reach the search core
+        shadowBuffer.deleteById("Item-1");
+        solrSearchCore.commit();
+        verify(shadowSolr).deleteById("Item-1");
+        verify(liveSolr, never()).deleteById(anyString());
+        verify(liveSolr, never()).commit();
+        verify(shadowSolr, never()).commit();
+
+        solrSearchCore.abortShadowBuild();
+        assertSame(liveBuffer, solrSearchCore.getDocumentBuffer());
+        solrSearchCore.commit();
+        verify(liveSolr).commit();
+    }
+
+    @Test
+    public void testAbortedShadowBuildIsNotSwapped() throws Exception {
+        solrSearchCore.startShadowBuild();
+        solrSearchCore.getDocumentBuffer().add(document("Item-1"));
+        solrSearchCore.abortShadowBuild();
+
+        assertFalse(solrSearchCore.isShadowBuild());
+        assertTrue(swaps.isEmpty());
+        verify(shadowSolr, never()).add(anyList());
+        verify(shadowSolr, never()).commit();
+        verify(shadowSolr).close();
+    }
+
+    private SolrInputDocument document(String uniqueId) {
+        SolrInputDocument document = new SolrInputDocument();
+        document.addField(SearchUtils.RESOURCE_UNIQUE_ID, uniqueId);
+        return document;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link HostNameResolver}.
+ */
+public class HostNameResolverTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private HostNameResolver resolver;
+
+    @After
+    public void tearDown() {
+        if (resolver != null) {
+            resolver.close();
+        }
+    }
+
+    @Test
+    public void testCachesHostNames() {
+        resolver = new HostNameResolver(100, 60000, 2, 10, ip -> {
+            lookups.incrementAndGet();
+            return "Host-" + ip + ".Example.ORG";
+        });
+
+        assertEquals("host-10.0.0.1.example.org", resolver.resolve("10.0.0.1", 5000));
+        assertEquals("host-10.0.0.1.example.org", resolver.getCachedHostName("10.0.0.1"));
+        assertEquals("host-10.0.0.1.example.org", resolver.resolve("10.0.0.1", 5000));
+        assertEquals(1, lookups.get());
+        assertEquals(1, resolver.getHitCount());
+        assertEquals(0, resolver.getMissCount());
+    }
+
+    @Test
+    public void testNeverWaitsForTheResolver() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        resolver = new HostNameResolver(100, 60000, 2, 10, ip -> {
+            lookups.incrementAndGet();
+            await(release);
+            return "crawler.example.org";
+        });
+
+        // the lookup is started in the background, and only once while it is running
+        assertNull(resolver.getCachedHostName("10.0.0.1"));
+        assertNull(resolver.getCachedHostName("10.0.0.1"));
+        assertNull(resolver.resolve("10.0.0.1", 10));
+        assertEquals(2, resolver.getMissCount());
+
+        release.countDown();
+        assertEquals("crawler.example.org", resolver.resolve("10.0.0.1", 5000));
+        assertEquals("crawler.example.org", resolver.getCachedHostName("10.0.0.1"));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testExpiresHostNames() throws Exception {
+        resolver = new HostNameResolver(100, 1, 1, 10, ip -> "host" + lookups.incrementAndGet());
+
+        assertEquals("host1", resolver.resolve("10.0.0.1", 5000));
+        TimeUnit.MILLISECONDS.sleep(20);
+        assertEquals("host2", resolver.resolve("10.0.0.1", 5000));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        resolver = new HostNameResolver(2, 60000, 1, 10, ip -> {
+            lookups.incrementAndGet();
+            return ip;
+        });
+
+        resolver.resolve("10.0.0.1", 5000);
+        resolver.resolve("10.0.0.2", 5000);
+        resolver.resolve("10.0.0.1", 5000);
+        resolver.resolve("10.0.0.3", 5000);
+        assertEquals(3, lookups.get());
+
+        assertEquals("10.0.0.1", resolver.getCachedHostName("10.0.0.1"));
+        assertEquals("10.0.0.3", resolver.getCachedHostName("10.0.0.3"));
+        assertEquals(3, lookups.get());
+        assertEquals("10.0.0.2", resolver.resolve("10.0.0.2", 5000));
+        assertEquals(4, lookups.get());
+    }
+
+    @Test
+    public void testSkipsLookupsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        resolver = new HostNameResolver(100, 60000, 1, 1, ip -> {
+            started.countDown();
+            await(release);
+            return ip;
+        });
+
+        // the first lookup takes the resolver thread, the second one the queue
+        resolver.getCachedHostName("10.0.0.1");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        resolver.getCachedHostName("10.0.0.2");
+        resolver.getCachedHostName("10.0.0.3");
+        assertEquals(1, resolver.getSkippedCount());
+
+        release.countDown();
+        assertEquals("10.0.0.2", resolver.resolve("10.0.0.2", 5000));
+        // a skipped lookup is tried again
+        assertEquals("10.0.0.3", resolver.resolve("10.0.0.3", 5000));
+    }
+
+    @Test
+    public void testFailedLookupsAreNotCached() {
+        resolver = new HostNameResolver(100, 60000, 1, 10, ip -> {
+            if (lookups.incrementAndGet() == 1) {
+                throw new UnknownHostException(ip);
+            }
+            return "host.example.org";
+        });
+
+        assertNull(resolver.resolve("10.0.0.1", 5000));
+        assertEquals("host.example.org", resolver.resolve("10.0.0.1", 5000));
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -58,6 +58,9 @@ public class MockSolrLoggerServiceImpl
         Mockito.lenient().when(reader.city(any(InetAddress.class))).thenReturn(mockCityResponse());
         // Save this mock DatabaseReader to be used by SolrLoggerService
         locationService = reader;
+
+        initUsageEventQueue();
+        initHostNameResolver();
     }
 
     /**
@@ -91,6 +94,7 @@ public class MockSolrLoggerServiceImpl
 
     @Override
     public void destroy() throws Exception {
+        super.destroy();
         mockSolrServer.destroy();
     }
 }
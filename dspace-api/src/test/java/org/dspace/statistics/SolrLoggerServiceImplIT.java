@@ -9,6 +9,8 @@ package org.dspace.statistics;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
@@ -19,19 +21,30 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
 import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Bitstream;
+import org.dspace.content.Collection;
 import org.dspace.content.Community;
+import org.dspace.content.Item;
 import org.dspace.content.factory.ContentServiceFactory;
 import org.dspace.core.Constants;
 import org.dspace.core.factory.CoreServiceFactory;
+import org.dspace.eperson.factory.EPersonServiceFactory;
 import org.dspace.services.ConfigurationService;
 import org.dspace.services.factory.DSpaceServicesFactory;
 import org.dspace.utils.DSpace;
@@ -303,4 +316,296 @@ public class SolrLoggerServiceImplIT
         }
         assertEquals("Wrong number of documents remaining --", 1, nDocs);
     }
+
+    /**
+     * Test of postView with the asynchronous writing of the views enabled.
+     * @throws Exception passed through.
+     */
+    @Test
+    public void testPostViewAsync()
+            throws Exception {
+        EmbeddedSolrClientFactory clientFactory = new EmbeddedSolrClientFactory();
+        ContentServiceFactory csf = ContentServiceFactory.getInstance();
+        DSpace dspace = new DSpace();
+
+        cfg.setProperty("solr-statistics.async.enabled", true);
+        cfg.setProperty("solr-statistics.async.maxWait", 50);
+        SolrLoggerServiceImpl instance = new SolrLoggerServiceImpl();
+        try {
+            instance.bitstreamService = csf.getBitstreamService();
+            instance.contentServiceFactory = csf;
+            instance.configurationService = cfg;
+            instance.clientInfoService = CoreServiceFactory.getInstance().getClientInfoService();
+            instance.ePersonService = EPersonServiceFactory.getInstance().getEPersonService();
+            instance.geoIpService = dspace.getSingletonService(GeoIpService.class);
+            instance.solrStatisticsCore = dspace.getSingletonService(SolrStatisticsCore.class);
+            instance.afterPropertiesSet();
+            assertNotNull(instance.usageEventQueue);
+
+            context.turnOffAuthorisationSystem();
+            Community topCommunity = CommunityBuilder.createCommunity(context)
+                    .withName(COMMUNITY_NAME)
+                    .build();
+            Community subCommunity = CommunityBuilder.createSubCommunity(context, topCommunity)
+                    .withName("Sub")
+                    .build();
+            context.restoreAuthSystemState();
+            // the views are written in a context of the writer thread
+            context.commit();
+
+            instance.postView(subCommunity, NOT_BOT_IP, NOT_BOT_AGENT, null, eperson);
+            instance.postView(topCommunity, NOT_BOT_IP, NOT_BOT_AGENT, null, null);
+            assertTrue(instance.usageEventQueue.flush(10000));
+            assertEquals(2, instance.usageEventQueue.getWrittenCount());
+
+            SolrClient client = clientFactory.getClient(cfg.getProperty("solr-statistics.server"));
+            client.commit(true, true);
+            QueryResponse response = client.query(new SolrQuery(F_ID + ":" + subCommunity.getID()));
+            assertEquals(1, response.getResults().getNumFound());
+            SolrDocument document = response.getResults().get(0);
+            assertEquals(SolrLoggerServiceImpl.StatisticsType.VIEW.text(),
+                    document.getFieldValue(F_STATISTICS_TYPE));
+            assertEquals(Constants.COMMUNITY, document.getFieldValue(F_TYPE));
+            assertEquals(NOT_BOT_IP, document.getFieldValue(F_IP));
+            assertEquals(NOT_BOT_AGENT, document.getFieldValue(F_AGENT));
+            assertEquals(false, document.getFieldValue(F_IS_BOT));
+            assertEquals(eperson.getID().toString(), document.getFieldValue(F_EPERSON));
+            assertEquals(topCommunity.getID().toString(), document.getFirstValue("owningComm"));
+            assertEquals(1, client.query(new SolrQuery(F_ID + ":" + topCommunity.getID()))
+                    .getResults().getNumFound());
+        } finally {
+            instance.destroy();
+            cfg.setProperty("solr-statistics.async.enabled", null);
+            cfg.setProperty("solr-statistics.async.maxWait", null);
+        }
+    }
+
+    /**
+     * Test of the asynchronous reverse DNS lookups: the views logged before the host name was resolved are marked,
+     * and their host name is filled in by resolvePendingHostNames.
+     * @throws Exception passed through.
+     */
+    @Test
+    public void testResolvePendingHostNames()
+            throws Exception {
+        EmbeddedSolrClientFactory clientFactory = new EmbeddedSolrClientFactory();
+        ContentServiceFactory csf = ContentServiceFactory.getInstance();
+        DSpace dspace = new DSpace();
+
+        String timeout = cfg.getProperty("usage-statistics.resolver.timeout");
+        cfg.setProperty("usage-statistics.resolver.async", true);
+        cfg.setProperty("usage-statistics.resolver.updateInterval", 0);
+        cfg.setProperty("usage-statistics.resolver.timeout", 5000);
+        SolrLoggerServiceImpl instance = new SolrLoggerServiceImpl();
+        try {
+            instance.bitstreamService = csf.getBitstreamService();
+            instance.contentServiceFactory = csf;
+            instance.configurationService = cfg;
+            instance.clientInfoService = CoreServiceFactory.getInstance().getClientInfoService();
+            instance.geoIpService = dspace.getSingletonService(GeoIpService.class);
+            instance.solrStatisticsCore = dspace.getSingletonService(SolrStatisticsCore.class);
+            instance.afterPropertiesSet();
+            assertNotNull(instance.hostNameResolver);
+
+            // a resolver which is stuck until released
+            CountDownLatch release = new CountDownLatch(1);
+            instance.hostNameResolver.close();
+            instance.hostNameResolver = new HostNameResolver(100, 60000, 1, 10, ip -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return "Angel.COM";
+            });
+
+            context.turnOffAuthorisationSystem();
+            Community topCommunity = CommunityBuilder.createCommunity(context)
+                    .withName(COMMUNITY_NAME)
+                    .build();
+            context.restoreAuthSystemState();
+
+            instance.postView(topCommunity, NOT_BOT_IP, NOT_BOT_AGENT, null, null);
+            SolrClient client = clientFactory.getClient(cfg.getProperty("solr-statistics.server"));
+            client.commit(true, true);
+            SolrDocumentList pending = client.query(new SolrQuery(SolrLoggerServiceImpl.DNS_PENDING_FIELD + ":true"))
+                    .getResults();
+            assertEquals(1, pending.getNumFound());
+            assertNull(pending.get(0).getFieldValue(F_DNS));
+
+            release.countDown();
+            instance.resolvePendingHostNames();
+            client.commit(true, true);
+            assertEquals(0, client.query(new SolrQuery(SolrLoggerServiceImpl.DNS_PENDING_FIELD + ":true"))
+                    .getResults().getNumFound());
+            SolrDocument document = client.query(new SolrQuery(F_ID + ":" + topCommunity.getID()))
+                    .getResults().get(0);
+            assertEquals(NOT_BOT_DNS, document.getFieldValue(F_DNS));
+            assertEquals(NOT_BOT_IP, document.getFieldValue(F_IP));
+            assertEquals(NOT_BOT_AGENT, document.getFieldValue(F_AGENT));
+            assertEquals(String.valueOf(Constants.COMMUNITY), String.valueOf(document.getFieldValue(F_TYPE)));
+
+            // the host name is cached for the next views
+            instance.postView(topCommunity, NOT_BOT_IP, NOT_BOT_AGENT, null, null);
+            client.commit(true, true);
+            assertEquals(2, client.query(new SolrQuery(F_DNS + ":" + NOT_BOT_DNS)).getResults().getNumFound());
+        } finally {
+            instance.destroy();
+            cfg.setProperty("usage-statistics.resolver.async", null);
+            cfg.setProperty("usage-statistics.resolver.updateInterval", null);
+            cfg.setProperty("usage-statistics.resolver.timeout", timeout);
+        }
+    }
+
+    /**
+     * Test of resolvePendingHostNames with a resolver which always fails: the views are retried until they are older
+     * than usage-statistics.resolver.maxAge, then their IP address is kept as host name.
+     * @throws Exception passed through.
+     */
+    @Test
+    public void testResolvePendingHostNamesGivesUp()
+            throws Exception {
+        EmbeddedSolrClientFactory clientFactory = new EmbeddedSolrClientFactory();
+        ContentServiceFactory csf = ContentServiceFactory.getInstance();
+        DSpace dspace = new DSpace();
+
+        cfg.setProperty("usage-statistics.resolver.async", true);
+        cfg.setProperty("usage-statistics.resolver.updateInterval", 0);
+        SolrLoggerServiceImpl instance = new SolrLoggerServiceImpl();
+        try {
+            instance.bitstreamService = csf.getBitstreamService();
+            instance.contentServiceFactory = csf;
+            instance.configurationService = cfg;
+            instance.clientInfoService = CoreServiceFactory.getInstance().getClientInfoService();
+            instance.geoIpService = dspace.getSingletonService(GeoIpService.class);
+            instance.solrStatisticsCore = dspace.getSingletonService(SolrStatisticsCore.class);
+            instance.afterPropertiesSet();
+            instance.hostNameResolver.close();
+            instance.hostNameResolver = new HostNameResolver(100, 60000, 1, 10, ip -> {
+                throw new IOException("No DNS");
+            });
+
+            context.turnOffAuthorisationSystem();
+            Community topCommunity = CommunityBuilder.createCommunity(context)
+                    .withName(COMMUNITY_NAME)
+                    .build();
+            context.restoreAuthSystemState();
+
+            instance.postView(topCommunity, NOT_BOT_IP, NOT_BOT_AGENT, null, null);
+            SolrClient client = clientFactory.getClient(cfg.getProperty("solr-statistics.server"));
+            client.commit(true, true);
+
+            // too recent to give up
+            instance.resolvePendingHostNames();
+            client.commit(true, true);
+            assertEquals(1, client.query(new SolrQuery(SolrLoggerServiceImpl.DNS_PENDING_FIELD + ":true"))
+                    .getResults().getNumFound());
+
+            Thread.sleep(10);
+            cfg.setProperty("usage-statistics.resolver.maxAge", 0);
+            instance.resolvePendingHostNames();
+            client.commit(true, true);
+            assertEquals(0, client.query(new SolrQuery(SolrLoggerServiceImpl.DNS_PENDING_FIELD + ":true"))
+                    .getResults().getNumFound());
+            SolrDocument document = client.query(new SolrQuery(F_ID + ":" + topCommunity.getID()))
+                    .getResults().get(0);
+            assertEquals(NOT_BOT_IP, document.getFieldValue(F_DNS));
+        } finally {
+            instance.destroy();
+            cfg.setProperty("usage-statistics.resolver.async", null);
+            cfg.setProperty("usage-statistics.resolver.updateInterval", null);
+            cfg.setProperty("usage-statistics.resolver.maxAge", null);
+        }
+    }
+
+    /**
+     * Test of reindexBitstreamHits, which fills in the bundle name of the bitstream records.
+     * @throws Exception passed through.
+     */
+    @Test
+    public void testReindexBitstreamHits()
+            throws Exception {
+        EmbeddedSolrClientFactory clientFactory = new EmbeddedSolrClientFactory();
+        ContentServiceFactory csf = ContentServiceFactory.getInstance();
+        DSpace dspace = new DSpace();
+
+        cfg.setProperty("solr-statistics.reindex-bitstreams.batchSize", 2);
+        cfg.setProperty("solr-statistics.reindex-bitstreams.pause", 0);
+        SolrLoggerServiceImpl instance = new SolrLoggerServiceImpl();
+        try {
+            instance.bitstreamService = csf.getBitstreamService();
+            instance.contentServiceFactory = csf;
+            instance.configurationService = cfg;
+            instance.clientInfoService = CoreServiceFactory.getInstance().getClientInfoService();
+            instance.geoIpService = dspace.getSingletonService(GeoIpService.class);
+            instance.solrStatisticsCore = dspace.getSingletonService(SolrStatisticsCore.class);
+            instance.afterPropertiesSet();
+
+            context.turnOffAuthorisationSystem();
+            Community topCommunity = CommunityBuilder.createCommunity(context)
+                    .withName(COMMUNITY_NAME)
+                    .build();
+            Collection collection = CollectionBuilder.createCollection(context, topCommunity).build();
+            Item item = ItemBuilder.createItem(context, collection).build();
+            Bitstream original = BitstreamBuilder.createBitstream(context, item,
+                    IOUtils.toInputStream("original", StandardCharsets.UTF_8)).build();
+            Bitstream thumbnail = BitstreamBuilder.createBitstream(context, item,
+                    IOUtils.toInputStream("thumbnail", StandardCharsets.UTF_8), "THUMBNAIL").build();
+            context.restoreAuthSystemState();
+
+            SolrClient client = clientFactory.getClient(cfg.getProperty("solr-statistics.server"));
+            for (int i = 0; i < 3; i++) {
+                client.add(createBitstreamHit("original-" + i, original.getID().toString(), null));
+            }
+            client.add(createBitstreamHit("thumbnail", thumbnail.getID().toString(), null));
+            client.add(createBitstreamHit("deleted", UUID.randomUUID().toString(), null));
+            client.add(createBitstreamHit("text", original.getID().toString(), "TEXT"));
+            client.commit(true, true);
+
+            instance.reindexBitstreamHits(false);
+            client.commit(true, true);
+
+            for (int i = 0; i < 3; i++) {
+                SolrDocument hit = getByUid(client, "original-" + i);
+                assertEquals("ORIGINAL", hit.getFirstValue("bundleName"));
+                // the other fields are kept
+                assertEquals(NOT_BOT_IP, hit.getFieldValue(F_IP));
+                assertEquals(original.getID().toString(), hit.getFieldValue(F_ID));
+            }
+            assertEquals("THUMBNAIL", getByUid(client, "thumbnail").getFirstValue("bundleName"));
+            assertEquals("BITSTREAM_DELETED", getByUid(client, "deleted").getFirstValue("bundleName"));
+            assertEquals("TEXT", getByUid(client, "text").getFirstValue("bundleName"));
+
+            // the hits of deleted bitstreams are removed if requested
+            client.add(createBitstreamHit("deleted-too", UUID.randomUUID().toString(), null));
+            client.commit(true, true);
+            instance.reindexBitstreamHits(true);
+            client.commit(true, true);
+            assertEquals(0, client.query(new SolrQuery("uid:deleted-too")).getResults().getNumFound());
+            assertEquals(6, client.query(new SolrQuery("type:" + Constants.BITSTREAM)).getResults().getNumFound());
+        } finally {
+            instance.destroy();
+            cfg.setProperty("solr-statistics.reindex-bitstreams.batchSize", null);
+            cfg.setProperty("solr-statistics.reindex-bitstreams.pause", null);
+        }
+    }
+
+    private SolrInputDocument createBitstreamHit(String uid, String bitstreamId, String bundleName) {
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.setField("uid", uid);
+        doc.setField(F_STATISTICS_TYPE, SolrLoggerServiceImpl.StatisticsType.VIEW.text());
+        doc.setField(F_TYPE, String.valueOf(Constants.BITSTREAM));
+        doc.setField(F_ID, bitstreamId);
+        doc.setField(F_IP, NOT_BOT_IP);
+        doc.setField(F_TIME, Instant.now().toString());
+        doc.setField(F_IS_BOT, Boolean.FALSE.toString());
+        if (bundleName != null) {
+            doc.setField("bundleName", bundleName);
+        }
+        return doc;
+    }
+
+    private SolrDocument getByUid(SolrClient client, String uid) throws SolrServerException, IOException {
+        return client.query(new SolrQuery("uid:" + uid)).getResults().get(0);
+    }
 }
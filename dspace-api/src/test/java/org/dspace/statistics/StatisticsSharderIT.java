@@ -0,0 +1,189 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.core.Constants;
+import org.dspace.utils.DSpace;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Integration tests for {@link StatisticsSharder}, which moves the events of the statistics core into fake cores.
+ */
+public class StatisticsSharderIT extends AbstractIntegrationTestWithDatabase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final SolrStatisticsCore solrStatisticsCore = new DSpace().getSingletonService(SolrStatisticsCore.class);
+
+    private final Map<Integer, FakeCore> cores = new ConcurrentHashMap<>();
+
+    private Path checkpointFile;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        checkpointFile = temporaryFolder.getRoot().toPath().resolve("statistics-shard.checkpoint");
+
+        for (int i = 0; i < 5; i++) {
+            addView("2019-03-0" + (i + 1) + "T10:00:00Z");
+        }
+        for (int i = 0; i < 3; i++) {
+            addView("2020-12-" + (29 + i) + "T23:59:59Z");
+        }
+        addView(Instant.now().toString());
+        addView(Instant.now().toString());
+        solrStatisticsCore.getSolr().commit();
+    }
+
+    @Test
+    public void testShardResumesFromCheckpoint() throws Exception {
+        // the second batch of 2019 fails
+        FakeCore core2019 = new FakeCore(1);
+        cores.put(2019, core2019);
+        try {
+            createSharder().shard();
+            fail("The sharding should have failed");
+        } catch (SolrServerException e) {
+            // expected
+        }
+        assertTrue(Files.exists(checkpointFile));
+        Properties checkpoint = loadCheckpoint();
+        assertEquals("2", checkpoint.getProperty("2019.copied"));
+        assertEquals("0", checkpoint.getProperty("2019.baseline"));
+        assertEquals(10, count("*:*"));
+
+        core2019.failAfter.set(Integer.MAX_VALUE);
+        assertEquals(8, createSharder().shard());
+
+        assertEquals(5, core2019.documents.size());
+        assertEquals(3, cores.get(2020).documents.size());
+        assertEquals(0, count("time:[* TO NOW/YEAR}"));
+        assertEquals(2, count("*:*"));
+        assertFalse(Files.exists(checkpointFile));
+    }
+
+    @Test
+    public void testShardKeepsEventsWhichWereNotWritten() throws Exception {
+        // the core of 2019 silently drops the events
+        FakeCore core2019 = new FakeCore(Integer.MAX_VALUE);
+        core2019.dropping = true;
+        cores.put(2019, core2019);
+        try {
+            createSharder().shard();
+            fail("The sharding should have failed");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("gained 0 records instead of 5"));
+        }
+        assertEquals(5, count("time:[2019-01-01T00:00:00Z TO 2020-01-01T00:00:00Z}"));
+        assertEquals(10, count("*:*"));
+        assertTrue(Files.exists(checkpointFile));
+    }
+
+    private StatisticsSharder createSharder() {
+        return new StatisticsSharder(solrStatisticsCore.getSolr(),
+                                     year -> cores.computeIfAbsent(year, y -> new FakeCore(Integer.MAX_VALUE)),
+                                     checkpointFile, 2, 2, 1);
+    }
+
+    private Properties loadCheckpoint() throws IOException {
+        Properties checkpoint = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            checkpoint.load(reader);
+        }
+        return checkpoint;
+    }
+
+    private long count(String query) throws Exception {
+        SolrQuery solrQuery = new SolrQuery(query);
+        solrQuery.setRows(0);
+        return solrStatisticsCore.getSolr().query(solrQuery).getResults().getNumFound();
+    }
+
+    private void addView(String time) throws Exception {
+        SolrInputDocument document = new SolrInputDocument();
+        document.addField("uid", UUID.randomUUID().toString());
+        document.addField("type", Constants.ITEM);
+        document.addField("id", UUID.randomUUID().toString());
+        document.addField("time", time);
+        document.addField("statistics_type", SolrLoggerServiceImpl.StatisticsType.VIEW.text());
+        document.addField("isBot", false);
+        solrStatisticsCore.getSolr().add(document);
+    }
+
+    /**
+     * A core of a year, which keeps the events it is sent by their unique id, and can fail or drop them.
+     */
+    private static class FakeCore extends SolrClient {
+        private final Map<String, SolrInputDocument> documents = new ConcurrentHashMap<>();
+        private final AtomicInteger failAfter;
+        private volatile boolean dropping;
+
+        FakeCore(int failAfter) {
+            this.failAfter = new AtomicInteger(failAfter);
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public NamedList<Object> request(SolrRequest request, String collection) throws SolrServerException {
+            NamedList<Object> response = new NamedList<>();
+            if (request instanceof UpdateRequest) {
+                UpdateRequest update = (UpdateRequest) request;
+                if (update.getDocuments() != null && !update.getDocuments().isEmpty()) {
+                    if (failAfter.getAndDecrement() <= 0) {
+                        throw new SolrServerException("The core is down");
+                    }
+                    if (!dropping) {
+                        for (SolrInputDocument document : update.getDocuments()) {
+                            documents.put((String) document.getFieldValue("uid"), document);
+                        }
+                    }
+                }
+            } else {
+                SolrDocumentList results = new SolrDocumentList();
+                results.setNumFound(documents.size());
+                response.add("response", results);
+            }
+            return response;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.dspace.core.Constants;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link UsageEventQueue}.
+ */
+public class UsageEventQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<List<UsageRecord>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private UsageEventQueue queue;
+
+    @After
+    public void tearDown() throws Exception {
+        if (queue != null) {
+            queue.close(5000);
+        }
+    }
+
+    @Test
+    public void testWritesInBatches() throws Exception {
+        queue = new UsageEventQueue(100, 10, 60000, UsageEventQueue.OverflowPolicy.DROP, 0,
+                                    records -> batches.add(new ArrayList<>(records)));
+        List<UsageRecord> records = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            UsageRecord record = createRecord();
+            records.add(record);
+            assertTrue(queue.offer(record));
+        }
+
+        assertTrue(queue.flush(5000));
+        assertEquals(3, batches.size());
+        List<UsageRecord> written = new ArrayList<>();
+        for (List<UsageRecord> batch : batches) {
+            assertEquals(10, batch.size());
+            written.addAll(batch);
+        }
+        assertEquals(records, written);
+        assertEquals(30, queue.getAcceptedCount());
+        assertEquals(30, queue.getWrittenCount());
+        assertEquals(3, queue.getBatchCount());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testWritesIncompleteBatchAfterMaxWait() throws Exception {
+        queue = new UsageEventQueue(100, 10, 50, UsageEventQueue.OverflowPolicy.DROP, 0,
+                                    records -> batches.add(new ArrayList<>(records)));
+        queue.offer(createRecord());
+        queue.offer(createRecord());
+
+        assertTrue(queue.flush(5000));
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+    }
+
+    @Test
+    public void testDropsWhenFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = new UsageEventQueue(2, 1, 0, UsageEventQueue.OverflowPolicy.DROP, 0, records -> {
+            writing.countDown();
+            release.await();
+        });
+        // the writer thread holds the first record, the next two fill the queue
+        assertTrue(queue.offer(createRecord()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(createRecord()));
+        assertTrue(queue.offer(createRecord()));
+
+        assertFalse(queue.offer(createRecord()));
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(0, queue.getBlockedCount());
+
+        release.countDown();
+        assertTrue(queue.flush(5000));
+        assertEquals(3, queue.getWrittenCount());
+    }
+
+    @Test
+    public void testBlocksUntilThereIsRoom() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = new UsageEventQueue(1, 1, 0, UsageEventQueue.OverflowPolicy.BLOCK, 5000, records -> {
+            writing.countDown();
+            release.await();
+        });
+        assertTrue(queue.offer(createRecord()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(createRecord()));
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+        // waits for the writer thread to take the second record
+        assertTrue(queue.offer(createRecord()));
+        releaser.join();
+
+        assertEquals(1, queue.getBlockedCount());
+        assertEquals(0, queue.getDroppedCount());
+        assertTrue(queue.flush(5000));
+        assertEquals(3, queue.getWrittenCount());
+    }
+
+    @Test
+    public void testBlockTimeout() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = new UsageEventQueue(1, 1, 0, UsageEventQueue.OverflowPolicy.BLOCK, 50, records -> {
+            writing.countDown();
+            release.await();
+        });
+        assertTrue(queue.offer(createRecord()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(createRecord()));
+
+        assertFalse(queue.offer(createRecord()));
+        assertEquals(1, queue.getBlockedCount());
+        assertEquals(1, queue.getDroppedCount());
+        release.countDown();
+    }
+
+    @Test
+    public void testCountsFailedBatches() throws Exception {
+        queue = new UsageEventQueue(100, 5, 60000, UsageEventQueue.OverflowPolicy.DROP, 0, records -> {
+            throw new IllegalStateException("Solr is down");
+        });
+        for (int i = 0; i < 10; i++) {
+            queue.offer(createRecord());
+        }
+
+        assertTrue(queue.flush(5000));
+        assertEquals(10, queue.getFailedCount());
+        assertEquals(0, queue.getWrittenCount());
+        assertEquals(2, queue.getBatchCount());
+    }
+
+    @Test
+    public void testSpoolsFailedBatchesAndReplaysThem() throws Exception {
+        UsageEventSpool spool = new UsageEventSpool(folder.getRoot().toPath(), 1000000, 0);
+        AtomicBoolean solrDown = new AtomicBoolean(true);
+        queue = new UsageEventQueue(100, 5, 60000, UsageEventQueue.OverflowPolicy.DROP, 0, records -> {
+            if (solrDown.get()) {
+                throw new IOException("Connection refused");
+            }
+            batches.add(new ArrayList<>(records));
+        }, spool, 3600000);
+        List<UsageRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            UsageRecord record = createRecord();
+            records.add(record);
+            queue.offer(record);
+        }
+
+        assertTrue(queue.flush(5000));
+        assertEquals(10, queue.getSpooledCount());
+        assertEquals(0, queue.getFailedCount());
+        assertFalse(spool.isEmpty());
+
+        solrDown.set(false);
+        assertEquals(10, queue.replay());
+        // the replayed records are read back from the spool
+        assertEquals(records.stream().map(UsageRecord::getObjectId).collect(Collectors.toList()),
+                     batches.stream().flatMap(List::stream).map(UsageRecord::getObjectId)
+                            .collect(Collectors.toList()));
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    public void testSpoolsWhenFull() throws Exception {
+        UsageEventSpool spool = new UsageEventSpool(folder.getRoot().toPath(), 1000000, 0);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = new UsageEventQueue(1, 1, 0, UsageEventQueue.OverflowPolicy.SPOOL, 0, records -> {
+            writing.countDown();
+            release.await();
+        }, spool, 3600000);
+        assertTrue(queue.offer(createRecord()));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(createRecord()));
+
+        assertTrue(queue.offer(createRecord()));
+        assertEquals(1, queue.getSpooledCount());
+        assertEquals(0, queue.getDroppedCount());
+        assertEquals(1, spool.getAppendedCount());
+        release.countDown();
+    }
+
+    @Test
+    public void testCloseWritesQueuedRecords() throws Exception {
+        queue = new UsageEventQueue(100, 10, 60000, UsageEventQueue.OverflowPolicy.DROP, 0,
+                                    records -> batches.add(new ArrayList<>(records)));
+        for (int i = 0; i < 25; i++) {
+            queue.offer(createRecord());
+        }
+
+        queue.close(5000);
+        assertEquals(25, queue.getWrittenCount());
+        assertEquals(25, batches.stream().mapToInt(List::size).sum());
+
+        assertFalse(queue.offer(createRecord()));
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testOverflowPolicyFromString() {
+        assertEquals(UsageEventQueue.OverflowPolicy.BLOCK, UsageEventQueue.OverflowPolicy.fromString(" Block "));
+        assertEquals(UsageEventQueue.OverflowPolicy.DROP, UsageEventQueue.OverflowPolicy.fromString("drop"));
+        assertEquals(UsageEventQueue.OverflowPolicy.SPOOL, UsageEventQueue.OverflowPolicy.fromString("spool"));
+        assertEquals(UsageEventQueue.OverflowPolicy.DROP, UsageEventQueue.OverflowPolicy.fromString("discard"));
+        assertEquals(UsageEventQueue.OverflowPolicy.DROP, UsageEventQueue.OverflowPolicy.fromString(null));
+    }
+
+    private UsageRecord createRecord() {
+        return new UsageRecord(Constants.BITSTREAM, UUID.randomUUID(), null, false, "127.0.0.1", "Firefox", null,
+                               false, Instant.now());
+    }
+}
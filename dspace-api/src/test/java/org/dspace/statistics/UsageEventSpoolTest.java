@@ -0,0 +1,174 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.dspace.core.Constants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link UsageEventSpool}.
+ */
+public class UsageEventSpoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReplaysInOrder() throws Exception {
+        Path directory = folder.getRoot().toPath().resolve("statistics-spool");
+        // small segments, so that the records are spread over several of them
+        UsageEventSpool spool = new UsageEventSpool(directory, 1000, 0);
+        List<UsageRecord> records = createRecords(50);
+        for (int i = 0; i < records.size(); i += 7) {
+            assertTrue(spool.append(records.subList(i, Math.min(i + 7, records.size()))));
+        }
+        assertTrue(countSegments(directory) > 1);
+        assertFalse(spool.isEmpty());
+
+        List<UsageRecord> replayed = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        assertEquals(50, spool.replay(batch -> {
+            replayed.addAll(batch);
+            batchSizes.add(batch.size());
+        }, 10));
+
+        assertRecordsEqual(records, replayed);
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        assertTrue(spool.isEmpty());
+        assertEquals(0, countSegments(directory));
+        assertEquals(50, spool.getAppendedCount());
+        assertEquals(50, spool.getReplayedCount());
+    }
+
+    @Test
+    public void testFailedReplayIsResumed() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        UsageEventSpool spool = new UsageEventSpool(directory, 1000000, 0);
+        List<UsageRecord> records = createRecords(30);
+        spool.append(records);
+
+        List<UsageRecord> replayed = new ArrayList<>();
+        try {
+            spool.replay(batch -> {
+                if (replayed.size() >= 20) {
+                    throw new IOException("Solr is down");
+                }
+                replayed.addAll(batch);
+            }, 10);
+            fail("The replay should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(20, replayed.size());
+        assertFalse(spool.isEmpty());
+
+        // the records replayed before the failure are not replayed again
+        assertEquals(10, spool.replay(replayed::addAll, 10));
+        assertRecordsEqual(records, replayed);
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    public void testReplaysSegmentsOfPreviousRun() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        UsageEventSpool previous = new UsageEventSpool(directory, 1000000, 0);
+        List<UsageRecord> records = createRecords(5);
+        previous.append(records.subList(0, 3));
+        previous.close();
+        // killed while writing a record
+        try (Stream<Path> segments = Files.list(directory)) {
+            Files.writeString(segments.findFirst().get(), "{\"type\":2,\"id\":", StandardCharsets.UTF_8,
+                              StandardOpenOption.APPEND);
+        }
+
+        UsageEventSpool spool = new UsageEventSpool(directory, 1000000, 0);
+        assertFalse(spool.isEmpty());
+        spool.append(records.subList(3, 5));
+        assertEquals(2, countSegments(directory));
+
+        List<UsageRecord> replayed = new ArrayList<>();
+        assertEquals(5, spool.replay(replayed::addAll, 10));
+        assertRecordsEqual(records, replayed);
+    }
+
+    @Test
+    public void testDropsWhenFull() throws Exception {
+        UsageEventSpool spool = new UsageEventSpool(folder.getRoot().toPath(), 1000000, 1000);
+        assertFalse(spool.append(createRecords(20)));
+        assertTrue(spool.getAppendedCount() > 0);
+        assertEquals(20, spool.getAppendedCount() + spool.getDroppedCount());
+        assertTrue(spool.getSize() <= 1000);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        UsageEventSpool spool = new UsageEventSpool(folder.getRoot().toPath(), 1000000, 0);
+        UsageRecord record = new UsageRecord(Constants.ITEM, UUID.randomUUID(), UUID.randomUUID(), true,
+                                             "2001:db8::1", "Mozilla/5.0 \"quoted\"\tagent", "https://example.org/ä",
+                                             true, Instant.parse("2024-02-29T10:15:30.123Z"));
+        UsageRecord anonymous = new UsageRecord(Constants.BITSTREAM, UUID.randomUUID(), null, false, "127.0.0.1",
+                                                null, null, false, Instant.now());
+        spool.append(List.of(record, anonymous));
+
+        List<UsageRecord> replayed = new ArrayList<>();
+        spool.replay(replayed::addAll, 10);
+        assertRecordsEqual(List.of(record, anonymous), replayed);
+        assertNull(replayed.get(1).getEpersonId());
+        assertNull(replayed.get(1).getUserAgent());
+    }
+
+    private static List<UsageRecord> createRecords(int count) {
+        List<UsageRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(new UsageRecord(Constants.BITSTREAM, UUID.randomUUID(), null, false, "10.0.0." + i,
+                                        "Firefox", null, false, Instant.now()));
+        }
+        return records;
+    }
+
+    private static long countSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static void assertRecordsEqual(List<UsageRecord> expected, List<UsageRecord> actual) {
+        assertEquals(toStrings(expected), toStrings(actual));
+    }
+
+    private static List<String> toStrings(List<UsageRecord> records) {
+        return records.stream()
+                      .map(record -> String.join("|", String.valueOf(record.getObjectType()),
+                                                 String.valueOf(record.getObjectId()),
+                                                 String.valueOf(record.getEpersonId()),
+                                                 String.valueOf(record.isSkipAdmin()), record.getIp(),
+                                                 record.getUserAgent(), record.getReferrer(),
+                                                 String.valueOf(record.isBot()), record.getTime().toString()))
+                      .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Item;
+import org.dspace.core.Constants;
+import org.dspace.services.ConfigurationService;
+import org.dspace.services.factory.DSpaceServicesFactory;
+import org.dspace.statistics.factory.StatisticsServiceFactory;
+import org.dspace.statistics.service.UsageRollupService;
+import org.dspace.utils.DSpace;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Integration tests for {@link UsageRollupServiceImpl}.
+ */
+public class UsageRollupServiceIT extends AbstractIntegrationTestWithDatabase {
+
+    private final SolrStatisticsCore solrStatisticsCore = new DSpace().getSingletonService(SolrStatisticsCore.class);
+    private final UsageRollupService usageRollupService =
+        StatisticsServiceFactory.getInstance().getUsageRollupService();
+    private final ConfigurationService configurationService =
+        DSpaceServicesFactory.getInstance().getConfigurationService();
+
+    private Collection collection;
+    private Item item;
+    private final String bitstream1 = UUID.randomUUID().toString();
+    private final String bitstream2 = UUID.randomUUID().toString();
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        context.turnOffAuthorisationSystem();
+        parentCommunity = CommunityBuilder.createCommunity(context).build();
+        collection = CollectionBuilder.createCollection(context, parentCommunity).build();
+        item = ItemBuilder.createItem(context, collection).withTitle("Viewed item").build();
+        context.restoreAuthSystemState();
+        configurationService.setProperty("usage-statistics.rollup.lag", 3600000);
+    }
+
+    @After
+    @Override
+    public void destroy() throws Exception {
+        usageRollupService.rebuild(context, null);
+        context.commit();
+        configurationService.setProperty("usage-statistics.rollup.lag", null);
+        super.destroy();
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        Instant now = Instant.now();
+        addView(Constants.ITEM, item.getID().toString(), now.minus(2, ChronoUnit.HOURS), "BE", null, null);
+        addView(Constants.ITEM, item.getID().toString(), now.minus(3, ChronoUnit.DAYS), "BE", null, null);
+        addView(Constants.ITEM, item.getID().toString(), now.minus(3, ChronoUnit.DAYS), null, null, null);
+        addView(Constants.ITEM, item.getID().toString(), now.minus(40, ChronoUnit.DAYS), "NL", null, null);
+        addView(Constants.COLLECTION, collection.getID().toString(), now.minus(3, ChronoUnit.DAYS), "NL", null,
+                null);
+        addView(Constants.BITSTREAM, bitstream1, now.minus(3, ChronoUnit.DAYS), "BE", item, "ORIGINAL");
+        addView(Constants.BITSTREAM, bitstream2, now.minus(3, ChronoUnit.DAYS), "BE", item, "ORIGINAL");
+        addView(Constants.BITSTREAM, bitstream2, now.minus(4, ChronoUnit.DAYS), "FR", item, "ORIGINAL");
+
+        // not counted: a robot, a search, a thumbnail and a view which is too recent
+        SolrInputDocument robot = createView(Constants.ITEM, item.getID().toString(),
+                                             now.minus(3, ChronoUnit.DAYS), "BE", null, null);
+        robot.setField("isBot", true);
+        solrStatisticsCore.getSolr().add(robot);
+        SolrInputDocument search = createView(Constants.ITEM, item.getID().toString(),
+                                              now.minus(3, ChronoUnit.DAYS), "BE", null, null);
+        search.setField("statistics_type", SolrLoggerServiceImpl.StatisticsType.SEARCH.text());
+        solrStatisticsCore.getSolr().add(search);
+        addView(Constants.BITSTREAM, bitstream1, now.minus(3, ChronoUnit.DAYS), "BE", item, "THUMBNAIL");
+        addView(Constants.ITEM, item.getID().toString(), now.minus(10, ChronoUnit.MINUTES), "BE", null, null);
+        solrStatisticsCore.getSolr().commit();
+
+        assertNull(usageRollupService.getProcessedUntil(context));
+        assertEquals(8, usageRollupService.update(context));
+        Instant processedUntil = usageRollupService.getProcessedUntil(context);
+        assertNotNull(processedUntil);
+        assertTrue(processedUntil.isBefore(now.minus(59, ChronoUnit.MINUTES)));
+
+        assertEquals(4, usageRollupService.countViews(context, item));
+        assertEquals(1, usageRollupService.countViews(context, collection));
+        assertEquals(0, usageRollupService.countViews(context, parentCommunity));
+        assertEquals(List.of(entry("BE", 2), entry("NL", 1)),
+                     usageRollupService.countViewsPerCountry(context, item, 100));
+        assertEquals(List.of(entry(bitstream2, 2), entry(bitstream1, 1)),
+                     usageRollupService.countBitstreamViews(context, item, 10));
+        assertEquals(List.of(entry(bitstream2, 2)), usageRollupService.countBitstreamViews(context, item, 1));
+
+        YearMonth thisMonth = YearMonth.now(ZoneOffset.UTC);
+        Map<YearMonth, Long> months = usageRollupService.countViewsPerMonth(context, item, thisMonth.minusMonths(6),
+                                                                            thisMonth);
+        assertEquals(7, months.size());
+        assertEquals(4, months.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(1, (long) months.get(YearMonth.from(now.minus(40, ChronoUnit.DAYS).atZone(ZoneOffset.UTC))));
+
+        // nothing new is counted, and the views are not counted twice
+        assertEquals(0, usageRollupService.update(context));
+        assertEquals(4, usageRollupService.countViews(context, item));
+
+        // the recent view is counted once the lag is over
+        configurationService.setProperty("usage-statistics.rollup.lag", 0);
+        assertEquals(1, usageRollupService.update(context));
+        assertEquals(5, usageRollupService.countViews(context, item));
+        assertEquals(List.of(entry("BE", 3), entry("NL", 1)),
+                     usageRollupService.countViewsPerCountry(context, item, 100));
+    }
+
+    @Test
+    public void testUpdateCountsLateViews() throws Exception {
+        Instant now = Instant.now();
+        addView(Constants.ITEM, item.getID().toString(), now.minus(3, ChronoUnit.DAYS), "BE", null, null);
+        solrStatisticsCore.getSolr().commit();
+        assertEquals(1, usageRollupService.update(context));
+
+        // views received late, e.g. replayed from a spool, are counted under the day they happened
+        addLateView(now.minus(3, ChronoUnit.DAYS), now.minus(30, ChronoUnit.MINUTES));
+        addLateView(now.minus(40, ChronoUnit.DAYS), now.minus(30, ChronoUnit.MINUTES));
+        // not counted yet: a view received too recently
+        addLateView(now.minus(3, ChronoUnit.DAYS), now.minus(1, ChronoUnit.MINUTES));
+        solrStatisticsCore.getSolr().commit();
+        configurationService.setProperty("usage-statistics.rollup.lag", 600000);
+        assertEquals(2, usageRollupService.update(context));
+        assertEquals(3, usageRollupService.countViews(context, item));
+        YearMonth thisMonth = YearMonth.now(ZoneOffset.UTC);
+        Map<YearMonth, Long> months = usageRollupService.countViewsPerMonth(context, item, thisMonth.minusMonths(6),
+                                                                            thisMonth);
+        assertEquals(1, (long) months.get(YearMonth.from(now.minus(40, ChronoUnit.DAYS).atZone(ZoneOffset.UTC))));
+
+        configurationService.setProperty("usage-statistics.rollup.lag", 0);
+        assertEquals(1, usageRollupService.update(context));
+        assertEquals(4, usageRollupService.countViews(context, item));
+    }
+
+    @Test
+    public void testRebuild() throws Exception {
+        Instant now = Instant.now();
+        addView(Constants.ITEM, item.getID().toString(), now.minus(40, ChronoUnit.DAYS), "NL", null, null);
+        addView(Constants.ITEM, item.getID().toString(), now.minus(3, ChronoUnit.DAYS), "BE", null, null);
+        addLateView(now.minus(3, ChronoUnit.DAYS), now.minus(2, ChronoUnit.HOURS));
+        addLateView(now.minus(40, ChronoUnit.DAYS), now.minus(2, ChronoUnit.HOURS));
+        solrStatisticsCore.getSolr().commit();
+        assertEquals(4, usageRollupService.update(context));
+        Instant processedUntil = usageRollupService.getProcessedUntil(context);
+
+        // the days before the rebuild are kept, including their views received later
+        LocalDate from = now.minus(5, ChronoUnit.DAYS).atZone(ZoneOffset.UTC).toLocalDate();
+        assertEquals(2, usageRollupService.rebuild(context, from));
+        assertEquals(processedUntil, usageRollupService.getProcessedUntil(context));
+        assertEquals(4, usageRollupService.countViews(context, item));
+        assertEquals(0, usageRollupService.update(context));
+        assertEquals(4, usageRollupService.countViews(context, item));
+
+        assertEquals(0, usageRollupService.rebuild(context, null));
+        assertNull(usageRollupService.getProcessedUntil(context));
+        assertEquals(0, usageRollupService.countViews(context, item));
+        assertEquals(4, usageRollupService.update(context));
+        assertEquals(4, usageRollupService.countViews(context, item));
+    }
+
+    private void addView(int type, String id, Instant time, String countryCode, Item owningItem, String bundleName)
+        throws Exception {
+        solrStatisticsCore.getSolr().add(createView(type, id, time, countryCode, owningItem, bundleName));
+    }
+
+    /**
+     * Add a view of the item from Belgium, received by the statistics core later than it happened.
+     */
+    private void addLateView(Instant time, Instant received) throws Exception {
+        SolrInputDocument view = createView(Constants.ITEM, item.getID().toString(), time, "BE", null, null);
+        view.setField(SolrLoggerServiceImpl.INGEST_TIME_FIELD, received.toString());
+        solrStatisticsCore.getSolr().add(view);
+    }
+
+    private SolrInputDocument createView(int type, String id, Instant time, String countryCode, Item owningItem,
+                                         String bundleName) {
+        SolrInputDocument document = new SolrInputDocument();
+        document.addField("uid", UUID.randomUUID().toString());
+        document.addField("type", type);
+        document.addField("id", id);
+        document.addField("time", time.toString());
+        // received as soon as it happened
+        document.addField(SolrLoggerServiceImpl.INGEST_TIME_FIELD, time.toString());
+        document.addField("statistics_type", SolrLoggerServiceImpl.StatisticsType.VIEW.text());
+        document.addField("isBot", false);
+        if (countryCode != null) {
+            document.addField("countryCode", countryCode);
+        }
+        if (owningItem != null) {
+            document.addField("owningItem", owningItem.getID().toString());
+        }
+        if (bundleName != null) {
+            document.addField("bundleName", bundleName);
+        }
+        return document;
+    }
+
+    private static Map.Entry<String, Long> entry(String key, long value) {
+        return new AbstractMap.SimpleEntry<>(key, value);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BitstreamBundleCache}.
+ */
+public class BitstreamBundleCacheTest {
+
+    @Test
+    public void testPutAndGet() {
+        BitstreamBundleCache cache = new BitstreamBundleCache();
+        String original = UUID.randomUUID().toString();
+        String deleted = UUID.randomUUID().toString();
+
+        assertFalse(cache.contains(original));
+        assertNull(cache.get(original));
+
+        cache.put(original, "ORIGINAL");
+        cache.put(deleted, null);
+        assertTrue(cache.contains(original));
+        assertEquals("ORIGINAL", cache.get(original));
+        assertTrue(cache.contains(deleted));
+        assertNull(cache.get(deleted));
+        assertEquals(2, cache.size());
+
+        cache.put(original, "THUMBNAIL");
+        assertEquals("THUMBNAIL", cache.get(original));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testLegacyIds() {
+        BitstreamBundleCache cache = new BitstreamBundleCache();
+        cache.put("1234", "ORIGINAL");
+        cache.put("5678", null);
+        assertEquals("ORIGINAL", cache.get("1234"));
+        assertTrue(cache.contains("5678"));
+        assertNull(cache.get("5678"));
+        assertFalse(cache.contains("9012"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testGrows() {
+        BitstreamBundleCache cache = new BitstreamBundleCache();
+        String[] bundles = {"ORIGINAL", "THUMBNAIL", "TEXT", "LICENSE", null};
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            cache.put(id, bundles[i % bundles.length]);
+        }
+        assertEquals(100_000, cache.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertTrue(cache.contains(ids.get(i)));
+            assertEquals(bundles[i % bundles.length], cache.get(ids.get(i)));
+        }
+        assertFalse(cache.contains(UUID.randomUUID().toString()));
+    }
+}
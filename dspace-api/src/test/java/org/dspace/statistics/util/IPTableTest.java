@@ -10,7 +10,12 @@ package org.dspace.statistics.util;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.dspace.statistics.util.IPTable.IPFormatException;
@@ -163,6 +168,119 @@ public class IPTableTest {
         assertFalse("Range should not contain value above upper limit", instance.contains("192.168.2.0"));
     }
 
+    @Test
+    public void testIPv6Contains() throws Exception {
+        IPTable instance = new IPTable();
+        instance.add("2001:db8::1");
+        instance.add("2001:db8:1::/48");
+        instance.add("fe80::10 - fe80::1f");
+
+        assertTrue("Address that was add()ed should match", instance.contains("2001:db8::1"));
+        assertTrue("Same address in full form should match", instance.contains("2001:0db8:0:0:0:0:0:0001"));
+        assertTrue("Same address in brackets should match", instance.contains("[2001:db8::1]"));
+        assertFalse("Address that was not add()ed should not match", instance.contains("2001:db8::2"));
+
+        assertTrue("Subnet should contain lower limit", instance.contains("2001:db8:1::"));
+        assertTrue("Subnet should contain upper limit", instance.contains("2001:db8:1:ffff:ffff:ffff:ffff:ffff"));
+        assertFalse("Subnet should not contain value above upper limit", instance.contains("2001:db8:2::"));
+
+        assertTrue("Range should contain value in between limits", instance.contains("fe80::1a%eth0"));
+        assertFalse("Range should not contain value below lower limit", instance.contains("fe80::f"));
+        assertFalse("Range should not contain value above upper limit", instance.contains("fe80::20"));
+
+        assertFalse("IPv4 address should not match IPv6 ranges", instance.contains("32.1.13.184"));
+    }
+
+    @Test
+    public void testIPv4MappedContains() throws Exception {
+        IPTable instance = new IPTable();
+        instance.add("192.168.1");
+        instance.add("::ffff:10.0.0.1");
+
+        assertTrue("IPv4-mapped address should match IPv4 range", instance.contains("::ffff:192.168.1.12"));
+        assertTrue("IPv4-mapped address should match IPv4 range", instance.contains("::ffff:c0a8:10c"));
+        assertTrue("IPv4 address should match IPv4-mapped address", instance.contains("10.0.0.1"));
+        assertFalse(instance.contains("::ffff:192.168.2.1"));
+    }
+
+    @Test
+    public void testContainsIgnoresWhiteSpace() throws Exception {
+        IPTable instance = new IPTable();
+        instance.add("192.168.1");
+
+        // as in the comma separated X-Forwarded-For header
+        for (String hop : "10.0.0.1, 192.168.1.5".split(",")) {
+            if (instance.contains(hop)) {
+                return;
+            }
+        }
+        fail("Second hop of X-Forwarded-For header should match");
+    }
+
+    @Test
+    public void testContainsRejectsBadFormats() {
+        IPTable instance = new IPTable();
+        for (String ip : new String[] {"", "1.2.3", "1.2.3.4.5", "1.2.3.256", "1..2.3", "1.2.3.4.", "::1::2",
+                                       "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "12345::", ":1::", "1::2:", "g::1",
+                                       "1:2:3:4:5:6:7:1.2.3.4", "localhost"}) {
+            try {
+                instance.contains(ip);
+                fail(ip + " should raise an exception");
+            } catch (IPFormatException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testParseIPv6() throws Exception {
+        long[] address = new long[2];
+        for (String ip : new String[] {"::", "::1", "1::", "1:2:3:4:5:6:7:8", "1::8", "1:2::7:8", "::2:3:4:5:6:7:8",
+                                       "1:2:3:4:5:6:7::", "::ffff:1.2.3.4", "64:ff9b::192.0.2.33",
+                                       "2001:db8:85a3::8a2e:370:7334", "FE80::ABCD"}) {
+            assertTrue(ip, IPTable.parseIPv6(ip, address));
+            byte[] bytes = InetAddress.getByName(ip).getAddress();
+            long high = 0;
+            long low = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes.length - i > 8) {
+                    high = (high << 8) | (bytes[i] & 0xff);
+                } else {
+                    low = (low << 8) | (bytes[i] & 0xff);
+                }
+            }
+            if (bytes.length == 4) {
+                // InetAddress turns IPv4-mapped addresses into IPv4 addresses
+                low |= 0xffff00000000L;
+            }
+            assertEquals(ip, high, address[0]);
+            assertEquals(ip, low, address[1]);
+        }
+    }
+
+    /**
+     * Compare the lookups in many random ranges with a linear search.
+     * @throws Exception passed through.
+     */
+    @Test
+    public void testContainsManyRanges() throws Exception {
+        Random random = new Random(42);
+        IPTable instance = new IPTable();
+        List<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(1 << 24) * 256L;
+            long end = start + random.nextInt(4096);
+            ranges.add(new long[] {start, end});
+            instance.add(IPTable.longToIp(start) + "-" + IPTable.longToIp(end));
+        }
+        for (int i = 0; i < 20000; i++) {
+            long ip = i % 2 == 0 ? random.nextInt(1 << 24) * 256L + random.nextInt(1024)
+                : random.nextLong() & 0xffffffffL;
+            boolean expected = ranges.stream().anyMatch(range -> ip >= range[0] && ip <= range[1]);
+            assertEquals(IPTable.longToIp(ip), expected, instance.contains(IPTable.longToIp(ip)));
+        }
+    }
+
     /**
      * Test of isEmpty method, of class IPTable.
      * @throws java.lang.Exception passed through.
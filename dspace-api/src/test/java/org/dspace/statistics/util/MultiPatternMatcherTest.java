@@ -0,0 +1,119 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.statistics.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MultiPatternMatcher}.
+ */
+public class MultiPatternMatcherTest {
+
+    /**
+     * A sample of the COUNTER robot patterns, with the constructs which make the literal extraction interesting.
+     */
+    private static final List<String> PATTERNS = List.of(
+        "bot", "^Buck\\/[0-9]", "spider", "crawl", "^.?$", "[^a]fish", "^IDA$", "^@ozilla\\/\\d",
+        "Alexandria(\\s|\\+)prototype(\\s|\\+)project", "API[\\+\\s]scraper", "aria2\\/\\d", "^Array$",
+        "axios\\/\\d", "bibnum\\.bnf", "curl", "domaincrawler\\/", "^Go-http-client", "Googlebot/2\\.1 \\(\\+http",
+        "heritrix", "^java\\/\\d{1,2}.\\d", "libwww", "Mozilla/4\\.0 \\(compatible; MSIE 6\\.0; Windows NT\\)$",
+        "msnbot", "^NING\\/", "python", "^Scrapy", "sogou", "^Wget", "zgrab", "ia_archiver", "ab+c", "colou?r",
+        "x{2}yz", "a*bcd|efg", "(?i)firefox", "lynx\\b", "[fF]etch(er)?", "perl[-\\s]", "\\Qa.b\\E");
+
+    @Test
+    public void testGetRequiredLiteral() {
+        assertEquals("bot", MultiPatternMatcher.getRequiredLiteral("bot"));
+        assertEquals("Buck/", MultiPatternMatcher.getRequiredLiteral("^Buck\\/[0-9]"));
+        assertEquals("fish", MultiPatternMatcher.getRequiredLiteral("[^a]fish"));
+        assertEquals("prototype", MultiPatternMatcher.getRequiredLiteral("Alex(\\s|\\+)prototype(\\s|\\+)"));
+        assertEquals("Googlebot/2.1 (+http", MultiPatternMatcher.getRequiredLiteral("Googlebot/2\\.1 \\(\\+http"));
+        assertEquals("java/", MultiPatternMatcher.getRequiredLiteral("^java\\/\\d{1,2}.\\d"));
+        // the repeated character is required, but not what follows it
+        assertEquals("ab", MultiPatternMatcher.getRequiredLiteral("ab+c"));
+        // the optional character is not
+        assertEquals("colo", MultiPatternMatcher.getRequiredLiteral("colou?r"));
+        assertEquals("yz", MultiPatternMatcher.getRequiredLiteral("x{2}yz"));
+        assertEquals("etch", MultiPatternMatcher.getRequiredLiteral("[fF]etch(er)?"));
+        assertEquals("lynx", MultiPatternMatcher.getRequiredLiteral("lynx\\b"));
+
+        assertNull(MultiPatternMatcher.getRequiredLiteral("^.?$"));
+        assertNull(MultiPatternMatcher.getRequiredLiteral("a*bcd|efg"));
+        assertNull(MultiPatternMatcher.getRequiredLiteral("(?i)firefox"));
+        assertNull(MultiPatternMatcher.getRequiredLiteral("\\Qa.b\\E"));
+        assertNull(MultiPatternMatcher.getRequiredLiteral(""));
+    }
+
+    @Test
+    public void testEscapesWithArguments() {
+        // each expression and a string it matches, which does not contain the characters of the escape
+        String[][] regexes = {{"\\x41bc", "Abc"}, {"\\x{41}bc", "Abc"}, {"\\u0041bc", "Abc"}, {"\\0101bc", "Abc"},
+            {"\\cMbc", "\rbc"}, {"(?<a>A)\\k<a>bc", "AAbc"}, {"\\N{LATIN CAPITAL LETTER A}bc", "Abc"},
+            {"\\p{Lu}bc", "Abc"}, {"\\P{Ll}bc", "Abc"}, {"(A)\\1bc", "AAbc"}};
+        for (String[] pair : regexes) {
+            String regex = pair[0];
+            String input = pair[1];
+            assertNull(regex, MultiPatternMatcher.getRequiredLiteral(regex));
+            assertTrue(regex, Pattern.compile(regex).matcher(input).find());
+            assertTrue(regex, new MultiPatternMatcher(List.of(regex)).find(input));
+            assertFalse(regex, new MultiPatternMatcher(List.of(regex)).find("bc"));
+        }
+    }
+
+    @Test
+    public void testFind() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(PATTERNS);
+        assertEquals(PATTERNS.size(), matcher.size());
+
+        assertTrue(matcher.find("msnbot is watching you"));
+        assertTrue(matcher.find("Mozilla/5.0 (compatible; Googlebot/2.1 (+http://www.google.com/bot.html)"));
+        assertTrue(matcher.find("Buck/2.2; (+https://app.hypefactors.com/media-monitoring/about.html)"));
+        assertTrue(matcher.find("Mozilla/5.0 (X11; Linux x86_64; rv:91.0) Gecko/20100101 Firefox/91.0"));
+        assertTrue(matcher.find("java/17.0.2"));
+        assertTrue(matcher.find("-"));
+        assertTrue(matcher.find("abbbc"));
+
+        assertFalse(matcher.find("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/120.0"));
+        assertFalse(matcher.find("my java/x client"));
+        assertFalse(matcher.find("afish"));
+        assertFalse(new MultiPatternMatcher(List.of()).find("bot"));
+    }
+
+    @Test
+    public void testFindMatchesEveryPatternSeparately() {
+        List<Pattern> patterns = PATTERNS.stream().map(Pattern::compile).toList();
+        MultiPatternMatcher matcher = new MultiPatternMatcher(PATTERNS);
+        String[] fragments = {
+            "bot", "Buck/", "spider", "craw", "fish", "afish", "IDA", "@ozilla/", "Alexandria", " ", "+",
+            "prototype", "project", "API", "scraper", "aria2/", "Array", "axios/", "1", "42", ".", "/", "(", ")",
+            "bibnum.bnf", "curl", "Go-http-client", "Googlebot/2.1 (+http", "java/", "libwww", "Mozilla/4.0 ",
+            "(compatible; MSIE 6.0; Windows NT)", "NING/", "python", "Scrapy", "Wget", "zgrab", "ia_archiver", "a",
+            "b", "c", "colo", "u", "r", "xx", "yz", "bcd", "efg", "FireFox", "lynx", "Fetch", "er", "perl-", "-",
+            "Mozilla/5.0 ", "Chrome/120.0"
+        };
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder agent = new StringBuilder();
+            int count = random.nextInt(5);
+            for (int j = 0; j < count; j++) {
+                agent.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String input = agent.toString();
+            boolean expected = patterns.stream().anyMatch(pattern -> pattern.matcher(input).find());
+            assertEquals("Matching '" + input + "'", expected, matcher.find(input));
+        }
+    }
+}
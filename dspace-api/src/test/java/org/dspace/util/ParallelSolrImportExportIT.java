@@ -0,0 +1,133 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.statistics.SolrStatisticsCore;
+import org.dspace.utils.DSpace;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Integration tests for {@link ParallelSolrImportExport}, which export and import the statistics core.
+ */
+public class ParallelSolrImportExportIT extends AbstractIntegrationTestWithDatabase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SolrClient solr;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        solr = new DSpace().getSingletonService(SolrStatisticsCore.class).getSolr();
+        for (int i = 0; i < 10; i++) {
+            addView("view-01-" + i, "2024-01-" + (10 + i) + "T12:00:00Z");
+            addView("view-02-" + i, "2024-02-" + (10 + i) + "T12:00:00Z");
+        }
+        for (int i = 0; i < 5; i++) {
+            addView("view-03-" + i, "2024-03-" + (10 + i) + "T12:00:00Z");
+        }
+        solr.commit();
+    }
+
+    @Test
+    public void testExportAndImport() throws Exception {
+        File exportDir = temporaryFolder.getRoot();
+        ParallelSolrImportExport importExport = new ParallelSolrImportExport(solr, 3, 4, 3);
+
+        assertEquals(25, importExport.exportIndex("statistics", exportDir, "time", null, false));
+        assertTrue(new File(exportDir, "statistics_export_manifest.json").exists());
+        // 4 + 4 + 2 documents in January and February, 4 + 1 in March
+        assertEquals(8, exportDir.list((dir, name) -> name.endsWith(".jsonl.gz")).length);
+        assertTrue(new File(exportDir, "statistics_export_2024-03_00001.jsonl.gz").exists());
+
+        solr.deleteByQuery("*:*");
+        solr.commit();
+        assertEquals(0, count("*:*"));
+
+        assertEquals(25, new ParallelSolrImportExport(solr, 2, 4, 3).importIndex("statistics", exportDir));
+        assertEquals(25, count("*:*"));
+        assertEquals(10, count("time:[2024-02-01T00:00:00Z TO 2024-03-01T00:00:00Z}"));
+
+        SolrDocument view = solr.query(new SolrQuery("uid:view-02-3")).getResults().get(0);
+        assertEquals(Instant.parse("2024-02-13T12:00:00Z"), ((Date) view.getFieldValue("time")).toInstant());
+        assertEquals(List.of("community-1", "community-2"), view.getFieldValues("owningComm"));
+        assertEquals(List.of("open \"access\", maybe"), view.getFieldValues("query"));
+        assertEquals(Boolean.FALSE, view.getFieldValue("isBot"));
+        assertEquals(2, view.getFieldValue("type"));
+    }
+
+    @Test
+    public void testExportWithFilter() throws Exception {
+        File exportDir = temporaryFolder.getRoot();
+        ParallelSolrImportExport importExport = new ParallelSolrImportExport(solr, 2, 100, 100);
+        assertEquals(5, importExport.exportIndex("statistics", exportDir, "time",
+                                                 "time:[2024-03-01T00:00:00Z TO *]", false));
+        assertEquals(1, exportDir.list((dir, name) -> name.endsWith(".jsonl.gz")).length);
+    }
+
+    @Test
+    public void testIncompleteExportIsNotImported() throws Exception {
+        File exportDir = temporaryFolder.getRoot();
+        ParallelSolrImportExport importExport = new ParallelSolrImportExport(solr, 2, 4, 3);
+        importExport.exportIndex("statistics", exportDir, "time", null, false);
+
+        try {
+            importExport.exportIndex("statistics", exportDir, "time", null, false);
+            fail("The export should not overwrite the previous one");
+        } catch (SolrImportExportException e) {
+            // expected
+        }
+
+        assertTrue(new File(exportDir, "statistics_export_manifest.json").delete());
+        try {
+            importExport.importIndex("statistics", exportDir);
+            fail("The export without a manifest should not be imported");
+        } catch (SolrImportExportException e) {
+            // expected
+        }
+    }
+
+    private long count(String query) throws Exception {
+        SolrQuery solrQuery = new SolrQuery(query);
+        solrQuery.setRows(0);
+        return solr.query(solrQuery).getResults().getNumFound();
+    }
+
+    private void addView(String uid, String time) throws Exception {
+        SolrInputDocument document = new SolrInputDocument();
+        document.addField("uid", uid);
+        document.addField("type", 2);
+        document.addField("id", uid);
+        document.addField("time", time);
+        document.addField("statistics_type", "view");
+        document.addField("isBot", false);
+        document.addField("owningComm", "community-1");
+        document.addField("owningComm", "community-2");
+        document.addField("query", "open \"access\", maybe");
+        solr.add(document);
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.dspace.AbstractIntegrationTestWithDatabase;
+import org.dspace.builder.BitstreamBuilder;
+import org.dspace.builder.CollectionBuilder;
+import org.dspace.builder.CommunityBuilder;
+import org.dspace.builder.EntityTypeBuilder;
+import org.dspace.builder.ItemBuilder;
+import org.dspace.builder.RelationshipBuilder;
+import org.dspace.builder.RelationshipTypeBuilder;
+import org.dspace.content.Collection;
+import org.dspace.content.Community;
+import org.dspace.content.EntityType;
+import org.dspace.content.Item;
+import org.dspace.content.RelationshipType;
+import org.dspace.core.Context;
+import org.dspace.services.factory.DSpaceServicesFactory;
+
+/**
+ * Content to benchmark the indexing with, created in the test database of {@link AbstractIntegrationTestWithDatabase}
+ * by the builders of the tests: publications with a given number of metadata values, related to persons whose names
+ * they get as virtual metadata, and with the extracted text of a file in their TEXT bundle.
+ * <p>
+ * {@link #open()} starts the kernel and the test database and {@link #close()} removes the content, as the JUnit
+ * lifecycle of the integration tests would. The content is generated from a fixed seed, so all
+ * the runs of a benchmark index the same content.
+ */
+public class DiscoveryBenchmarkFixture extends AbstractIntegrationTestWithDatabase {
+
+    private static final String[] WORDS = {
+        "repository", "metadata", "archive", "preservation", "research", "data", "analysis", "digital", "library",
+        "collection", "journal", "article", "climate", "protein", "network", "model", "survey", "history", "policy",
+        "learning", "evaluation", "system", "method", "results", "open", "access", "science", "university"
+    };
+
+    /**
+     * The fields of the generated metadata values of the publications, used in turn.
+     */
+    private static final String[][] FIELDS = {
+        {"dc", "subject", null}, {"dc", "contributor", "author"}, {"dc", "description", "abstract"},
+        {"dc", "relation", "ispartof"}, {"dc", "identifier", "other"}, {"dc", "publisher", null}
+    };
+
+    private final Random random = new Random(42);
+
+    private SolrSearchCore solrSearchCore;
+    private SolrClient solrClient;
+
+    /**
+     * Start the kernel, the test database and a context, see {@link AbstractIntegrationTestWithDatabase#setUp()}.
+     */
+    public void open() throws Exception {
+        initTestEnvironment();
+        initDatabase();
+        setUp();
+    }
+
+    /**
+     * @return the context of the fixture, in which the content was created
+     */
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * Create publications in a new collection.
+     *
+     * @param count          the number of publications
+     * @param metadataValues the number of metadata values of each publication, besides its title and date
+     * @param authors        the number of persons related to each publication as its authors
+     * @param fullTextLength the number of characters of the extracted text of each publication, 0 for none
+     * @return the publications
+     */
+    public List<Item> createPublications(int count, int metadataValues, int authors, int fullTextLength)
+        throws Exception {
+        context.turnOffAuthorisationSystem();
+        Community community = CommunityBuilder.createCommunity(context).withName("Benchmarks").build();
+        Collection publicationCollection = CollectionBuilder.createCollection(context, community)
+                                                            .withName("Publications")
+                                                            .withEntityType("Publication").build();
+        List<Item> persons = new ArrayList<>();
+        RelationshipType isAuthorOfPublication = null;
+        if (authors > 0) {
+            Collection personCollection = CollectionBuilder.createCollection(context, community)
+                                                           .withName("Persons")
+                                                           .withEntityType("Person").build();
+            EntityType publicationType = EntityTypeBuilder.createEntityTypeBuilder(context, "Publication").build();
+            EntityType personType = EntityTypeBuilder.createEntityTypeBuilder(context, "Person").build();
+            isAuthorOfPublication = RelationshipTypeBuilder
+                .createRelationshipTypeBuilder(context, publicationType, personType, "isAuthorOfPublication",
+                                               "isPublicationOfAuthor", null, null, null, null).build();
+            // a few prolific authors, as in most repositories
+            for (int i = 0; i < Math.max(authors, count / 10); i++) {
+                persons.add(ItemBuilder.createItem(context, personCollection)
+                                       .withPersonIdentifierLastName(words(1))
+                                       .withPersonIdentifierFirstName(words(1)).build());
+            }
+        }
+
+        List<Item> publications = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ItemBuilder builder = ItemBuilder.createItem(context, publicationCollection)
+                                             .withTitle(words(8))
+                                             .withIssueDate(String.valueOf(1990 + random.nextInt(35)));
+            for (int j = 0; j < metadataValues; j++) {
+                String[] field = FIELDS[j % FIELDS.length];
+                builder.withMetadata(field[0], field[1], field[2], words(field[1].equals("description") ? 60 : 3));
+            }
+            Item publication = builder.build();
+            for (int j = 0; j < authors; j++) {
+                RelationshipBuilder.createRelationshipBuilder(context, publication,
+                                                              persons.get((i + j) % persons.size()),
+                                                              isAuthorOfPublication).build();
+            }
+            if (fullTextLength > 0) {
+                BitstreamBuilder.createBitstream(context, publication,
+                                                 new ByteArrayInputStream(createText(fullTextLength)
+                                                                              .getBytes(StandardCharsets.UTF_8)),
+                                                 "TEXT")
+                                .withName("publication.pdf.txt")
+                                .withMimeType("text/plain").build();
+            }
+            publications.add(publication);
+        }
+        context.commit();
+        context.restoreAuthSystemState();
+        return publications;
+    }
+
+    /**
+     * @param length the number of characters
+     * @return plain text of the given length, in paragraphs
+     */
+    public String createText(int length) {
+        StringBuilder text = new StringBuilder(length + 100);
+        while (text.length() < length) {
+            text.append(words(80)).append(".\n\n");
+        }
+        return text.substring(0, length);
+    }
+
+    /**
+     * @param length the number of characters of the text of the document
+     * @return an HTML document, as an example of a file to extract the text of with Tika
+     */
+    public String createHtmlDocument(int length) {
+        StringBuilder html = new StringBuilder("<html><head><title>").append(words(8))
+                                                                       .append("</title></head><body>");
+        for (String paragraph : createText(length).split("\n\n")) {
+            html.append("<p>").append(paragraph).append("</p>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    /**
+     * Send all the documents written to the search core from now on to a {@link StubSolrClient}, once the pending
+     * documents are sent to the mock Solr server of the tests.
+     *
+     * @return the stub client
+     */
+    public StubSolrClient useStubSolrClient() {
+        solrSearchCore = DSpaceServicesFactory.getInstance().getServiceManager()
+                                              .getServiceByName(null, SolrSearchCore.class);
+        solrSearchCore.getDocumentBuffer().flush();
+        solrClient = solrSearchCore.solr;
+        StubSolrClient stubSolrClient = new StubSolrClient();
+        solrSearchCore.solr = stubSolrClient;
+        return stubSolrClient;
+    }
+
+    /**
+     * Remove the content, see {@link AbstractIntegrationTestWithDatabase#destroy()}.
+     */
+    public void close() throws Exception {
+        if (solrSearchCore != null) {
+            solrSearchCore.getDocumentBuffer().flush();
+            solrSearchCore.solr = solrClient;
+        }
+        context.setMode(Context.Mode.READ_WRITE);
+        destroy();
+        destroyTestEnvironment();
+    }
+
+    private String words(int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            words.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return words.toString();
+    }
+}
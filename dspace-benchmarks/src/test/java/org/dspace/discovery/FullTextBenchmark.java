@@ -0,0 +1,110 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.app.mediafilter.TikaTextExtractionFilter;
+import org.dspace.content.Item;
+import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the full text path of the indexing: the writing of the documents of items with an extracted text in
+ * their TEXT bundle, which is read from the assetstore and parsed by Tika (the full text cache is disabled in the
+ * test environment), and the extraction of the text of a file by the {@link TikaTextExtractionFilter} media filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class FullTextBenchmark {
+
+    private static final int ITEMS = 50;
+
+    /**
+     * The number of characters of the text of each item.
+     */
+    @Param({"10000", "100000"})
+    public int fullTextLength;
+
+    private DiscoveryBenchmarkFixture fixture;
+    private ItemIndexFactory itemIndexFactory;
+    private List<Item> items;
+    private int next = 0;
+    private IndexableItem item;
+    private SolrInputDocument document;
+    private byte[] htmlDocument;
+    private final TikaTextExtractionFilter textExtractionFilter = new TikaTextExtractionFilter();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new DiscoveryBenchmarkFixture();
+        fixture.open();
+        items = fixture.createPublications(ITEMS, 20, 0, fullTextLength);
+        htmlDocument = fixture.createHtmlDocument(fullTextLength).getBytes(StandardCharsets.UTF_8);
+        fixture.useStubSolrClient();
+        fixture.getContext().setMode(Context.Mode.READ_ONLY);
+        itemIndexFactory = (ItemIndexFactory) IndexObjectFactoryFactory.getInstance()
+                                                                       .getIndexFactoryByType(IndexableItem.TYPE);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextItem() throws Exception {
+        Context context = fixture.getContext();
+        item = new IndexableItem(context.reloadEntity(items.get(next++ % items.size())));
+        document = itemIndexFactory.buildDocument(context, item);
+    }
+
+    /**
+     * Write the document of an item, including the parsing of its full text.
+     */
+    @Benchmark
+    public void writeDocument() throws Exception {
+        itemIndexFactory.writeDocument(fixture.getContext(), item, document);
+    }
+
+    /**
+     * Extract the text of an HTML file, as "filter-media" does for the files of the items.
+     */
+    @Benchmark
+    public int extractText() throws Exception {
+        try (InputStream text = textExtractionFilter.getDestinationStream(item.getIndexedObject(),
+                                                                          new ByteArrayInputStream(htmlDocument),
+                                                                          false)) {
+            return text.readAllBytes().length;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.dspace.content.Item;
+import org.dspace.content.factory.ContentServiceFactory;
+import org.dspace.content.service.ItemService;
+import org.dspace.core.Context;
+import org.dspace.discovery.indexobject.IndexableItem;
+import org.dspace.discovery.indexobject.factory.IndexObjectFactoryFactory;
+import org.dspace.discovery.indexobject.factory.ItemIndexFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the building of the search documents of items, see
+ * {@link org.dspace.discovery.indexobject.ItemIndexFactoryImpl#buildDocument}, and of their writing to the document
+ * buffer of the search core, which sends them to a {@link StubSolrClient}. The items have no full text, see
+ * {@link FullTextBenchmark} for it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ItemDocumentBenchmark {
+
+    private static final int ITEMS = 200;
+
+    /**
+     * The number of metadata values of each item.
+     */
+    @Param({"20", "100"})
+    public int metadataValues;
+
+    /**
+     * The number of persons related to each item, whose names are added as virtual metadata.
+     */
+    @Param({"0", "5"})
+    public int authors;
+
+    /**
+     * Whether the items are read again from the database for each document, as in a reindex, rather than built
+     * from the entities cached by the context.
+     */
+    @Param({"false", "true"})
+    public boolean uncached;
+
+    private DiscoveryBenchmarkFixture fixture;
+    private ItemService itemService;
+    private ItemIndexFactory itemIndexFactory;
+    private List<UUID> itemIds;
+    private int next = 0;
+    private IndexableItem item;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new DiscoveryBenchmarkFixture();
+        fixture.open();
+        itemIds = fixture.createPublications(ITEMS, metadataValues, authors, 0).stream()
+                         .map(Item::getID).collect(Collectors.toList());
+        fixture.useStubSolrClient();
+        fixture.getContext().setMode(Context.Mode.READ_ONLY);
+        itemService = ContentServiceFactory.getInstance().getItemService();
+        itemIndexFactory = (ItemIndexFactory) IndexObjectFactoryFactory.getInstance()
+                                                                       .getIndexFactoryByType(IndexableItem.TYPE);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextItem() throws Exception {
+        Context context = fixture.getContext();
+        if (uncached) {
+            context.uncacheEntities();
+        }
+        item = new IndexableItem(itemService.find(context, itemIds.get(next++ % itemIds.size())));
+    }
+
+    @Benchmark
+    public SolrInputDocument buildDocument() throws Exception {
+        return itemIndexFactory.buildDocument(fixture.getContext(), item);
+    }
+
+    @Benchmark
+    public void buildAndWriteDocument() throws Exception {
+        Context context = fixture.getContext();
+        itemIndexFactory.writeDocument(context, item, itemIndexFactory.buildDocument(context, item));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.discovery;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * A {@link SolrClient} which accepts all requests without sending them anywhere, to measure the building and the
+ * buffering of the documents without the cost of Solr itself.
+ */
+public class StubSolrClient extends SolrClient {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LongAdder requests = new LongAdder();
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public NamedList<Object> request(SolrRequest request, String collection) {
+        requests.increment();
+        NamedList<Object> header = new NamedList<>();
+        header.add("status", 0);
+        header.add("QTime", 0);
+        NamedList<Object> response = new NamedList<>();
+        response.add("responseHeader", header);
+        return response;
+    }
+
+    /**
+     * @return the number of requests received, e.g. the batches of documents sent by the document buffer
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
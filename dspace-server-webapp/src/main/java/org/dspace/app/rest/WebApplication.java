@@ -25,9 +25,11 @@ import org.dspace.app.rest.utils.DSpaceAPIRequestLoggingFilter;
 import org.dspace.app.sitemap.GenerateSitemaps;
 import org.dspace.app.solrdatabaseresync.SolrDatabaseResyncCli;
 import org.dspace.app.util.DSpaceContextListener;
+import org.dspace.discovery.IndexOutboxProcessor;
 import org.dspace.google.GoogleAsyncEventListener;
 import org.dspace.utils.servlet.DSpaceWebappServletFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -93,6 +95,17 @@ public class WebApplication {
         googleAsyncEventListener.sendCollectedEvents();
     }
 
+    /**
+     * Start the background processing of the Discovery indexing outbox, when asynchronous indexing is enabled.
+     *
+     * @return IndexOutboxProcessor
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "discovery.index.async.enabled", havingValue = "true")
+    protected IndexOutboxProcessor indexOutboxProcessor() {
+        return new IndexOutboxProcessor();
+    }
+
     /**
      * Register the "DSpaceContextListener" so that it is loaded
      * for this Application.
@@ -13,9 +13,15 @@ import java.util.Arrays;
 
 import org.apache.solr.client.solrj.SolrServerException;
 import org.dspace.app.rest.DiscoverableEndpointsService;
+import org.dspace.app.rest.health.DiscoveryIndexOutboxHealthIndicator;
+import org.dspace.app.rest.health.DiscoveryIndexingHealthIndicator;
+import org.dspace.app.rest.health.DiscoverySearchCacheHealthIndicator;
 import org.dspace.app.rest.health.GeoIpHealthIndicator;
 import org.dspace.app.rest.health.SolrHealthIndicator;
 import org.dspace.authority.AuthoritySolrServiceImpl;
+import org.dspace.discovery.IndexOutboxProcessor;
+import org.dspace.discovery.IndexingMetrics;
+import org.dspace.discovery.SearchResultCache;
 import org.dspace.discovery.SolrSearchCore;
 import org.dspace.statistics.SolrStatisticsCore;
 import org.dspace.xoai.services.api.solr.SolrServerResolver;
@@ -82,6 +88,28 @@ public class ActuatorConfiguration {
         return new SolrHealthIndicator(solrServerResolver.getServer());
     }
 
+    @Bean
+    @ConditionalOnEnabledHealthIndicator("discoveryIndexOutbox")
+    @ConditionalOnProperty(name = "discovery.index.async.enabled", havingValue = "true")
+    public DiscoveryIndexOutboxHealthIndicator discoveryIndexOutboxHealthIndicator(
+        IndexOutboxProcessor indexOutboxProcessor, @Value("${discovery.index.async.maxLag:300}") long maxLagSeconds) {
+        return new DiscoveryIndexOutboxHealthIndicator(indexOutboxProcessor, maxLagSeconds);
+    }
+
+    @Bean
+    @ConditionalOnEnabledHealthIndicator("discoverySearchCache")
+    @ConditionalOnProperty(name = "discovery.search.cache.enabled", havingValue = "true")
+    public DiscoverySearchCacheHealthIndicator discoverySearchCacheHealthIndicator(
+        SearchResultCache searchResultCache) {
+        return new DiscoverySearchCacheHealthIndicator(searchResultCache);
+    }
+
+    @Bean
+    @ConditionalOnEnabledHealthIndicator("discoveryIndexing")
+    public DiscoveryIndexingHealthIndicator discoveryIndexingHealthIndicator(IndexingMetrics indexingMetrics) {
+        return new DiscoveryIndexingHealthIndicator(indexingMetrics);
+    }
+
     @Bean
     @ConditionalOnEnabledHealthIndicator("geoIp")
     public GeoIpHealthIndicator geoIpHealthIndicator() {
@@ -0,0 +1,53 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.rest.health;
+
+import static org.dspace.app.rest.configuration.ActuatorConfiguration.UP_WITH_ISSUES_STATUS;
+
+import org.dspace.discovery.IndexOutboxProcessor;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Implementation of {@link HealthIndicator} that reports the depth and lag of the asynchronous Discovery indexing
+ * outbox, along with the counters of its processor. The status is UP_WITH_ISSUES when the oldest queued record is
+ * older than the configured maximum lag or when the processor is not running.
+ */
+public class DiscoveryIndexOutboxHealthIndicator extends AbstractHealthIndicator {
+
+    private final IndexOutboxProcessor indexOutboxProcessor;
+
+    private final long maxLagSeconds;
+
+    public DiscoveryIndexOutboxHealthIndicator(IndexOutboxProcessor indexOutboxProcessor, long maxLagSeconds) {
+        super("Discovery index outbox health check failed");
+        this.indexOutboxProcessor = indexOutboxProcessor;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Override
+    protected void doHealthCheck(Builder builder) throws Exception {
+        long lagSeconds = indexOutboxProcessor.getLagMillis() / 1000;
+        if (!indexOutboxProcessor.isRunning()) {
+            builder.status(UP_WITH_ISSUES_STATUS).withDetail("reason", "The outbox processor is not running");
+        } else if (lagSeconds > maxLagSeconds) {
+            builder.status(UP_WITH_ISSUES_STATUS)
+                   .withDetail("reason", "The oldest queued record is older than " + maxLagSeconds + " seconds");
+        } else {
+            builder.up();
+        }
+        builder.withDetail("queueDepth", indexOutboxProcessor.getQueueDepth())
+               .withDetail("lagSeconds", lagSeconds)
+               .withDetail("processed", indexOutboxProcessor.getProcessedCount())
+               .withDetail("merged", indexOutboxProcessor.getMergedCount())
+               .withDetail("failed", indexOutboxProcessor.getFailedCount())
+               .withDetail("lastBatchMillis", indexOutboxProcessor.getLastBatchMillis());
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.rest.health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.dspace.discovery.IndexingMetrics;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Implementation of {@link HealthIndicator} that reports the time spent indexing the objects changed through this
+ * webapp, per phase, plugin and object type, and the size of their documents. Indexing itself is always UP, the
+ * details are meant for finding what dominates the indexing time.
+ */
+public class DiscoveryIndexingHealthIndicator extends AbstractHealthIndicator {
+
+    private final IndexingMetrics indexingMetrics;
+
+    public DiscoveryIndexingHealthIndicator(IndexingMetrics indexingMetrics) {
+        super("Discovery indexing health check failed");
+        this.indexingMetrics = indexingMetrics;
+    }
+
+    @Override
+    protected void doHealthCheck(Builder builder) throws Exception {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Map.Entry<IndexingMetrics.Phase, IndexingMetrics.Metric> entry
+            : indexingMetrics.getPhases().entrySet()) {
+            phases.put(entry.getKey().name().toLowerCase(), timings(entry.getValue()));
+        }
+        builder.up()
+               .withDetail("phases", phases)
+               .withDetail("factories", timings(indexingMetrics.getFactories()))
+               .withDetail("plugins", timings(indexingMetrics.getPlugins()))
+               .withDetail("documentSizes", sizes(indexingMetrics.getDocumentSizes()));
+    }
+
+    private Map<String, Object> timings(Map<String, IndexingMetrics.Metric> metrics) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (Map.Entry<String, IndexingMetrics.Metric> entry : metrics.entrySet()) {
+            details.put(entry.getKey(), timings(entry.getValue()));
+        }
+        return details;
+    }
+
+    private Map<String, Object> timings(IndexingMetrics.Metric metric) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("count", metric.getCount());
+        details.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(metric.getTotal()));
+        details.put("maxMillis", metric.getMax() / 1e6);
+        return details;
+    }
+
+    private Map<String, Object> sizes(Map<String, IndexingMetrics.Metric> metrics) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (Map.Entry<String, IndexingMetrics.Metric> entry : metrics.entrySet()) {
+            Map<String, Object> size = new LinkedHashMap<>();
+            size.put("count", entry.getValue().getCount());
+            size.put("totalBytes", entry.getValue().getTotal());
+            size.put("maxBytes", entry.getValue().getMax());
+            details.put(entry.getKey(), size);
+        }
+        return details;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * The contents of this file are subject to the license and copyright
+ * detailed in the LICENSE and NOTICE files at the root of the source
+ * tree and available online at
+ *
+ * http://www.dspace.org/license/
+ */
+package org.dspace.app.rest.health;
+
+import org.dspace.discovery.SearchResultCache;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Implementation of {@link HealthIndicator} that reports the hits, misses and size of the Discovery search result
+ * cache. The cache itself is always UP, the details are meant for monitoring its efficiency.
+ */
+public class DiscoverySearchCacheHealthIndicator extends AbstractHealthIndicator {
+
+    private final SearchResultCache searchResultCache;
+
+    public DiscoverySearchCacheHealthIndicator(SearchResultCache searchResultCache) {
+        super("Discovery search cache health check failed");
+        this.searchResultCache = searchResultCache;
+    }
+
+    @Override
+    protected void doHealthCheck(Builder builder) throws Exception {
+        long hits = searchResultCache.getHitCount();
+        long misses = searchResultCache.getMissCount();
+        builder.up()
+               .withDetail("hits", hits)
+               .withDetail("misses", misses)
+               .withDetail("hitRatio", hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+               .withDetail("evictions", searchResultCache.getEvictionCount())
+               .withDetail("invalidations", searchResultCache.getInvalidationCount())
+               .withDetail("entries", searchResultCache.getEntryCount())
+               .withDetail("sizeBytes", searchResultCache.getSize());
+    }
+
+}
@@ -10,8 +10,13 @@ package org.dspace.app.rest.utils;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.text.ParseException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -24,6 +29,7 @@ import org.dspace.content.Bitstream;
 import org.dspace.content.DSpaceObject;
 import org.dspace.content.Item;
 import org.dspace.content.Site;
+import org.dspace.content.service.BitstreamService;
 import org.dspace.core.Constants;
 import org.dspace.core.Context;
 import org.dspace.handle.service.HandleService;
@@ -34,12 +40,19 @@ import org.dspace.statistics.content.DatasetTypeGenerator;
 import org.dspace.statistics.content.StatisticsDataVisits;
 import org.dspace.statistics.content.StatisticsListing;
 import org.dspace.statistics.content.StatisticsTable;
+import org.dspace.statistics.service.UsageRollupService;
+import org.dspace.statistics.util.LocationUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
 import org.springframework.stereotype.Component;
 
 /**
  * This is the Service dealing with the {@link UsageReportRest} logic
+ * <p>
+ * When the daily usage rollups are enabled and computed, see {@link UsageRollupService}, the TotalVisits,
+ * TotalVisitsPerMonth, TotalDownloads and TopCountries reports of an object are answered from them instead of the
+ * statistics core. The rollups have no cities, and no top items of the whole site, so these reports always query the
+ * statistics core.
  *
  * @author Maria Verdonck (Atmire) on 08/06/2020
  */
@@ -49,12 +62,23 @@ public class UsageReportUtils {
     @Autowired
     private HandleService handleService;
 
+    @Autowired
+    private BitstreamService bitstreamService;
+
+    @Autowired
+    private UsageRollupService usageRollupService;
+
     public static final String TOTAL_VISITS_REPORT_ID = "TotalVisits";
     public static final String TOTAL_VISITS_PER_MONTH_REPORT_ID = "TotalVisitsPerMonth";
     public static final String TOTAL_DOWNLOADS_REPORT_ID = "TotalDownloads";
     public static final String TOP_COUNTRIES_REPORT_ID = "TopCountries";
     public static final String TOP_CITIES_REPORT_ID = "TopCities";
 
+    /**
+     * The label of the months in the TotalVisitsPerMonth report, as in the statistics core report.
+     */
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MMMM yyyy");
+
     /**
      * Get list of usage reports that are applicable to the DSO (of given UUID)
      *
@@ -176,12 +200,18 @@ public class UsageReportUtils {
      */
     private UsageReportRest resolveTotalVisits(Context context, DSpaceObject dso)
         throws SQLException, IOException, ParseException, SolrServerException {
-        Dataset dataset = this.getDSOStatsDataset(context, dso, 1, dso.getType());
-
         UsageReportRest usageReportRest = new UsageReportRest();
         UsageReportPointDsoTotalVisitsRest totalVisitPoint = new UsageReportPointDsoTotalVisitsRest();
         totalVisitPoint.setType(StringUtils.substringAfterLast(dso.getClass().getName().toLowerCase(), "."));
         totalVisitPoint.setId(dso.getID().toString());
+        if (usageRollupService.isAvailable(context)) {
+            totalVisitPoint.setLabel(dso.getName());
+            totalVisitPoint.addValue("views", Math.toIntExact(usageRollupService.countViews(context, dso)));
+            usageReportRest.addPoint(totalVisitPoint);
+            return usageReportRest;
+        }
+
+        Dataset dataset = this.getDSOStatsDataset(context, dso, 1, dso.getType());
         if (dataset.getColLabels().size() > 0) {
             totalVisitPoint.setLabel(dso.getName());
             totalVisitPoint.addValue("views", Integer.valueOf(dataset.getMatrix()[0][0]));
@@ -205,6 +235,21 @@ public class UsageReportUtils {
      */
     private UsageReportRest resolveTotalVisitsPerMonth(Context context, DSpaceObject dso)
         throws SQLException, IOException, ParseException, SolrServerException {
+        if (usageRollupService.isAvailable(context)) {
+            // the same months as the date facet: NOW/MONTH-6MONTHS to NOW/MONTH+1MONTH, in UTC
+            YearMonth thisMonth = YearMonth.now(ZoneOffset.UTC);
+            Map<YearMonth, Long> months = usageRollupService.countViewsPerMonth(context, dso,
+                                                                                thisMonth.minusMonths(6), thisMonth);
+            UsageReportRest usageReportRest = new UsageReportRest();
+            for (Map.Entry<YearMonth, Long> month : months.entrySet()) {
+                UsageReportPointDateRest monthPoint = new UsageReportPointDateRest();
+                monthPoint.setId(MONTH_FORMATTER.format(month.getKey()));
+                monthPoint.addValue("views", Math.toIntExact(month.getValue()));
+                usageReportRest.addPoint(monthPoint);
+            }
+            return usageReportRest;
+        }
+
         StatisticsTable statisticsTable = new StatisticsTable(new StatisticsDataVisits(dso));
         DatasetTimeGenerator timeAxis = new DatasetTimeGenerator();
         // TODO month start and end as request para?
@@ -244,6 +289,20 @@ public class UsageReportUtils {
             return this.resolveTotalVisits(context, dso);
         }
 
+        if (dso instanceof org.dspace.content.Item && usageRollupService.isAvailable(context)) {
+            UsageReportRest usageReportRest = new UsageReportRest();
+            for (Map.Entry<String, Long> bitstreamViews
+                : usageRollupService.countBitstreamViews(context, (Item) dso, 10)) {
+                UsageReportPointDsoTotalVisitsRest totalDownloadsPoint = new UsageReportPointDsoTotalVisitsRest();
+                totalDownloadsPoint.setType("bitstream");
+                totalDownloadsPoint.setId(bitstreamViews.getKey());
+                totalDownloadsPoint.setLabel(getBitstreamName(context, bitstreamViews.getKey()));
+                totalDownloadsPoint.addValue("views", Math.toIntExact(bitstreamViews.getValue()));
+                usageReportRest.addPoint(totalDownloadsPoint);
+            }
+            return usageReportRest;
+        }
+
         if (dso instanceof org.dspace.content.Item) {
             Dataset dataset = this.getDSOStatsDataset(context, dso, 1, Constants.BITSTREAM);
 
@@ -275,6 +334,18 @@ public class UsageReportUtils {
      */
     private UsageReportRest resolveTopCountries(Context context, DSpaceObject dso)
         throws SQLException, IOException, ParseException, SolrServerException {
+        if (usageRollupService.isAvailable(context)) {
+            UsageReportRest usageReportRest = new UsageReportRest();
+            for (Map.Entry<String, Long> countryViews : usageRollupService.countViewsPerCountry(context, dso, 100)) {
+                UsageReportPointCountryRest countryPoint = new UsageReportPointCountryRest();
+                countryPoint.setLabel(LocationUtils.getCountryName(countryViews.getKey(),
+                                                                   context.getCurrentLocale()));
+                countryPoint.addValue("views", Math.toIntExact(countryViews.getValue()));
+                usageReportRest.addPoint(countryPoint);
+            }
+            return usageReportRest;
+        }
+
         Dataset dataset = this.getTypeStatsDataset(context, dso, "countryCode", 1);
 
         UsageReportRest usageReportRest = new UsageReportRest();
@@ -352,4 +423,27 @@ public class UsageReportUtils {
         statListing.addDatasetGenerator(typeAxis);
         return statListing.getDataset(context, facetMinCount);
     }
+
+    /**
+     * Get the label of a bitstream in the TotalDownloads report, as the statistics core report labels it.
+     *
+     * @param context DSpace context
+     * @param id      UUID (or legacy id) of the bitstream in the statistics core
+     * @return the name of the bitstream, or its id if it no longer exists
+     */
+    private String getBitstreamName(Context context, String id) throws SQLException {
+        boolean legacy = StringUtils.isNumeric(id);
+        if (!legacy) {
+            try {
+                UUID.fromString(id);
+            } catch (IllegalArgumentException e) {
+                return id;
+            }
+        }
+        Bitstream bitstream = bitstreamService.findByIdOrLegacyId(context, id);
+        if (bitstream == null) {
+            return id;
+        }
+        return bitstream.getName() + (legacy ? "(legacy)" : "");
+    }
 }